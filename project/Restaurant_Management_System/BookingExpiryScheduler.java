@@ -0,0 +1,128 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Releases unpaid bookings whose party does not show up. Every PENDING booking has a timeout on a
+ * hierarchical TimerWheel at its start time plus GRACE_MINUTES; when it fires and the booking is
+ * still unpaid, DatabaseManager.expireUnpaidBooking marks it EXPIRED, which frees its slots for
+ * availability checks and the walk-in waitlist. Paying for, moving or deleting a booking
+ * reschedules or cancels its timeout in O(1), so thousands of pending bookings cost nothing
+ * between expiries.
+ *
+ * Started once the database is ready; bookings saved through DatabaseManager afterwards are
+ * registered as they are saved. The grace period is the system property
+ * restaurant.booking.noShowGraceMinutes (default 15).
+ */
+public class BookingExpiryScheduler {
+
+    public static final int GRACE_MINUTES = Integer.getInteger("restaurant.booking.noShowGraceMinutes", 15);
+    private static final long TICK_MILLIS = 1000;
+    private static final int BUCKETS_PER_LEVEL = 64;
+
+    private static volatile BookingExpiryScheduler instance;
+
+    private final TimerWheel wheel = new TimerWheel("booking-expiry", TICK_MILLIS, BUCKETS_PER_LEVEL);
+    private final Map<Integer, TimerWheel.Timeout> timeouts = new ConcurrentHashMap<>(); // Booking ID -> no-show timeout
+    private final AtomicInteger expiredCount = new AtomicInteger();
+
+    /**
+     * Returns the scheduler, starting it on first use: every unpaid booking that has not ended yet
+     * gets its timeout, and those already past their grace period expire at the next tick.
+     * @return The process-wide scheduler.
+     */
+    public static BookingExpiryScheduler getInstance() {
+        BookingExpiryScheduler scheduler = instance;
+        if (scheduler == null) {
+            synchronized (BookingExpiryScheduler.class) {
+                scheduler = instance;
+                if (scheduler == null) {
+                    scheduler = new BookingExpiryScheduler();
+                    instance = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * @return The scheduler if it has been started, otherwise null.
+     */
+    static BookingExpiryScheduler getIfStarted() {
+        return instance;
+    }
+
+    private BookingExpiryScheduler() {
+        for (Map.Entry<Integer, LocalDateTime> booking : DatabaseManager.getUnpaidBookingsAfter(
+                LocalDateTime.now().minusMinutes(DatabaseManager.MAX_BOOKING_DURATION_MINUTES)).entrySet()) {
+            register(booking.getKey(), booking.getValue());
+        }
+    }
+
+    /**
+     * @return The number of unpaid bookings waiting for their party.
+     */
+    public int getPendingCount() {
+        return timeouts.size();
+    }
+
+    /**
+     * @return The number of bookings expired since the application started.
+     */
+    public int getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    // --- Booking changes, called by DatabaseManager ---
+
+    /**
+     * Called after a booking was added or changed: unpaid bookings get a (new) timeout, any other
+     * status cancels it.
+     */
+    void onBookingSaved(TableBooking booking) {
+        if (booking.getBookingId() <= 0) {
+            return;
+        }
+        if (booking.getPaymentStatus() == PaymentStatus.PENDING) {
+            register(booking.getBookingId(), booking.getBookingTime());
+        } else {
+            cancel(booking.getBookingId());
+        }
+    }
+
+    /**
+     * Called after a booking was deleted.
+     */
+    void onBookingDeleted(int bookingId) {
+        cancel(bookingId);
+    }
+
+    private void register(int bookingId, LocalDateTime bookingTime) {
+        TimerWheel.Timeout timeout = wheel.schedule(bookingTime.plusMinutes(GRACE_MINUTES), () -> expire(bookingId));
+        TimerWheel.Timeout previous = timeouts.put(bookingId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void cancel(int bookingId) {
+        TimerWheel.Timeout timeout = timeouts.remove(bookingId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Runs on the wheel thread when a grace period ends.
+     */
+    private void expire(int bookingId) {
+        timeouts.remove(bookingId);
+        // Conditional update: a payment or a move to a later time recorded in the meantime wins
+        if (DatabaseManager.expireUnpaidBooking(bookingId)) {
+            expiredCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of one occurrence of a recurring booking, as returned by
+ * DatabaseManager.addRecurringTableBookings.
+ */
+public class BookingOccurrenceResult {
+
+    /**
+     * What happened to the occurrence.
+     */
+    public enum Outcome {
+        BOOKED("Booked"),       // Saved; getBooking() holds the new booking
+        CONFLICT("Conflict"),   // The table is already booked at that time
+        PAST("In the past"),    // The occurrence starts before now
+        FAILED("Failed");       // Could not be saved (database error)
+
+        private final String displayValue;
+
+        Outcome(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+
+        @Override
+        public String toString() {
+            return displayValue;
+        }
+    }
+
+    private final LocalDateTime bookingTime;
+    private final Outcome outcome;
+    private final TableBooking booking;           // Set if BOOKED
+    private final LocalDateTime conflictingStart; // Set if CONFLICT: start of the booking in the way
+
+    /**
+     * Constructor for BookingOccurrenceResult.
+     * @param bookingTime The start time of the occurrence.
+     * @param outcome What happened to it.
+     * @param booking The saved booking, or null if it was not booked.
+     * @param conflictingStart The start of the existing booking it conflicts with, or null.
+     */
+    public BookingOccurrenceResult(LocalDateTime bookingTime, Outcome outcome, TableBooking booking, LocalDateTime conflictingStart) {
+        this.bookingTime = bookingTime;
+        this.outcome = outcome;
+        this.booking = booking;
+        this.conflictingStart = conflictingStart;
+    }
+
+    // --- Getters ---
+    public LocalDateTime getBookingTime() {
+        return bookingTime;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isBooked() {
+        return outcome == Outcome.BOOKED;
+    }
+
+    public TableBooking getBooking() {
+        return booking;
+    }
+
+    public LocalDateTime getConflictingStart() {
+        return conflictingStart;
+    }
+
+    @Override
+    public String toString() {
+        return bookingTime + ": " + outcome +
+               (conflictingStart != null ? " (booked from " + conflictingStart + ")" : "");
+    }
+}
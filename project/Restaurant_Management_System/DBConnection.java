@@ -7,16 +7,23 @@ import java.sql.SQLException;
 /**
  * Handles the database connection for the application.
  * Provides a static method to get a connection to the MySQL database.
+ * The connection settings can be overridden through system properties.
  */
 public class DBConnection {
     // JDBC URL for MySQL database.
     // 'project' is the database name.
     // 'useSSL=false' disables SSL encryption (for local development).
     // 'allowPublicKeyRetrieval=true' is needed for recent MySQL versions if using a simple password.
-    private static final String URL = "jdbc:mysql://localhost:3306/project?useSSL=false&allowPublicKeyRetrieval=true";
-    private static final String USER = "root";
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/project?useSSL=false&allowPublicKeyRetrieval=true";
+    private static final String DEFAULT_USER = "root";
     // IMPORTANT: Replace "DineshK@2624" with your actual MySQL root password.
-    private static final String PASSWORD = "DineshK@2624"; // Use your actual MySQL root password here
+    private static final String DEFAULT_PASSWORD = "DineshK@2624"; // Use your actual MySQL root password here
+
+    // The defaults above can be overridden with -Drestaurant.db.url / .user / .password,
+    // e.g. to point headless tools such as DinnerRushSimulator at an embedded database.
+    private static final String URL = System.getProperty("restaurant.db.url", DEFAULT_URL);
+    private static final String USER = System.getProperty("restaurant.db.user", DEFAULT_USER);
+    private static final String PASSWORD = System.getProperty("restaurant.db.password", DEFAULT_PASSWORD);
 
     /**
      * Establishes and returns a database connection.
@@ -40,4 +47,11 @@ public class DBConnection {
         }
         return connection;
     }
+
+    /**
+     * @return The JDBC URL connections are made to, e.g. to tell which database a local cache belongs to.
+     */
+    static String getUrl() {
+        return URL;
+    }
 }
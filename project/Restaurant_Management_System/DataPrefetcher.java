@@ -0,0 +1,94 @@
+package application;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Loads independent datasets in parallel on background threads so that tabs can pick them up
+ * when they are first shown, instead of the UI thread loading everything one after another.
+ * Each prefetched dataset is handed out once; later refreshes go straight to the database.
+ *
+ * A dataset is tagged with the change version of its data (see DataVersions) read before it was
+ * loaded. If the version has moved by the time a tab takes it (for example the user placed an
+ * order before opening My Orders), the snapshot is stale and is loaded again instead.
+ */
+public class DataPrefetcher {
+
+    /**
+     * A loaded dataset and the change version its data had before it was loaded.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final Object data;
+
+        Snapshot(long version, Object data) {
+            this.version = version;
+            this.data = data;
+        }
+    }
+
+    private final Map<String, CompletableFuture<Snapshot>> pending = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    /**
+     * Creates a prefetcher backed by a small pool of daemon threads.
+     */
+    public DataPrefetcher() {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "data-prefetch");
+            thread.setDaemon(true); // Never keep the JVM alive just for warm-up work
+            return thread;
+        });
+    }
+
+    /**
+     * Starts loading a dataset in the background.
+     * @param key The name the dataset will be taken under.
+     * @param entity The kind of data it is loaded from, whose writes make it stale.
+     * @param loader The database call that produces it.
+     */
+    public <T> void prefetch(String key, DataVersions.Entity entity, Supplier<T> loader) {
+        pending.put(key, CompletableFuture.supplyAsync(() -> {
+            long version = DatabaseManager.getDataVersion(entity); // Read before loading, so a concurrent write is never missed
+            return new Snapshot(version, loader.get());
+        }, executor));
+    }
+
+    /**
+     * Returns a prefetched dataset, waiting for it if it is still loading.
+     * Falls back to calling the loader directly if nothing was prefetched under this key,
+     * the background load failed, or the data changed since it was prefetched.
+     * @param key The name the dataset was prefetched under.
+     * @param entity The kind of data, as passed to prefetch.
+     * @param loader The database call to use if no prefetched value is available.
+     * @return The loaded dataset.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T take(String key, DataVersions.Entity entity, Supplier<T> loader) {
+        CompletableFuture<Snapshot> future = pending.remove(key);
+        if (future != null) {
+            try {
+                Snapshot snapshot = future.join();
+                if (snapshot.version >= 0 && snapshot.version == DatabaseManager.getDataVersion(entity)) {
+                    return (T) snapshot.data;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Prefetch of " + key + " failed, loading directly: " + e.getMessage());
+            }
+        }
+        return loader.get();
+    }
+
+    /**
+     * Discards any datasets that were never taken and stops the worker threads.
+     */
+    public void shutdown() {
+        pending.clear();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package application;
+
+import javafx.collections.ObservableList;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Refreshes the lists shown in the UI only when their data changed.
+ *
+ * DatabaseManager keeps a change version per kind of data (table data_versions), incremented by
+ * every write in the same transaction. For each list this class remembers the version its
+ * contents were loaded at; a refresh first reads the current version (a primary-key lookup) and
+ * returns straight away if it is the same. Otherwise the data is loaded and applied with
+ * ListPatcher, so only the rows that changed are touched and the selection is kept.
+ *
+ * Used on the JavaFX thread only.
+ */
+public class DataVersions {
+
+    /**
+     * The kinds of data with a change version; the names are the keys in data_versions.
+     */
+    public enum Entity {
+        MENU_ITEMS,
+        ORDERS,
+        TABLE_BOOKINGS,
+        FEEDBACK,
+        DISH_RATINGS,
+        USERS,
+        TAX_RATES
+    }
+
+    /**
+     * What a list was last loaded from, and at which version.
+     */
+    private static final class Loaded {
+        private final String scope;
+        private final long version;
+
+        Loaded(String scope, long version) {
+            this.scope = scope;
+            this.version = version;
+        }
+    }
+
+    private final Map<ObservableList<?>, Loaded> loaded = new IdentityHashMap<>();
+
+    /**
+     * Reloads a list if its data changed since it was last loaded through this method.
+     * @param list The list shown in the UI.
+     * @param entity The kind of data in it.
+     * @param scope Identifies the query, e.g. "all" or a username, so the same list filled by a
+     *              different query (another user logged in) is always reloaded.
+     * @param loader Loads the data.
+     * @param key Returns the primary key of an element.
+     * @param sameContent true if two elements with the same key look the same.
+     * @return true if the data was reloaded, false if it was already current.
+     */
+    public <T> boolean refresh(ObservableList<T> list, Entity entity, String scope, Supplier<List<T>> loader,
+                               Function<? super T, ?> key, BiPredicate<? super T, ? super T> sameContent) {
+        long version = DatabaseManager.getDataVersion(entity); // Read before loading, so a concurrent write is never missed
+        Loaded previous = loaded.get(list);
+        if (version >= 0 && previous != null && previous.version == version && previous.scope.equals(scope)) {
+            return false;
+        }
+        ListPatcher.patch(list, loader.get(), key, sameContent);
+        if (version >= 0) {
+            loaded.put(list, new Loaded(scope, version));
+        } else {
+            loaded.remove(list);
+        }
+        return true;
+    }
+
+    /**
+     * Applies data loaded elsewhere (e.g. by DataPrefetcher) to a list. Its version is unknown, so
+     * the next refresh() of the list reloads it.
+     * @param list The list shown in the UI.
+     * @param data The loaded data.
+     * @param key Returns the primary key of an element.
+     * @param sameContent true if two elements with the same key look the same.
+     */
+    public <T> void apply(ObservableList<T> list, List<T> data, Function<? super T, ?> key, BiPredicate<? super T, ? super T> sameContent) {
+        ListPatcher.patch(list, data, key, sameContent);
+        loaded.remove(list);
+    }
+}
@@ -1,16 +1,20 @@
 package application;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap; // For ordered map in getItemsWithQuantities
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.Date; // For old Date object conversion if needed (less preferred)
-import java.util.Arrays; // For Arrays.asList
 import java.util.UUID; // Added for UUID generation
 
 /**
@@ -21,107 +25,110 @@ import java.util.UUID; // Added for UUID generation
  */
 public class DatabaseManager {
 
-    // Admin credentials provided by the user
-    private static final String ADMIN_USERNAME = "Dinesh Reddy";
-    private static final String ADMIN_PASSWORD_PLAIN = "Dinesh@2624"; // This will be hashed before storage
-
-    // --- Static map to represent all physical tables in the restaurant for availability checks ---
-    // In a real application, this would ideally be loaded from a persistent 'tables' database table.
-    private static final Map<TableType, List<Integer>> ALL_RESTAURANT_TABLES = new HashMap<>();
-
-    static {
-        // Initialize the fixed set of tables available in the restaurant
-        ALL_RESTAURANT_TABLES.put(TableType.SMALL, Arrays.asList(1, 2, 3, 4, 5)); // 5 small tables
-        ALL_RESTAURANT_TABLES.put(TableType.MEDIUM, Arrays.asList(10, 11, 12)); // 3 medium tables
-        ALL_RESTAURANT_TABLES.put(TableType.LARGE, Arrays.asList(20, 21));    // 2 large tables
-        ALL_RESTAURANT_TABLES.put(TableType.PRIVATE_DINING, Arrays.asList(30)); // 1 private dining table
-    }
+    // --- Cached floor plan: the physical tables used for availability checks ---
+    // Loaded from restaurant_tables on first use and reloaded after every floor plan change
+    private static volatile FloorPlan floorPlan;
+
+
+    // --- Queries on indexed access paths ---
+    // Package-private so that IndexCatalog can register them with QueryPlanVerifier; any change here
+    // should keep the query on the index declared for it there.
+    static final String USER_BY_USERNAME_SQL = "SELECT user_id, username, password_hash, full_name, email, phone_number, role FROM users WHERE username = ?";
+    static final String ORDERS_BY_CUSTOMER_SQL = "SELECT order_id, customer_username, order_time, status, payment_status, payment_method, discount_applied, gst_amount FROM orders WHERE customer_username = ?";
+    static final String ORDER_ITEMS_BY_ORDER_SQL = "SELECT oi.menu_item_id, oi.quantity, oi.price_at_order, mi.name, mi.image_url, mi.stock FROM order_items oi JOIN menu_items mi ON oi.menu_item_id = mi.id WHERE oi.order_id = ?";
+    static final String ORDER_ITEM_QUANTITIES_SQL = "SELECT menu_item_id, quantity FROM order_items WHERE order_id = ?";
+    static final String BOOKINGS_BY_CUSTOMER_SQL = "SELECT booking_id, customer_id, customer_name, phone, table_type, table_number, seats, booking_time, duration_minutes, booking_fee, payment_status, payment_method FROM table_bookings WHERE customer_id = ?";
+    // Expired (no-show) bookings no longer hold their table
+    static final String BOOKINGS_IN_WINDOW_SQL = "SELECT table_type, table_number, booking_time, duration_minutes FROM table_bookings WHERE booking_time > ? AND booking_time < ? AND payment_status <> 'EXPIRED'";
+    static final String BOOKINGS_STARTING_AFTER_SQL = "SELECT booking_id, booking_time, duration_minutes FROM table_bookings WHERE booking_time > ? AND payment_status <> 'EXPIRED'";
+    static final String TABLE_BOOKINGS_IN_WINDOW_SQL = "SELECT booking_time, duration_minutes FROM table_bookings WHERE table_number = ? AND booking_time > ? AND booking_time < ? AND payment_status <> 'EXPIRED' ORDER BY booking_time";
+    static final String UNPAID_BOOKINGS_AFTER_SQL = "SELECT booking_id, booking_time FROM table_bookings WHERE booking_time > ? AND payment_status = 'PENDING'";
+    static final String DATA_VERSION_SQL = "SELECT version FROM data_versions WHERE entity = ?";
+    static final String AVERAGE_RATING_SQL = "SELECT AVG(rating) AS average_rating FROM dish_ratings WHERE menu_item_id = ?";
+    static final String SAVED_CARDS_SQL = "SELECT card_id, last_four_digits, card_type, expiry_month, expiry_year FROM user_cards WHERE user_id = ?";
+    // Orders with their items in one round trip, for the kitchen (no per-order item query)
+    private static final String KITCHEN_ORDERS_SELECT = "SELECT o.order_id, o.customer_username, o.order_time, o.status, o.prep_started_at, o.ready_at, " +
+            "oi.menu_item_id, oi.quantity, oi.price_at_order, mi.name FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.order_id JOIN menu_items mi ON mi.id = oi.menu_item_id";
+    static final String OPEN_KITCHEN_ORDERS_SQL = KITCHEN_ORDERS_SELECT + " WHERE o.status IN ('PENDING', 'PREPARING')";
+    static final String READY_ORDERS_SINCE_SQL = KITCHEN_ORDERS_SELECT + " WHERE o.order_time >= ? AND o.ready_at IS NOT NULL";
+    // Status history of orders placed since a time, in the order each order went through it
+    static final String STATUS_EVENTS_SINCE_SQL = "SELECT e.order_id, e.status, e.changed_at FROM orders o " +
+            "JOIN order_status_events e ON e.order_id = o.order_id WHERE o.order_time >= ? ORDER BY e.order_id, e.changed_at, e.event_id";
+    static final String ORDER_DISHES_SINCE_SQL = "SELECT oi.order_id, mi.name FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.order_id JOIN menu_items mi ON mi.id = oi.menu_item_id WHERE o.order_time >= ?";
+    // Dishes of each order since a time, for DishRecommender (order_items is read through its covering index)
+    static final String ORDER_DISH_IDS_SINCE_SQL = "SELECT o.order_id, o.order_time, oi.menu_item_id FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.order_id WHERE o.order_time >= ? ORDER BY o.order_time, o.order_id";
+    // Portions of each dish ordered since a time, for DemandForecaster (cancelled orders were never cooked)
+    static final String ORDER_ITEM_QUANTITIES_SINCE_SQL = "SELECT oi.menu_item_id, o.order_time, oi.quantity FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.order_id WHERE o.order_time >= ? AND o.status <> 'CANCELLED'";
+    // Order items of the orders after an order ID, for OrderHistoryStore (orders are read by primary key range)
+    static final String ORDER_LINES_AFTER_SQL = "SELECT o.order_id, o.order_time, o.status, o.payment_method, o.discount_applied, o.gst_amount, oi.menu_item_id, " +
+            "oi.quantity, oi.price_at_order FROM orders o JOIN order_items oi ON oi.order_id = o.order_id " +
+            "WHERE o.order_id > ? ORDER BY o.order_id";
+    // Ingredient inventory: recipes, and the inputs for recomputing dish_availability of the dishes
+    // that use a dish's, an ingredient's or an order's ingredients
+    static final String RECIPE_BY_DISH_SQL = "SELECT r.ingredient_id, r.quantity, i.name, i.unit, i.on_hand FROM recipe_lines r " +
+            "JOIN ingredients i ON i.ingredient_id = r.ingredient_id WHERE r.menu_item_id = ? ORDER BY i.name";
+    private static final String AVAILABILITY_INPUTS_SQL = "SELECT r.menu_item_id, r.quantity, i.on_hand, i.name FROM recipe_lines r " +
+            "JOIN ingredients i ON i.ingredient_id = r.ingredient_id WHERE r.menu_item_id IN ";
+    static final String AVAILABILITY_INPUTS_FOR_DISH_SQL = AVAILABILITY_INPUTS_SQL + "(?)";
+    static final String AVAILABILITY_INPUTS_FOR_INGREDIENT_SQL = AVAILABILITY_INPUTS_SQL +
+            "(SELECT menu_item_id FROM recipe_lines WHERE ingredient_id = ?)";
+    static final String AVAILABILITY_INPUTS_FOR_ORDER_SQL = AVAILABILITY_INPUTS_SQL +
+            "(SELECT d.menu_item_id FROM order_ingredient_usage u JOIN recipe_lines d ON d.ingredient_id = u.ingredient_id WHERE u.order_id = ?)";
+    // An order's ingredient usage is recorded, then deducted or restored, each in one statement for all its ingredients
+    private static final String RECORD_INGREDIENT_USAGE_SQL = "INSERT INTO order_ingredient_usage (order_id, ingredient_id, quantity) " +
+            "SELECT oi.order_id, r.ingredient_id, SUM(r.quantity * oi.quantity) FROM order_items oi " +
+            "JOIN recipe_lines r ON r.menu_item_id = oi.menu_item_id WHERE oi.order_id = ? GROUP BY oi.order_id, r.ingredient_id";
+    private static final String DEDUCT_INGREDIENTS_SQL = "UPDATE ingredients SET on_hand = on_hand - " +
+            "(SELECT u.quantity FROM order_ingredient_usage u WHERE u.order_id = ? AND u.ingredient_id = ingredients.ingredient_id) " +
+            "WHERE ingredient_id IN (SELECT ingredient_id FROM order_ingredient_usage WHERE order_id = ?)";
+    private static final String RESTORE_INGREDIENTS_SQL = "UPDATE ingredients SET on_hand = on_hand + " +
+            "(SELECT u.quantity FROM order_ingredient_usage u WHERE u.order_id = ? AND u.ingredient_id = ingredients.ingredient_id) " +
+            "WHERE ingredient_id IN (SELECT ingredient_id FROM order_ingredient_usage WHERE order_id = ?)";
+    // Feedback full-text index and sentiment totals (see FeedbackAnalytics)
+    static final String FEEDBACK_TERM_POSTINGS_SQL = "SELECT feedback_id, term_count, doc_terms FROM feedback_terms WHERE term = ?";
+    static final String DAILY_SENTIMENT_SQL = "SELECT feedback_day, comments, sentiment_sum, positive, negative FROM feedback_daily_sentiment " +
+            "WHERE feedback_day >= ? AND feedback_day <= ? ORDER BY feedback_day";
+    static final String FEEDBACK_MENTIONING_DISH_SQL = "SELECT f.feedback_id, f.customer_username, f.rating, f.comments, f.feedback_date, f.sentiment " +
+            "FROM feedback_dish_mentions m JOIN feedback f ON f.feedback_id = m.feedback_id WHERE m.menu_item_id = ? ORDER BY m.feedback_id DESC";
+    // GST ledger (see TaxLedger): an order's tax lines, the totals of a filing period, and the state
+    // of an order that decides its GST, locked while its lines and the totals are adjusted
+    static final String ORDER_TAX_LINES_SQL = "SELECT tax_category, rate_basis_points, gross_amount, discount_amount, tax_amount " +
+            "FROM order_tax_lines WHERE order_id = ?";
+    static final String TAX_PERIOD_TOTALS_SQL = "SELECT tax_category, rate_basis_points, orders, gross_amount, discount_amount, tax_amount " +
+            "FROM tax_period_totals WHERE period_type = ? AND period_start = ? ORDER BY tax_category, rate_basis_points";
+    static final String ORDER_TAX_STATE_SQL = "SELECT order_time, status, discount_applied FROM orders WHERE order_id = ? FOR UPDATE";
+    private static final String ADD_TO_TAX_PERIOD_TOTALS_SQL = "INSERT INTO tax_period_totals (period_type, period_start, tax_category, " +
+            "rate_basis_points, orders, gross_amount, discount_amount, tax_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE orders = orders + VALUES(orders), gross_amount = gross_amount + VALUES(gross_amount), " +
+            "discount_amount = discount_amount + VALUES(discount_amount), tax_amount = tax_amount + VALUES(tax_amount)";
+
+    // BM25 ranking parameters of searchFeedback (the usual defaults)
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    // Longest booking the UI allows; bounds the booking_time range scanned by getAvailableTables.
+    static final int MAX_BOOKING_DURATION_MINUTES = 240;
+
+    // Attempts of addRecurringTableBookings before giving up on slots taken by concurrent bookings
+    private static final int MAX_BOOKING_ATTEMPTS = 3;
+    private static final String INSERT_TABLE_BOOKING_SQL = "INSERT INTO table_bookings (customer_id, customer_name, phone, table_type, table_number, seats, booking_time, duration_minutes, booking_fee, payment_status, payment_method) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
 
     /**
-     * Initializes the database by creating necessary tables and adding an admin user if they don't exist.
-     * This method should be called at application startup.
+     * Initializes the database by applying any pending schema migrations (tables, indexes,
+     * default admin user and menu). This method should be called at application startup.
+     * Once the schema is current this is a single version check; see SchemaMigrator.
      */
     public static void initializeDatabase() {
-
-        // Now, create tables in the correct order (independent first)
-        createUsersTable();
-        createUserCardsTable(); // Depends on users
-        createMenuItemsTable();
-        createOrdersTable(); // Depends on users
-        createOrderItemsTable(); // Depends on orders and menu_items
-        createTableBookingsTable(); // Depends on users
-        createFeedbackTable(); // Depends on users
-        createDishRatingsTable(); // Depends on menu_items and users
-
-
-        // Add default admin user if not exists
-        if (getUserByUsername(ADMIN_USERNAME) == null) {
-            String adminPasswordHash = PasswordUtil.hashPassword(ADMIN_PASSWORD_PLAIN);
-            if (adminPasswordHash != null) {
-                // Generate a UUID for the admin user
-                String adminUserId = UUID.randomUUID().toString();
-                User adminUser = new User(adminUserId, ADMIN_USERNAME, adminPasswordHash, "Dinesh Reddy (Admin)", "admin@example.com", "9876543210", UserRole.ADMIN);
-                addUser(adminUser);
-                System.out.println("Default admin user added: " + ADMIN_USERNAME);
-            } else {
-                System.err.println("Failed to hash admin password during initialization.");
-            }
-        }
-        
-        // Add some dummy menu items if the menu is empty
-        try {
-            if (getAllMenuItems().isEmpty()) {
-                addMenuItem(new MenuItem(0, "chicken biryani", 150.00, "https://drive.google.com/uc?export=download&id=1DOcsjdVSiHfFbw98KRlDNsEpxqJOkXWf", 100));
-                addMenuItem(new MenuItem(0, "mutton biryani", 200.00, "https://drive.google.com/uc?export=download&id=1P7SH9HAPUHuvQ9wkcaM0YOYeINANg5QK", 80));
-                addMenuItem(new MenuItem(0, "veg biryani", 100.00, "https://drive.google.com/uc?export=download&id=1c493CZ0Nu8P4qdnQ55XlKLbG2o9bx7J5", 120));
-                addMenuItem(new MenuItem(0, "chicken curry", 180.00, "https://drive.google.com/uc?export=download&id=1i3jLFLraZaH6AH9dvkb-MrG_tbxVLNu1", 90));
-                addMenuItem(new MenuItem(0, "mutton curry", 220.00, "https://drive.google.com/uc?export=download&id=1cQoE6W9_s7NY4GqxRIgZTtguO6uJkC7z", 70));
-                addMenuItem(new MenuItem(0, "veg curry", 120.00, "https://drive.google.com/uc?export=download&id=1RDw0ymUbvk7ITx563nyV0LeWVrcXw5dQ", 110));
-                addMenuItem(new MenuItem(0, "chicken tikka", 160.00, "https://drive.google.com/uc?export=download&id=105169q3LUgXDsuxw2U6uoI4A0-qeYdvO", 95));
-                addMenuItem(new MenuItem(0, "mutton tikka", 210.00, "https://drive.google.com/uc?export=download&id=1m5yjJJkfQ_yJflgwBAhtGb6G2O3f3UEG", 65));
-                addMenuItem(new MenuItem(0, "veg tikka", 130.00, "https://drive.google.com/uc?export=download&id=12OBzeP61PHbCTpBOI7NCTB7Xs7HMsioN", 105));
-                addMenuItem(new MenuItem(0, "chicken kebab", 170.00, "https://drive.google.com/uc?export=download&id=1t4_FBXzgwBhclm_aKOiwlL-daqTyiOM2", 85));
-                addMenuItem(new MenuItem(0, "mutton kebab", 230.00, "https://drive.google.com/uc?export=download&id=116_YvTUVPCRSecjuYlWtQgmp7hIEERlm", 60));
-                addMenuItem(new MenuItem(0, "veg kebab", 140.00, "https://drive.google.com/uc?export=download&id=11kSyg2mxLkX4vaoJMVOeN4UB8ff5w-TC", 100));
-                addMenuItem(new MenuItem(0, "soft drink", 50.00, "https://drive.google.com/uc?export=download&id=1oZGTjuzltsiSdyPlMHrwRt37fRnaAkTM", 200));
-                addMenuItem(new MenuItem(0, "water", 20.00, "https://drive.google.com/uc?export=download&id=1EqsZddDosywdiN7k5atU-DCiYcYN6MvZ", 500));
-                addMenuItem(new MenuItem(0, "salad", 30.00, "https://drive.google.com/uc?export=download&id=1D-srw_vsgd1UHmMS7D7mIu-RwgB7oZ4s", 150));
-                addMenuItem(new MenuItem(0, "dessert", 80.00, "https://drive.google.com/uc?export=download&id=1Z271ej253HWtRdgMjFOpg-42z0GmlmgC", 130));
-                System.out.println("Default biryani-style menu items inserted with food-related images.");
-            }
-        } catch (Exception e) {
-            System.err.println("Error initializing dummy menu items: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    // --- Table Creation Methods ---
-
-    /**
-     * Creates the 'users' table in the database if it doesn't already exist.
-     * Stores user details including their role and a unique UUID.
-     */
-    private static void createUsersTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS users (" +
-                     "user_id VARCHAR(255) PRIMARY KEY," + // Using UUID as primary key
-                     "username VARCHAR(50) NOT NULL UNIQUE," +
-                     "password_hash VARCHAR(255) NOT NULL," +
-                     "full_name VARCHAR(100) NOT NULL," +
-                     "email VARCHAR(100)," +
-                     "phone_number VARCHAR(20)," +
-                     "role VARCHAR(20) NOT NULL" + // e.g., 'ADMIN', 'CUSTOMER'
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Users table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating users table: " + e.getMessage());
-            e.printStackTrace();
-        }
+        SchemaMigrator.migrate(SchemaMigrations.all());
     }
 
+    // --- Table Drop Methods (development only; tables are created by SchemaMigrations) ---
+
     /**
      * For development purposes: Drops the 'users' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -138,28 +145,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the 'menu_items' table in the database if it doesn't already exist.
-     * Stores information about dishes/items available in the restaurant.
-     */
-    private static void createMenuItemsTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS menu_items (" +
-                     "id INT AUTO_INCREMENT PRIMARY KEY," +
-                     "name VARCHAR(100) NOT NULL UNIQUE," + // Item names must be unique
-                     "price DOUBLE NOT NULL," +
-                     "image_url VARCHAR(255)," +
-                     "stock INT DEFAULT 0" + // New: Stock quantity
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Menu items table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating menu_items table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'menu_items' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -176,31 +161,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the 'orders' table in the database if it doesn't already exist.
-     * Stores general order information.
-     */
-    private static void createOrdersTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS orders (" +
-                     "order_id INT AUTO_INCREMENT PRIMARY KEY," +
-                     "customer_username VARCHAR(50)," + // Link to users table (username, not user_id directly for simplicity)
-                     "order_time DATETIME NOT NULL," +
-                     "status VARCHAR(50) NOT NULL," +
-                     "payment_status VARCHAR(50) NOT NULL," +
-                     "payment_method VARCHAR(50) NOT NULL," +
-                     "discount_applied DOUBLE DEFAULT 0.0," +
-                     "FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE SET NULL" +
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Orders table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating orders table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'orders' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -217,30 +177,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the 'order_items' table for the many-to-many relationship between orders and menu items.
-     * This table records which menu items are part of which order and their quantity.
-     */
-    private static void createOrderItemsTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS order_items (" +
-                     "order_item_id INT AUTO_INCREMENT PRIMARY KEY," +
-                     "order_id INT NOT NULL," +
-                     "menu_item_id INT NOT NULL," +
-                     "quantity INT NOT NULL," +
-                     "price_at_order DOUBLE NOT NULL," + // Price at the time of order
-                     "FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE," +
-                     "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE RESTRICT" + // RESTRICT to prevent deleting menu item if part of existing order
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Order items table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating order_items table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'order_items' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -257,36 +193,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the 'table_bookings' table in the database if it doesn't already exist.
-     * Stores information about restaurant table reservations.
-     */
-    private static void createTableBookingsTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS table_bookings (" +
-                     "booking_id INT AUTO_INCREMENT PRIMARY KEY," +
-                     "customer_id VARCHAR(255) NOT NULL," + // Link to users table (user_id)
-                     "customer_name VARCHAR(100) NOT NULL," +
-                     "phone VARCHAR(20)," +
-                     "table_type VARCHAR(50) NOT NULL," +
-                     "table_number INT NOT NULL," +
-                     "seats INT NOT NULL," + // Number of seats for this booking
-                     "booking_time DATETIME NOT NULL," +
-                     "duration_minutes INT NOT NULL," +
-                     "booking_fee DOUBLE NOT NULL," +
-                     "payment_status VARCHAR(50) NOT NULL," +
-                     "payment_method VARCHAR(50) NOT NULL," +
-                     "FOREIGN KEY (customer_id) REFERENCES users(user_id) ON DELETE CASCADE" +
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Table bookings table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating table_bookings table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'table_bookings' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -304,28 +210,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the 'feedback' table for general customer feedback.
-     */
-    private static void createFeedbackTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS feedback (" +
-                     "feedback_id INT AUTO_INCREMENT PRIMARY KEY," +
-                     "customer_username VARCHAR(50)," + // Link to users table
-                     "rating INT NOT NULL," +          // e.g., 1-5 stars
-                     "comments TEXT," +
-                     "feedback_date DATETIME NOT NULL," +
-                     "FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE SET NULL" +
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Feedback table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating feedback table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'feedback' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -342,29 +226,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the 'dish_ratings' table for specific dish ratings.
-     */
-    private static void createDishRatingsTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS dish_ratings (" +
-                     "rating_id INT AUTO_INCREMENT PRIMARY KEY," +
-                     "menu_item_id INT NOT NULL," +
-                     "customer_username VARCHAR(50)," + // Link to users table
-                     "rating INT NOT NULL," +          // e.g., 1-5 stars
-                     "rating_date DATETIME NOT NULL," +
-                     "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE CASCADE," +
-                     "FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE SET NULL" +
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Dish ratings table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating dish_ratings table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'dish_ratings' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -381,30 +242,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Creates the user_cards table to store saved (mock) credit card information for users.
-     * This table is linked to the users table via user_id.
-     */
-    public static void createUserCardsTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS user_cards (" +
-                     "card_id VARCHAR(255) PRIMARY KEY," + // Using card_id as PK, useful for upsert
-                     "user_id VARCHAR(255) NOT NULL," +
-                     "last_four_digits VARCHAR(4) NOT NULL," +
-                     "card_type VARCHAR(50) NOT NULL," +
-                     "expiry_month VARCHAR(2) NOT NULL," +
-                     "expiry_year VARCHAR(4) NOT NULL," +
-                     "FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE" +
-                     ")";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("user_cards table created or already exists.");
-        } catch (SQLException e) {
-            System.err.println("Error creating user_cards table: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     /**
      * For development purposes: Drops the 'user_cards' table if it exists.
      * Use with caution as this will delete all data in the table.
@@ -441,6 +278,9 @@ public class DatabaseManager {
             pstmt.setString(6, user.getPhoneNumber());
             pstmt.setString(7, user.getRole().name()); // Store enum name as string
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.USERS);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error adding user: " + e.getMessage());
@@ -455,9 +295,8 @@ public class DatabaseManager {
      * @return The User object if found, null otherwise.
      */
     public static User getUserByUsername(String username) {
-        String sql = "SELECT user_id, username, password_hash, full_name, email, phone_number, role FROM users WHERE username = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(USER_BY_USERNAME_SQL)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -564,6 +403,9 @@ public class DatabaseManager {
             pstmt.setString(3, user.getPhoneNumber());
             pstmt.setString(4, user.getUserId());
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.USERS);
+            }
             return affectedRows > 0;
         } 
         catch (SQLException e) { 
@@ -586,6 +428,9 @@ public class DatabaseManager {
             pstmt.setString(1, newRole.name());
             pstmt.setString(2, userId);
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.USERS);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error updating user role: " + e.getMessage());
@@ -605,6 +450,9 @@ public class DatabaseManager {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userId);
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.USERS, DataVersions.Entity.ORDERS, DataVersions.Entity.TABLE_BOOKINGS, DataVersions.Entity.FEEDBACK, DataVersions.Entity.DISH_RATINGS);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting user: " + e.getMessage());
@@ -622,13 +470,14 @@ public class DatabaseManager {
      * @return true if the item was added successfully, false otherwise.
      */
     public static boolean addMenuItem(MenuItem item) {
-        String sql = "INSERT INTO menu_items (name, price, image_url, stock) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO menu_items (name, price, image_url, stock, tax_category) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, item.getName());
-            pstmt.setDouble(2, item.getPrice());
+            pstmt.setBigDecimal(2, Money.toDecimal(item.getPricePaise()));
             pstmt.setString(3, item.getImageUrl());
             pstmt.setInt(4, item.getStock()); // Include stock
+            pstmt.setString(5, item.getTaxCategory().name());
             int affectedRows = pstmt.executeUpdate();
 
             if (affectedRows > 0) {
@@ -638,6 +487,7 @@ public class DatabaseManager {
                         item.setId(generatedKeys.getInt(1));
                     }
                 }
+                bumpDataVersions(conn, DataVersions.Entity.MENU_ITEMS);
                 return true;
             }
             return false;
@@ -654,17 +504,22 @@ public class DatabaseManager {
      */
     public static List<MenuItem> getAllMenuItems() {
         List<MenuItem> menuItems = new ArrayList<>();
-        String sql = "SELECT id, name, price, image_url, stock FROM menu_items";
+        String sql = "SELECT mi.id, mi.name, mi.price, mi.image_url, mi.stock, mi.tax_category, a.portions FROM menu_items mi " +
+                     "LEFT JOIN dish_availability a ON a.menu_item_id = mi.id"; // One row per dish, so the menu costs the same with recipes
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 int id = rs.getInt("id");
                 String name = rs.getString("name");
-                double price = rs.getDouble("price");
+                long pricePaise = Money.fromDecimal(rs.getBigDecimal("price"));
                 String imageUrl = rs.getString("image_url");
                 int stock = rs.getInt("stock"); // Retrieve stock
-                menuItems.add(new MenuItem(id, name, price, imageUrl, stock));
+                MenuItem item = new MenuItem(id, name, 0, imageUrl, stock);
+                item.setPricePaise(pricePaise);
+                item.setTaxCategory(TaxCategory.valueOf(rs.getString("tax_category")));
+                readIngredientPortions(rs, item);
+                menuItems.add(item);
             }
         } catch (SQLException e) {
             System.err.println("Error fetching all menu items: " + e.getMessage());
@@ -679,17 +534,21 @@ public class DatabaseManager {
      * @return The MenuItem object if found, null otherwise.
      */
     public static MenuItem getMenuItemById(int id) {
-        String sql = "SELECT id, name, price, image_url, stock FROM menu_items WHERE id = ?";
+        String sql = "SELECT mi.id, mi.name, mi.price, mi.image_url, mi.stock, mi.tax_category, a.portions FROM menu_items mi " +
+                     "LEFT JOIN dish_availability a ON a.menu_item_id = mi.id WHERE mi.id = ?";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 String name = rs.getString("name");
-                double price = rs.getDouble("price");
                 String imageUrl = rs.getString("image_url");
                 int stock = rs.getInt("stock");
-                return new MenuItem(id, name, price, imageUrl, stock);
+                MenuItem item = new MenuItem(id, name, 0, imageUrl, stock);
+                item.setPricePaise(Money.fromDecimal(rs.getBigDecimal("price")));
+                item.setTaxCategory(TaxCategory.valueOf(rs.getString("tax_category")));
+                readIngredientPortions(rs, item);
+                return item;
             }
         } catch (SQLException e) {
             System.err.println("Error getting menu item by ID: " + e.getMessage());
@@ -698,6 +557,14 @@ public class DatabaseManager {
         return null;
     }
 
+    /**
+     * Sets a menu item's ingredient portions from the dish_availability column of a row (NULL: no recipe).
+     */
+    private static void readIngredientPortions(ResultSet rs, MenuItem item) throws SQLException {
+        int portions = rs.getInt("portions");
+        item.setIngredientPortions(rs.wasNull() ? MenuItem.NO_RECIPE : portions);
+    }
+
     /**
      * Updates an existing menu item in the database.
      * This method now updates all fields including stock.
@@ -705,15 +572,19 @@ public class DatabaseManager {
      * @return true if the item was updated successfully, false otherwise.
      */
     public static boolean updateMenuItem(MenuItem item) {
-        String sql = "UPDATE menu_items SET name = ?, price = ?, image_url = ?, stock = ? WHERE id = ?";
+        String sql = "UPDATE menu_items SET name = ?, price = ?, image_url = ?, stock = ?, tax_category = ? WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, item.getName());
-            pstmt.setDouble(2, item.getPrice());
+            pstmt.setBigDecimal(2, Money.toDecimal(item.getPricePaise()));
             pstmt.setString(3, item.getImageUrl());
             pstmt.setInt(4, item.getStock());
-            pstmt.setInt(5, item.getId());
+            pstmt.setString(5, item.getTaxCategory().name());
+            pstmt.setInt(6, item.getId());
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.MENU_ITEMS);
+            }
             return affectedRows > 0;
         }
         // This catch block was missing curly braces in the provided Main.java
@@ -735,6 +606,9 @@ public class DatabaseManager {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.MENU_ITEMS, DataVersions.Entity.DISH_RATINGS);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting menu item: " + e.getMessage());
@@ -743,18 +617,295 @@ public class DatabaseManager {
         }
     }
 
+    // --- Ingredient Inventory Methods ---
+
+    /**
+     * Adds a new ingredient to the inventory.
+     * @param ingredient The ingredient to add. Its ID is set to the generated one.
+     * @return true if the ingredient was added, false otherwise (e.g. the name already exists).
+     */
+    public static boolean addIngredient(Ingredient ingredient) {
+        String sql = "INSERT INTO ingredients (name, unit, on_hand) VALUES (?, ?, ?)";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, ingredient.getName());
+            pstmt.setString(2, ingredient.getUnit());
+            pstmt.setLong(3, ingredient.getOnHand());
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    ingredient.setIngredientId(generatedKeys.getInt(1));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding ingredient: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves every ingredient in the inventory.
+     * @return The ingredients by name; empty on error.
+     */
+    public static List<Ingredient> getAllIngredients() {
+        List<Ingredient> ingredients = new ArrayList<>();
+        String sql = "SELECT ingredient_id, name, unit, on_hand FROM ingredients ORDER BY name";
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ingredients.add(new Ingredient(rs.getInt("ingredient_id"), rs.getString("name"), rs.getString("unit"), rs.getLong("on_hand")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching ingredients: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return ingredients;
+    }
+
+    /**
+     * Updates an ingredient's name, unit and stock, and the availability of the dishes that use it.
+     * @param ingredient The ingredient with updated values.
+     * @return true if the ingredient was updated, false otherwise.
+     */
+    public static boolean updateIngredient(Ingredient ingredient) {
+        String sql = "UPDATE ingredients SET name = ?, unit = ?, on_hand = ? WHERE ingredient_id = ?";
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, ingredient.getName());
+                pstmt.setString(2, ingredient.getUnit());
+                pstmt.setLong(3, ingredient.getOnHand());
+                pstmt.setInt(4, ingredient.getIngredientId());
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                updateDishAvailability(conn, AVAILABILITY_INPUTS_FOR_INGREDIENT_SQL, ingredient.getIngredientId());
+                bumpDataVersions(conn, DataVersions.Entity.MENU_ITEMS); // Dish availability may have changed
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating ingredient: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Deletes an ingredient and removes it from every recipe.
+     * @param ingredientId The ID of the ingredient to delete.
+     * @return true if the ingredient was deleted, false otherwise.
+     */
+    public static boolean deleteIngredient(int ingredientId) {
+        String dishesSql = "SELECT menu_item_id FROM recipe_lines WHERE ingredient_id = ?";
+        String deleteSql = "DELETE FROM ingredients WHERE ingredient_id = ?"; // Its recipe lines and usage rows cascade
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> dishes = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(dishesSql)) {
+                    pstmt.setInt(1, ingredientId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            dishes.add(rs.getInt(1));
+                        }
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteSql)) {
+                    pstmt.setInt(1, ingredientId);
+                    if (pstmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                for (int menuItemId : dishes) {
+                    recomputeDishAvailability(conn, menuItemId);
+                }
+                bumpDataVersions(conn, DataVersions.Entity.MENU_ITEMS);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error deleting ingredient: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves the recipe of a dish, with each ingredient's current stock.
+     * @param menuItemId The dish.
+     * @return The recipe lines by ingredient name; empty if the dish has no recipe or on error.
+     */
+    public static List<RecipeLine> getRecipe(int menuItemId) {
+        List<RecipeLine> lines = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(RECIPE_BY_DISH_SQL)) {
+            pstmt.setInt(1, menuItemId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    lines.add(new RecipeLine(menuItemId, rs.getInt("ingredient_id"), rs.getString("name"), rs.getString("unit"),
+                            rs.getInt("quantity"), rs.getLong("on_hand")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching recipe: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return lines;
+    }
+
+    /**
+     * Adds an ingredient to a dish's recipe, or changes how much of it the dish uses.
+     * @param menuItemId The dish.
+     * @param ingredientId The ingredient.
+     * @param quantity Units of the ingredient per portion; must be positive.
+     * @return true if the recipe was saved, false otherwise.
+     */
+    public static boolean setRecipeLine(int menuItemId, int ingredientId, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        String sql = "INSERT INTO recipe_lines (menu_item_id, ingredient_id, quantity) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+        return changeRecipe(menuItemId, sql, menuItemId, ingredientId, quantity);
+    }
+
+    /**
+     * Removes an ingredient from a dish's recipe. A dish left without ingredients is limited by its stock only.
+     * @param menuItemId The dish.
+     * @param ingredientId The ingredient.
+     * @return true if the line was removed, false otherwise.
+     */
+    public static boolean removeRecipeLine(int menuItemId, int ingredientId) {
+        String sql = "DELETE FROM recipe_lines WHERE menu_item_id = ? AND ingredient_id = ?";
+        return changeRecipe(menuItemId, sql, menuItemId, ingredientId);
+    }
+
+    /**
+     * Runs one change to a dish's recipe and recomputes the dish's availability in the same transaction.
+     */
+    private static boolean changeRecipe(int menuItemId, String sql, int... params) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setInt(i + 1, params[i]);
+                }
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                recomputeDishAvailability(conn, menuItemId);
+                bumpDataVersions(conn, DataVersions.Entity.MENU_ITEMS);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error changing recipe: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Recomputes the availability of one dish from scratch; a dish without a recipe loses its row.
+     */
+    private static void recomputeDishAvailability(Connection conn, int menuItemId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM dish_availability WHERE menu_item_id = ?")) {
+            pstmt.setInt(1, menuItemId);
+            pstmt.executeUpdate();
+        }
+        updateDishAvailability(conn, AVAILABILITY_INPUTS_FOR_DISH_SQL, menuItemId);
+    }
+
+    /**
+     * Recomputes dish_availability for the dishes selected by one of the AVAILABILITY_INPUTS_FOR_*
+     * queries: each dish can be made as many times as its scarcest ingredient allows. Only the
+     * dishes sharing an ingredient with the change are read, so this costs the same however long
+     * the menu is. Runs in the caller's transaction.
+     * @param conn The connection of the transaction.
+     * @param inputsSql The inputs query.
+     * @param key Its parameter (dish, ingredient or order ID).
+     * @return The names of the ingredients whose stock went below zero; empty if none.
+     */
+    private static Set<String> updateDishAvailability(Connection conn, String inputsSql, int key) throws SQLException {
+        Map<Integer, Long> portionsByDish = new HashMap<>();
+        Set<String> shortIngredients = new TreeSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(inputsSql)) {
+            pstmt.setInt(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long onHand = rs.getLong("on_hand");
+                    if (onHand < 0) {
+                        shortIngredients.add(rs.getString("name"));
+                    }
+                    portionsByDish.merge(rs.getInt("menu_item_id"), Math.max(0, onHand) / rs.getInt("quantity"), Math::min);
+                }
+            }
+        }
+        String upsertSql = "INSERT INTO dish_availability (menu_item_id, portions) VALUES (?, ?) " +
+                           "ON DUPLICATE KEY UPDATE portions = VALUES(portions)";
+        try (PreparedStatement pstmt = conn.prepareStatement(upsertSql)) {
+            for (Map.Entry<Integer, Long> entry : portionsByDish.entrySet()) {
+                pstmt.setInt(1, entry.getKey());
+                pstmt.setInt(2, (int) Math.min(Integer.MAX_VALUE, entry.getValue()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        return shortIngredients;
+    }
+
+    /**
+     * Runs DEDUCT_INGREDIENTS_SQL or RESTORE_INGREDIENTS_SQL for an order.
+     * @return The number of ingredients changed.
+     */
+    private static int applyIngredientUsage(Connection conn, String sql, int orderId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, orderId);
+            pstmt.setInt(2, orderId);
+            return pstmt.executeUpdate();
+        }
+    }
+
     // --- Order Management Methods ---
 
     /**
      * Adds a new order to the database. This includes inserting into 'orders' table
      * and then populating 'order_items' table with each item and its quantity.
+     * The GST is computed per tax category at the rates of the order date (see TaxLedger), stored
+     * as the order's tax lines and added to the filing-period totals in the same transaction.
      *
-     * @param order The Order object to add. The orderId will be auto-generated.
+     * @param order The Order object to add. The orderId will be auto-generated and the tax lines set.
      * @return true if the order and its items were added successfully, false otherwise.
      */
     public static boolean addOrder(Order order) {
-        String orderSql = "INSERT INTO orders (customer_username, order_time, status, payment_status, payment_method, discount_applied) VALUES (?, ?, ?, ?, ?, ?)";
+        String orderSql = "INSERT INTO orders (customer_username, order_time, status, payment_status, payment_method, discount_applied, gst_amount) VALUES (?, ?, ?, ?, ?, ?, ?)";
         String orderItemSql = "INSERT INTO order_items (order_id, menu_item_id, quantity, price_at_order) VALUES (?, ?, ?, ?)";
+        Map<MenuItem, Integer> itemQuantities = order.getItemsWithQuantities();
+        List<TaxLine> taxLines = TaxLedger.getInstance().quote(itemQuantities, order.getDiscountPaise(), order.getOrderTime().toLocalDate());
 
         Connection conn = null;
         try {
@@ -768,7 +919,8 @@ public class DatabaseManager {
                 pstmt.setString(3, order.getStatus().name());
                 pstmt.setString(4, order.getPaymentStatus().name());
                 pstmt.setString(5, order.getPaymentMethod().name());
-                pstmt.setDouble(6, order.getDiscountApplied());
+                pstmt.setBigDecimal(6, Money.toDecimal(order.getDiscountPaise()));
+                pstmt.setBigDecimal(7, Money.toDecimal(TaxLedger.totalTax(taxLines)));
                 int affectedRows = pstmt.executeUpdate();
 
                 if (affectedRows == 0) {
@@ -787,7 +939,6 @@ public class DatabaseManager {
             }
 
             // 2. Insert into order_items table for each unique item in the order
-            Map<MenuItem, Integer> itemQuantities = order.getItemsWithQuantities();
             try (PreparedStatement pstmt = conn.prepareStatement(orderItemSql)) {
                 for (Map.Entry<MenuItem, Integer> entry : itemQuantities.entrySet()) {
                     MenuItem item = entry.getKey();
@@ -795,13 +946,42 @@ public class DatabaseManager {
                     pstmt.setInt(1, order.getOrderId());
                     pstmt.setInt(2, item.getId());
                     pstmt.setInt(3, quantity); // Corrected to use setInt for quantity as per schema
-                    pstmt.setDouble(4, item.getPrice()); // Price at the time of order
+                    pstmt.setBigDecimal(4, Money.toDecimal(item.getPricePaise())); // Price at the time of order
                     pstmt.addBatch(); // Add to batch for efficient insertion
                 }
                 pstmt.executeBatch();
             }
 
+            // 3. Record the GST and add it to the filing-period totals (cancelled orders do not count)
+            insertTaxLines(conn, order.getOrderId(), taxLines);
+            if (order.getStatus() != OrderStatus.CANCELLED) {
+                addToTaxPeriodTotals(conn, order.getOrderTime().toLocalDate(), taxLines, 1);
+            }
+
+            // 4. Record the ingredients the dishes' recipes use and take them out of stock
+            boolean usesIngredients;
+            try (PreparedStatement pstmt = conn.prepareStatement(RECORD_INGREDIENT_USAGE_SQL)) {
+                pstmt.setInt(1, order.getOrderId());
+                usesIngredients = pstmt.executeUpdate() > 0;
+            }
+            if (usesIngredients) {
+                applyIngredientUsage(conn, DEDUCT_INGREDIENTS_SQL, order.getOrderId());
+                Set<String> shortIngredients = updateDishAvailability(conn, AVAILABILITY_INPUTS_FOR_ORDER_SQL, order.getOrderId());
+                if (!shortIngredients.isEmpty()) {
+                    System.err.println("Order not placed, not enough " + String.join(", ", shortIngredients) + " in stock.");
+                    conn.rollback();
+                    return false;
+                }
+                bumpDataVersions(conn, DataVersions.Entity.ORDERS, DataVersions.Entity.MENU_ITEMS);
+            } else {
+                bumpDataVersions(conn, DataVersions.Entity.ORDERS);
+            }
             conn.commit(); // Commit transaction
+            order.setTaxLines(taxLines);
+            OrderStatusEventLog.getInstance().record(order.getOrderId(), order.getStatus(), order.getOrderTime());
+            KitchenOrderQueue.getInstance().submit(order); // Hand the new order to the kitchen display
+            KitchenCapacityModel.getInstance().recordAdmitted(order);
+            DishRecommender.getInstance().recordOrder(order);
             return true;
 
         } catch (SQLException e) {
@@ -834,8 +1014,7 @@ public class DatabaseManager {
      */
     public static List<Order> getAllOrders() {
         List<Order> orders = new ArrayList<>();
-        String sql = "SELECT order_id, customer_username, order_time, status, payment_status, payment_method, discount_applied FROM orders";
-        String itemSql = "SELECT oi.menu_item_id, oi.quantity, mi.name, mi.price, mi.image_url, mi.stock FROM order_items oi JOIN menu_items mi ON oi.menu_item_id = mi.id WHERE oi.order_id = ?";
+        String sql = "SELECT order_id, customer_username, order_time, status, payment_status, payment_method, discount_applied, gst_amount FROM orders";
 
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
@@ -847,7 +1026,7 @@ public class DatabaseManager {
                 OrderStatus status = OrderStatus.valueOf(rs.getString("status"));
                 PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
                 PaymentMethod paymentMethod = PaymentMethod.valueOf(rs.getString("payment_method"));
-                double discountApplied = rs.getDouble("discount_applied");
+                long discountPaise = Money.fromDecimal(rs.getBigDecimal("discount_applied"));
 
                 Order order = new Order(orderId);
                 order.setCustomerUsername(customerUsername);
@@ -855,21 +1034,22 @@ public class DatabaseManager {
                 order.setStatus(status);
                 order.setPaymentStatus(paymentStatus);
                 order.setPaymentMethod(paymentMethod);
-                order.setDiscountApplied(discountApplied);
+                order.setDiscountPaise(discountPaise);
+                order.setGSTAmountPaise(Money.fromDecimal(rs.getBigDecimal("gst_amount")));
 
                 // Fetch items for this order
-                try (PreparedStatement itemPstmt = conn.prepareStatement(itemSql)) {
+                try (PreparedStatement itemPstmt = conn.prepareStatement(ORDER_ITEMS_BY_ORDER_SQL)) {
                     itemPstmt.setInt(1, orderId);
                     ResultSet itemRs = itemPstmt.executeQuery();
                     while (itemRs.next()) {
                         int menuItemId = itemRs.getInt("menu_item_id");
                         int quantity = itemRs.getInt("quantity");
                         String itemName = itemRs.getString("name");
-                        double itemPrice = itemRs.getDouble("price");
                         String imageUrl = itemRs.getString("image_url");
                         int stock = itemRs.getInt("stock"); // Note: This is current stock, not stock at order time
 
-                        MenuItem item = new MenuItem(menuItemId, itemName, itemPrice, imageUrl, stock);
+                        MenuItem item = new MenuItem(menuItemId, itemName, 0, imageUrl, stock);
+                        item.setPricePaise(Money.fromDecimal(itemRs.getBigDecimal("price_at_order"))); // Price charged, not today's price
                         for (int i = 0; i < quantity; i++) {
                             order.addItem(item); // Add the item 'quantity' times
                         }
@@ -892,11 +1072,9 @@ public class DatabaseManager {
      */
     public static List<Order> getOrdersByCustomerUsername(String customerUsername) {
         List<Order> orders = new ArrayList<>();
-        String sql = "SELECT order_id, customer_username, order_time, status, payment_status, payment_method, discount_applied FROM orders WHERE customer_username = ?";
-        String itemSql = "SELECT oi.menu_item_id, oi.quantity, mi.name, mi.price, mi.image_url, mi.stock FROM order_items oi JOIN menu_items mi ON oi.menu_item_id = mi.id WHERE oi.order_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(ORDERS_BY_CUSTOMER_SQL)) {
             pstmt.setString(1, customerUsername);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -905,7 +1083,7 @@ public class DatabaseManager {
                 OrderStatus status = OrderStatus.valueOf(rs.getString("status"));
                 PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
                 PaymentMethod paymentMethod = PaymentMethod.valueOf(rs.getString("payment_method"));
-                double discountApplied = rs.getDouble("discount_applied");
+                long discountPaise = Money.fromDecimal(rs.getBigDecimal("discount_applied"));
 
                 Order order = new Order(orderId);
                 order.setCustomerUsername(customerUsername);
@@ -913,21 +1091,22 @@ public class DatabaseManager {
                 order.setStatus(status);
                 order.setPaymentStatus(paymentStatus);
                 order.setPaymentMethod(paymentMethod);
-                order.setDiscountApplied(discountApplied);
+                order.setDiscountPaise(discountPaise);
+                order.setGSTAmountPaise(Money.fromDecimal(rs.getBigDecimal("gst_amount")));
 
                 // Fetch items for this order
-                try (PreparedStatement itemPstmt = conn.prepareStatement(itemSql)) {
+                try (PreparedStatement itemPstmt = conn.prepareStatement(ORDER_ITEMS_BY_ORDER_SQL)) {
                     itemPstmt.setInt(1, orderId);
                     ResultSet itemRs = itemPstmt.executeQuery();
                     while (itemRs.next()) {
                         int menuItemId = itemRs.getInt("menu_item_id");
                         int quantity = itemRs.getInt("quantity");
                         String itemName = itemRs.getString("name");
-                        double itemPrice = itemRs.getDouble("price");
                         String imageUrl = itemRs.getString("image_url");
                         int stock = itemRs.getInt("stock");
 
-                        MenuItem item = new MenuItem(menuItemId, itemName, itemPrice, imageUrl, stock);
+                        MenuItem item = new MenuItem(menuItemId, itemName, 0, imageUrl, stock);
+                        item.setPricePaise(Money.fromDecimal(itemRs.getBigDecimal("price_at_order"))); // Price charged, not today's price
                         for (int i = 0; i < quantity; i++) {
                             order.addItem(item);
                         }
@@ -944,63 +1123,420 @@ public class DatabaseManager {
 
 
     /**
-     * Updates an existing order's status, payment status, and payment method in the database.
+     * Updates an existing order's status, payment status, payment method and discount in the database.
+     * A changed discount is shared out over the order's tax lines again, at the rates they were
+     * recorded with. The filing-period totals are adjusted in the same transaction when the discount
+     * changes or the order is cancelled or reinstated; the order stays in the periods of its order date.
      *
-     * @param order The Order object with updated values.
+     * @param order The Order object with updated values. Its tax lines are set to the updated ones.
      * @return true if the order was updated successfully, false otherwise.
      */
     public static boolean updateOrder(Order order) {
-        String sql = "UPDATE orders SET status = ?, payment_status = ?, payment_method = ?, discount_applied = ? WHERE order_id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, order.getStatus().name());
-            pstmt.setString(2, order.getPaymentStatus().name());
-            pstmt.setString(3, order.getPaymentMethod().name());
-            pstmt.setDouble(4, order.getDiscountApplied());
-            pstmt.setInt(5, order.getOrderId());
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+        String sql = "UPDATE orders SET status = ?, payment_status = ?, payment_method = ?, discount_applied = ?, gst_amount = ? WHERE order_id = ?";
+        List<TaxLine> taxLines;
+        LocalDateTime changedAt;
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Order before = readOrderTaxState(conn, order.getOrderId());
+                if (before == null) {
+                    conn.rollback();
+                    return false;
+                }
+                List<TaxLine> oldLines = readTaxLines(conn, order.getOrderId());
+                boolean discountChanged = order.getDiscountPaise() != before.getDiscountPaise();
+                taxLines = discountChanged ? TaxLedger.applyDiscount(oldLines, order.getDiscountPaise()) : oldLines;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, order.getStatus().name());
+                    pstmt.setString(2, order.getPaymentStatus().name());
+                    pstmt.setString(3, order.getPaymentMethod().name());
+                    pstmt.setBigDecimal(4, Money.toDecimal(order.getDiscountPaise()));
+                    pstmt.setBigDecimal(5, Money.toDecimal(TaxLedger.totalTax(taxLines)));
+                    pstmt.setInt(6, order.getOrderId());
+                    pstmt.executeUpdate();
+                }
+                if (discountChanged) {
+                    updateTaxLines(conn, order.getOrderId(), taxLines);
+                }
+                adjustTaxPeriodTotals(conn, before, oldLines, order.getStatus(), taxLines);
+                bumpDataVersions(conn, DataVersions.Entity.ORDERS);
+                changedAt = before.getStatus() != order.getStatus() // Only the payment or discount may have changed
+                        ? recordStatusTimestamps(conn, order.getOrderId(), order.getStatus()) : null;
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             System.err.println("Error updating order: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
+        order.setTaxLines(taxLines);
+        if (changedAt != null) {
+            notifyStatusChanged(order.getOrderId(), order.getStatus(), changedAt);
+        }
+        OrderHistoryStore store = OrderHistoryStore.getIfOpen();
+        if (store != null) {
+            store.orderUpdated(order.getOrderId(), order.getStatus(), order.getPaymentMethod(), order.getDiscountPaise(), order.getGSTAmountPaise());
+        }
+        return true;
     }
 
     /**
-     * Deletes an order from the database and returns its items to stock.
+     * Updates only the status of an order, e.g. from the kitchen display. Cancelling or reinstating
+     * the order takes its GST out of or puts it back into the filing-period totals.
      *
-     * @param orderId The ID of the order to delete.
-     * @return true if the order was deleted successfully, false otherwise.
+     * @param orderId The ID of the order.
+     * @param status The new status.
+     * @return true if the order was updated successfully, false otherwise.
      */
-    public static boolean deleteOrder(int orderId) {
-        String selectItemsSql = "SELECT menu_item_id, quantity FROM order_items WHERE order_id = ?";
-        String deleteOrderItemsSql = "DELETE FROM order_items WHERE order_id = ?";
-        String deleteOrderSql = "DELETE FROM orders WHERE order_id = ?";
-        String updateStockSql = "UPDATE menu_items SET stock = stock + ? WHERE id = ?";
-
-        Connection conn = null;
-        try {
-            conn = DBConnection.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-
-            // 1. Get items and quantities from the order to return stock
-            Map<Integer, Integer> itemsToReturnToStock = new HashMap<>();
-            try (PreparedStatement pstmt = conn.prepareStatement(selectItemsSql)) {
-                pstmt.setInt(1, orderId);
+    public static boolean updateOrderStatus(int orderId, OrderStatus status) {
+        String sql = "UPDATE orders SET status = ? WHERE order_id = ?";
+        LocalDateTime changedAt;
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Order before = readOrderTaxState(conn, orderId);
+                if (before == null) {
+                    conn.rollback();
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, status.name());
+                    pstmt.setInt(2, orderId);
+                    pstmt.executeUpdate();
+                }
+                if ((before.getStatus() == OrderStatus.CANCELLED) != (status == OrderStatus.CANCELLED)) {
+                    List<TaxLine> taxLines = readTaxLines(conn, orderId);
+                    adjustTaxPeriodTotals(conn, before, taxLines, status, taxLines);
+                }
+                bumpDataVersions(conn, DataVersions.Entity.ORDERS);
+                changedAt = before.getStatus() != status ? recordStatusTimestamps(conn, orderId, status) : null;
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating order status: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        if (changedAt != null) {
+            notifyStatusChanged(orderId, status, changedAt);
+        }
+        OrderHistoryStore store = OrderHistoryStore.getIfOpen();
+        if (store != null) {
+            store.orderStatusChanged(orderId, status);
+        }
+        return true;
+    }
+
+    /**
+     * Records the kitchen timestamps for a status change, within the caller's transaction.
+     * prep_started_at and ready_at are only set the first time the order reaches that status.
+     * @return The time of the change, to pass to notifyStatusChanged once the transaction commits.
+     */
+    private static LocalDateTime recordStatusTimestamps(Connection conn, int orderId, OrderStatus status) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        String column = status == OrderStatus.PREPARING ? "prep_started_at"
+                      : status == OrderStatus.READY_FOR_PICKUP ? "ready_at" : null;
+        if (column != null) {
+            String sql = "UPDATE orders SET " + column + " = ? WHERE order_id = ? AND " + column + " IS NULL";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(now));
+                pstmt.setInt(2, orderId);
+                pstmt.executeUpdate();
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Appends a committed status change to the status history and notifies the kitchen subsystems.
+     * Only called when the status really changed, so the history holds one event per transition.
+     */
+    private static void notifyStatusChanged(int orderId, OrderStatus status, LocalDateTime now) {
+        OrderStatusEventLog.getInstance().record(orderId, status, now); // Written in the background
+        KitchenOrderQueue.getInstance().updateStatus(orderId, status);
+        KitchenCapacityModel.getInstance().onStatusChanged(orderId, status, now);
+    }
+
+    /**
+     * Retrieves all orders that are still in the kitchen (PENDING or PREPARING), with their items.
+     * @return The open orders; item objects carry ID, name and price at order only.
+     */
+    public static List<Order> getOpenKitchenOrders() {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(OPEN_KITCHEN_ORDERS_SQL)) {
+            return readKitchenOrders(pstmt.executeQuery());
+        } catch (SQLException e) {
+            System.err.println("Error fetching open kitchen orders: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves orders placed since the given time that have been through the kitchen (ready_at set),
+     * with their items. Used to learn preparation times.
+     * @param since The earliest order time to include.
+     * @return The completed orders.
+     */
+    public static List<Order> getReadyOrdersSince(LocalDateTime since) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(READY_ORDERS_SINCE_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(since));
+            return readKitchenOrders(pstmt.executeQuery());
+        } catch (SQLException e) {
+            System.err.println("Error fetching completed kitchen orders: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves the status history of all orders placed since the given time, including events
+     * that happened after it. Events still queued in OrderStatusEventLog are written first.
+     * @param since The earliest order time to include.
+     * @return The events, grouped by order and in the order they happened.
+     */
+    public static List<OrderStatusEvent> getStatusEventsSince(LocalDateTime since) {
+        OrderStatusEventLog.getInstance().flush();
+        List<OrderStatusEvent> events = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(STATUS_EVENTS_SINCE_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(since));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new OrderStatusEvent(rs.getInt("order_id"),
+                            OrderStatus.valueOf(rs.getString("status")),
+                            rs.getTimestamp("changed_at").toLocalDateTime()));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching order status events: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return events;
+    }
+
+    /**
+     * Retrieves the dish names on each order placed since the given time.
+     * @param since The earliest order time to include.
+     * @return Order ID -> names of the dishes on the order.
+     */
+    public static Map<Integer, List<String>> getOrderDishNamesSince(LocalDateTime since) {
+        Map<Integer, List<String>> dishesByOrder = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ORDER_DISHES_SINCE_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(since));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    dishesByOrder.computeIfAbsent(rs.getInt("order_id"), id -> new ArrayList<>()).add(rs.getString("name"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching dishes per order: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return dishesByOrder;
+    }
+
+    /**
+     * Retrieves the distinct dishes of each order placed since the given time, for DishRecommender.
+     * @param since The earliest order time to include.
+     * @return One basket per order, oldest first; empty on error.
+     */
+    static List<DishRecommender.Basket> getOrderBasketsSince(LocalDateTime since) {
+        List<DishRecommender.Basket> baskets = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ORDER_DISH_IDS_SINCE_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(since));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int orderId = -1;
+                LocalDateTime orderTime = null;
+                TreeSet<Integer> dishes = new TreeSet<>();
+                while (rs.next()) {
+                    if (rs.getInt("order_id") != orderId) {
+                        if (!dishes.isEmpty()) {
+                            baskets.add(new DishRecommender.Basket(orderId, orderTime, dishes.stream().mapToInt(Integer::intValue).toArray()));
+                        }
+                        orderId = rs.getInt("order_id");
+                        orderTime = rs.getTimestamp("order_time").toLocalDateTime();
+                        dishes.clear();
+                    }
+                    dishes.add(rs.getInt("menu_item_id"));
+                }
+                if (!dishes.isEmpty()) {
+                    baskets.add(new DishRecommender.Basket(orderId, orderTime, dishes.stream().mapToInt(Integer::intValue).toArray()));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching order baskets: " + e.getMessage());
+            e.printStackTrace();
+            baskets.clear();
+        }
+        return baskets;
+    }
+
+    /**
+     * Streams the order items of every order placed since the given time to a visitor, row by row,
+     * without holding the history in memory. Used by DemandForecaster.
+     * @param since The earliest order time to include.
+     * @param visitor Receives each order item.
+     * @return True if every row was read, false on error (the visitor may have seen some rows).
+     */
+    static boolean streamOrderItemsSince(LocalDateTime since, DemandForecaster.OrderItemVisitor visitor) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ORDER_ITEM_QUANTITIES_SINCE_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(since));
+            pstmt.setFetchSize(1000);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime(), rs.getInt(3));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming order items: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Streams the items of every order after an order ID, in order ID order, for OrderHistoryStore.
+     *
+     * @param afterOrderId Only orders with a greater ID are read.
+     * @param visitor Receives each order item.
+     * @return true if every row was read, false on a database error.
+     */
+    static boolean streamOrderLinesAfter(int afterOrderId, OrderHistoryStore.LineVisitor visitor) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ORDER_LINES_AFTER_SQL)) {
+            pstmt.setInt(1, afterOrderId);
+            pstmt.setFetchSize(1000);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime(), OrderStatus.valueOf(rs.getString(3)),
+                            PaymentMethod.valueOf(rs.getString(4)), Money.fromDecimal(rs.getBigDecimal(5)), Money.fromDecimal(rs.getBigDecimal(6)),
+                            rs.getInt(7), rs.getInt(8), Money.fromDecimal(rs.getBigDecimal(9)));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming order lines: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Streams the status, payment method, discount and GST of every order, for OrderHistoryStore to reconcile with.
+     *
+     * @param visitor Receives each order.
+     * @return true if every row was read, false on a database error.
+     */
+    static boolean streamOrderStates(OrderHistoryStore.OrderStateVisitor visitor) {
+        String sql = "SELECT order_id, status, payment_method, discount_applied, gst_amount FROM orders";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setFetchSize(1000);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), OrderStatus.valueOf(rs.getString(2)), PaymentMethod.valueOf(rs.getString(3)),
+                            Money.fromDecimal(rs.getBigDecimal(4)), Money.fromDecimal(rs.getBigDecimal(5)));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming order states: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Groups rows of KITCHEN_ORDERS_SELECT (one row per order item) into orders.
+     */
+    private static List<Order> readKitchenOrders(ResultSet rs) throws SQLException {
+        Map<Integer, Order> ordersById = new LinkedHashMap<>();
+        try (rs) {
+            while (rs.next()) {
+                int orderId = rs.getInt("order_id");
+                Order order = ordersById.get(orderId);
+                if (order == null) {
+                    order = new Order(orderId);
+                    order.setCustomerUsername(rs.getString("customer_username"));
+                    order.setOrderTime(rs.getTimestamp("order_time").toLocalDateTime());
+                    order.setStatus(OrderStatus.valueOf(rs.getString("status")));
+                    Timestamp prepStartedAt = rs.getTimestamp("prep_started_at");
+                    order.setPrepStartedAt(prepStartedAt != null ? prepStartedAt.toLocalDateTime() : null);
+                    Timestamp readyAt = rs.getTimestamp("ready_at");
+                    order.setReadyAt(readyAt != null ? readyAt.toLocalDateTime() : null);
+                    ordersById.put(orderId, order);
+                }
+                MenuItem item = new MenuItem(rs.getInt("menu_item_id"), rs.getString("name"), 0);
+                item.setPricePaise(Money.fromDecimal(rs.getBigDecimal("price_at_order")));
+                int quantity = rs.getInt("quantity");
+                for (int i = 0; i < quantity; i++) {
+                    order.addItem(item);
+                }
+            }
+        }
+        return new ArrayList<>(ordersById.values());
+    }
+
+    /**
+     * Deletes an order from the database and returns its items to stock.
+     *
+     * @param orderId The ID of the order to delete.
+     * @return true if the order was deleted successfully, false otherwise.
+     */
+    public static boolean deleteOrder(int orderId) {
+        String deleteOrderItemsSql = "DELETE FROM order_items WHERE order_id = ?";
+        String deleteOrderSql = "DELETE FROM orders WHERE order_id = ?";
+        String updateStockSql = "UPDATE menu_items SET stock = stock + ? WHERE id = ?";
+
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            // 1. Get items and quantities from the order to return stock
+            Map<Integer, Integer> itemsToReturnToStock = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(ORDER_ITEM_QUANTITIES_SQL)) {
+                pstmt.setInt(1, orderId);
                 ResultSet rs = pstmt.executeQuery();
                 while (rs.next()) {
                     itemsToReturnToStock.put(rs.getInt("menu_item_id"), rs.getInt("quantity"));
                 }
             }
 
-            // 2. Delete order items
+            // 2. Take the order's GST out of the filing-period totals (its tax lines are deleted with it)
+            Order before = readOrderTaxState(conn, orderId);
+            if (before != null && before.getStatus() != OrderStatus.CANCELLED) {
+                addToTaxPeriodTotals(conn, before.getOrderTime().toLocalDate(), readTaxLines(conn, orderId), -1);
+            }
+
+            // 3. Return the ingredients the order used (its usage rows are deleted with it)
+            if (applyIngredientUsage(conn, RESTORE_INGREDIENTS_SQL, orderId) > 0) {
+                updateDishAvailability(conn, AVAILABILITY_INPUTS_FOR_ORDER_SQL, orderId);
+            }
+
+            // 4. Delete order items
             try (PreparedStatement pstmt = conn.prepareStatement(deleteOrderItemsSql)) {
                 pstmt.setInt(1, orderId);
                 pstmt.executeUpdate();
             }
 
-            // 3. Delete the order itself
+            // 5. Delete the order itself
             try (PreparedStatement pstmt = conn.prepareStatement(deleteOrderSql)) {
                 pstmt.setInt(1, orderId);
                 int affectedRows = pstmt.executeUpdate();
@@ -1010,21 +1546,1113 @@ public class DatabaseManager {
                 }
             }
 
-            // 4. Return stock for each item
-            try (PreparedStatement pstmt = conn.prepareStatement(updateStockSql)) {
-                for (Map.Entry<Integer, Integer> entry : itemsToReturnToStock.entrySet()) {
-                    pstmt.setInt(1, entry.getValue()); // quantity to add back
-                    pstmt.setInt(2, entry.getKey());   // menu_item_id
-                    pstmt.addBatch();
+            // 6. Return stock for each item
+            try (PreparedStatement pstmt = conn.prepareStatement(updateStockSql)) {
+                for (Map.Entry<Integer, Integer> entry : itemsToReturnToStock.entrySet()) {
+                    pstmt.setInt(1, entry.getValue()); // quantity to add back
+                    pstmt.setInt(2, entry.getKey());   // menu_item_id
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            bumpDataVersions(conn, DataVersions.Entity.ORDERS, DataVersions.Entity.MENU_ITEMS);
+            conn.commit(); // Commit transaction
+            KitchenOrderQueue.getInstance().remove(orderId);
+            KitchenCapacityModel.getInstance().remove(orderId);
+            OrderHistoryStore store = OrderHistoryStore.getIfOpen();
+            if (store != null) {
+                store.orderDeleted(orderId);
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error deleting order and returning stock: " + e.getMessage());
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("Error rolling back transaction: " + ex.getMessage());
+                }
+            }
+            return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                    conn.close();
+                } catch (SQLException e) { // Catch block for closing connection
+                    System.err.println("Error closing connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+
+    // --- GST Ledger Methods ---
+
+    /**
+     * Retrieves every GST rate, past, current and future.
+     * @return The rates by category and effective date.
+     */
+    public static List<TaxRate> getAllTaxRates() {
+        List<TaxRate> rates = new ArrayList<>();
+        String sql = "SELECT tax_category, effective_from, rate_basis_points FROM tax_rates ORDER BY tax_category, effective_from";
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                rates.add(new TaxRate(TaxCategory.valueOf(rs.getString("tax_category")), rs.getDate("effective_from").toLocalDate(),
+                        rs.getInt("rate_basis_points")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching tax rates: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return rates;
+    }
+
+    /**
+     * Adds a GST rate, or replaces the rate of the same category from the same date. Orders already
+     * placed keep the rate they were charged.
+     * @param rate The rate.
+     * @return true if the rate was saved, false otherwise.
+     */
+    public static boolean saveTaxRate(TaxRate rate) {
+        String sql = "INSERT INTO tax_rates (tax_category, effective_from, rate_basis_points) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE rate_basis_points = VALUES(rate_basis_points)";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, rate.getCategory().name());
+            pstmt.setDate(2, java.sql.Date.valueOf(rate.getEffectiveFrom()));
+            pstmt.setInt(3, rate.getRateBasisPoints());
+            pstmt.executeUpdate();
+            bumpDataVersions(conn, DataVersions.Entity.TAX_RATES);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving tax rate: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Deletes a GST rate; the category's previous rate then applies until its next one.
+     * @param category The tax category.
+     * @param effectiveFrom The date the rate took effect.
+     * @return true if the rate was deleted, false otherwise.
+     */
+    public static boolean deleteTaxRate(TaxCategory category, LocalDate effectiveFrom) {
+        String sql = "DELETE FROM tax_rates WHERE tax_category = ? AND effective_from = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, category.name());
+            pstmt.setDate(2, java.sql.Date.valueOf(effectiveFrom));
+            int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.TAX_RATES);
+            }
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            System.err.println("Error deleting tax rate: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves the GST charged on an order, per tax category.
+     * @param orderId The ID of the order.
+     * @return The tax lines; empty if the order has no items or on error.
+     */
+    public static List<TaxLine> getOrderTaxLines(int orderId) {
+        try (Connection conn = DBConnection.getConnection()) {
+            return readTaxLines(conn, orderId);
+        } catch (SQLException e) {
+            System.err.println("Error fetching order tax lines: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves the GST totals of a filing period by category and rate. These are kept up to date
+     * by every order write, so this reads a few rows however many orders the period had.
+     * @param period Month or quarter.
+     * @param periodStart The first day of the period (see TaxLedger.Period.startOf).
+     * @return The totals; empty if the period had no orders or on error.
+     */
+    public static List<TaxLedger.PeriodTotal> getTaxPeriodTotals(TaxLedger.Period period, LocalDate periodStart) {
+        List<TaxLedger.PeriodTotal> totals = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(TAX_PERIOD_TOTALS_SQL)) {
+            pstmt.setString(1, period.name());
+            pstmt.setDate(2, java.sql.Date.valueOf(periodStart));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getInt("orders") == 0) {
+                        continue; // Every order in it was since cancelled or deleted
+                    }
+                    totals.add(new TaxLedger.PeriodTotal(TaxCategory.valueOf(rs.getString("tax_category")), rs.getInt("rate_basis_points"),
+                            rs.getInt("orders"), Money.fromDecimal(rs.getBigDecimal("gross_amount")),
+                            Money.fromDecimal(rs.getBigDecimal("discount_amount")), Money.fromDecimal(rs.getBigDecimal("tax_amount"))));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching tax period totals: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return totals;
+    }
+
+    /**
+     * Reads and locks the order date, status and discount of an order, which decide its GST and
+     * whether it counts in the filing-period totals.
+     * @return The order with only those fields set, or null if it does not exist.
+     */
+    private static Order readOrderTaxState(Connection conn, int orderId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ORDER_TAX_STATE_SQL)) {
+            pstmt.setInt(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Order order = new Order(orderId);
+                order.setOrderTime(rs.getTimestamp("order_time").toLocalDateTime());
+                order.setStatus(OrderStatus.valueOf(rs.getString("status")));
+                order.setDiscountPaise(Money.fromDecimal(rs.getBigDecimal("discount_applied")));
+                return order;
+            }
+        }
+    }
+
+    private static List<TaxLine> readTaxLines(Connection conn, int orderId) throws SQLException {
+        List<TaxLine> lines = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(ORDER_TAX_LINES_SQL)) {
+            pstmt.setInt(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    lines.add(new TaxLine(TaxCategory.valueOf(rs.getString("tax_category")), rs.getInt("rate_basis_points"),
+                            Money.fromDecimal(rs.getBigDecimal("gross_amount")), Money.fromDecimal(rs.getBigDecimal("discount_amount")),
+                            Money.fromDecimal(rs.getBigDecimal("tax_amount"))));
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static void insertTaxLines(Connection conn, int orderId, List<TaxLine> lines) throws SQLException {
+        String sql = "INSERT INTO order_tax_lines (order_id, tax_category, rate_basis_points, gross_amount, discount_amount, tax_amount) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (TaxLine line : lines) {
+                pstmt.setInt(1, orderId);
+                pstmt.setString(2, line.getCategory().name());
+                pstmt.setInt(3, line.getRateBasisPoints());
+                pstmt.setBigDecimal(4, Money.toDecimal(line.getGrossPaise()));
+                pstmt.setBigDecimal(5, Money.toDecimal(line.getDiscountPaise()));
+                pstmt.setBigDecimal(6, Money.toDecimal(line.getTaxPaise()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Stores the discount share and GST of an order's tax lines after its discount changed.
+     */
+    private static void updateTaxLines(Connection conn, int orderId, List<TaxLine> lines) throws SQLException {
+        String sql = "UPDATE order_tax_lines SET discount_amount = ?, tax_amount = ? WHERE order_id = ? AND tax_category = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (TaxLine line : lines) {
+                pstmt.setBigDecimal(1, Money.toDecimal(line.getDiscountPaise()));
+                pstmt.setBigDecimal(2, Money.toDecimal(line.getTaxPaise()));
+                pstmt.setInt(3, orderId);
+                pstmt.setString(4, line.getCategory().name());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Moves an order's GST in the filing-period totals from its old lines and status to its new
+     * ones. Cancelled orders do not count.
+     * @param before The order's state before the change (see readOrderTaxState).
+     * @param oldLines The tax lines before the change.
+     * @param status The new status.
+     * @param newLines The tax lines after the change; the same list if they did not change.
+     */
+    private static void adjustTaxPeriodTotals(Connection conn, Order before, List<TaxLine> oldLines,
+                                              OrderStatus status, List<TaxLine> newLines) throws SQLException {
+        boolean counted = before.getStatus() != OrderStatus.CANCELLED;
+        boolean counts = status != OrderStatus.CANCELLED;
+        if (counted == counts && oldLines == newLines) {
+            return;
+        }
+        LocalDate day = before.getOrderTime().toLocalDate();
+        if (counted) {
+            addToTaxPeriodTotals(conn, day, oldLines, -1);
+        }
+        if (counts) {
+            addToTaxPeriodTotals(conn, day, newLines, 1);
+        }
+    }
+
+    /**
+     * Adds an order's tax lines to, or with sign -1 subtracts them from, the totals of the month
+     * and the quarter of its order date.
+     */
+    private static void addToTaxPeriodTotals(Connection conn, LocalDate orderDay, List<TaxLine> lines, int sign) throws SQLException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(ADD_TO_TAX_PERIOD_TOTALS_SQL)) {
+            for (TaxLedger.Period period : TaxLedger.Period.values()) {
+                for (TaxLine line : lines) {
+                    pstmt.setString(1, period.name());
+                    pstmt.setDate(2, java.sql.Date.valueOf(period.startOf(orderDay)));
+                    pstmt.setString(3, line.getCategory().name());
+                    pstmt.setInt(4, line.getRateBasisPoints());
+                    pstmt.setInt(5, sign);
+                    pstmt.setBigDecimal(6, Money.toDecimal(sign * line.getGrossPaise()));
+                    pstmt.setBigDecimal(7, Money.toDecimal(sign * line.getDiscountPaise()));
+                    pstmt.setBigDecimal(8, Money.toDecimal(sign * line.getTaxPaise()));
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+
+    // --- Table Booking Management Methods ---
+
+    /**
+     * Adds a new table booking to the database. The booking row and its slot claims are written in
+     * one transaction, so if another terminal booked an overlapping time on the same table first,
+     * the database rejects this booking and nothing is saved.
+     * @param booking The TableBooking object to add. The ID will be auto-generated.
+     * @return true if the booking was added successfully, false if the table is taken or on error.
+     */
+    public static boolean addTableBooking(TableBooking booking) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!insertTableBooking(conn, booking) || !claimBookingSlots(conn, Collections.singletonList(booking))) {
+                    conn.rollback();
+                    return false;
+                }
+                bumpDataVersions(conn, DataVersions.Entity.TABLE_BOOKINGS);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            notifyBookingSaved(booking);
+            return true;
+        } 
+        catch (SQLException e) { 
+            System.err.println("Error adding table booking: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Adds the bookings of a party seated at combined tables, one row per table, in a single
+     * transaction: either every table is booked or none is (e.g. when one of them was just taken).
+     * @param bookings One booking per table; their IDs are set on success.
+     * @return true if all bookings were added, false otherwise.
+     */
+    public static boolean addTableBookings(List<TableBooking> bookings) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (TableBooking booking : bookings) {
+                    if (!insertTableBooking(conn, booking)) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+                if (!claimBookingSlots(conn, bookings)) {
+                    conn.rollback();
+                    return false;
+                }
+                bumpDataVersions(conn, DataVersions.Entity.TABLE_BOOKINGS);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            for (TableBooking booking : bookings) {
+                notifyBookingSaved(booking);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding combined table bookings: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Books one table at every occurrence of a recurrence rule, e.g. a weekly standing reservation.
+     * All existing bookings of the table between the first and the last occurrence are read with
+     * one range scan on (table_number, booking_time) and checked against the occurrences in a single
+     * merge sweep, as both are in start order. The free occurrences are then inserted as one JDBC
+     * batch, in the same transaction as the check, and their slots claimed with one statement; if
+     * another booking claimed one of them since the sweep, the attempt is rolled back and swept again.
+     * @param template The booking to repeat: table, customer, duration, fee and payment details.
+     *                 Its booking time is ignored; the rule's occurrences are used instead.
+     * @param rule When the booking repeats.
+     * @return One result per occurrence, in order; conflicting and past occurrences are skipped,
+     *         the others are booked (or all FAILED if the database could not be written).
+     */
+    public static List<BookingOccurrenceResult> addRecurringTableBookings(TableBooking template, RecurrenceRule rule) {
+        List<LocalDateTime> occurrences = rule.occurrences();
+        List<BookingOccurrenceResult> results = new ArrayList<>();
+        List<TableBooking> toInsert = new ArrayList<>();
+        if (occurrences.isEmpty()) {
+            return results;
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    if (insertOccurrences(conn, template, occurrences, results, toInsert)) {
+                        bumpDataVersions(conn, DataVersions.Entity.TABLE_BOOKINGS);
+                        conn.commit();
+                        break;
+                    }
+                    conn.rollback(); // Lost a race for a slot; the next sweep sees the winner as a conflict
+                    if (attempt == MAX_BOOKING_ATTEMPTS) {
+                        throw new SQLException("Slots kept being taken by concurrent bookings");
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error adding recurring table bookings: " + e.getMessage());
+            e.printStackTrace();
+            List<BookingOccurrenceResult> failed = new ArrayList<>();
+            for (LocalDateTime start : occurrences) {
+                failed.add(new BookingOccurrenceResult(start, BookingOccurrenceResult.Outcome.FAILED, null, null));
+            }
+            return failed;
+        }
+        for (TableBooking booking : toInsert) {
+            notifyBookingSaved(booking);
+        }
+        return results;
+    }
+
+    /**
+     * One attempt of addRecurringTableBookings: sweep, batch insert and claim the slots.
+     * @param results Filled with one result per occurrence.
+     * @param toInsert Filled with the bookings inserted.
+     * @return false if a slot was taken meanwhile; the caller must roll back.
+     */
+    private static boolean insertOccurrences(Connection conn, TableBooking template, List<LocalDateTime> occurrences,
+                                             List<BookingOccurrenceResult> results, List<TableBooking> toInsert) throws SQLException {
+        results.clear();
+        toInsert.clear();
+        LocalDateTime now = LocalDateTime.now();
+        int duration = template.getDurationMinutes();
+        // A booking can reach at most the longest duration (plus slot rounding) past its start
+        long reachMinutes = MAX_BOOKING_DURATION_MINUTES + TableSlotAllocator.SLOT_MINUTES;
+
+        // Existing bookings of the table that can overlap any occurrence, in start order, as slot ranges
+        List<LocalDateTime> bookedFrom = new ArrayList<>();
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(TABLE_BOOKINGS_IN_WINDOW_SQL)) {
+            pstmt.setInt(1, template.getTableNumber());
+            pstmt.setTimestamp(2, Timestamp.valueOf(slotStart(occurrences.get(0)).minusMinutes(reachMinutes)));
+            pstmt.setTimestamp(3, Timestamp.valueOf(slotEnd(occurrences.get(occurrences.size() - 1).plusMinutes(duration))));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime start = rs.getTimestamp("booking_time").toLocalDateTime();
+                    bookedFrom.add(start);
+                    starts.add(slotStart(start));
+                    ends.add(slotEnd(start.plusMinutes(rs.getInt("duration_minutes"))));
+                }
+            }
+        }
+
+        // Sweep: [low, high) are the bookings starting late enough to reach the occurrence and before it ends
+        int low = 0;
+        int high = 0;
+        for (LocalDateTime occurrence : occurrences) {
+            LocalDateTime start = slotStart(occurrence);
+            LocalDateTime end = slotEnd(occurrence.plusMinutes(duration));
+            while (low < starts.size() && !starts.get(low).isAfter(start.minusMinutes(reachMinutes))) {
+                low++;
+            }
+            while (high < starts.size() && starts.get(high).isBefore(end)) {
+                high++;
+            }
+            LocalDateTime conflict = null;
+            for (int i = low; i < high && conflict == null; i++) {
+                if (ends.get(i).isAfter(start)) {
+                    conflict = bookedFrom.get(i);
+                }
+            }
+            if (occurrence.isBefore(now)) {
+                results.add(new BookingOccurrenceResult(occurrence, BookingOccurrenceResult.Outcome.PAST, null, null));
+            } else if (conflict != null) {
+                results.add(new BookingOccurrenceResult(occurrence, BookingOccurrenceResult.Outcome.CONFLICT, null, conflict));
+            } else {
+                TableBooking booking = new TableBooking(0, template.getCustomerId(), template.getCustomerName(), template.getPhone(),
+                        template.getTableType(), template.getTableNumber(), template.getSeats(), occurrence, duration, 0,
+                        template.getPaymentStatus(), template.getPaymentMethod());
+                booking.setBookingFeePaise(template.getBookingFeePaise());
+                toInsert.add(booking);
+                results.add(new BookingOccurrenceResult(occurrence, BookingOccurrenceResult.Outcome.BOOKED, booking, null));
+            }
+        }
+
+        if (toInsert.isEmpty()) {
+            return true;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TABLE_BOOKING_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (TableBooking booking : toInsert) {
+                bindTableBooking(pstmt, booking);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < toInsert.size() && generatedKeys.next(); i++) {
+                    toInsert.get(i).setBookingId(generatedKeys.getInt(1));
+                }
+            }
+        }
+        return claimBookingSlots(conn, toInsert);
+    }
+
+    /**
+     * Claims the 15-minute slots of bookings in table_booking_slots with a single multi-row INSERT.
+     * Its primary key (table_number, slot_start) is what makes bookings overlap-free: if any slot
+     * is already claimed the database rejects the statement, so the check and the claim are one
+     * atomic round trip and no lock is held between reading availability and booking.
+     * @param conn A connection inside the transaction that inserted the booking rows.
+     * @param bookings Saved bookings (with their IDs).
+     * @return true if every slot was claimed, false if one was taken; the caller must then roll back.
+     */
+    private static boolean claimBookingSlots(Connection conn, List<TableBooking> bookings) throws SQLException {
+        List<Object[]> slots = new ArrayList<>();
+        for (TableBooking booking : bookings) {
+            LocalDateTime end = booking.getBookingTime().plusMinutes(booking.getDurationMinutes());
+            for (LocalDateTime slot = slotStart(booking.getBookingTime()); slot.isBefore(end); slot = slot.plusMinutes(TableSlotAllocator.SLOT_MINUTES)) {
+                slots.add(new Object[] {booking.getTableNumber(), slot, booking.getBookingId()});
+            }
+        }
+        if (slots.isEmpty()) {
+            return true;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO table_booking_slots (table_number, slot_start, booking_id) VALUES ");
+        for (int i = 0; i < slots.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Object[] slot : slots) {
+                pstmt.setInt(index++, (Integer) slot[0]);
+                pstmt.setTimestamp(index++, Timestamp.valueOf((LocalDateTime) slot[1]));
+                pstmt.setInt(index++, (Integer) slot[2]);
+            }
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return false; // Duplicate (table_number, slot_start): someone else has the table
+        } catch (SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                return false; // Drivers that report the violation only through the SQL state
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return The start of the slot containing a time (same rounding as TableSlotAllocator).
+     */
+    private static LocalDateTime slotStart(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS).plusMinutes(time.getMinute() / TableSlotAllocator.SLOT_MINUTES * TableSlotAllocator.SLOT_MINUTES);
+    }
+
+    /**
+     * @return The end of the slot a booking ending at this time occupies last.
+     */
+    private static LocalDateTime slotEnd(LocalDateTime time) {
+        LocalDateTime start = slotStart(time);
+        return start.equals(time) ? start : start.plusMinutes(TableSlotAllocator.SLOT_MINUTES);
+    }
+
+    /**
+     * Gives up the slots of a booking (its row in table_bookings is kept).
+     */
+    private static void releaseBookingSlots(Connection conn, int bookingId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM table_booking_slots WHERE booking_id = ?")) {
+            pstmt.setInt(1, bookingId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static boolean insertTableBooking(Connection conn, TableBooking booking) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TABLE_BOOKING_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindTableBooking(pstmt, booking);
+            int affectedRows = pstmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        booking.setBookingId(generatedKeys.getInt(1)); // Set generated ID
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static void bindTableBooking(PreparedStatement pstmt, TableBooking booking) throws SQLException {
+        pstmt.setString(1, booking.getCustomerId());
+        pstmt.setString(2, booking.getCustomerName());
+        pstmt.setString(3, booking.getPhone());
+        pstmt.setString(4, booking.getTableType().name()); // Store enum name
+        pstmt.setInt(5, booking.getTableNumber());
+        pstmt.setInt(6, booking.getSeats());
+        pstmt.setTimestamp(7, Timestamp.valueOf(booking.getBookingTime()));
+        pstmt.setInt(8, booking.getDurationMinutes());
+        pstmt.setBigDecimal(9, Money.toDecimal(booking.getBookingFeePaise()));
+        pstmt.setString(10, booking.getPaymentStatus().name());
+        pstmt.setString(11, booking.getPaymentMethod().name());
+    }
+
+    /**
+     * Retrieves all table bookings from the database.
+     * @return A list of all TableBooking objects.
+     */
+    public static List<TableBooking> getAllTableBookings() {
+        List<TableBooking> bookings = new ArrayList<>();
+        String sql = "SELECT booking_id, customer_id, customer_name, phone, table_type, table_number, seats, booking_time, duration_minutes, booking_fee, payment_status, payment_method FROM table_bookings";
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                int bookingId = rs.getInt("booking_id");
+                String customerId = rs.getString("customer_id");
+                String customerName = rs.getString("customer_name");
+                String phone = rs.getString("phone");
+                TableType tableType = TableType.valueOf(rs.getString("table_type"));
+                int tableNumber = rs.getInt("table_number");
+                int seats = rs.getInt("seats");
+                LocalDateTime bookingTime = rs.getTimestamp("booking_time").toLocalDateTime();
+                int durationMinutes = rs.getInt("duration_minutes");
+                long bookingFeePaise = Money.fromDecimal(rs.getBigDecimal("booking_fee"));
+                PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
+                PaymentMethod paymentMethod = PaymentMethod.valueOf(rs.getString("payment_method"));
+
+                TableBooking booking = new TableBooking(bookingId, customerId, customerName, phone, tableType, tableNumber, seats,
+                                                        bookingTime, durationMinutes, 0, paymentStatus, paymentMethod);
+                booking.setBookingFeePaise(bookingFeePaise);
+                bookings.add(booking);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching all table bookings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return bookings;
+    }
+
+    /**
+     * Retrieves table bookings for a specific customer.
+     * @param customerId The ID of the customer.
+     * @return A list of TableBooking objects for the specified customer.
+     */
+    public static List<TableBooking> getTableBookingsByCustomerId(String customerId) {
+        List<TableBooking> bookings = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BOOKINGS_BY_CUSTOMER_SQL)) {
+            pstmt.setString(1, customerId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                int bookingId = rs.getInt("booking_id");
+                String customerName = rs.getString("customer_name");
+                String phone = rs.getString("phone");
+                TableType tableType = TableType.valueOf(rs.getString("table_type"));
+                int tableNumber = rs.getInt("table_number");
+                int seats = rs.getInt("seats");
+                LocalDateTime bookingTime = rs.getTimestamp("booking_time").toLocalDateTime();
+                int durationMinutes = rs.getInt("duration_minutes");
+                long bookingFeePaise = Money.fromDecimal(rs.getBigDecimal("booking_fee"));
+                PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
+                PaymentMethod paymentMethod = PaymentMethod.valueOf(rs.getString("payment_method"));
+
+                TableBooking booking = new TableBooking(bookingId, customerId, customerName, phone, tableType, tableNumber, seats,
+                                                        bookingTime, durationMinutes, 0, paymentStatus, paymentMethod);
+                booking.setBookingFeePaise(bookingFeePaise);
+                bookings.add(booking);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching table bookings by customer ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return bookings;
+    }
+
+    /**
+     * Updates an existing table booking in the database. Its slots are claimed again in the same
+     * transaction, so moving it onto a table and time that is already booked fails.
+     * @param booking The TableBooking object with updated values.
+     * @return true if the booking was updated successfully, false if the new slot is taken or on error.
+     */
+    public static boolean updateTableBooking(TableBooking booking) {
+        String sql = "UPDATE table_bookings SET customer_name = ?, phone = ?, table_type = ?, table_number = ?, seats = ?, booking_time = ?, duration_minutes = ?, booking_fee = ?, payment_status = ?, payment_method = ? WHERE booking_id = ?";
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, booking.getCustomerName());
+                pstmt.setString(2, booking.getPhone());
+                pstmt.setString(3, booking.getTableType().name());
+                pstmt.setInt(4, booking.getTableNumber());
+                pstmt.setInt(5, booking.getSeats());
+                pstmt.setTimestamp(6, Timestamp.valueOf(booking.getBookingTime()));
+                pstmt.setInt(7, booking.getDurationMinutes());
+                pstmt.setBigDecimal(8, Money.toDecimal(booking.getBookingFeePaise()));
+                pstmt.setString(9, booking.getPaymentStatus().name());
+                pstmt.setString(10, booking.getPaymentMethod().name());
+                pstmt.setInt(11, booking.getBookingId());
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                // Re-claim the slots: the booking may have moved, and an expired one holds none
+                releaseBookingSlots(conn, booking.getBookingId());
+                if (booking.getPaymentStatus() != PaymentStatus.EXPIRED && !claimBookingSlots(conn, Collections.singletonList(booking))) {
+                    conn.rollback(); // Moved onto a slot that is taken
+                    return false;
+                }
+                bumpDataVersions(conn, DataVersions.Entity.TABLE_BOOKINGS);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            notifyBookingSaved(booking); // The booking may have moved and freed its old slots
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error updating table booking: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Deletes a table booking from the database.
+     * @param bookingId The ID of the booking to delete.
+     * @return true if the booking was deleted successfully, false otherwise.
+     */
+    public static boolean deleteTableBooking(int bookingId) {
+        String sql = "DELETE FROM table_bookings WHERE booking_id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, bookingId);
+            int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                bumpDataVersions(conn, DataVersions.Entity.TABLE_BOOKINGS);
+                notifyBookingReleased(bookingId);
+                BookingExpiryScheduler expiry = BookingExpiryScheduler.getIfStarted();
+                if (expiry != null) {
+                    expiry.onBookingDeleted(bookingId);
+                }
+            }
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            System.err.println("Error deleting table booking: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Marks an unpaid booking as a no-show, releasing its table. Does nothing if the booking has
+     * been paid, deleted or moved to a later time in the meantime (possibly from another terminal),
+     * so the database decides whether the grace period has really ended, and of several terminals
+     * running the expiry scheduler only one expires the booking.
+     * @param bookingId The ID of the booking.
+     * @return true if the booking was expired by this call.
+     */
+    public static boolean expireUnpaidBooking(int bookingId) {
+        String sql = "UPDATE table_bookings SET payment_status = ? WHERE booking_id = ? AND payment_status = ? AND booking_time <= ?";
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, PaymentStatus.EXPIRED.name());
+                pstmt.setInt(2, bookingId);
+                pstmt.setString(3, PaymentStatus.PENDING.name());
+                pstmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now().minusMinutes(BookingExpiryScheduler.GRACE_MINUTES)));
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                releaseBookingSlots(conn, bookingId);
+                bumpDataVersions(conn, DataVersions.Entity.TABLE_BOOKINGS);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            notifyBookingReleased(bookingId);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error expiring table booking: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the start time of every unpaid booking starting after a given time, for the no-show
+     * timeouts of BookingExpiryScheduler.
+     * @param after Bookings starting at or before this time are left out.
+     * @return Booking ID -> booking time.
+     */
+    public static Map<Integer, LocalDateTime> getUnpaidBookingsAfter(LocalDateTime after) {
+        Map<Integer, LocalDateTime> bookings = new LinkedHashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UNPAID_BOOKINGS_AFTER_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(after));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    bookings.put(rs.getInt("booking_id"), rs.getTimestamp("booking_time").toLocalDateTime());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading unpaid bookings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return bookings;
+    }
+
+    /**
+     * Tells the walk-in waitlist and the no-show scheduler, if they are running, that a booking was saved.
+     */
+    private static void notifyBookingSaved(TableBooking booking) {
+        if (booking.getPaymentStatus() == PaymentStatus.EXPIRED) {
+            notifyBookingReleased(booking.getBookingId()); // Expired by hand in Manage Bookings
+        } else {
+            WalkInWaitlist waitlist = WalkInWaitlist.getIfStarted();
+            if (waitlist != null) {
+                waitlist.onBookingSaved(booking);
+            }
+        }
+        BookingExpiryScheduler expiry = BookingExpiryScheduler.getIfStarted();
+        if (expiry != null) {
+            expiry.onBookingSaved(booking);
+        }
+    }
+
+    /**
+     * Tells the walk-in waitlist, if it is running, that a booking no longer holds its table.
+     */
+    private static void notifyBookingReleased(int bookingId) {
+        WalkInWaitlist waitlist = WalkInWaitlist.getIfStarted();
+        if (waitlist != null) {
+            waitlist.onBookingReleased(bookingId); // Its tables may seat a waiting party now
+        }
+    }
+
+    /**
+     * Returns when each booking that has not ended yet ends, for the waitlist's release timers.
+     * @param now The current time.
+     * @return Booking ID -> end time, for bookings ending after now.
+     */
+    public static Map<Integer, LocalDateTime> getBookingEndsAfter(LocalDateTime now) {
+        Map<Integer, LocalDateTime> ends = new LinkedHashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BOOKINGS_STARTING_AFTER_SQL)) {
+            // Bookings ending after now started less than the longest allowed booking ago
+            pstmt.setTimestamp(1, Timestamp.valueOf(now.minusMinutes(MAX_BOOKING_DURATION_MINUTES)));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime end = rs.getTimestamp("booking_time").toLocalDateTime().plusMinutes(rs.getInt("duration_minutes"));
+                    if (end.isAfter(now)) {
+                        ends.put(rs.getInt("booking_id"), end);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading booking end times: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return ends;
+    }
+
+    /**
+     * Checks for available tables given a desired time, duration, and required seats.
+     * Existing bookings are marked in a TableSlotAllocator and every table is tested against the
+     * window with word-level bit operations.
+     *
+     * @param desiredTime The desired start time for the booking.
+     * @param durationMinutes The duration of the booking in minutes.
+     * @param requiredSeats The minimum number of seats required.
+     * @return A Map where keys are TableType and values are lists of available table numbers.
+     */
+    public static Map<TableType, List<Integer>> getAvailableTables(LocalDateTime desiredTime, int durationMinutes, int requiredSeats) {
+        TableSlotAllocator allocator = new TableSlotAllocator(desiredTime.toLocalDate(), getFloorPlan());
+        // Only the bookings that might conflict with the desired time slot: those starting before the
+        // desired end and less than the longest allowed booking before the desired start
+        loadBookedSlots(allocator, desiredTime.minusMinutes(MAX_BOOKING_DURATION_MINUTES), desiredTime.plusMinutes(durationMinutes));
+        return allocator.findFreeTables(desiredTime, durationMinutes, requiredSeats);
+    }
+
+    /**
+     * Builds the seating allocator for a whole day, for best-fit allocation and free-window queries.
+     * @param day The day.
+     * @return The allocator with every booking touching the day marked.
+     */
+    public static TableSlotAllocator getTableSlotAllocator(LocalDate day) {
+        TableSlotAllocator allocator = new TableSlotAllocator(day, getFloorPlan());
+        LocalDateTime dayStart = day.atStartOfDay();
+        loadBookedSlots(allocator, dayStart.minusMinutes(MAX_BOOKING_DURATION_MINUTES),
+                dayStart.plusMinutes((long) TableSlotAllocator.SLOTS * TableSlotAllocator.SLOT_MINUTES));
+        return allocator;
+    }
+
+    /**
+     * Marks the bookings starting in (from, to) in an allocator; one range scan on booking_time.
+     */
+    private static void loadBookedSlots(TableSlotAllocator allocator, LocalDateTime from, LocalDateTime to) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BOOKINGS_IN_WINDOW_SQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(from));
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    allocator.markBooked(rs.getInt("table_number"),
+                            rs.getTimestamp("booking_time").toLocalDateTime(), rs.getInt("duration_minutes"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking table availability: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+
+    // --- Data Version Methods ---
+
+    /**
+     * Returns the change version of one kind of data. Every write through this class increments
+     * the version in the same transaction as the change, so a screen that remembers the version
+     * it last loaded can skip reloading when nothing changed, on this terminal or any other.
+     * @param entity The kind of data.
+     * @return The version, or -1 if it could not be read (callers should then reload).
+     */
+    public static long getDataVersion(DataVersions.Entity entity) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DATA_VERSION_SQL)) {
+            pstmt.setString(1, entity.name());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong("version") : -1;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading data version: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Increments the change versions of the data a write touched. Called as the last statement of
+     * the write (before the commit of transactional writes), so the row lock is held only briefly.
+     */
+    private static void bumpDataVersions(Connection conn, DataVersions.Entity... entities) throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE data_versions SET version = version + 1 WHERE entity IN (");
+        for (int i = 0; i < entities.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < entities.length; i++) {
+                pstmt.setString(i + 1, entities[i].name());
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+
+    // --- Floor Plan Methods ---
+
+    /**
+     * Returns the floor plan used for availability checks. It is read from the database once and
+     * kept until a table is saved or deleted through this class.
+     * @return The floor plan; empty if it could not be loaded.
+     */
+    public static FloorPlan getFloorPlan() {
+        FloorPlan plan = floorPlan;
+        if (plan == null) {
+            List<RestaurantTable> tables = getAllRestaurantTables();
+            plan = new FloorPlan(tables);
+            if (!tables.isEmpty()) {
+                floorPlan = plan; // Don't cache a failed load
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Retrieves all tables of the floor plan with their combinable neighbours.
+     * @return The tables ordered by table number.
+     */
+    public static List<RestaurantTable> getAllRestaurantTables() {
+        Map<Integer, List<Integer>> neighboursByTable = new HashMap<>();
+        List<RestaurantTable> tables = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT table_number, neighbour_number FROM restaurant_table_neighbours")) {
+                while (rs.next()) {
+                    neighboursByTable.computeIfAbsent(rs.getInt("table_number"), n -> new ArrayList<>()).add(rs.getInt("neighbour_number"));
+                }
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT table_number, table_type, capacity, zone FROM restaurant_tables ORDER BY table_number")) {
+                while (rs.next()) {
+                    int tableNumber = rs.getInt("table_number");
+                    List<Integer> neighbours = neighboursByTable.getOrDefault(tableNumber, new ArrayList<>());
+                    neighbours.sort(null);
+                    tables.add(new RestaurantTable(tableNumber, TableType.valueOf(rs.getString("table_type")),
+                            rs.getInt("capacity"), rs.getString("zone"), neighbours));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching floor plan: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return tables;
+    }
+
+    /**
+     * Adds a table to the floor plan, or updates it if the table number exists. Its neighbour links
+     * are replaced in both directions.
+     * @param table The table.
+     * @return true if the table was saved successfully, false otherwise.
+     */
+    public static boolean saveRestaurantTable(RestaurantTable table) {
+        String upsertSql = "INSERT INTO restaurant_tables (table_number, table_type, capacity, zone) VALUES (?, ?, ?, ?) " +
+                           "ON DUPLICATE KEY UPDATE table_type = VALUES(table_type), capacity = VALUES(capacity), zone = VALUES(zone)";
+        String deleteLinksSql = "DELETE FROM restaurant_table_neighbours WHERE table_number = ? OR neighbour_number = ?";
+        String insertLinkSql = "INSERT INTO restaurant_table_neighbours (table_number, neighbour_number) VALUES (?, ?)";
+
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            try (PreparedStatement pstmt = conn.prepareStatement(upsertSql)) {
+                pstmt.setInt(1, table.getTableNumber());
+                pstmt.setString(2, table.getTableType().name());
+                pstmt.setInt(3, table.getCapacity());
+                pstmt.setString(4, table.getZone());
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteLinksSql)) {
+                pstmt.setInt(1, table.getTableNumber());
+                pstmt.setInt(2, table.getTableNumber());
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(insertLinkSql)) {
+                for (int neighbour : new TreeSet<>(table.getCombinableWith())) {
+                    if (neighbour == table.getTableNumber()) {
+                        continue;
+                    }
+                    pstmt.setInt(1, table.getTableNumber());
+                    pstmt.setInt(2, neighbour);
+                    pstmt.addBatch();
+                    pstmt.setInt(1, neighbour);
+                    pstmt.setInt(2, table.getTableNumber());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit(); // Commit transaction
+            floorPlan = null; // Reload on next use
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving restaurant table: " + e.getMessage());
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    System.err.println("Error rolling back transaction: " + ex.getMessage());
+                }
+            }
+            return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a table from the floor plan. Tables with bookings that have not finished yet cannot be removed.
+     * @param tableNumber The table number.
+     * @return true if the table was removed, false if it has upcoming bookings or on error.
+     */
+    public static boolean deleteRestaurantTable(int tableNumber) {
+        String upcomingSql = "SELECT COUNT(*) FROM table_bookings WHERE table_number = ? AND booking_time >= ? AND payment_status <> 'EXPIRED'";
+        String deleteLinksSql = "DELETE FROM restaurant_table_neighbours WHERE table_number = ? OR neighbour_number = ?";
+        String deleteTableSql = "DELETE FROM restaurant_tables WHERE table_number = ?";
+
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            try (PreparedStatement pstmt = conn.prepareStatement(upcomingSql)) {
+                pstmt.setInt(1, tableNumber);
+                pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusMinutes(MAX_BOOKING_DURATION_MINUTES)));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) > 0) {
+                        conn.rollback();
+                        return false;
+                    }
                 }
-                pstmt.executeBatch();
             }
-
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteLinksSql)) {
+                pstmt.setInt(1, tableNumber);
+                pstmt.setInt(2, tableNumber);
+                pstmt.executeUpdate();
+            }
+            int affectedRows;
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteTableSql)) {
+                pstmt.setInt(1, tableNumber);
+                affectedRows = pstmt.executeUpdate();
+            }
             conn.commit(); // Commit transaction
-            return true;
-
+            floorPlan = null; // Reload on next use
+            return affectedRows > 0;
         } catch (SQLException e) {
-            System.err.println("Error deleting order and returning stock: " + e.getMessage());
+            System.err.println("Error deleting restaurant table: " + e.getMessage());
             e.printStackTrace();
             if (conn != null) {
                 try {
@@ -1039,7 +2667,7 @@ public class DatabaseManager {
                 try {
                     conn.setAutoCommit(true); // Reset auto-commit
                     conn.close();
-                } catch (SQLException e) { // Catch block for closing connection
+                } catch (SQLException e) {
                     System.err.println("Error closing connection: " + e.getMessage());
                 }
             }
@@ -1047,273 +2675,346 @@ public class DatabaseManager {
     }
 
 
-    // --- Table Booking Management Methods ---
+    // --- Feedback Management Methods ---
 
     /**
-     * Adds a new table booking to the database.
-     * @param booking The TableBooking object to add. The ID will be auto-generated.
-     * @return true if the booking was added successfully, false otherwise.
+     * Adds a new feedback entry to the database.
+     * @param feedback The Feedback object to add.
+     * @return true if the feedback was added successfully, false otherwise.
      */
-    public static boolean addTableBooking(TableBooking booking) {
-        String sql = "INSERT INTO table_bookings (customer_id, customer_name, phone, table_type, table_number, seats, booking_time, duration_minutes, booking_fee, payment_status, payment_method) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, booking.getCustomerId());
-            pstmt.setString(2, booking.getCustomerName());
-            pstmt.setString(3, booking.getPhone());
-            pstmt.setString(4, booking.getTableType().name()); // Store enum name
-            pstmt.setInt(5, booking.getTableNumber());
-            pstmt.setInt(6, booking.getSeats());
-            pstmt.setTimestamp(7, Timestamp.valueOf(booking.getBookingTime()));
-            pstmt.setInt(8, booking.getDurationMinutes());
-            pstmt.setDouble(9, booking.getBookingFee());
-            pstmt.setString(10, booking.getPaymentStatus().name());
-            pstmt.setString(11, booking.getPaymentMethod().name());
-            int affectedRows = pstmt.executeUpdate();
-
-            if (affectedRows > 0) {
+    public static boolean addFeedback(Feedback feedback) {
+        String sql = "INSERT INTO feedback (customer_username, rating, comments, feedback_date) VALUES (?, ?, ?, ?)";
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, feedback.getCustomerUsername());
+                pstmt.setInt(2, feedback.getRating());
+                pstmt.setString(3, feedback.getComments());
+                pstmt.setTimestamp(4, Timestamp.valueOf(feedback.getFeedbackDate()));
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        booking.setBookingId(generatedKeys.getInt(1)); // Set generated ID
+                        feedback.setFeedbackId(generatedKeys.getInt(1));
                     }
                 }
+                indexFeedback(conn, feedback, loadDishTokens(conn)); // Index and totals commit with the comment
+                bumpDataVersions(conn, DataVersions.Entity.FEEDBACK);
+                conn.commit();
                 return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            return false;
-        } 
-        catch (SQLException e) { 
-            System.err.println("Error adding table booking: " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Error adding feedback: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
     }
 
     /**
-     * Retrieves all table bookings from the database.
-     * @return A list of all TableBooking objects.
+     * Retrieves all feedback entries from the database.
+     * @return A list of all Feedback objects.
      */
-    public static List<TableBooking> getAllTableBookings() {
-        List<TableBooking> bookings = new ArrayList<>();
-        String sql = "SELECT booking_id, customer_id, customer_name, phone, table_type, table_number, seats, booking_time, duration_minutes, booking_fee, payment_status, payment_method FROM table_bookings";
+    public static List<Feedback> getAllFeedback() {
+        List<Feedback> feedbackList = new ArrayList<>();
+        String sql = "SELECT feedback_id, customer_username, rating, comments, feedback_date FROM feedback";
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                int bookingId = rs.getInt("booking_id");
-                String customerId = rs.getString("customer_id");
-                String customerName = rs.getString("customer_name");
-                String phone = rs.getString("phone");
-                TableType tableType = TableType.valueOf(rs.getString("table_type"));
-                int tableNumber = rs.getInt("table_number");
-                int seats = rs.getInt("seats");
-                LocalDateTime bookingTime = rs.getTimestamp("booking_time").toLocalDateTime();
-                int durationMinutes = rs.getInt("duration_minutes");
-                double bookingFee = rs.getDouble("booking_fee");
-                PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
-                PaymentMethod paymentMethod = PaymentMethod.valueOf(rs.getString("payment_method"));
-
-                bookings.add(new TableBooking(bookingId, customerId, customerName, phone, tableType, tableNumber, seats,
-                                              bookingTime, durationMinutes, bookingFee, paymentStatus, paymentMethod));
+                int feedbackId = rs.getInt("feedback_id");
+                String customerUsername = rs.getString("customer_username");
+                int rating = rs.getInt("rating");
+                String comments = rs.getString("comments");
+                LocalDateTime feedbackDate = rs.getTimestamp("feedback_date").toLocalDateTime();
+                feedbackList.add(new Feedback(feedbackId, customerUsername, rating, comments, feedbackDate));
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching all table bookings: " + e.getMessage());
+        } 
+        catch (SQLException e) { 
+            System.err.println("Error fetching all feedback: " + e.getMessage());
             e.printStackTrace();
         }
-        return bookings;
+        return feedbackList;
     }
 
+
+    // --- Feedback Analytics Methods ---
+
     /**
-     * Retrieves table bookings for a specific customer.
-     * @param customerId The ID of the customer.
-     * @return A list of TableBooking objects for the specified customer.
+     * Reads the dish names and tokenizes them for FeedbackAnalytics.analyze.
+     * @param conn The connection to use.
+     * @return The tokens of each dish name by menu item ID.
+     * @throws SQLException If the menu cannot be read.
      */
-    public static List<TableBooking> getTableBookingsByCustomerId(String customerId) {
-        List<TableBooking> bookings = new ArrayList<>();
-        String sql = "SELECT booking_id, customer_id, customer_name, phone, table_type, table_number, seats, booking_time, duration_minutes, booking_fee, payment_status, payment_method FROM table_bookings WHERE customer_id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, customerId);
-            ResultSet rs = pstmt.executeQuery();
+    static Map<Integer, List<String>> loadDishTokens(Connection conn) throws SQLException {
+        Map<Integer, String> dishNames = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM menu_items")) {
             while (rs.next()) {
-                int bookingId = rs.getInt("booking_id");
-                String customerName = rs.getString("customer_name");
-                String phone = rs.getString("phone");
-                TableType tableType = TableType.valueOf(rs.getString("table_type"));
-                int tableNumber = rs.getInt("table_number");
-                int seats = rs.getInt("seats");
-                LocalDateTime bookingTime = rs.getTimestamp("booking_time").toLocalDateTime();
-                int durationMinutes = rs.getInt("duration_minutes");
-                double bookingFee = rs.getDouble("booking_fee");
-                PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
-                PaymentMethod paymentMethod = PaymentMethod.valueOf(rs.getString("payment_method"));
-
-                bookings.add(new TableBooking(bookingId, customerId, customerName, phone, tableType, tableNumber, seats,
-                                              bookingTime, durationMinutes, bookingFee, paymentStatus, paymentMethod));
+                dishNames.put(rs.getInt("id"), rs.getString("name"));
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching table bookings by customer ID: " + e.getMessage());
-            e.printStackTrace();
         }
-        return bookings;
+        return FeedbackAnalytics.dishTokens(dishNames);
     }
 
     /**
-     * Updates an existing table booking in the database.
-     * @param booking The TableBooking object with updated values.
-     * @return true if the booking was updated successfully, false otherwise.
+     * Adds a saved comment to the full-text index and to the sentiment totals: its terms, its
+     * sentiment score, its day's totals, and the dishes it mentions with their totals. Runs in the
+     * caller's transaction (addFeedback, or the V15 backfill), so the index never disagrees with
+     * the feedback table.
+     * @param conn The connection of the transaction.
+     * @param feedback The saved feedback, with its ID.
+     * @param dishTokens The tokenized dish names, from loadDishTokens.
+     * @throws SQLException If a statement fails.
      */
-    public static boolean updateTableBooking(TableBooking booking) {
-        String sql = "UPDATE table_bookings SET customer_name = ?, phone = ?, table_type = ?, table_number = ?, seats = ?, booking_time = ?, duration_minutes = ?, booking_fee = ?, payment_status = ?, payment_method = ? WHERE booking_id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, booking.getCustomerName());
-            pstmt.setString(2, booking.getPhone());
-            pstmt.setString(3, booking.getTableType().name());
-            pstmt.setInt(4, booking.getTableNumber());
-            pstmt.setInt(5, booking.getSeats());
-            pstmt.setTimestamp(6, Timestamp.valueOf(booking.getBookingTime()));
-            pstmt.setInt(7, booking.getDurationMinutes());
-            pstmt.setDouble(8, booking.getBookingFee());
-            pstmt.setString(9, booking.getPaymentStatus().name());
-            pstmt.setString(10, booking.getPaymentMethod().name());
-            pstmt.setInt(11, booking.getBookingId());
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating table booking: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+    static void indexFeedback(Connection conn, Feedback feedback, Map<Integer, List<String>> dishTokens) throws SQLException {
+        FeedbackAnalytics.Analysis analysis = FeedbackAnalytics.analyze(feedback.getComments(), dishTokens);
+        double sentiment = analysis.getSentiment();
+        boolean positive = sentiment >= FeedbackAnalytics.NEUTRAL_BAND;
+        boolean negative = sentiment <= -FeedbackAnalytics.NEUTRAL_BAND;
+
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE feedback SET sentiment = ? WHERE feedback_id = ?")) {
+            pstmt.setDouble(1, sentiment);
+            pstmt.setInt(2, feedback.getFeedbackId());
+            pstmt.executeUpdate();
         }
-    }
-
-    /**
-     * Deletes a table booking from the database.
-     * @param bookingId The ID of the booking to delete.
-     * @return true if the booking was deleted successfully, false otherwise.
-     */
-    public static boolean deleteTableBooking(int bookingId) {
-        String sql = "DELETE FROM table_bookings WHERE booking_id = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, bookingId);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
-            System.err.println("Error deleting table booking: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        if (!analysis.getTermCounts().isEmpty()) {
+            String sql = "INSERT INTO feedback_terms (term, feedback_id, term_count, doc_terms) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<String, Integer> term : analysis.getTermCounts().entrySet()) {
+                    pstmt.setString(1, term.getKey());
+                    pstmt.setInt(2, feedback.getFeedbackId());
+                    pstmt.setInt(3, term.getValue());
+                    pstmt.setInt(4, analysis.getTermTotal());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE feedback_index_totals SET documents = documents + 1, terms = terms + ? WHERE id = 1")) {
+            pstmt.setLong(1, analysis.getTermTotal());
+            pstmt.executeUpdate();
+        }
+        String daySql = "INSERT INTO feedback_daily_sentiment (feedback_day, comments, sentiment_sum, positive, negative) VALUES (?, 1, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE comments = comments + 1, sentiment_sum = sentiment_sum + VALUES(sentiment_sum), " +
+                        "positive = positive + VALUES(positive), negative = negative + VALUES(negative)";
+        try (PreparedStatement pstmt = conn.prepareStatement(daySql)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(feedback.getFeedbackDate().toLocalDate()));
+            pstmt.setDouble(2, sentiment);
+            pstmt.setInt(3, positive ? 1 : 0);
+            pstmt.setInt(4, negative ? 1 : 0);
+            pstmt.executeUpdate();
+        }
+        if (!analysis.getMentionedDishIds().isEmpty()) {
+            String totalsSql = "INSERT INTO dish_mention_totals (menu_item_id, mentions, sentiment_sum) VALUES (?, 1, ?) " +
+                               "ON DUPLICATE KEY UPDATE mentions = mentions + 1, sentiment_sum = sentiment_sum + VALUES(sentiment_sum)";
+            try (PreparedStatement mention = conn.prepareStatement("INSERT INTO feedback_dish_mentions (menu_item_id, feedback_id) VALUES (?, ?)");
+                 PreparedStatement totals = conn.prepareStatement(totalsSql)) {
+                for (int menuItemId : analysis.getMentionedDishIds()) {
+                    mention.setInt(1, menuItemId);
+                    mention.setInt(2, feedback.getFeedbackId());
+                    mention.addBatch();
+                    totals.setInt(1, menuItemId);
+                    totals.setDouble(2, sentiment);
+                    totals.addBatch();
+                }
+                mention.executeBatch();
+                totals.executeBatch();
+            }
         }
     }
 
     /**
-     * Checks for available tables given a desired time, duration, and required seats.
-     * This method simulates finding suitable tables based on existing bookings.
-     *
-     * @param desiredTime The desired start time for the booking.
-     * @param durationMinutes The duration of the booking in minutes.
-     * @param requiredSeats The minimum number of seats required.
-     * @return A Map where keys are TableType and values are lists of available table numbers.
+     * Ranked keyword search over feedback comments, using the full-text index. Each query term
+     * reads its posting list (one index range); comments are scored with BM25, so comments using
+     * rarer query terms more often rank higher, and only the top results are read from feedback.
+     * @param query The search words; stop words are ignored and a comment needs any one term to match.
+     * @param limit The maximum number of results.
+     * @return The best matches, best first; empty if nothing matches or on error.
      */
-    public static Map<TableType, List<Integer>> getAvailableTables(LocalDateTime desiredTime, int durationMinutes, int requiredSeats) {
-        Map<TableType, List<Integer>> availableTables = new HashMap<>();
-
-        // Initialize available tables with all restaurant tables
-        for (Map.Entry<TableType, List<Integer>> entry : ALL_RESTAURANT_TABLES.entrySet()) {
-            // Only consider table types that can accommodate the required seats
-            if (entry.getKey().getSeats() >= requiredSeats) {
-                availableTables.put(entry.getKey(), new ArrayList<>(entry.getValue()));
-            }
+    public static List<FeedbackAnalytics.SearchHit> searchFeedback(String query, int limit) {
+        List<FeedbackAnalytics.SearchHit> hits = new ArrayList<>();
+        List<String> terms = FeedbackAnalytics.queryTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return hits;
         }
+        try (Connection conn = DBConnection.getConnection()) {
+            long documents = 0;
+            long totalTerms = 0;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT documents, terms FROM feedback_index_totals WHERE id = 1")) {
+                if (rs.next()) {
+                    documents = rs.getLong("documents");
+                    totalTerms = rs.getLong("terms");
+                }
+            }
+            if (documents == 0) {
+                return hits;
+            }
+            double averageTerms = Math.max(1.0, (double) totalTerms / documents);
+
+            Map<Integer, Double> scores = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(FEEDBACK_TERM_POSTINGS_SQL)) {
+                for (String term : terms) {
+                    pstmt.setString(1, term);
+                    List<int[]> postings = new ArrayList<>(); // feedback_id, term_count, doc_terms
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            postings.add(new int[]{rs.getInt("feedback_id"), rs.getInt("term_count"), rs.getInt("doc_terms")});
+                        }
+                    }
+                    int df = postings.size();
+                    double idf = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+                    for (int[] posting : postings) {
+                        double tf = posting[1];
+                        double norm = BM25_K1 * (1 - BM25_B + BM25_B * posting[2] / averageTerms);
+                        scores.merge(posting[0], idf * tf * (BM25_K1 + 1) / (tf + norm), Double::sum);
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                return hits;
+            }
 
-        // Get all existing bookings that might conflict with the desired time slot
-        String sql = "SELECT table_type, table_number, booking_time, duration_minutes FROM table_bookings";
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                TableType bookedTableType = TableType.valueOf(rs.getString("table_type"));
-                int bookedTableNumber = rs.getInt("table_number");
-                LocalDateTime bookedTime = rs.getTimestamp("booking_time").toLocalDateTime();
-                int bookedDurationMinutes = rs.getInt("duration_minutes");
-
-                LocalDateTime bookedEndTime = bookedTime.plusMinutes(bookedDurationMinutes);
-                LocalDateTime desiredEndTime = desiredTime.plusMinutes(durationMinutes);
-
-                // Check for overlap: [start1, end1) and [start2, end2) overlap if start1 < end2 and start2 < end1
-                boolean overlap = desiredTime.isBefore(bookedEndTime) && bookedTime.isBefore(desiredEndTime);
+            // Best first; on equal scores the newer comment first
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> a.getValue().equals(b.getValue()) ? Integer.compare(b.getKey(), a.getKey()) : Double.compare(b.getValue(), a.getValue()));
+            ranked = ranked.subList(0, Math.min(limit, ranked.size()));
 
-                if (overlap) {
-                    // If there's an overlap, remove this table from the available list for its type
-                    if (availableTables.containsKey(bookedTableType)) {
-                        availableTables.get(bookedTableType).remove(Integer.valueOf(bookedTableNumber));
+            StringBuilder sql = new StringBuilder("SELECT feedback_id, customer_username, rating, comments, feedback_date, sentiment FROM feedback WHERE feedback_id IN (");
+            for (int i = 0; i < ranked.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+            Map<Integer, FeedbackAnalytics.SearchHit> byId = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < ranked.size(); i++) {
+                    pstmt.setInt(i + 1, ranked.get(i).getKey());
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int feedbackId = rs.getInt("feedback_id");
+                        byId.put(feedbackId, new FeedbackAnalytics.SearchHit(feedbackFromRow(rs), scores.get(feedbackId), rs.getDouble("sentiment")));
                     }
                 }
             }
+            for (Map.Entry<Integer, Double> entry : ranked) {
+                FeedbackAnalytics.SearchHit hit = byId.get(entry.getKey());
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
         } catch (SQLException e) {
-            System.err.println("Error checking table availability: " + e.getMessage());
+            System.err.println("Error searching feedback: " + e.getMessage());
             e.printStackTrace();
+            hits.clear();
         }
-        return availableTables;
+        return hits;
     }
 
-
-    // --- Feedback Management Methods ---
-
     /**
-     * Adds a new feedback entry to the database.
-     * @param feedback The Feedback object to add.
-     * @return true if the feedback was added successfully, false otherwise.
+     * Sentiment of the comments of each day in a range, from the per-day totals kept by addFeedback.
+     * @param from The first day.
+     * @param to The last day.
+     * @return One entry per day with comments, oldest first, each with the average over the
+     *         FeedbackAnalytics.ROLLING_DAYS days ending that day; empty on error.
      */
-    public static boolean addFeedback(Feedback feedback) {
-        String sql = "INSERT INTO feedback (customer_username, rating, comments, feedback_date) VALUES (?, ?, ?, ?)";
+    public static List<FeedbackAnalytics.DaySentiment> getDailyFeedbackSentiment(LocalDate from, LocalDate to) {
+        List<FeedbackAnalytics.DaySentiment> days = new ArrayList<>();
+        LocalDate windowStart = from.minusDays(FeedbackAnalytics.ROLLING_DAYS - 1); // The first rolling averages need earlier days
+        Map<LocalDate, double[]> totals = new LinkedHashMap<>(); // comments, sentiment_sum, positive, negative
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, feedback.getCustomerUsername());
-            pstmt.setInt(2, feedback.getRating());
-            pstmt.setString(3, feedback.getComments());
-            pstmt.setTimestamp(4, Timestamp.valueOf(feedback.getFeedbackDate()));
-            int affectedRows = pstmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        feedback.setFeedbackId(generatedKeys.getInt(1));
-                    }
+             PreparedStatement pstmt = conn.prepareStatement(DAILY_SENTIMENT_SQL)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(windowStart));
+            pstmt.setDate(2, java.sql.Date.valueOf(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getDate("feedback_day").toLocalDate(), new double[]{
+                            rs.getInt("comments"), rs.getDouble("sentiment_sum"), rs.getInt("positive"), rs.getInt("negative")});
                 }
-                return true;
             }
-            return false;
         } catch (SQLException e) {
-            System.err.println("Error adding feedback: " + e.getMessage());
+            System.err.println("Error fetching daily feedback sentiment: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return days;
+        }
+
+        double windowComments = 0;
+        double windowSum = 0;
+        for (LocalDate day = windowStart; !day.isAfter(to); day = day.plusDays(1)) {
+            double[] today = totals.get(day);
+            if (today != null) {
+                windowComments += today[0];
+                windowSum += today[1];
+            }
+            double[] leaving = totals.get(day.minusDays(FeedbackAnalytics.ROLLING_DAYS));
+            if (leaving != null) {
+                windowComments -= leaving[0];
+                windowSum -= leaving[1];
+            }
+            if (today != null && !day.isBefore(from)) {
+                days.add(new FeedbackAnalytics.DaySentiment(day, (int) today[0], today[1] / today[0],
+                        (int) today[2], (int) today[3], windowSum / windowComments));
+            }
         }
+        return days;
     }
 
     /**
-     * Retrieves all feedback entries from the database.
-     * @return A list of all Feedback objects.
+     * How often each dish is mentioned in feedback, from the totals kept by addFeedback.
+     * @return One entry per mentioned dish, most mentioned first; empty on error.
      */
-    public static List<Feedback> getAllFeedback() {
-        List<Feedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT feedback_id, customer_username, rating, comments, feedback_date FROM feedback";
+    public static List<FeedbackAnalytics.DishMentions> getDishMentions() {
+        List<FeedbackAnalytics.DishMentions> mentions = new ArrayList<>();
+        String sql = "SELECT t.menu_item_id, mi.name, t.mentions, t.sentiment_sum FROM dish_mention_totals t " +
+                     "JOIN menu_items mi ON mi.id = t.menu_item_id ORDER BY t.mentions DESC, mi.name";
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                int feedbackId = rs.getInt("feedback_id");
-                String customerUsername = rs.getString("customer_username");
-                int rating = rs.getInt("rating");
-                String comments = rs.getString("comments");
-                LocalDateTime feedbackDate = rs.getTimestamp("feedback_date").toLocalDateTime();
-                feedbackList.add(new Feedback(feedbackId, customerUsername, rating, comments, feedbackDate));
+                int count = rs.getInt("mentions");
+                mentions.add(new FeedbackAnalytics.DishMentions(rs.getInt("menu_item_id"), rs.getString("name"), count,
+                        count > 0 ? rs.getDouble("sentiment_sum") / count : 0));
             }
-        } 
-        catch (SQLException e) { 
-            System.err.println("Error fetching all feedback: " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Error fetching dish mentions: " + e.getMessage());
             e.printStackTrace();
         }
-        return feedbackList;
+        return mentions;
+    }
+
+    /**
+     * The comments that mention a dish, newest first.
+     * @param menuItemId The menu item ID.
+     * @return The comments as search hits with a score of 0; empty on error.
+     */
+    public static List<FeedbackAnalytics.SearchHit> getFeedbackMentioningDish(int menuItemId) {
+        List<FeedbackAnalytics.SearchHit> hits = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FEEDBACK_MENTIONING_DISH_SQL)) {
+            pstmt.setInt(1, menuItemId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new FeedbackAnalytics.SearchHit(feedbackFromRow(rs), 0, rs.getDouble("sentiment")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching feedback for dish: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return hits;
+    }
+
+    private static Feedback feedbackFromRow(ResultSet rs) throws SQLException {
+        return new Feedback(rs.getInt("feedback_id"), rs.getString("customer_username"), rs.getInt("rating"),
+                rs.getString("comments"), rs.getTimestamp("feedback_date").toLocalDateTime());
     }
 
     // --- Dish Rating Management Methods ---
@@ -1339,6 +3040,7 @@ public class DatabaseManager {
                         dishRating.setRatingId(generatedKeys.getInt(1));
                     }
                 }
+                bumpDataVersions(conn, DataVersions.Entity.DISH_RATINGS);
                 return true;
             }
             return false;
@@ -1380,9 +3082,8 @@ public class DatabaseManager {
      * @return The average rating as a double, or 0.0 if no ratings exist for the item.
      */
     public static double getAverageRatingForMenuItem(int menuItemId) {
-        String sql = "SELECT AVG(rating) AS average_rating FROM dish_ratings WHERE menu_item_id = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(AVERAGE_RATING_SQL)) {
             pstmt.setInt(1, menuItemId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -1395,6 +3096,27 @@ public class DatabaseManager {
         return 0.0; // Return 0.0 if no ratings or error
     }
 
+    /**
+     * Calculates the average rating of every rated menu item in a single query.
+     * Use this instead of calling getAverageRatingForMenuItem once per item when rendering the menu.
+     * @return A map from menu item ID to its average rating; unrated items are absent.
+     */
+    public static Map<Integer, Double> getAverageRatingsByMenuItem() {
+        Map<Integer, Double> averages = new HashMap<>();
+        String sql = "SELECT menu_item_id, AVG(rating) AS average_rating FROM dish_ratings GROUP BY menu_item_id";
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                averages.put(rs.getInt("menu_item_id"), rs.getDouble("average_rating"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error calculating average ratings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return averages;
+    }
+
     // --- Credit Card Management Methods ---
 
     /**
@@ -1440,9 +3162,8 @@ public class DatabaseManager {
      */
     public static List<CreditCard> getSavedCreditCards(String userId) {
         List<CreditCard> cards = new ArrayList<>();
-        String sql = "SELECT card_id, last_four_digits, card_type, expiry_month, expiry_year FROM user_cards WHERE user_id = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SAVED_CARDS_SQL)) {
             pstmt.setString(1, userId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -0,0 +1,329 @@
+package application;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Forecasts how many portions of each dish will be ordered, to recommend stock levels before
+ * service instead of finding out mid-service that a dish ran out.
+ *
+ * The order history of the last HISTORY_WEEKS weeks is streamed from the database once into hourly
+ * buckets per dish. Each dish then gets a seasonal baseline with one cell per day of week and hour
+ * of day, fitted by exponential smoothing over the weeks (oldest first, so recent weeks weigh
+ * most), together with the smoothed absolute error of each cell. Tomorrow's forecast is the sum of
+ * tomorrow's cells; the recommended stock adds a safety margin from the errors.
+ *
+ * The dishes are fitted in parallel with fork/join. The fitted baselines are cached until an order
+ * is added, changed or deleted (the ORDERS change version, see DataVersions) or the day changes;
+ * current stock is read fresh on every call, so restocking shows at once.
+ */
+public class DemandForecaster {
+
+    private static final DemandForecaster INSTANCE = new DemandForecaster();
+
+    public static final int HISTORY_WEEKS = 8;
+    private static final int HOURS = 24;
+    private static final int CELLS = 7 * HOURS;         // Day of week x hour of day
+    private static final double ALPHA = 0.3;            // Smoothing weight of the newest week
+    private static final double SAFETY_Z = 1.65;        // About 95% of days covered
+    private static final double MAD_TO_SIGMA = 1.25;    // Standard deviation of normal errors from their mean absolute value
+    private static final int DISHES_PER_TASK = 4;       // Fork/join split threshold
+
+    /**
+     * @return The process-wide forecaster.
+     */
+    public static DemandForecaster getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Receives the order history one order item at a time (see DatabaseManager.streamOrderItemsSince).
+     */
+    interface OrderItemVisitor {
+        void visit(int menuItemId, LocalDateTime orderTime, int quantity);
+    }
+
+    /**
+     * Stock advice for one dish.
+     */
+    public enum StockAlert {
+        OK("OK"),
+        RESTOCK_FOR_TOMORROW("Restock for tomorrow"), // Enough for today, not for tomorrow
+        RUNS_OUT_TODAY("Runs out today");              // Less stock than the rest of today's forecast
+
+        private final String displayValue;
+
+        StockAlert(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+
+        @Override
+        public String toString() {
+            return displayValue;
+        }
+    }
+
+    /**
+     * The forecast and stock recommendation for one dish.
+     */
+    public static class StockRecommendation {
+        private final int menuItemId;
+        private final String dishName;
+        private final int currentStock;
+        private final double restOfTodayForecast;
+        private final double tomorrowForecast;
+        private final int recommendedStock;
+        private final int restockQuantity;
+        private final StockAlert alert;
+
+        StockRecommendation(int menuItemId, String dishName, int currentStock, double restOfTodayForecast,
+                            double tomorrowForecast, int recommendedStock, int restockQuantity, StockAlert alert) {
+            this.menuItemId = menuItemId;
+            this.dishName = dishName;
+            this.currentStock = currentStock;
+            this.restOfTodayForecast = restOfTodayForecast;
+            this.tomorrowForecast = tomorrowForecast;
+            this.recommendedStock = recommendedStock;
+            this.restockQuantity = restockQuantity;
+            this.alert = alert;
+        }
+
+        // --- Getters ---
+        public int getMenuItemId() {
+            return menuItemId;
+        }
+
+        public String getDishName() {
+            return dishName;
+        }
+
+        public int getCurrentStock() {
+            return currentStock;
+        }
+
+        public double getRestOfTodayForecast() {
+            return restOfTodayForecast;
+        }
+
+        public double getTomorrowForecast() {
+            return tomorrowForecast;
+        }
+
+        /**
+         * @return Portions to have at the start of tomorrow: the forecast plus a safety margin.
+         */
+        public int getRecommendedStock() {
+            return recommendedStock;
+        }
+
+        /**
+         * @return Portions to add so that what is left after today covers the recommended stock.
+         */
+        public int getRestockQuantity() {
+            return restockQuantity;
+        }
+
+        public StockAlert getAlert() {
+            return alert;
+        }
+    }
+
+    /**
+     * The fitted seasonal baseline of one dish.
+     */
+    private static final class DishModel {
+        final double[] level = new double[CELLS]; // Expected portions per day-of-week/hour cell
+        final double[] mad = new double[CELLS];   // Smoothed absolute error per cell
+    }
+
+    /**
+     * Fitted baselines for one ORDERS version and day.
+     */
+    private static final class Fit {
+        final long ordersVersion;
+        final LocalDate day;
+        final Map<Integer, DishModel> models;
+
+        Fit(long ordersVersion, LocalDate day, Map<Integer, DishModel> models) {
+            this.ordersVersion = ordersVersion;
+            this.day = day;
+            this.models = models;
+        }
+    }
+
+    private volatile Fit cached;
+
+    private DemandForecaster() {
+    }
+
+    /**
+     * Forecasts every dish on the menu and compares the forecast with its current stock.
+     * @return One recommendation per dish; the most urgent alerts first, then by name.
+     */
+    public List<StockRecommendation> recommendStock() {
+        LocalDateTime now = LocalDateTime.now();
+        Fit fit = currentFit(now.toLocalDate());
+        int todayCell = cell(now.getDayOfWeek(), 0);
+        int tomorrowCell = cell(now.getDayOfWeek().plus(1), 0);
+
+        List<StockRecommendation> recommendations = new ArrayList<>();
+        for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+            DishModel model = fit.models.get(item.getId());
+            double restOfToday = 0;
+            double tomorrow = 0;
+            double tomorrowVariance = 0;
+            if (model != null) {
+                for (int hour = now.getHour(); hour < HOURS; hour++) {
+                    restOfToday += model.level[todayCell + hour];
+                }
+                for (int hour = 0; hour < HOURS; hour++) {
+                    tomorrow += model.level[tomorrowCell + hour];
+                    double sigma = MAD_TO_SIGMA * model.mad[tomorrowCell + hour];
+                    tomorrowVariance += sigma * sigma;
+                }
+            }
+            int recommended = (int) Math.ceil(tomorrow + SAFETY_Z * Math.sqrt(tomorrowVariance));
+            double leftAfterToday = Math.max(0, item.getStock() - restOfToday);
+            int restock = (int) Math.max(0, Math.ceil(recommended - leftAfterToday));
+            StockAlert alert = item.getStock() < Math.round(restOfToday) ? StockAlert.RUNS_OUT_TODAY
+                    : restock > 0 ? StockAlert.RESTOCK_FOR_TOMORROW : StockAlert.OK;
+            recommendations.add(new StockRecommendation(item.getId(), item.getName(), item.getStock(), restOfToday,
+                    tomorrow, recommended, restock, alert));
+        }
+        recommendations.sort((a, b) -> a.getAlert() != b.getAlert()
+                ? Integer.compare(b.getAlert().ordinal(), a.getAlert().ordinal())
+                : a.getDishName().compareToIgnoreCase(b.getDishName()));
+        return recommendations;
+    }
+
+    /**
+     * Returns the cached baselines if no order changed since they were fitted, otherwise refits.
+     */
+    private Fit currentFit(LocalDate today) {
+        long version = DatabaseManager.getDataVersion(DataVersions.Entity.ORDERS); // Read before the history
+        Fit fit = cached;
+        if (fit != null && version >= 0 && fit.ordersVersion == version && fit.day.equals(today)) {
+            return fit;
+        }
+        synchronized (this) {
+            fit = cached;
+            if (fit != null && version >= 0 && fit.ordersVersion == version && fit.day.equals(today)) {
+                return fit; // Another thread just refitted
+            }
+            fit = new Fit(version, today, fitAll(today));
+            cached = fit;
+            return fit;
+        }
+    }
+
+    /**
+     * Streams the history into hourly buckets per dish and fits every dish in parallel.
+     * Today is left out: it is not over, so its hours would look like low demand.
+     */
+    private static Map<Integer, DishModel> fitAll(LocalDate today) {
+        LocalDate firstDay = today.minusWeeks(HISTORY_WEEKS);
+        int days = (int) ChronoUnit.DAYS.between(firstDay, today);
+        Map<Integer, int[]> buckets = new HashMap<>(); // Menu item ID -> portions per day and hour since firstDay
+        DatabaseManager.streamOrderItemsSince(firstDay.atStartOfDay(), (menuItemId, orderTime, quantity) -> {
+            int day = (int) ChronoUnit.DAYS.between(firstDay, orderTime.toLocalDate());
+            if (day >= 0 && day < days) {
+                buckets.computeIfAbsent(menuItemId, id -> new int[days * HOURS])[day * HOURS + orderTime.getHour()] += quantity;
+            }
+        });
+
+        int[] dishIds = new int[buckets.size()];
+        int[][] series = new int[buckets.size()][];
+        int n = 0;
+        for (Map.Entry<Integer, int[]> entry : buckets.entrySet()) {
+            dishIds[n] = entry.getKey();
+            series[n++] = entry.getValue();
+        }
+        DishModel[] models = new DishModel[n];
+        ForkJoinPool.commonPool().invoke(new FitTask(series, firstDay, models, 0, n));
+
+        Map<Integer, DishModel> byDish = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            byDish.put(dishIds[i], models[i]);
+        }
+        return byDish;
+    }
+
+    /**
+     * Fits the dishes in [from, to), splitting the range until it is small enough.
+     */
+    private static final class FitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] series;
+        private final LocalDate firstDay;
+        private final transient DishModel[] models; // Tasks are never serialized
+        private final int from;
+        private final int to;
+
+        FitTask(int[][] series, LocalDate firstDay, DishModel[] models, int from, int to) {
+            this.series = series;
+            this.firstDay = firstDay;
+            this.models = models;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= DISHES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    models[i] = fit(series[i], firstDay);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new FitTask(series, firstDay, models, from, middle), new FitTask(series, firstDay, models, middle, to));
+        }
+    }
+
+    /**
+     * Fits one dish: per day-of-week/hour cell, exponential smoothing over the weeks, starting at
+     * the dish's first day with orders (a new dish is not pulled down by the weeks before it existed).
+     */
+    private static DishModel fit(int[] hourly, LocalDate firstDay) {
+        DishModel model = new DishModel();
+        int days = hourly.length / HOURS;
+        int firstSale = 0;
+        while (firstSale < hourly.length && hourly[firstSale] == 0) {
+            firstSale++;
+        }
+        boolean[] started = new boolean[CELLS];
+        for (int day = firstSale / HOURS; day < days; day++) {
+            int base = cell(firstDay.plusDays(day).getDayOfWeek(), 0);
+            for (int hour = 0; hour < HOURS; hour++) {
+                int c = base + hour;
+                double observed = hourly[day * HOURS + hour];
+                if (!started[c]) {
+                    model.level[c] = observed;
+                    started[c] = true;
+                    continue;
+                }
+                double error = observed - model.level[c];
+                model.mad[c] = ALPHA * Math.abs(error) + (1 - ALPHA) * model.mad[c];
+                model.level[c] += ALPHA * error;
+            }
+        }
+        return model;
+    }
+
+    private static int cell(DayOfWeek dayOfWeek, int hour) {
+        return (dayOfWeek.getValue() - 1) * HOURS + hour;
+    }
+}
@@ -0,0 +1,435 @@
+package application;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator that simulates a dinner rush against the restaurant backend.
+ * Each simulated customer runs on its own virtual thread and drives DatabaseManager the
+ * same way Main's UI does: login, browsing the menu, "Add to Cart" stock checks, placing
+ * the order, checking table availability while booking, and (occasionally) admin refreshes.
+ *
+ * By default it runs against an in-memory H2 database in MySQL compatibility mode, so it
+ * works on any Linux box with the H2 jar on the classpath. Pass -Drestaurant.db.url=... to
+ * point it at a real MySQL instance instead.
+ *
+ * Usage: java application.DinnerRushSimulator [--customers=500] [--rate=50] [--items=3]
+ *                                             [--booking-chance=0.3] [--admin-chance=0.05]
+ */
+public class DinnerRushSimulator {
+
+    private static final String EMBEDDED_DB_URL =
+            "jdbc:h2:mem:dinner_rush;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String CUSTOMER_PASSWORD = "rush@123";
+
+    /**
+     * The operations timed by the simulator, one per UI action being reproduced.
+     */
+    enum Operation {
+        LOGIN("login"),
+        BROWSE_MENU("browse menu"),
+        ADD_TO_CART("add to cart"),
+        PLACE_ORDER("place order"),
+        CHECK_TABLES("check tables"),
+        BOOK_TABLE("book table"),
+        ADMIN_REFRESH("admin refresh");
+
+        private final String displayValue;
+
+        Operation(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+    }
+
+    /**
+     * Collects latency samples (in nanoseconds) for a single operation.
+     * Samples are kept exactly, so percentiles are not approximated.
+     */
+    static class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int size = 0;
+        private final AtomicLong failures = new AtomicLong();
+
+        synchronized void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        void recordFailure() {
+            failures.incrementAndGet();
+        }
+
+        synchronized long[] snapshot() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * Returns the value at the given percentile of a sorted sample array.
+         * @param sorted The sorted samples.
+         * @param percentile The percentile between 0 and 100.
+         * @return The sample at that rank, or 0 if there are no samples.
+         */
+        static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+        }
+    }
+
+    // --- Simulation settings ---
+    private final int customers;
+    private final double arrivalsPerSecond;
+    private final int maxItemsPerOrder;
+    private final double bookingChance;
+    private final double adminChance;
+
+    // --- Results ---
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Integer, Integer> initialStock = new HashMap<>();
+    private AtomicIntegerArray unitsTakenByItem; // Units removed from stock by successful cart adds, indexed by menu item id
+    private AtomicIntegerArray unitsOrderedByItem; // Units recorded in successfully placed orders
+    private final AtomicInteger ordersPlaced = new AtomicInteger();
+    private final AtomicInteger bookingsMade = new AtomicInteger();
+    private final AtomicInteger bookingConflicts = new AtomicInteger(); // Tables taken by another terminal between check and booking
+    private final AtomicInteger outOfStockHits = new AtomicInteger();
+    private final AtomicInteger kitchenRefusals = new AtomicInteger(); // Orders turned away by kitchen admission control
+
+    private List<MenuItem> menuSnapshot = new ArrayList<>();
+    private User admin;
+
+    public DinnerRushSimulator(int customers, double arrivalsPerSecond, int maxItemsPerOrder,
+                               double bookingChance, double adminChance) {
+        this.customers = customers;
+        this.arrivalsPerSecond = arrivalsPerSecond;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+        this.bookingChance = bookingChance;
+        this.adminChance = adminChance;
+        for (Operation op : Operation.values()) {
+            recorders.put(op, new LatencyRecorder());
+        }
+    }
+
+    /**
+     * Creates the schema, seeds the default menu and registers one account per simulated customer.
+     */
+    private List<User> prepare() {
+        DatabaseManager.initializeDatabase();
+        admin = DatabaseManager.getUserByUsername("Dinesh Reddy");
+
+        menuSnapshot = DatabaseManager.getAllMenuItems();
+        int maxId = 0;
+        for (MenuItem item : menuSnapshot) {
+            initialStock.put(item.getId(), item.getStock());
+            maxId = Math.max(maxId, item.getId());
+        }
+        unitsTakenByItem = new AtomicIntegerArray(maxId + 1);
+        unitsOrderedByItem = new AtomicIntegerArray(maxId + 1);
+
+        String passwordHash = PasswordUtil.hashPassword(CUSTOMER_PASSWORD);
+        List<User> users = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            String username = "rush_customer_" + i;
+            User user = DatabaseManager.getUserByUsername(username);
+            if (user == null) {
+                user = new User(UUID.randomUUID().toString(), username, passwordHash,
+                        "Rush Customer " + i, username + "@example.com", String.format("9%09d", i), UserRole.CUSTOMER);
+                DatabaseManager.addUser(user);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Runs the simulation: customers arrive as a Poisson process at the configured rate,
+     * each one on a fresh virtual thread.
+     */
+    public void run() throws InterruptedException {
+        List<User> users = prepare();
+        System.out.printf("Simulating %d customers arriving at %.1f/s against %s%n",
+                customers, arrivalsPerSecond, System.getProperty("restaurant.db.url"));
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long nextArrival = start;
+            for (User user : users) {
+                // Exponential inter-arrival times give an open-loop Poisson arrival process
+                double gapSeconds = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) / arrivalsPerSecond;
+                nextArrival += (long) (gapSeconds * 1_000_000_000L);
+                long wait = nextArrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> simulateCustomer(user));
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        }
+        long elapsed = System.nanoTime() - start;
+        printReport(elapsed);
+    }
+
+    /**
+     * One customer's visit, mirroring the sequence of calls made by Main.
+     */
+    private void simulateCustomer(User user) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // Login screen
+        User loggedIn = timed(Operation.LOGIN, () -> DatabaseManager.authenticateUser(user.getUsername(), CUSTOMER_PASSWORD));
+        if (loggedIn == null) {
+            return;
+        }
+
+        // Order Food tab: load the menu, then add items one at a time like the "Add to Cart" button
+        List<MenuItem> menu = timed(Operation.BROWSE_MENU, DatabaseManager::getAllMenuItems);
+        if (menu == null || menu.isEmpty()) {
+            return;
+        }
+        Map<MenuItem, Integer> cart = new HashMap<>();
+        int itemsWanted = 1 + random.nextInt(maxItemsPerOrder);
+        for (int i = 0; i < itemsWanted; i++) {
+            MenuItem choice = menu.get(random.nextInt(menu.size()));
+            MenuItem added = timed(Operation.ADD_TO_CART, () -> addToCart(choice.getId()));
+            if (added != null) {
+                cart.merge(added, 1, Integer::sum);
+            }
+        }
+
+        // Payment dialog: place the order
+        if (!cart.isEmpty()) {
+            Order order = new Order(0);
+            order.setCustomerUsername(loggedIn.getUsername());
+            cart.forEach((item, qty) -> {
+                for (int i = 0; i < qty; i++) {
+                    order.addItem(item);
+                }
+            });
+            order.setPaymentStatus(PaymentStatus.PAID);
+            order.setPaymentMethod(PaymentMethod.values()[random.nextInt(PaymentMethod.values().length)]);
+            order.setOrderTime(LocalDateTime.now());
+            Map<String, Integer> kitchenItems = new HashMap<>();
+            cart.forEach((item, qty) -> kitchenItems.merge(item.getName(), qty, Integer::sum));
+            if (!KitchenCapacityModel.getInstance().checkAdmission(kitchenItems, order.getOrderTime()).isAccepted()) {
+                kitchenRefusals.incrementAndGet(); // The cart is abandoned; its stock stays taken as in the UI
+            } else {
+                Boolean placed = timed(Operation.PLACE_ORDER, () -> DatabaseManager.addOrder(order));
+                if (Boolean.TRUE.equals(placed)) {
+                    ordersPlaced.incrementAndGet();
+                    cart.forEach((item, qty) -> unitsOrderedByItem.addAndGet(item.getId(), qty));
+                }
+            }
+        }
+
+        // Book Table tab: the UI re-checks availability on every field change
+        if (random.nextDouble() < bookingChance) {
+            int seats = 1 + random.nextInt(8);
+            LocalDateTime when = LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.of(18 + random.nextInt(4), random.nextBoolean() ? 0 : 30));
+            TableSlotAllocator allocator = null;
+            for (int i = 0; i < 3; i++) {
+                allocator = timed(Operation.CHECK_TABLES, () -> DatabaseManager.getTableSlotAllocator(when.toLocalDate()));
+            }
+            int table = allocator == null ? -1 : allocator.findBestFit(when, 60, seats);
+            if (table >= 0) {
+                TableBooking booking = new TableBooking(loggedIn.getUserId(), loggedIn.getFullName(), loggedIn.getPhoneNumber(),
+                        allocator.getTableType(table), table, seats, when, 60, 50.0);
+                booking.setPaymentStatus(PaymentStatus.PAID);
+                Boolean booked = timed(Operation.BOOK_TABLE, () -> DatabaseManager.addTableBooking(booking));
+                if (Boolean.TRUE.equals(booked)) {
+                    bookingsMade.incrementAndGet();
+                } else {
+                    bookingConflicts.incrementAndGet();
+                }
+            }
+        }
+
+        // Admin terminal hitting "Refresh Orders" / "Refresh Bookings" during the rush
+        if (admin != null && random.nextDouble() < adminChance) {
+            timed(Operation.ADMIN_REFRESH, () -> {
+                DatabaseManager.getAllOrders();
+                return DatabaseManager.getAllTableBookings();
+            });
+        }
+    }
+
+    /**
+     * Reproduces Main's "Add to Cart" handler: re-fetch the item, check stock, decrement and write back.
+     * @param menuItemId The ID of the item being added.
+     * @return The item as read from the database if one unit was taken, null if out of stock.
+     */
+    private MenuItem addToCart(int menuItemId) {
+        MenuItem itemInDb = DatabaseManager.getMenuItemById(menuItemId);
+        if (itemInDb != null && itemInDb.getStock() > 0) {
+            MenuItem cartItem = new MenuItem(itemInDb.getId(), itemInDb.getName(), itemInDb.getPrice(), itemInDb.getImageUrl(), itemInDb.getStock());
+            itemInDb.setStock(itemInDb.getStock() - 1);
+            if (DatabaseManager.updateMenuItem(itemInDb)) {
+                unitsTakenByItem.incrementAndGet(menuItemId);
+                return cartItem;
+            }
+            return null;
+        }
+        outOfStockHits.incrementAndGet();
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T call();
+    }
+
+    /**
+     * Runs a call and records its latency (or failure) against the given operation.
+     */
+    private <T> T timed(Operation op, Call<T> call) {
+        LatencyRecorder recorder = recorders.get(op);
+        long begin = System.nanoTime();
+        try {
+            T result = call.call();
+            recorder.record(System.nanoTime() - begin);
+            return result;
+        } catch (RuntimeException e) {
+            recorder.recordFailure();
+            return null;
+        }
+    }
+
+    /**
+     * Prints throughput and latency percentiles per operation, followed by stock-consistency checks.
+     * @param elapsedNanos Wall-clock duration of the run.
+     */
+    private void printReport(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.println("================ DINNER RUSH REPORT ================");
+        System.out.printf("Duration: %.2fs | Orders placed: %d | Bookings made: %d | Out-of-stock hits: %d%n",
+                seconds, ordersPlaced.get(), bookingsMade.get(), outOfStockHits.get());
+        System.out.printf("%-14s %8s %9s %10s %10s %10s %8s%n", "Operation", "Count", "Ops/s", "p50 (ms)", "p99 (ms)", "p999 (ms)", "Errors");
+        long totalOps = 0;
+        for (Operation op : Operation.values()) {
+            LatencyRecorder recorder = recorders.get(op);
+            long[] sorted = recorder.snapshot();
+            totalOps += sorted.length;
+            System.out.printf("%-14s %8d %9.1f %10.2f %10.2f %10.2f %8d%n",
+                    op.getDisplayValue(), sorted.length, sorted.length / seconds,
+                    LatencyRecorder.percentile(sorted, 50) / 1e6,
+                    LatencyRecorder.percentile(sorted, 99) / 1e6,
+                    LatencyRecorder.percentile(sorted, 99.9) / 1e6,
+                    recorder.getFailures());
+        }
+        System.out.printf("Total throughput: %.1f ops/s%n", totalOps / seconds);
+
+        // Kitchen backlog left by the rush, read from the open orders in the database
+        KitchenOrderQueue kitchen = KitchenOrderQueue.getInstance();
+        kitchen.attachConsumer();
+        kitchen.sync(DatabaseManager.getOpenKitchenOrders());
+        StringBuilder backlog = new StringBuilder();
+        for (KitchenStation station : KitchenStation.values()) {
+            List<KitchenTicket> tickets = kitchen.snapshot(station);
+            backlog.append(String.format(" | %s: %d", station.getDisplayValue(), tickets.size()));
+        }
+        System.out.println("Kitchen backlog: " + kitchen.openOrderCount() + " orders" + backlog);
+        KitchenCapacityModel capacity = KitchenCapacityModel.getInstance();
+        System.out.printf("Predicted wait: %.0f min | Admission: %s | Kitchen refusals: %d%n",
+                capacity.getPredictedWaitMinutes(), capacity.getAdmissionMode(), kitchenRefusals.get());
+
+        // Stock consistency: every unit taken by a cart add must be reflected in menu_items.stock,
+        // and nothing may go below zero. Lost updates from concurrent read-modify-write show up here.
+        System.out.println("---------------- Stock consistency -----------------");
+        int violations = 0;
+        for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+            Integer before = initialStock.get(item.getId());
+            if (before == null) {
+                continue;
+            }
+            int taken = unitsTakenByItem.get(item.getId());
+            int expected = before - taken;
+            if (item.getStock() != expected || item.getStock() < 0) {
+                violations++;
+                System.out.printf("VIOLATION %-16s start=%d taken=%d expected=%d actual=%d (ordered=%d)%n",
+                        item.getName(), before, taken, expected, item.getStock(), unitsOrderedByItem.get(item.getId()));
+            }
+        }
+        System.out.println(violations == 0 ? "No stock-consistency violations." : violations + " item(s) with stock-consistency violations.");
+
+        // Booking consistency: terminals race for the same tables; the losers must be refused, never double-booked
+        System.out.println("---------------- Booking consistency ---------------");
+        Map<Integer, List<TableBooking>> bookingsByTable = new HashMap<>();
+        for (TableBooking booking : DatabaseManager.getAllTableBookings()) {
+            if (booking.getPaymentStatus() != PaymentStatus.EXPIRED) {
+                bookingsByTable.computeIfAbsent(booking.getTableNumber(), t -> new ArrayList<>()).add(booking);
+            }
+        }
+        int doubleBookings = 0;
+        for (List<TableBooking> bookings : bookingsByTable.values()) {
+            bookings.sort((a, b) -> a.getBookingTime().compareTo(b.getBookingTime()));
+            LocalDateTime busyUntil = null;
+            for (TableBooking booking : bookings) {
+                if (busyUntil != null && booking.getBookingTime().isBefore(busyUntil)) {
+                    doubleBookings++;
+                    System.out.printf("DOUBLE BOOKING table %d at %s (booking %d)%n",
+                            booking.getTableNumber(), booking.getBookingTime(), booking.getBookingId());
+                }
+                LocalDateTime end = booking.getBookingTime().plusMinutes(booking.getDurationMinutes());
+                if (busyUntil == null || end.isAfter(busyUntil)) {
+                    busyUntil = end;
+                }
+            }
+        }
+        System.out.println("Booking conflicts refused: " + bookingConflicts.get() + " | " +
+                (doubleBookings == 0 ? "No double bookings." : doubleBookings + " double booking(s)."));
+        System.out.println("====================================================");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        if (System.getProperty("restaurant.db.url") == null) {
+            // Must be set before DBConnection is first loaded
+            System.setProperty("restaurant.db.url", EMBEDDED_DB_URL);
+            System.setProperty("restaurant.db.user", "sa");
+            System.setProperty("restaurant.db.password", "");
+        }
+
+        DinnerRushSimulator simulator = new DinnerRushSimulator(
+                Integer.parseInt(options.getOrDefault("customers", "500")),
+                Double.parseDouble(options.getOrDefault("rate", "50")),
+                Integer.parseInt(options.getOrDefault("items", "3")),
+                Double.parseDouble(options.getOrDefault("booking-chance", "0.3")),
+                Double.parseDouble(options.getOrDefault("admin-chance", "0.05")));
+        simulator.run();
+    }
+}
@@ -85,6 +85,19 @@ public class DishRating {
                ", Date: " + ratingDate;
     }
 
+    /**
+     * Compares every field, unlike equals() which compares the rating ID only.
+     * @param other Another version of the same rating.
+     * @return true if nothing differs.
+     */
+    public boolean hasSameContent(DishRating other) {
+        return ratingId == other.ratingId &&
+               menuItemId == other.menuItemId &&
+               rating == other.rating &&
+               Objects.equals(customerUsername, other.customerUsername) &&
+               Objects.equals(ratingDate, other.ratingDate);
+    }
+
     /**
      * Checks if two DishRating objects are equal based on their ratingId.
      * @param o The object to compare with.
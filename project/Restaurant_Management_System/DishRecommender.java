@@ -0,0 +1,346 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * "Often ordered together" and "popular right now" suggestions for the Order Food tab, learned from
+ * order_items.
+ *
+ * The model is a sparse, symmetric co-occurrence matrix of menu item IDs: for every order, each
+ * pair of distinct dishes on it adds the order's weight to their cell. Rows are indexed directly by
+ * menu item ID and each row is an open-addressing int -> double hash table, so nothing is boxed
+ * and a suggestion for a cart reads only the rows of the dishes in the cart.
+ *
+ * Older orders count less. Instead of decaying every cell on a timer, each order is weighted by
+ * e^((t - landmark) / tau) when it is added ("forward decay"): newer orders get exponentially
+ * larger weights, which ranks exactly like decaying the old ones, and only when the weights grow
+ * too large are all cells rescaled once and the landmark moved.
+ *
+ * The history is read from the database on first use; after that addOrder reports each new order
+ * through recordOrder. Deleted orders are not subtracted: they were still chosen together.
+ */
+public class DishRecommender {
+
+    private static final DishRecommender INSTANCE = new DishRecommender();
+
+    private static final int HISTORY_DAYS = 90;
+    private static final double PAIR_HALF_LIFE_DAYS = 14;    // Co-occurrence and overall popularity
+    private static final double TRENDING_HALF_LIFE_HOURS = 6; // "Popular right now"
+    private static final double MAX_EXPONENT = 50;            // Rescale before weights reach e^50
+    private static final int RECENT_LOAD_MINUTES = 5;         // See recentlyLoadedOrders
+
+    /**
+     * @return The process-wide recommender.
+     */
+    public static DishRecommender getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The dishes of one order, as read from order_items.
+     */
+    static final class Basket {
+        final int orderId;
+        final LocalDateTime orderTime;
+        final int[] menuItemIds; // Distinct
+
+        Basket(int orderId, LocalDateTime orderTime, int[] menuItemIds) {
+            this.orderId = orderId;
+            this.orderTime = orderTime;
+            this.menuItemIds = menuItemIds;
+        }
+    }
+
+    /**
+     * Forward-decay clock: weight(t) = e^((t - landmark) / tau), in seconds.
+     */
+    private static final class DecayClock {
+        private final double tauSeconds;
+        private long landmarkSeconds;
+
+        DecayClock(double halfLifeSeconds, long nowSeconds) {
+            this.tauSeconds = halfLifeSeconds / Math.log(2);
+            this.landmarkSeconds = nowSeconds;
+        }
+
+        double weight(long seconds) {
+            return Math.exp((seconds - landmarkSeconds) / tauSeconds);
+        }
+
+        boolean needsRescale(long seconds) {
+            return (seconds - landmarkSeconds) / tauSeconds > MAX_EXPONENT;
+        }
+
+        /**
+         * Moves the landmark to a time and returns the factor that all stored weights must be multiplied by.
+         */
+        double moveLandmark(long seconds) {
+            double factor = Math.exp(-(seconds - landmarkSeconds) / tauSeconds);
+            landmarkSeconds = seconds;
+            return factor;
+        }
+    }
+
+    /**
+     * One row of the co-occurrence matrix: open-addressing hash table of menu item ID -> weight.
+     * IDs are positive, so 0 marks an empty slot.
+     */
+    private static final class Row {
+        private int[] keys = new int[8];
+        private double[] values = new double[8];
+        private int size;
+
+        void add(int key, double delta) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] += delta;
+        }
+
+        void scale(double factor) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= factor;
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9 >>> 7; // Spreads sequential IDs over the table
+        }
+    }
+
+    // --- State, guarded by this ---
+    private final DecayClock pairClock;
+    private final DecayClock trendingClock;
+    private Row[] rows = new Row[64];                 // By menu item ID
+    private double[] dishWeight = new double[64];     // Decayed orders containing the dish (pairClock)
+    private double[] trendingWeight = new double[64]; // Same, with the short half-life (trendingClock)
+    private double[] scores = new double[64];          // Scratch space of recommend()
+    private boolean loaded;
+    // Orders from the last few minutes of the history load; addOrder may report them again
+    private final Set<Integer> recentlyLoadedOrders = new HashSet<>();
+
+    private DishRecommender() {
+        long now = toSeconds(LocalDateTime.now());
+        pairClock = new DecayClock(PAIR_HALF_LIFE_DAYS * 24 * 3600, now);
+        trendingClock = new DecayClock(TRENDING_HALF_LIFE_HOURS * 3600, now);
+    }
+
+    // --- Updates ---
+
+    /**
+     * Adds a newly placed order. Called by DatabaseManager.addOrder after the commit.
+     * @param order The order, with its ID and items.
+     */
+    public synchronized void recordOrder(Order order) {
+        if (!loaded || recentlyLoadedOrders.contains(order.getOrderId())) {
+            return; // Not loaded yet (the load will read it), or already read by the load
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (MenuItem item : order.getItems()) {
+            if (item.getId() > 0) {
+                ids.add(item.getId());
+            }
+        }
+        LocalDateTime orderTime = order.getOrderTime() != null ? order.getOrderTime() : LocalDateTime.now();
+        record(ids.stream().mapToInt(Integer::intValue).toArray(), toSeconds(orderTime));
+    }
+
+    private void record(int[] ids, long seconds) {
+        if (pairClock.needsRescale(seconds)) {
+            double factor = pairClock.moveLandmark(seconds);
+            for (Row row : rows) {
+                if (row != null) {
+                    row.scale(factor);
+                }
+            }
+            scaleAll(dishWeight, factor);
+        }
+        if (trendingClock.needsRescale(seconds)) {
+            scaleAll(trendingWeight, trendingClock.moveLandmark(seconds));
+        }
+        double weight = pairClock.weight(seconds);
+        double trending = trendingClock.weight(seconds);
+        for (int id : ids) {
+            ensureCapacity(id);
+            dishWeight[id] += weight;
+            trendingWeight[id] += trending;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                row(ids[i]).add(ids[j], weight);
+                row(ids[j]).add(ids[i], weight);
+            }
+        }
+    }
+
+    private Row row(int id) {
+        Row row = rows[id];
+        if (row == null) {
+            row = new Row();
+            rows[id] = row;
+        }
+        return row;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= rows.length) {
+            int capacity = Math.max(rows.length * 2, id + 1);
+            rows = Arrays.copyOf(rows, capacity);
+            dishWeight = Arrays.copyOf(dishWeight, capacity);
+            trendingWeight = Arrays.copyOf(trendingWeight, capacity);
+            scores = new double[capacity];
+        }
+    }
+
+    private static void scaleAll(double[] values, double factor) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= factor;
+        }
+    }
+
+    // --- Suggestions ---
+
+    /**
+     * Dishes most often ordered together with the dishes in a cart. A candidate scores the sum, over
+     * the cart's dishes, of their co-occurrence weight divided by the geometric mean of both dishes'
+     * popularity (cosine similarity), so dishes that are simply ordered a lot do not crowd out
+     * dishes that really go with the cart.
+     * @param cartMenuItemIds The menu item IDs in the cart.
+     * @param k The maximum number of suggestions.
+     * @return Menu item IDs, best first; never one in the cart. Empty if nothing was ordered with them.
+     */
+    public synchronized List<Integer> recommend(Collection<Integer> cartMenuItemIds, int k) {
+        ensureLoaded();
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int cartId : cartMenuItemIds) {
+            if (cartId <= 0 || cartId >= rows.length || rows[cartId] == null) {
+                continue;
+            }
+            Row row = rows[cartId];
+            for (int slot = 0; slot < row.keys.length; slot++) {
+                int candidate = row.keys[slot];
+                if (candidate == 0) {
+                    continue;
+                }
+                double norm = Math.sqrt(dishWeight[cartId] * dishWeight[candidate]);
+                if (norm <= 0) {
+                    continue;
+                }
+                if (scores[candidate] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = candidate;
+                }
+                scores[candidate] += row.values[slot] / norm;
+            }
+        }
+        for (int cartId : cartMenuItemIds) {
+            if (cartId > 0 && cartId < scores.length) {
+                scores[cartId] = 0; // Already in the cart
+            }
+        }
+        List<Integer> best = topK(touched, touchedCount, scores, k);
+        for (int i = 0; i < touchedCount; i++) {
+            scores[touched[i]] = 0; // Leave the scratch space clean
+        }
+        return best;
+    }
+
+    /**
+     * Dishes ordered most in the last hours (weighted with a half-life of TRENDING_HALF_LIFE_HOURS).
+     * @param k The maximum number of dishes.
+     * @return Menu item IDs, most popular first.
+     */
+    public synchronized List<Integer> topDishesNow(int k) {
+        ensureLoaded();
+        int[] candidates = new int[trendingWeight.length];
+        int count = 0;
+        for (int id = 1; id < trendingWeight.length; id++) {
+            if (trendingWeight[id] > 0) {
+                candidates[count++] = id;
+            }
+        }
+        return topK(candidates, count, trendingWeight, k);
+    }
+
+    /**
+     * Selects the k candidates with the highest positive values by insertion into a sorted array
+     * of size k (k is a handful, so this beats sorting all candidates).
+     */
+    private static List<Integer> topK(int[] candidates, int count, double[] values, int k) {
+        int[] bestIds = new int[Math.max(0, k)];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int id = candidates[i];
+            double value = values[id];
+            if (value <= 0 || k <= 0 || (size == k && value <= values[bestIds[size - 1]])) {
+                continue;
+            }
+            int position = size < k ? size++ : k - 1;
+            while (position > 0 && values[bestIds[position - 1]] < value) {
+                bestIds[position] = bestIds[position - 1];
+                position--;
+            }
+            bestIds[position] = id;
+        }
+        List<Integer> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(bestIds[i]);
+        }
+        return result;
+    }
+
+    // --- History ---
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Basket> history = DatabaseManager.getOrderBasketsSince(now.minusDays(HISTORY_DAYS));
+        LocalDateTime recent = now.minusMinutes(RECENT_LOAD_MINUTES);
+        for (Basket basket : history) {
+            record(basket.menuItemIds, toSeconds(basket.orderTime));
+            if (basket.orderTime.isAfter(recent)) {
+                recentlyLoadedOrders.add(basket.orderId);
+            }
+        }
+        loaded = true;
+        System.out.println("Dish recommender learned from " + history.size() + " orders.");
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -86,6 +86,19 @@ public class Feedback {
                ", Comments: '" + comments + "'";
     }
 
+    /**
+     * Compares every field, unlike equals() which compares the feedback ID only.
+     * @param other Another version of the same feedback.
+     * @return true if nothing differs.
+     */
+    public boolean hasSameContent(Feedback other) {
+        return feedbackId == other.feedbackId &&
+               rating == other.rating &&
+               Objects.equals(customerUsername, other.customerUsername) &&
+               Objects.equals(comments, other.comments) &&
+               Objects.equals(feedbackDate, other.feedbackDate);
+    }
+
     /**
      * Checks if two Feedback objects are equal based on their feedbackId.
      * @param o The object to compare with.
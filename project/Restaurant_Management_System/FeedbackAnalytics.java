@@ -0,0 +1,367 @@
+package application;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Text analysis of customer feedback comments: tokens for the full-text index, a lexicon-based
+ * sentiment score and the dishes a comment mentions.
+ *
+ * DatabaseManager runs this once per comment, inside the transaction that saves it, and stores the
+ * results: the index terms in feedback_terms, the score in feedback.sentiment, and running totals
+ * per day and per dish. Searches and sentiment reports then read those tables instead of
+ * re-reading every comment.
+ */
+public class FeedbackAnalytics {
+
+    public static final int MAX_TERM_LENGTH = 50;     // feedback_terms.term is VARCHAR(50)
+    public static final double NEUTRAL_BAND = 0.05;   // Scores within +/- this count as neutral
+    public static final int ROLLING_DAYS = 7;          // Window of DaySentiment.getRollingAverage()
+
+    private static final double NEGATION_FACTOR = -0.74; // "not good" is less bad than "bad" is bad
+    private static final double BOOST_FACTOR = 1.3;
+    private static final double NORMALIZATION_ALPHA = 15; // score / sqrt(score^2 + alpha) maps to (-1, 1)
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "had", "has", "have",
+            "i", "if", "in", "is", "it", "its", "me", "my", "of", "on", "or", "our", "so", "that", "the",
+            "their", "they", "this", "to", "us", "was", "we", "were", "with", "you", "your"));
+
+    private static final Set<String> NEGATIONS = new HashSet<>(Arrays.asList(
+            "not", "no", "never", "nothing", "none", "dont", "didnt", "doesnt", "wasnt", "isnt", "werent",
+            "cant", "couldnt", "wont", "wouldnt", "hardly", "without"));
+
+    private static final Set<String> BOOSTERS = new HashSet<>(Arrays.asList(
+            "very", "really", "extremely", "super", "so", "too", "absolutely", "totally", "incredibly"));
+
+    private static final Map<String, Double> LEXICON = new HashMap<>();
+
+    static {
+        // Positive
+        for (String word : new String[]{"excellent", "amazing", "awesome", "delicious", "fantastic", "love", "loved",
+                "perfect", "best", "outstanding", "wonderful", "yummy", "superb", "brilliant"}) {
+            LEXICON.put(word, 3.0);
+        }
+        for (String word : new String[]{"good", "great", "tasty", "fresh", "friendly", "nice", "clean", "recommend",
+                "polite", "enjoyed", "enjoy", "lovely", "flavourful", "flavorful", "helpful", "crispy", "tender",
+                "happy", "pleasant", "authentic", "generous", "worth"}) {
+            LEXICON.put(word, 2.0);
+        }
+        for (String word : new String[]{"quick", "fast", "ok", "okay", "fine", "decent", "warm", "cozy", "prompt"}) {
+            LEXICON.put(word, 1.0);
+        }
+        // Negative
+        for (String word : new String[]{"terrible", "awful", "horrible", "worst", "disgusting", "rude", "dirty",
+                "hate", "hated", "inedible", "pathetic"}) {
+            LEXICON.put(word, -3.0);
+        }
+        for (String word : new String[]{"bad", "slow", "bland", "stale", "overpriced", "disappointing", "disappointed",
+                "poor", "soggy", "burnt", "raw", "undercooked", "unhappy", "unfriendly", "tasteless", "rubbery"}) {
+            LEXICON.put(word, -2.0);
+        }
+        for (String word : new String[]{"cold", "late", "expensive", "salty", "oily", "greasy", "mediocre", "noisy",
+                "small", "waited", "delay", "delayed", "dry"}) {
+            LEXICON.put(word, -1.0);
+        }
+    }
+
+    /**
+     * The result of analysing one comment.
+     */
+    public static class Analysis {
+        private final Map<String, Integer> termCounts;
+        private final int termTotal;
+        private final double sentiment;
+        private final Set<Integer> mentionedDishIds;
+
+        Analysis(Map<String, Integer> termCounts, int termTotal, double sentiment, Set<Integer> mentionedDishIds) {
+            this.termCounts = termCounts;
+            this.termTotal = termTotal;
+            this.sentiment = sentiment;
+            this.mentionedDishIds = mentionedDishIds;
+        }
+
+        // --- Getters ---
+        public Map<String, Integer> getTermCounts() {
+            return termCounts;
+        }
+
+        public int getTermTotal() {
+            return termTotal;
+        }
+
+        public double getSentiment() {
+            return sentiment;
+        }
+
+        public Set<Integer> getMentionedDishIds() {
+            return mentionedDishIds;
+        }
+    }
+
+    /**
+     * One result of a full-text feedback search.
+     */
+    public static class SearchHit {
+        private final Feedback feedback;
+        private final double score;
+        private final double sentiment;
+
+        SearchHit(Feedback feedback, double score, double sentiment) {
+            this.feedback = feedback;
+            this.score = score;
+            this.sentiment = sentiment;
+        }
+
+        // --- Getters ---
+        public Feedback getFeedback() {
+            return feedback;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public double getSentiment() {
+            return sentiment;
+        }
+    }
+
+    /**
+     * Sentiment of the comments of one day.
+     */
+    public static class DaySentiment {
+        private final LocalDate day;
+        private final int comments;
+        private final double average;
+        private final int positive;
+        private final int negative;
+        private final double rollingAverage;
+
+        DaySentiment(LocalDate day, int comments, double average, int positive, int negative, double rollingAverage) {
+            this.day = day;
+            this.comments = comments;
+            this.average = average;
+            this.positive = positive;
+            this.negative = negative;
+            this.rollingAverage = rollingAverage;
+        }
+
+        // --- Getters ---
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public int getComments() {
+            return comments;
+        }
+
+        public double getAverage() {
+            return average;
+        }
+
+        public int getPositive() {
+            return positive;
+        }
+
+        public int getNegative() {
+            return negative;
+        }
+
+        /**
+         * @return The average score of the comments of this day and the ROLLING_DAYS - 1 days before it.
+         */
+        public double getRollingAverage() {
+            return rollingAverage;
+        }
+    }
+
+    /**
+     * How often a dish is mentioned in feedback, and the average sentiment of those comments.
+     */
+    public static class DishMentions {
+        private final int menuItemId;
+        private final String dishName;
+        private final int mentions;
+        private final double averageSentiment;
+
+        DishMentions(int menuItemId, String dishName, int mentions, double averageSentiment) {
+            this.menuItemId = menuItemId;
+            this.dishName = dishName;
+            this.mentions = mentions;
+            this.averageSentiment = averageSentiment;
+        }
+
+        // --- Getters ---
+        public int getMenuItemId() {
+            return menuItemId;
+        }
+
+        public String getDishName() {
+            return dishName;
+        }
+
+        public int getMentions() {
+            return mentions;
+        }
+
+        public double getAverageSentiment() {
+            return averageSentiment;
+        }
+    }
+
+    /**
+     * Analyses one comment.
+     * @param comments The comment text (may be null).
+     * @param dishTokens The tokens of every dish name by menu item ID, from dishTokens().
+     * @return The index terms, sentiment and mentioned dishes.
+     */
+    public static Analysis analyze(String comments, Map<Integer, List<String>> dishTokens) {
+        List<String> tokens = tokenize(comments);
+        Map<String, Integer> termCounts = new LinkedHashMap<>();
+        int termTotal = 0;
+        for (String token : tokens) {
+            if (isIndexed(token)) {
+                termCounts.merge(token, 1, Integer::sum);
+                termTotal++;
+            }
+        }
+        return new Analysis(termCounts, termTotal, sentiment(tokens), mentionedDishes(tokens, dishTokens));
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits. Apostrophes are dropped, so "didn't" is "didnt".
+     * @param text The text (may be null).
+     * @return The words in order.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (c != '\'' && c != '’' && word.length() > 0) {
+                tokens.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the distinct index terms of a search query, in the order typed.
+     * @param query The query text.
+     * @return The terms; empty if the query has only stop words.
+     */
+    public static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokenize(query)) {
+            if (isIndexed(token)) {
+                terms.add(token);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static boolean isIndexed(String token) {
+        return token.length() <= MAX_TERM_LENGTH && !STOP_WORDS.contains(token);
+    }
+
+    /**
+     * Lexicon-based sentiment of a comment. Each word in the lexicon adds its score; a negation
+     * within the three words before it flips and dampens it, and a booster right before it
+     * strengthens it. The sum is normalized to (-1, 1).
+     * @param tokens The words of the comment, from tokenize().
+     * @return The score: negative, around 0 (neutral, see NEUTRAL_BAND) or positive.
+     */
+    public static double sentiment(List<String> tokens) {
+        double sum = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            Double value = LEXICON.get(tokens.get(i));
+            if (value == null) {
+                continue;
+            }
+            double score = value;
+            if (i > 0 && BOOSTERS.contains(tokens.get(i - 1))) {
+                score *= BOOST_FACTOR;
+            }
+            for (int j = Math.max(0, i - 3); j < i; j++) {
+                if (NEGATIONS.contains(tokens.get(j))) {
+                    score *= NEGATION_FACTOR;
+                    break;
+                }
+            }
+            sum += score;
+        }
+        return sum / Math.sqrt(sum * sum + NORMALIZATION_ALPHA);
+    }
+
+    /**
+     * Tokenizes dish names once for mentionedDishes().
+     * @param dishNames Dish name by menu item ID.
+     * @return The tokens of each name by menu item ID (names without words are left out).
+     */
+    public static Map<Integer, List<String>> dishTokens(Map<Integer, String> dishNames) {
+        Map<Integer, List<String>> tokens = new HashMap<>();
+        for (Map.Entry<Integer, String> entry : dishNames.entrySet()) {
+            List<String> nameTokens = tokenize(entry.getValue());
+            if (!nameTokens.isEmpty()) {
+                tokens.put(entry.getKey(), nameTokens);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Finds the dishes whose full name appears in a comment, word for word ("the paneer tikkas were
+     * cold" mentions "Paneer Tikka"; a plural "s" on the last word is accepted).
+     */
+    private static Set<Integer> mentionedDishes(List<String> tokens, Map<Integer, List<String>> dishTokens) {
+        Set<Integer> mentioned = new LinkedHashSet<>();
+        for (Map.Entry<Integer, List<String>> dish : dishTokens.entrySet()) {
+            List<String> name = dish.getValue();
+            for (int start = 0; start + name.size() <= tokens.size(); start++) {
+                if (matchesAt(tokens, start, name)) {
+                    mentioned.add(dish.getKey());
+                    break;
+                }
+            }
+        }
+        return mentioned;
+    }
+
+    private static boolean matchesAt(List<String> tokens, int start, List<String> name) {
+        for (int i = 0; i < name.size(); i++) {
+            String token = tokens.get(start + i);
+            String word = name.get(i);
+            boolean last = i == name.size() - 1;
+            if (!token.equals(word) && !(last && token.equals(word + "s"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formats a sentiment score for display, e.g. "+0.62 (positive)".
+     * @param score The score.
+     * @return The formatted score.
+     */
+    public static String describe(double score) {
+        String label = score >= NEUTRAL_BAND ? "positive" : score <= -NEUTRAL_BAND ? "negative" : "neutral";
+        return String.format(Locale.ROOT, "%+.2f (%s)", score, label);
+    }
+}
@@ -0,0 +1,150 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, array-based view of the restaurant floor plan, loaded once from restaurant_tables by
+ * DatabaseManager.getFloorPlan().
+ *
+ * Per-table attributes live in primitive arrays indexed directly by table number, so a lookup is a
+ * single array read no matter how many tables the outlet has. Combinable neighbours are stored in
+ * compressed form: the neighbours of table n are neighbours[neighbourStart[n] .. neighbourStart[n + 1]).
+ */
+public final class FloorPlan {
+
+    private final int[] capacityByNumber;   // 0 = no table with that number
+    private final TableType[] typeByNumber;
+    private final int[] zoneByNumber;       // Index into zones
+    private final String[] zones;
+    private final int[] neighbourStart;     // Length maxTableNumber + 2
+    private final int[] neighbours;
+    private final int[] tablesBySeats;      // Table numbers by capacity, then number
+    private final int[] rankByNumber;       // Table number -> position in tablesBySeats, -1 if none
+
+    /**
+     * Builds the arrays from the table rows.
+     * @param tables The tables; neighbours that are not in the list are ignored.
+     */
+    public FloorPlan(List<RestaurantTable> tables) {
+        int maxNumber = 0;
+        for (RestaurantTable table : tables) {
+            maxNumber = Math.max(maxNumber, table.getTableNumber());
+        }
+        capacityByNumber = new int[maxNumber + 1];
+        typeByNumber = new TableType[maxNumber + 1];
+        zoneByNumber = new int[maxNumber + 1];
+        List<String> zoneNames = new ArrayList<>();
+        for (RestaurantTable table : tables) {
+            int n = table.getTableNumber();
+            capacityByNumber[n] = table.getCapacity();
+            typeByNumber[n] = table.getTableType();
+            int zone = zoneNames.indexOf(table.getZone());
+            if (zone < 0) {
+                zone = zoneNames.size();
+                zoneNames.add(table.getZone());
+            }
+            zoneByNumber[n] = zone;
+        }
+        zones = zoneNames.toArray(new String[0]);
+
+        // Compressed neighbour lists; links are made symmetric and links to missing tables dropped
+        int[] degree = new int[maxNumber + 2];
+        List<int[]> links = new ArrayList<>();
+        for (RestaurantTable table : tables) {
+            for (int other : table.getCombinableWith()) {
+                if (other != table.getTableNumber() && contains(other)) {
+                    links.add(new int[] {table.getTableNumber(), other});
+                    links.add(new int[] {other, table.getTableNumber()});
+                }
+            }
+        }
+        links.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        List<int[]> unique = new ArrayList<>(links.size());
+        for (int[] link : links) {
+            int[] last = unique.isEmpty() ? null : unique.get(unique.size() - 1);
+            if (last == null || last[0] != link[0] || last[1] != link[1]) {
+                unique.add(link);
+                degree[link[0] + 1]++;
+            }
+        }
+        neighbourStart = new int[maxNumber + 2];
+        for (int n = 1; n < neighbourStart.length; n++) {
+            neighbourStart[n] = neighbourStart[n - 1] + degree[n];
+        }
+        neighbours = new int[unique.size()];
+        for (int i = 0; i < unique.size(); i++) {
+            neighbours[i] = unique.get(i)[1]; // Already sorted by table, so positions follow neighbourStart
+        }
+
+        tablesBySeats = tables.stream()
+                .mapToInt(RestaurantTable::getTableNumber)
+                .distinct()
+                .boxed()
+                .sorted((a, b) -> capacityByNumber[a] != capacityByNumber[b]
+                        ? Integer.compare(capacityByNumber[a], capacityByNumber[b]) : Integer.compare(a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        rankByNumber = new int[maxNumber + 1];
+        Arrays.fill(rankByNumber, -1);
+        for (int i = 0; i < tablesBySeats.length; i++) {
+            rankByNumber[tablesBySeats[i]] = i;
+        }
+    }
+
+    /**
+     * @return The number of tables.
+     */
+    public int getTableCount() {
+        return tablesBySeats.length;
+    }
+
+    /**
+     * @param tableNumber A table number.
+     * @return true if the floor plan has a table with that number.
+     */
+    public boolean contains(int tableNumber) {
+        return tableNumber >= 0 && tableNumber < capacityByNumber.length && typeByNumber[tableNumber] != null;
+    }
+
+    public int getCapacity(int tableNumber) {
+        return contains(tableNumber) ? capacityByNumber[tableNumber] : 0;
+    }
+
+    public TableType getTableType(int tableNumber) {
+        return contains(tableNumber) ? typeByNumber[tableNumber] : null;
+    }
+
+    public String getZone(int tableNumber) {
+        return contains(tableNumber) ? zones[zoneByNumber[tableNumber]] : null;
+    }
+
+    /**
+     * @param tableNumber A table number.
+     * @return The tables it can be combined with, in ascending order.
+     */
+    public int[] getNeighbours(int tableNumber) {
+        if (!contains(tableNumber)) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(neighbours, neighbourStart[tableNumber], neighbourStart[tableNumber + 1]);
+    }
+
+    /**
+     * Returns the table at a position in capacity order (smallest first, then by number).
+     * @param rank Position between 0 and getTableCount() - 1.
+     * @return The table number.
+     */
+    public int getTableBySeats(int rank) {
+        return tablesBySeats[rank];
+    }
+
+    /**
+     * @param tableNumber A table number.
+     * @return Its position in capacity order, or -1 if there is no such table.
+     */
+    public int getRankBySeats(int tableNumber) {
+        return contains(tableNumber) ? rankByNumber[tableNumber] : -1;
+    }
+}
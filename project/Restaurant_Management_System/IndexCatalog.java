@@ -0,0 +1,221 @@
+package application;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declares the secondary indexes for each access path used by DatabaseManager, and the queries that
+ * are expected to use them. SchemaMigrations creates the indexes from here, and QueryPlanVerifier
+ * runs EXPLAIN on every registered query to check that none of them scans a full table.
+ *
+ * Where a query reads only a few columns the index is covering (all selected columns are in the
+ * index, so the base row is never read). Queries that return whole rows get a composite index that
+ * serves the filter and the usual sort order instead.
+ */
+public class IndexCatalog {
+
+    /**
+     * A secondary index on one table.
+     */
+    public static class IndexDefinition {
+        private final int version;
+        private final String name;
+        private final String table;
+        private final List<String> columns;
+
+        /**
+         * Constructor for IndexDefinition.
+         * @param version The schema migration that creates this index.
+         * @param name The index name.
+         * @param table The indexed table.
+         * @param columns The indexed columns, leading column first.
+         */
+        public IndexDefinition(int version, String name, String table, String... columns) {
+            this.version = version;
+            this.name = name;
+            this.table = table;
+            this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        /**
+         * @return The CREATE INDEX statement for this index.
+         */
+        public String createSql() {
+            return "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")";
+        }
+
+        @Override
+        public String toString() {
+            return name + " ON " + table + columns;
+        }
+    }
+
+    /**
+     * A DatabaseManager query together with sample parameter values used to EXPLAIN it.
+     */
+    public static class RegisteredQuery {
+        private final String name;
+        private final String sql;
+        private final Object[] sampleParameters;
+
+        public RegisteredQuery(String name, String sql, Object... sampleParameters) {
+            this.name = name;
+            this.sql = sql;
+            this.sampleParameters = sampleParameters;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Object[] getSampleParameters() {
+            return sampleParameters;
+        }
+    }
+
+    // --- Indexes, one per access path ---
+    public static final IndexDefinition ORDERS_BY_CUSTOMER = new IndexDefinition(
+            4, "idx_orders_customer_time", "orders", "customer_username", "order_time");
+    public static final IndexDefinition ORDER_ITEMS_BY_ORDER = new IndexDefinition(
+            4, "idx_order_items_order_cover", "order_items", "order_id", "menu_item_id", "quantity");
+    public static final IndexDefinition BOOKINGS_BY_CUSTOMER = new IndexDefinition(
+            4, "idx_table_bookings_customer_time", "table_bookings", "customer_id", "booking_time");
+    public static final IndexDefinition BOOKINGS_BY_TIME = new IndexDefinition( // Replaced by BOOKINGS_BY_TIME_STATUS in V11
+            4, "idx_table_bookings_time_cover", "table_bookings", "booking_time", "table_number", "table_type", "duration_minutes");
+    public static final IndexDefinition RATINGS_BY_MENU_ITEM = new IndexDefinition(
+            4, "idx_dish_ratings_item_cover", "dish_ratings", "menu_item_id", "rating");
+    public static final IndexDefinition CARDS_BY_USER = new IndexDefinition(
+            4, "idx_user_cards_user_cover", "user_cards", "user_id", "card_id", "last_four_digits", "card_type", "expiry_month", "expiry_year");
+    public static final IndexDefinition FEEDBACK_BY_DATE = new IndexDefinition(
+            4, "idx_feedback_date_cover", "feedback", "feedback_date", "rating");
+    public static final IndexDefinition ORDERS_BY_STATUS = new IndexDefinition(
+            7, "idx_orders_status_time", "orders", "status", "order_time");
+    public static final IndexDefinition ORDERS_BY_TIME = new IndexDefinition(
+            7, "idx_orders_time_ready", "orders", "order_time", "ready_at");
+    public static final IndexDefinition STATUS_EVENTS_BY_ORDER = new IndexDefinition(
+            9, "idx_order_status_events_order_cover", "order_status_events", "order_id", "changed_at", "status");
+    public static final IndexDefinition BOOKINGS_BY_TIME_STATUS = new IndexDefinition(
+            11, "idx_table_bookings_time_status_cover", "table_bookings", "booking_time", "payment_status", "table_number", "table_type", "duration_minutes");
+    public static final IndexDefinition BOOKINGS_BY_TABLE_TIME = new IndexDefinition(
+            12, "idx_table_bookings_table_time_cover", "table_bookings", "table_number", "booking_time", "duration_minutes", "payment_status");
+    public static final IndexDefinition RECIPE_LINES_BY_INGREDIENT = new IndexDefinition(
+            17, "idx_recipe_lines_ingredient_cover", "recipe_lines", "ingredient_id", "menu_item_id", "quantity");
+
+    private static final List<IndexDefinition> INDEXES = Collections.unmodifiableList(Arrays.asList(
+            ORDERS_BY_CUSTOMER,
+            ORDER_ITEMS_BY_ORDER,
+            BOOKINGS_BY_CUSTOMER,
+            BOOKINGS_BY_TIME,
+            RATINGS_BY_MENU_ITEM,
+            CARDS_BY_USER,
+            FEEDBACK_BY_DATE,
+            ORDERS_BY_STATUS,
+            ORDERS_BY_TIME,
+            STATUS_EVENTS_BY_ORDER,
+            BOOKINGS_BY_TIME_STATUS,
+            BOOKINGS_BY_TABLE_TIME,
+            RECIPE_LINES_BY_INGREDIENT
+    ));
+
+    /**
+     * @return All declared secondary indexes.
+     */
+    public static List<IndexDefinition> indexes() {
+        return INDEXES;
+    }
+
+    /**
+     * Creates a migration that builds every index declared for the given version.
+     * New indexes must be declared with a new version (and listed in SchemaMigrations) so that
+     * databases already past an earlier version still receive them.
+     * @param version The migration version.
+     * @param description A short description of the migration.
+     * @param supersededIndexes "table.index" names of older indexes to drop once the new ones exist.
+     * @return The migration.
+     */
+    public static Migration migration(int version, String description, String... supersededIndexes) {
+        return new Migration(version, description, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (IndexDefinition index : INDEXES) {
+                    if (index.getVersion() == version) {
+                        stmt.execute(index.createSql());
+                    }
+                }
+                for (String qualifiedName : supersededIndexes) {
+                    String[] parts = qualifiedName.split("\\.");
+                    stmt.execute("ALTER TABLE " + parts[0] + " DROP INDEX " + parts[1]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the keyed queries that must not scan a full table. Listing queries that are meant to
+     * read every row (getAllOrders, getAllMenuItems, ...) are deliberately not registered.
+     * @return The registered queries.
+     */
+    public static List<RegisteredQuery> queries() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp windowStart = Timestamp.valueOf(LocalDateTime.now().minusMinutes(DatabaseManager.MAX_BOOKING_DURATION_MINUTES));
+        List<RegisteredQuery> queries = new ArrayList<>();
+        queries.add(new RegisteredQuery("user by username", DatabaseManager.USER_BY_USERNAME_SQL, "sample_user"));
+        queries.add(new RegisteredQuery("orders by customer", DatabaseManager.ORDERS_BY_CUSTOMER_SQL, "sample_user"));
+        queries.add(new RegisteredQuery("order items by order", DatabaseManager.ORDER_ITEMS_BY_ORDER_SQL, 1));
+        queries.add(new RegisteredQuery("order item quantities", DatabaseManager.ORDER_ITEM_QUANTITIES_SQL, 1));
+        queries.add(new RegisteredQuery("bookings by customer", DatabaseManager.BOOKINGS_BY_CUSTOMER_SQL, "sample_user_id"));
+        queries.add(new RegisteredQuery("bookings in time window", DatabaseManager.BOOKINGS_IN_WINDOW_SQL, windowStart, now));
+        queries.add(new RegisteredQuery("bookings starting after", DatabaseManager.BOOKINGS_STARTING_AFTER_SQL, windowStart));
+        queries.add(new RegisteredQuery("bookings of table in time window", DatabaseManager.TABLE_BOOKINGS_IN_WINDOW_SQL, 1, windowStart, now));
+        queries.add(new RegisteredQuery("unpaid bookings starting after", DatabaseManager.UNPAID_BOOKINGS_AFTER_SQL, windowStart));
+        queries.add(new RegisteredQuery("data version", DatabaseManager.DATA_VERSION_SQL, "ORDERS"));
+        queries.add(new RegisteredQuery("average rating for dish", DatabaseManager.AVERAGE_RATING_SQL, 1));
+        queries.add(new RegisteredQuery("saved cards by user", DatabaseManager.SAVED_CARDS_SQL, "sample_user_id"));
+        queries.add(new RegisteredQuery("open kitchen orders", DatabaseManager.OPEN_KITCHEN_ORDERS_SQL));
+        queries.add(new RegisteredQuery("ready orders since", DatabaseManager.READY_ORDERS_SINCE_SQL, windowStart));
+        queries.add(new RegisteredQuery("status events since", DatabaseManager.STATUS_EVENTS_SINCE_SQL, windowStart));
+        queries.add(new RegisteredQuery("order dishes since", DatabaseManager.ORDER_DISHES_SINCE_SQL, windowStart));
+        queries.add(new RegisteredQuery("order dish IDs since", DatabaseManager.ORDER_DISH_IDS_SINCE_SQL, windowStart));
+        queries.add(new RegisteredQuery("order item quantities since", DatabaseManager.ORDER_ITEM_QUANTITIES_SINCE_SQL, windowStart));
+        queries.add(new RegisteredQuery("feedback postings for term", DatabaseManager.FEEDBACK_TERM_POSTINGS_SQL, "good"));
+        queries.add(new RegisteredQuery("daily feedback sentiment", DatabaseManager.DAILY_SENTIMENT_SQL,
+                Date.valueOf(LocalDate.now().minusDays(30)), Date.valueOf(LocalDate.now())));
+        queries.add(new RegisteredQuery("feedback mentioning dish", DatabaseManager.FEEDBACK_MENTIONING_DISH_SQL, 1));
+        queries.add(new RegisteredQuery("recipe of dish", DatabaseManager.RECIPE_BY_DISH_SQL, 1));
+        queries.add(new RegisteredQuery("availability inputs for dish", DatabaseManager.AVAILABILITY_INPUTS_FOR_DISH_SQL, 1));
+        queries.add(new RegisteredQuery("availability inputs for ingredient", DatabaseManager.AVAILABILITY_INPUTS_FOR_INGREDIENT_SQL, 1));
+        queries.add(new RegisteredQuery("availability inputs for order", DatabaseManager.AVAILABILITY_INPUTS_FOR_ORDER_SQL, 1));
+        queries.add(new RegisteredQuery("order lines after order", DatabaseManager.ORDER_LINES_AFTER_SQL, 1));
+        queries.add(new RegisteredQuery("tax lines of order", DatabaseManager.ORDER_TAX_LINES_SQL, 1));
+        queries.add(new RegisteredQuery("tax state of order", DatabaseManager.ORDER_TAX_STATE_SQL, 1));
+        queries.add(new RegisteredQuery("tax totals of filing period", DatabaseManager.TAX_PERIOD_TOTALS_SQL,
+                TaxLedger.Period.MONTH.name(), Date.valueOf(TaxLedger.Period.MONTH.startOf(LocalDate.now()))));
+        return queries;
+    }
+}
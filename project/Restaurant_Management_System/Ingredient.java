@@ -0,0 +1,69 @@
+package application;
+
+/**
+ * Represents one ingredient in the kitchen inventory, e.g. chicken or basmati rice.
+ * Quantities are whole numbers of the ingredient's unit (grams, millilitres or pieces), so recipes
+ * and deductions never round.
+ */
+public class Ingredient {
+    private int ingredientId;
+    private String name;
+    private String unit;   // "g", "ml" or "pcs"
+    private long onHand;   // Quantity in stock, in units
+
+    /**
+     * Full constructor for Ingredient.
+     * @param ingredientId The ingredient ID (0 for a new ingredient).
+     * @param name The ingredient name.
+     * @param unit The unit quantities are counted in.
+     * @param onHand The quantity in stock.
+     */
+    public Ingredient(int ingredientId, String name, String unit, long onHand) {
+        this.ingredientId = ingredientId;
+        this.name = name;
+        this.unit = unit;
+        this.onHand = onHand;
+    }
+
+    // --- Getters ---
+    public int getIngredientId() {
+        return ingredientId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public long getOnHand() {
+        return onHand;
+    }
+
+    // --- Setters ---
+    public void setIngredientId(int ingredientId) {
+        this.ingredientId = ingredientId;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public void setOnHand(long onHand) {
+        this.onHand = onHand;
+    }
+
+    /**
+     * @return The name, as shown in ingredient pickers.
+     */
+    @Override
+    public String toString() {
+        return name + " (" + unit + ")";
+    }
+}
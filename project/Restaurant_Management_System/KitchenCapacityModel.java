@@ -0,0 +1,422 @@
+package application;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates how long the kitchen needs for an order and how loaded it is right now.
+ *
+ * Per-dish preparation times start at the station defaults (KitchenStation) and are corrected from
+ * completed orders: the time between prep_started_at (or order_time) and ready_at is compared with
+ * the prediction and every dish on the order is nudged towards it. History of the last
+ * HISTORY_DAYS days is replayed on first use, and each order that becomes ready afterwards is learned
+ * as it happens.
+ *
+ * Kitchen load is the queued work per station divided by the station's cooks, i.e. the minutes a
+ * new ticket would wait at that station. It is kept up to date as orders are admitted and leave the
+ * kitchen, and re-read from the database every REFRESH_SECONDS so that orders placed from other
+ * terminals are counted too.
+ *
+ * Admission control is configured with system properties:
+ *   restaurant.kitchen.admission      OFF (default), SLOW or REJECT
+ *   restaurant.kitchen.maxWaitMinutes predicted wait above which admission control applies (default 45)
+ *   restaurant.kitchen.slowPaceSeconds in SLOW mode, at most one order per this many seconds (default 60)
+ */
+public class KitchenCapacityModel {
+
+    /**
+     * What happens to new orders when the predicted wait exceeds the threshold.
+     */
+    public enum AdmissionMode {
+        OFF,    // Always accept; quotes are informational
+        SLOW,   // Accept at a limited pace while overloaded, ask the rest to retry
+        REJECT  // Refuse new orders while overloaded
+    }
+
+    /**
+     * Result of an admission check, including the ready-time quote shown at checkout.
+     */
+    public static class Quote {
+        private final boolean accepted;
+        private final LocalDateTime readyAt;
+        private final int waitMinutes;
+        private final int retryAfterSeconds;
+
+        Quote(boolean accepted, LocalDateTime readyAt, int waitMinutes, int retryAfterSeconds) {
+            this.accepted = accepted;
+            this.readyAt = readyAt;
+            this.waitMinutes = waitMinutes;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        public LocalDateTime getReadyAt() {
+            return readyAt;
+        }
+
+        public int getWaitMinutes() {
+            return waitMinutes;
+        }
+
+        /**
+         * @return Seconds after which a refused order may be retried (SLOW mode), or 0.
+         */
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private static final KitchenCapacityModel INSTANCE = new KitchenCapacityModel();
+
+    private static final int HISTORY_DAYS = 30;
+    private static final int REFRESH_SECONDS = 30;
+    private static final double LEARNING_RATE = 0.2; // Weight of one completed order in the per-dish estimate
+    private static final double MIN_RATIO = 0.25;    // Outlier clamp for actual / predicted
+    private static final double MAX_RATIO = 4.0;
+
+    private final AdmissionMode admissionMode;
+    private final int maxWaitMinutes;
+    private final int slowPaceSeconds;
+
+    // Per-dish estimate (minutes for the first portion), keyed by lower-case item name
+    private final Map<String, Double> dishMinutes = new ConcurrentHashMap<>();
+    // Open orders: order ID -> remaining work per station (minutes, indexed by KitchenStation ordinal)
+    private final Map<Integer, double[]> openOrderWork = new HashMap<>();
+    // Sum of openOrderWork per station; replaced (never mutated) so readers need no lock
+    private volatile double[] queuedWork = new double[KitchenStation.values().length];
+    // Items of open orders, needed to learn from them when they become ready
+    private final Map<Integer, Order> openOrders = new HashMap<>();
+
+    private volatile boolean historyLoaded;
+    private final AtomicLong lastRefreshMillis = new AtomicLong();
+    private final AtomicLong lastPacedAdmissionMillis = new AtomicLong();
+
+    /**
+     * @return The process-wide capacity model.
+     */
+    public static KitchenCapacityModel getInstance() {
+        return INSTANCE;
+    }
+
+    private KitchenCapacityModel() {
+        AdmissionMode mode;
+        try {
+            mode = AdmissionMode.valueOf(System.getProperty("restaurant.kitchen.admission", "OFF").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown restaurant.kitchen.admission value, admission control is off: " + e.getMessage());
+            mode = AdmissionMode.OFF;
+        }
+        this.admissionMode = mode;
+        this.maxWaitMinutes = Integer.getInteger("restaurant.kitchen.maxWaitMinutes", 45);
+        this.slowPaceSeconds = Integer.getInteger("restaurant.kitchen.slowPaceSeconds", 60);
+    }
+
+    // --- Estimates ---
+
+    /**
+     * Returns the current preparation-time estimate of a dish (first portion).
+     * @param itemName The menu item name.
+     * @return Minutes.
+     */
+    public double estimateDishMinutes(String itemName) {
+        Double learned = dishMinutes.get(itemName.toLowerCase());
+        return learned != null ? learned : KitchenStation.forMenuItem(itemName).getBasePrepMinutes();
+    }
+
+    /**
+     * Estimates how long a station needs for a set of items: the slowest dish plus the station's
+     * per-portion increment for every further portion.
+     * @param station The station.
+     * @param items Item name -> portions, all prepared at this station.
+     * @return Minutes, rounded up.
+     */
+    public int estimateStationMinutes(KitchenStation station, Map<String, Integer> items) {
+        return (int) Math.ceil(stationWork(station, items));
+    }
+
+    /**
+     * Quotes when an order with the given items would be ready if placed now, without admitting it.
+     * @param items Item name -> portions.
+     * @param now The current time.
+     * @return The quote; isAccepted() reflects the admission mode.
+     */
+    public Quote quoteReadyTime(Map<String, Integer> items, LocalDateTime now) {
+        return evaluate(items, now, false);
+    }
+
+    /**
+     * Checks whether a new order may be placed now. In SLOW mode, an accepted check while
+     * overloaded uses up the current pacing slot, so call this once, right before addOrder.
+     * @param items Item name -> portions.
+     * @param now The current time.
+     * @return The quote and the admission verdict.
+     */
+    public Quote checkAdmission(Map<String, Integer> items, LocalDateTime now) {
+        return evaluate(items, now, true);
+    }
+
+    /**
+     * @param station A station.
+     * @return The minutes a new ticket would currently wait at the station.
+     */
+    public double getStationLoadMinutes(KitchenStation station) {
+        ensureFresh();
+        return queuedWork[station.ordinal()] / station.getCooks();
+    }
+
+    /**
+     * @return The longest current wait over all stations, in minutes.
+     */
+    public double getPredictedWaitMinutes() {
+        ensureFresh();
+        double[] work = queuedWork;
+        double worst = 0;
+        for (KitchenStation station : KitchenStation.values()) {
+            worst = Math.max(worst, work[station.ordinal()] / station.getCooks());
+        }
+        return worst;
+    }
+
+    public AdmissionMode getAdmissionMode() {
+        return admissionMode;
+    }
+
+    public int getMaxWaitMinutes() {
+        return maxWaitMinutes;
+    }
+
+    // --- Updates from DatabaseManager ---
+
+    /**
+     * Adds a newly placed order to the kitchen load.
+     * @param order The order, with its database ID set.
+     */
+    public void recordAdmitted(Order order) {
+        if (order.getStatus() != OrderStatus.PENDING && order.getStatus() != OrderStatus.PREPARING) {
+            return;
+        }
+        synchronized (this) {
+            addOpenOrder(order);
+        }
+    }
+
+    /**
+     * Applies an order status change: orders leaving the kitchen are removed from the load, and
+     * orders that became ready are learned from.
+     * @param orderId The order ID.
+     * @param status The new status.
+     * @param when When the change happened.
+     */
+    public void onStatusChanged(int orderId, OrderStatus status, LocalDateTime when) {
+        Order learnFrom = null;
+        synchronized (this) {
+            Order order = openOrders.get(orderId);
+            if (order == null) {
+                return;
+            }
+            if (status == OrderStatus.PREPARING) {
+                if (order.getPrepStartedAt() == null) {
+                    order.setPrepStartedAt(when);
+                }
+                return;
+            }
+            if (status == OrderStatus.PENDING) {
+                return;
+            }
+            removeOpenOrder(orderId);
+            if (status == OrderStatus.READY_FOR_PICKUP) {
+                order.setReadyAt(when);
+                learnFrom = order;
+            }
+        }
+        if (learnFrom != null) {
+            learn(learnFrom);
+        }
+    }
+
+    /**
+     * Removes an order from the kitchen load, e.g. after it was deleted.
+     * @param orderId The order ID.
+     */
+    public synchronized void remove(int orderId) {
+        removeOpenOrder(orderId);
+    }
+
+    // --- Internals ---
+
+    private Quote evaluate(Map<String, Integer> items, LocalDateTime now, boolean consumeSlot) {
+        ensureFresh();
+        double[] work = queuedWork;
+        Map<KitchenStation, Map<String, Integer>> byStation = splitByStation(items);
+        double waitMinutes = 0;
+        double queueMinutes = 0;
+        for (Map.Entry<KitchenStation, Map<String, Integer>> entry : byStation.entrySet()) {
+            KitchenStation station = entry.getKey();
+            double queued = work[station.ordinal()] / station.getCooks();
+            queueMinutes = Math.max(queueMinutes, queued);
+            waitMinutes = Math.max(waitMinutes, queued + stationWork(station, entry.getValue()));
+        }
+        int roundedWait = (int) Math.ceil(waitMinutes);
+        LocalDateTime readyAt = now.plusMinutes(roundedWait);
+
+        // The threshold applies to the wait before cooking starts, so big orders are not refused on a quiet night
+        if (admissionMode == AdmissionMode.OFF || queueMinutes <= maxWaitMinutes) {
+            return new Quote(true, readyAt, roundedWait, 0);
+        }
+        if (admissionMode == AdmissionMode.REJECT) {
+            return new Quote(false, readyAt, roundedWait, 0);
+        }
+        // SLOW: one order per pacing interval while overloaded
+        long nowMillis = System.currentTimeMillis();
+        long last = lastPacedAdmissionMillis.get();
+        long nextSlot = last + slowPaceSeconds * 1000L;
+        if (nowMillis >= nextSlot && (!consumeSlot || lastPacedAdmissionMillis.compareAndSet(last, nowMillis))) {
+            return new Quote(true, readyAt, roundedWait, 0);
+        }
+        int retryAfter = (int) Math.max(1, (Math.max(nextSlot, nowMillis + 1000) - nowMillis) / 1000);
+        return new Quote(false, readyAt, roundedWait, retryAfter);
+    }
+
+    private double stationWork(KitchenStation station, Map<String, Integer> items) {
+        double slowest = 0;
+        int portions = 0;
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            slowest = Math.max(slowest, estimateDishMinutes(entry.getKey()));
+            portions += entry.getValue();
+        }
+        return slowest + Math.max(0, portions - 1) * station.getExtraMinutesPerPortion();
+    }
+
+    private static Map<KitchenStation, Map<String, Integer>> splitByStation(Map<String, Integer> items) {
+        Map<KitchenStation, Map<String, Integer>> byStation = new EnumMap<>(KitchenStation.class);
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            byStation.computeIfAbsent(KitchenStation.forMenuItem(entry.getKey()), s -> new LinkedHashMap<>())
+                     .merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return byStation;
+    }
+
+    private static Map<String, Integer> portionsByName(Order order) {
+        Map<String, Integer> items = new LinkedHashMap<>();
+        for (MenuItem item : order.getItems()) {
+            items.merge(item.getName(), 1, Integer::sum);
+        }
+        return items;
+    }
+
+    private double[] orderWork(Order order) {
+        double[] work = new double[KitchenStation.values().length];
+        for (Map.Entry<KitchenStation, Map<String, Integer>> entry : splitByStation(portionsByName(order)).entrySet()) {
+            work[entry.getKey().ordinal()] = stationWork(entry.getKey(), entry.getValue());
+        }
+        return work;
+    }
+
+    // Callers hold the monitor
+    private void addOpenOrder(Order order) {
+        if (openOrders.containsKey(order.getOrderId())) {
+            return;
+        }
+        double[] work = orderWork(order);
+        openOrders.put(order.getOrderId(), order);
+        openOrderWork.put(order.getOrderId(), work);
+        double[] sum = queuedWork.clone();
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += work[i];
+        }
+        queuedWork = sum;
+    }
+
+    // Callers hold the monitor
+    private void removeOpenOrder(int orderId) {
+        openOrders.remove(orderId);
+        double[] work = openOrderWork.remove(orderId);
+        if (work == null) {
+            return;
+        }
+        double[] sum = queuedWork.clone();
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = Math.max(0, sum[i] - work[i]);
+        }
+        queuedWork = sum;
+    }
+
+    /**
+     * Nudges the estimate of every dish on a completed order by the ratio of actual to predicted time.
+     */
+    private void learn(Order order) {
+        LocalDateTime start = order.getPrepStartedAt() != null ? order.getPrepStartedAt() : order.getOrderTime();
+        if (order.getReadyAt() == null || start == null || !order.getReadyAt().isAfter(start)) {
+            return;
+        }
+        double actual = Duration.between(start, order.getReadyAt()).getSeconds() / 60.0;
+        double predicted = 0;
+        for (double stationMinutes : orderWork(order)) {
+            predicted = Math.max(predicted, stationMinutes);
+        }
+        if (predicted <= 0) {
+            return;
+        }
+        double ratio = Math.max(MIN_RATIO, Math.min(MAX_RATIO, actual / predicted));
+        double factor = 1 + LEARNING_RATE * (ratio - 1);
+        for (String name : portionsByName(order).keySet()) {
+            double current = estimateDishMinutes(name);
+            dishMinutes.put(name.toLowerCase(), Math.max(1.0, current * factor));
+        }
+    }
+
+    /**
+     * Loads history on first use and re-reads the open orders from the database periodically.
+     */
+    private void ensureFresh() {
+        if (!historyLoaded) {
+            synchronized (this) {
+                if (!historyLoaded) {
+                    List<Order> history = DatabaseManager.getReadyOrdersSince(LocalDateTime.now().minusDays(HISTORY_DAYS));
+                    history.sort((a, b) -> a.getOrderTime().compareTo(b.getOrderTime()));
+                    for (Order order : history) {
+                        learn(order);
+                    }
+                    historyLoaded = true;
+                    System.out.println("Kitchen capacity model learned from " + history.size() + " completed orders.");
+                }
+            }
+        }
+        long nowMillis = System.currentTimeMillis();
+        long last = lastRefreshMillis.get();
+        // Only the thread that wins the CAS re-reads; everyone else keeps using the current load
+        if (nowMillis - last > REFRESH_SECONDS * 1000L && lastRefreshMillis.compareAndSet(last, nowMillis)) {
+            LocalDateTime readStart = LocalDateTime.now();
+            List<Order> open = DatabaseManager.getOpenKitchenOrders();
+            synchronized (this) {
+                // Keep orders admitted in this process while the query ran; they may be missing from its result
+                List<Order> admittedDuringRead = new ArrayList<>();
+                for (Order order : openOrders.values()) {
+                    if (order.getOrderTime() != null && !order.getOrderTime().isBefore(readStart)) {
+                        admittedDuringRead.add(order);
+                    }
+                }
+                openOrders.clear();
+                openOrderWork.clear();
+                queuedWork = new double[KitchenStation.values().length];
+                for (Order order : open) {
+                    addOpenOrder(order);
+                }
+                for (Order order : admittedDuringRead) {
+                    addOpenOrder(order); // No-op if the query already returned it
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory queue of open orders for the kitchen display, split into one priority queue per
+ * KitchenStation and ordered by KitchenTicket.PRIORITY (order time, then longest prep first).
+ *
+ * Threading: any number of counter threads (UI handlers, DatabaseManager callers) hand work over
+ * through a lock-free ConcurrentLinkedQueue by calling submit/updateStatus/remove, which never
+ * block. A single consumer thread - the kitchen display, i.e. the JavaFX thread - calls drain()
+ * to apply the pending events and then reads the station queues. The station queues are only
+ * touched by that consumer, so they need no locking at all.
+ *
+ * Events are only queued while a consumer is attached, so a process that never shows the kitchen
+ * display (a customer terminal, the console app) does not collect them. Orders changed by other
+ * terminals never reach this process's inbox; the consumer picks them up with sync(), from the
+ * open orders in the database.
+ */
+public class KitchenOrderQueue {
+
+    private static final KitchenOrderQueue INSTANCE = new KitchenOrderQueue();
+
+    /**
+     * @return The process-wide kitchen queue.
+     */
+    public static KitchenOrderQueue getInstance() {
+        return INSTANCE;
+    }
+
+    // --- Events handed over from producer threads ---
+    private enum EventType { SUBMIT, STATUS, REMOVE }
+
+    private static final class Event {
+        final EventType type;
+        final int orderId;
+        final OrderStatus status;
+        final List<KitchenTicket> tickets; // SUBMIT only
+
+        Event(EventType type, int orderId, OrderStatus status, List<KitchenTicket> tickets) {
+            this.type = type;
+            this.orderId = orderId;
+            this.status = status;
+            this.tickets = tickets;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Event> inbox = new ConcurrentLinkedQueue<>();
+    private volatile boolean consumerAttached;
+
+    // --- Consumer-owned state ---
+    private final Map<KitchenStation, PriorityQueue<KitchenTicket>> stationQueues = new EnumMap<>(KitchenStation.class);
+    private final Map<Integer, List<KitchenTicket>> openTicketsByOrder = new HashMap<>();
+
+    private KitchenOrderQueue() {
+        for (KitchenStation station : KitchenStation.values()) {
+            stationQueues.put(station, new PriorityQueue<>(KitchenTicket.PRIORITY));
+        }
+    }
+
+    // --- Producer side (any thread, non-blocking) ---
+
+    /**
+     * Hands a newly placed order to the kitchen. The order is split into one ticket per station on
+     * the calling thread. Orders that are not PENDING or PREPARING are ignored, and submitting
+     * the same order twice has no effect.
+     * @param order The order, with its database ID set.
+     */
+    public void submit(Order order) {
+        if (!consumerAttached || !isKitchenStatus(order.getStatus()) || order.getOrderId() <= 0) {
+            return;
+        }
+        inbox.add(new Event(EventType.SUBMIT, order.getOrderId(), order.getStatus(), createTickets(order)));
+    }
+
+    /**
+     * Records a status change of an order. PENDING/PREPARING keep the order on the display;
+     * any other status removes it.
+     * @param orderId The order ID.
+     * @param status The new status.
+     */
+    public void updateStatus(int orderId, OrderStatus status) {
+        if (!consumerAttached) {
+            return;
+        }
+        inbox.add(new Event(EventType.STATUS, orderId, status, null));
+    }
+
+    /**
+     * Removes an order from the kitchen, e.g. after it was deleted.
+     * @param orderId The order ID.
+     */
+    public void remove(int orderId) {
+        if (!consumerAttached) {
+            return;
+        }
+        inbox.add(new Event(EventType.REMOVE, orderId, null, null));
+    }
+
+    // --- Consumer side (kitchen display thread only) ---
+
+    /**
+     * Starts queueing events for a consumer. Call sync() afterwards with the open orders read from
+     * the database, so orders placed before the consumer attached are shown too.
+     */
+    public void attachConsumer() {
+        consumerAttached = true;
+    }
+
+    /**
+     * Stops queueing events and forgets all orders, e.g. when the kitchen display is closed.
+     */
+    public void detachConsumer() {
+        consumerAttached = false;
+        inbox.clear();
+        openTicketsByOrder.clear();
+        for (PriorityQueue<KitchenTicket> queue : stationQueues.values()) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Applies the pending events and then brings the queue in line with the open orders in the
+     * database: orders missing here are added, orders no longer open are removed and changed
+     * statuses are applied. This picks up changes made on other terminals.
+     * @param openOrders The PENDING and PREPARING orders, with their items.
+     * @return true if anything changed, i.e. the display needs refreshing.
+     */
+    public boolean sync(List<Order> openOrders) {
+        boolean changed = drain() > 0;
+        Set<Integer> openIds = new HashSet<>();
+        for (Order order : openOrders) {
+            openIds.add(order.getOrderId());
+            List<KitchenTicket> tickets = openTicketsByOrder.get(order.getOrderId());
+            if (tickets == null) {
+                tickets = createTickets(order);
+                openTicketsByOrder.put(order.getOrderId(), tickets);
+                for (KitchenTicket ticket : tickets) {
+                    stationQueues.get(ticket.getStation()).add(ticket);
+                }
+                changed = true;
+                continue;
+            }
+            for (KitchenTicket ticket : tickets) {
+                if (ticket.getStatus() != order.getStatus()) {
+                    ticket.setStatus(order.getStatus());
+                    changed = true;
+                }
+            }
+        }
+        for (Integer orderId : new ArrayList<>(openTicketsByOrder.keySet())) {
+            if (!openIds.contains(orderId)) {
+                closeOrder(orderId);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Applies all events handed over since the last call.
+     * @return The number of events applied; 0 means the display does not need refreshing.
+     */
+    public int drain() {
+        int applied = 0;
+        Event event;
+        while ((event = inbox.poll()) != null) {
+            applied++;
+            switch (event.type) {
+                case SUBMIT:
+                    if (!openTicketsByOrder.containsKey(event.orderId)) {
+                        openTicketsByOrder.put(event.orderId, event.tickets);
+                        for (KitchenTicket ticket : event.tickets) {
+                            stationQueues.get(ticket.getStation()).add(ticket);
+                        }
+                    }
+                    break;
+                case STATUS:
+                    if (isKitchenStatus(event.status)) {
+                        List<KitchenTicket> tickets = openTicketsByOrder.get(event.orderId);
+                        if (tickets != null) {
+                            for (KitchenTicket ticket : tickets) {
+                                ticket.setStatus(event.status);
+                            }
+                        }
+                    } else {
+                        closeOrder(event.orderId);
+                    }
+                    break;
+                case REMOVE:
+                    closeOrder(event.orderId);
+                    break;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Returns the open tickets of a station in kitchen priority order.
+     * @param station The station.
+     * @return A sorted copy of the station's open tickets.
+     */
+    public List<KitchenTicket> snapshot(KitchenStation station) {
+        PriorityQueue<KitchenTicket> queue = stationQueues.get(station);
+        queue.removeIf(KitchenTicket::isClosed); // Lazily drop tickets closed since the last snapshot
+        List<KitchenTicket> tickets = new ArrayList<>(queue);
+        tickets.sort(KitchenTicket.PRIORITY);
+        return tickets;
+    }
+
+    /**
+     * Returns the next ticket a station should work on, without removing it.
+     * @param station The station.
+     * @return The highest-priority open ticket, or null if the station is idle.
+     */
+    public KitchenTicket peek(KitchenStation station) {
+        PriorityQueue<KitchenTicket> queue = stationQueues.get(station);
+        while (!queue.isEmpty() && queue.peek().isClosed()) {
+            queue.poll();
+        }
+        return queue.peek();
+    }
+
+    /**
+     * Marks a station's ticket as done ("bumps" it off the display).
+     * @param ticket The ticket.
+     * @return true if this was the last open ticket of its order, i.e. the whole order is ready.
+     */
+    public boolean bump(KitchenTicket ticket) {
+        ticket.close();
+        List<KitchenTicket> tickets = openTicketsByOrder.get(ticket.getOrderId());
+        if (tickets == null) {
+            return false;
+        }
+        for (KitchenTicket other : tickets) {
+            if (!other.isClosed()) {
+                return false;
+            }
+        }
+        openTicketsByOrder.remove(ticket.getOrderId());
+        return true;
+    }
+
+    /**
+     * @return The number of orders currently in the kitchen.
+     */
+    public int openOrderCount() {
+        return openTicketsByOrder.size();
+    }
+
+    private void closeOrder(int orderId) {
+        List<KitchenTicket> tickets = openTicketsByOrder.remove(orderId);
+        if (tickets != null) {
+            for (KitchenTicket ticket : tickets) {
+                ticket.close(); // Removed from the station queue lazily
+            }
+        }
+    }
+
+    // --- Helpers ---
+
+    private static boolean isKitchenStatus(OrderStatus status) {
+        return status == OrderStatus.PENDING || status == OrderStatus.PREPARING;
+    }
+
+    /**
+     * Splits an order into one ticket per station, grouping portions of the same item.
+     */
+    private static List<KitchenTicket> createTickets(Order order) {
+        Map<KitchenStation, Map<String, Integer>> itemsByStation = new EnumMap<>(KitchenStation.class);
+        for (MenuItem item : order.getItems()) {
+            KitchenStation station = KitchenStation.forMenuItem(item.getName());
+            itemsByStation.computeIfAbsent(station, s -> new LinkedHashMap<>()).merge(item.getName(), 1, Integer::sum);
+        }
+        List<KitchenTicket> tickets = new ArrayList<>(itemsByStation.size());
+        for (Map.Entry<KitchenStation, Map<String, Integer>> entry : itemsByStation.entrySet()) {
+            int prepMinutes = KitchenCapacityModel.getInstance().estimateStationMinutes(entry.getKey(), entry.getValue());
+            tickets.add(new KitchenTicket(order.getOrderId(), entry.getKey(), order.getOrderTime(), entry.getValue(),
+                    prepMinutes, order.getStatus()));
+        }
+        return tickets;
+    }
+}
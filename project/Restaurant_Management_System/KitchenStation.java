@@ -0,0 +1,89 @@
+package application;
+
+/**
+ * Enum representing the kitchen stations that prepare menu items.
+ * Each station has a display value, a default preparation time (refined from history by
+ * KitchenCapacityModel) and the number of tickets it can work on at once.
+ */
+public enum KitchenStation {
+    GRILL("Grill", 15, 2, 2),            // Tikkas and kebabs
+    CURRY("Curry & Biryani", 20, 1, 3),  // Curries, biryanis and anything not matched below
+    DRINKS("Drinks & Cold", 3, 0, 2);    // Drinks, water, salads and desserts
+
+    private final String displayValue;      // User-friendly name for the station
+    private final int basePrepMinutes;      // Time to prepare the first portion
+    private final int extraMinutesPerPortion; // Added for each further portion on the same ticket
+    private final int cooks;                // Tickets the station can work on at the same time
+
+    /**
+     * Constructor for KitchenStation enum.
+     * @param displayValue The string representation of the station.
+     * @param basePrepMinutes Minutes to prepare the first portion.
+     * @param extraMinutesPerPortion Minutes added per additional portion.
+     * @param cooks Number of tickets the station works on in parallel.
+     */
+    KitchenStation(String displayValue, int basePrepMinutes, int extraMinutesPerPortion, int cooks) {
+        this.displayValue = displayValue;
+        this.basePrepMinutes = basePrepMinutes;
+        this.extraMinutesPerPortion = extraMinutesPerPortion;
+        this.cooks = cooks;
+    }
+
+    /**
+     * Returns the user-friendly display value of the station.
+     * @return The display string for the station.
+     */
+    public String getDisplayValue() {
+        return displayValue;
+    }
+
+    /**
+     * Returns the default preparation time of one portion, used until history is available.
+     * @return The base preparation time in minutes.
+     */
+    public int getBasePrepMinutes() {
+        return basePrepMinutes;
+    }
+
+    /**
+     * Returns the time added for each further portion on the same ticket.
+     * @return Minutes per extra portion.
+     */
+    public int getExtraMinutesPerPortion() {
+        return extraMinutesPerPortion;
+    }
+
+    /**
+     * Returns how many tickets the station can work on at the same time.
+     * @return The number of cooks at the station.
+     */
+    public int getCooks() {
+        return cooks;
+    }
+
+    /**
+     * Determines which station prepares a menu item, from its name.
+     * @param itemName The menu item name (case-insensitive).
+     * @return The station for the item; CURRY if nothing more specific matches.
+     */
+    public static KitchenStation forMenuItem(String itemName) {
+        String name = itemName == null ? "" : itemName.toLowerCase();
+        if (name.contains("tikka") || name.contains("kebab") || name.contains("tandoor")) {
+            return GRILL;
+        }
+        if (name.contains("drink") || name.contains("water") || name.contains("juice") || name.contains("lassi")
+                || name.contains("salad") || name.contains("dessert")) {
+            return DRINKS;
+        }
+        return CURRY;
+    }
+
+    /**
+     * Overrides the default toString method to return the display value.
+     * @return The display string of the station.
+     */
+    @Override
+    public String toString() {
+        return displayValue;
+    }
+}
@@ -0,0 +1,118 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The part of one order that a single kitchen station has to prepare.
+ * An order with grill and drink items produces two tickets, one per station.
+ */
+public class KitchenTicket {
+
+    /**
+     * Kitchen priority: oldest order first; within the same order time, the longest preparation
+     * first so that all parts of an order finish together; then order ID for a stable order.
+     */
+    public static final Comparator<KitchenTicket> PRIORITY = Comparator
+            .comparing(KitchenTicket::getOrderTime)
+            .thenComparing(Comparator.comparingInt(KitchenTicket::getEstimatedPrepMinutes).reversed())
+            .thenComparingInt(KitchenTicket::getOrderId);
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final int orderId;
+    private final KitchenStation station;
+    private final LocalDateTime orderTime;
+    private final Map<String, Integer> items; // Item name -> portions, in order of first appearance
+    private final int estimatedPrepMinutes;
+    private OrderStatus status;
+    private boolean closed; // Set once bumped or the order leaves the kitchen; closed tickets are skipped
+
+    /**
+     * Constructor for KitchenTicket.
+     * @param orderId The order this ticket belongs to.
+     * @param station The station that prepares it.
+     * @param orderTime When the order was placed.
+     * @param items Item names and portions for this station.
+     * @param estimatedPrepMinutes Estimated preparation time.
+     * @param status The order status when the ticket was created.
+     */
+    public KitchenTicket(int orderId, KitchenStation station, LocalDateTime orderTime, Map<String, Integer> items,
+                         int estimatedPrepMinutes, OrderStatus status) {
+        this.orderId = orderId;
+        this.station = station;
+        this.orderTime = orderTime;
+        this.items = Collections.unmodifiableMap(new LinkedHashMap<>(items));
+        this.estimatedPrepMinutes = estimatedPrepMinutes;
+        this.status = status;
+    }
+
+    // --- Getters ---
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public KitchenStation getStation() {
+        return station;
+    }
+
+    public LocalDateTime getOrderTime() {
+        return orderTime;
+    }
+
+    public Map<String, Integer> getItems() {
+        return items;
+    }
+
+    public int getEstimatedPrepMinutes() {
+        return estimatedPrepMinutes;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return When this ticket is expected to be ready, from the order time and estimated prep time.
+     */
+    public LocalDateTime getReadyBy() {
+        return orderTime.plusMinutes(estimatedPrepMinutes);
+    }
+
+    // --- Mutators (kitchen display thread only, see KitchenOrderQueue) ---
+    void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    void close() {
+        this.closed = true;
+    }
+
+    /**
+     * Provides a one-line summary for the kitchen display.
+     * @return e.g. "#12 [Preparing] 2x chicken tikka, 1x veg kebab - ready by 19:42"
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('#').append(orderId).append(" [").append(status.getDisplayValue()).append("] ");
+        boolean first = true;
+        for (Map.Entry<String, Integer> entry : items.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.getValue()).append("x ").append(entry.getKey());
+            first = false;
+        }
+        sb.append(" - ready by ").append(getReadyBy().format(TIME_FORMAT));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package application;
+
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Brings an ObservableList up to date with freshly loaded data by applying only the differences,
+ * matched by primary key, instead of replacing every element with setAll.
+ *
+ * setAll fires one change that replaces every row, so a TableView re-runs every cell factory and
+ * loses its selection. patch() removes the rows that are gone, inserts the new ones and replaces
+ * only the rows whose content changed, each as its own small change; rows that did not change are
+ * not touched at all, so when nothing changed no event is fired.
+ */
+public final class ListPatcher {
+
+    private ListPatcher() {
+    }
+
+    /**
+     * Patches a list so that it equals the fresh data, in the fresh data's order.
+     * @param target The list shown in the UI.
+     * @param fresh The data just loaded.
+     * @param key Returns the primary key of an element.
+     * @param sameContent true if two elements with the same key have the same content; equals()
+     *                    of the model classes only compares IDs, so this is passed separately.
+     * @return The number of elements inserted, replaced or removed (0 if the list was already up to date).
+     */
+    public static <T, K> int patch(ObservableList<T> target, List<? extends T> fresh,
+                                   Function<? super T, ? extends K> key, BiPredicate<? super T, ? super T> sameContent) {
+        if (target.isEmpty() || fresh.isEmpty()) {
+            int changes = target.size() + fresh.size();
+            if (changes > 0) {
+                target.setAll(fresh); // Nothing to keep
+            }
+            return changes;
+        }
+
+        Set<K> freshKeys = new HashSet<>(fresh.size() * 2);
+        for (T item : fresh) {
+            freshKeys.add(key.apply(item));
+        }
+
+        // 1. Removals, as contiguous ranges from the back so earlier indexes stay valid
+        int changes = 0;
+        int end = target.size();
+        while (end > 0) {
+            if (freshKeys.contains(key.apply(target.get(end - 1)))) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && !freshKeys.contains(key.apply(target.get(start - 1)))) {
+                start--;
+            }
+            target.remove(start, end);
+            changes += end - start;
+            end = start;
+        }
+
+        // 2. Walk the fresh data: keep, replace, move or insert at each position
+        Map<K, Integer> remaining = new HashMap<>(target.size() * 2); // Keys still ahead in target
+        for (T item : target) {
+            remaining.merge(key.apply(item), 1, Integer::sum);
+        }
+        for (int i = 0; i < fresh.size(); i++) {
+            T item = fresh.get(i);
+            K itemKey = key.apply(item);
+            if (i < target.size() && itemKey.equals(key.apply(target.get(i)))) {
+                if (!sameContent.test(target.get(i), item)) {
+                    target.set(i, item);
+                    changes++;
+                }
+                remaining.computeIfPresent(itemKey, (k, n) -> n > 1 ? n - 1 : null);
+                continue;
+            }
+            if (remaining.containsKey(itemKey)) {
+                // Moved: take it out further down and put it here (rare; fresh data keeps its sort order)
+                for (int j = i + 1; j < target.size(); j++) {
+                    if (itemKey.equals(key.apply(target.get(j)))) {
+                        target.remove(j);
+                        break;
+                    }
+                }
+                remaining.computeIfPresent(itemKey, (k, n) -> n > 1 ? n - 1 : null);
+            }
+            target.add(i, item);
+            changes++;
+        }
+        if (target.size() > fresh.size()) {
+            changes += target.size() - fresh.size(); // Duplicate keys in the old list
+            target.remove(fresh.size(), target.size());
+        }
+        return changes;
+    }
+}
@@ -6,6 +6,8 @@ import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -25,6 +27,9 @@ import javafx.beans.property.SimpleDoubleProperty; // For totalCol in orders
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.text.Text; // Import Text for word wrapping in TableView
 import javafx.geometry.HPos; // Import HPos
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -36,6 +41,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.concurrent.ThreadLocalRandom; // For OTP generation
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 // New imports required for updated features
 import application.DishRating;
@@ -59,16 +66,30 @@ public class Main extends Application {
     private ObservableList<TableBooking> allTableBookings = FXCollections.observableArrayList();
     private ObservableList<Feedback> allFeedback = FXCollections.observableArrayList();
     private ObservableList<DishRating> allDishRatings = FXCollections.observableArrayList(); // For dish rating viewing by admin/customer
+    private final DataVersions dataVersions = new DataVersions(); // Skips list reloads when nothing changed
+    // Search indexes of the admin tables, created with their tab and kept in sync with the lists above
+    private SearchIndex<Order> orderSearchIndex;
+    private SearchIndex<TableBooking> bookingSearchIndex;
+    private SearchIndex<Feedback> feedbackSearchIndex;
+    private SearchIndex<DishRating> dishRatingSearchIndex;
 
     // For current order being built by customer
     private Map<MenuItem, Integer> currentOrderItemQuantities = new HashMap<>();
+    // Updates the dish suggestions of the Order Food tab; called whenever the cart changes
+    private Runnable refreshCartSuggestions = () -> { };
 
     // Constant to hold the stylesheet URL string
     private String cssStylesheet;
 
+    // Completes once the schema check and seeding have finished on a background thread
+    private CompletableFuture<Void> databaseReady;
+    // Background loader for the datasets of the logged-in user's tabs
+    private DataPrefetcher dataPrefetcher;
+    // Polls the kitchen queue while the admin's kitchen display exists
+    private Timeline kitchenDisplayTimeline;
+
     // Constants for payment (moved from old Main to top level for easy access)
-    private static final double GST_RATE = 0.05; // 5% GST
-    private static final double BOOKING_FEE_PER_HOUR = 50.0; // Rs. 50 per hour for table booking
+    private static final long BOOKING_FEE_PAISE_PER_HOUR = 5_000; // Rs. 50 per hour for table booking
 
 
     @Override
@@ -88,8 +109,15 @@ public class Main extends Application {
             System.err.println("CSS file not found: style.css");
         }
 
-        // Initialize Database (create tables, insert admin, menu items)
-        DatabaseManager.initializeDatabase();
+        StartupMetrics.mark("JavaFX start()");
+
+        // Initialize Database (create tables, insert admin, menu items) in the background,
+        // so the login screen is drawn while the schema check runs
+        databaseReady = CompletableFuture.runAsync(() -> {
+            DatabaseManager.initializeDatabase();
+            StartupMetrics.mark("database initialized");
+            BookingExpiryScheduler.getInstance(); // Starts releasing unpaid no-show bookings
+        });
 
         // Create initial scenes (login and register)
         loginScene = createLoginScene(cssStylesheet);
@@ -98,6 +126,18 @@ public class Main extends Application {
         primaryStage.setScene(loginScene); // Start with the login screen
         primaryStage.centerOnScreen();
         primaryStage.show();
+        StartupMetrics.mark("login scene shown");
+        StartupMetrics.logFirstFrame("login screen");
+    }
+
+    /**
+     * Blocks until background database initialization has finished.
+     * Only waits if the user acts before the schema check completes.
+     */
+    private void awaitDatabaseReady() {
+        if (databaseReady != null) {
+            databaseReady.join();
+        }
     }
 
     /**
@@ -200,6 +240,7 @@ public class Main extends Application {
             String username = usernameField.getText();
             String password = showPasswordCheckbox.isSelected() ? passwordShowField.getText() : passwordField.getText();
 
+            awaitDatabaseReady();
             currentUser = DatabaseManager.authenticateUser(username, password);
 
             if (currentUser != null) {
@@ -338,6 +379,7 @@ public class Main extends Application {
                 return;
             }
 
+            awaitDatabaseReady();
             if (DatabaseManager.getUserByUsername(username) != null) {
                 showCustomAlertDialog("Registration Failed", "Username already exists. Please choose a different one.", Alert.AlertType.ERROR);
                 return;
@@ -391,12 +433,10 @@ public class Main extends Application {
      * @param password The entered password.
      */
     private void showMainApplication() {
-        // Load initial data for the main scene based on user role
-        allMenuItems.setAll(DatabaseManager.getAllMenuItems());
-        allOrders.setAll(DatabaseManager.getAllOrders());
-        allTableBookings.setAll(DatabaseManager.getAllTableBookings());
-        allFeedback.setAll(DatabaseManager.getAllFeedback());
-        allDishRatings.setAll(DatabaseManager.getAllDishRatings()); // For dish rating viewing by admin/customer
+        long startNanos = System.nanoTime();
+        // Warm up the datasets this user's tabs need, in parallel. Nothing is loaded eagerly on the
+        // UI thread: each tab takes its data when it is first selected.
+        startDataPrefetch();
 
         // Reset current order
         currentOrderItemQuantities.clear();
@@ -405,6 +445,78 @@ public class Main extends Application {
         mainScene = createMainScene(cssStylesheet);
         primaryStage.setScene(mainScene);
         primaryStage.centerOnScreen();
+        StartupMetrics.logElapsed("main scene built", startNanos);
+        StartupMetrics.logFirstFrame("main screen");
+    }
+
+    /**
+     * Starts background loading of the independent datasets used by the current user's tabs.
+     * Customers only need their own orders and bookings; admins need the full lists.
+     */
+    private void startDataPrefetch() {
+        if (dataPrefetcher != null) {
+            dataPrefetcher.shutdown();
+        }
+        dataPrefetcher = new DataPrefetcher();
+        dataPrefetcher.prefetch("menuItems", DataVersions.Entity.MENU_ITEMS, DatabaseManager::getAllMenuItems);
+        dataPrefetcher.prefetch("averageRatings", DataVersions.Entity.DISH_RATINGS, DatabaseManager::getAverageRatingsByMenuItem);
+        if (currentUser.getRole() == UserRole.CUSTOMER) {
+            String username = currentUser.getUsername();
+            String userId = currentUser.getUserId();
+            dataPrefetcher.prefetch("orders", DataVersions.Entity.ORDERS, () -> DatabaseManager.getOrdersByCustomerUsername(username));
+            dataPrefetcher.prefetch("tableBookings", DataVersions.Entity.TABLE_BOOKINGS, () -> DatabaseManager.getTableBookingsByCustomerId(userId));
+        } else if (currentUser.getRole() == UserRole.ADMIN) {
+            dataPrefetcher.prefetch("orders", DataVersions.Entity.ORDERS, DatabaseManager::getAllOrders);
+            dataPrefetcher.prefetch("tableBookings", DataVersions.Entity.TABLE_BOOKINGS, DatabaseManager::getAllTableBookings);
+            dataPrefetcher.prefetch("users", DataVersions.Entity.USERS, DatabaseManager::getAllUsers);
+            dataPrefetcher.prefetch("feedback", DataVersions.Entity.FEEDBACK, DatabaseManager::getAllFeedback);
+            dataPrefetcher.prefetch("dishRatings", DataVersions.Entity.DISH_RATINGS, DatabaseManager::getAllDishRatings);
+        }
+    }
+
+    /**
+     * Returns a dataset warmed up by startDataPrefetch, or loads it directly if it was not prefetched.
+     * @param key The dataset name used in startDataPrefetch.
+     * @param entity The kind of data; a prefetched snapshot is only used if it has not changed since.
+     * @param loader The database call to fall back to.
+     */
+    private <T> T takePrefetched(String key, DataVersions.Entity entity, Supplier<T> loader) {
+        return dataPrefetcher != null ? dataPrefetcher.take(key, entity, loader) : loader.get();
+    }
+
+    /**
+     * Creates a tab whose content is only built the first time the tab is selected.
+     * @param title The tab title.
+     * @param contentFactory Builds the tab content (and loads its data).
+     * @return The lazily populated tab.
+     */
+    private Tab createLazyTab(String title, Supplier<Node> contentFactory) {
+        Tab tab = new Tab(title);
+        Label loadingLabel = new Label("Loading...");
+        loadingLabel.getStyleClass().add("body-text");
+        tab.setContent(loadingLabel);
+        tab.setUserData(contentFactory);
+        tab.setOnSelectionChanged(e -> {
+            if (tab.isSelected()) {
+                loadTabContent(tab);
+            }
+        });
+        return tab;
+    }
+
+    /**
+     * Builds the content of a lazy tab if it has not been built yet.
+     * @param tab A tab created by createLazyTab.
+     */
+    @SuppressWarnings("unchecked")
+    private void loadTabContent(Tab tab) {
+        if (tab != null && tab.getUserData() instanceof Supplier) {
+            Supplier<Node> contentFactory = (Supplier<Node>) tab.getUserData();
+            tab.setUserData(null); // Build only once
+            long startNanos = System.nanoTime();
+            tab.setContent(contentFactory.get());
+            StartupMetrics.logElapsed("tab '" + tab.getText() + "' built", startNanos);
+        }
     }
 
     /**
@@ -439,6 +551,15 @@ public class Main extends Application {
         logoutButton.setOnAction(e -> {
             // Clear current user and return to login screen
             currentUser = null;
+            if (dataPrefetcher != null) {
+                dataPrefetcher.shutdown();
+                dataPrefetcher = null;
+            }
+            if (kitchenDisplayTimeline != null) {
+                kitchenDisplayTimeline.stop();
+                kitchenDisplayTimeline = null;
+                KitchenOrderQueue.getInstance().detachConsumer();
+            }
             showCustomAlertDialog("Logged Out", "You have been successfully logged out.", Alert.AlertType.INFORMATION);
             primaryStage.setScene(loginScene);
             primaryStage.centerOnScreen();
@@ -454,25 +575,36 @@ public class Main extends Application {
 
         if (currentUser.getRole() == UserRole.CUSTOMER) {
             tabPane.getTabs().addAll(
-                    new Tab("Order Food", createOrderFoodTab()),
-                    new Tab("My Orders", createMyOrdersTab()),
-                    new Tab("Book Table", createTableBookingTab()),
-                    new Tab("My Bookings", createMyBookingsTab()),
-                    new Tab("Feedback & Ratings", createFeedbackAndRatingsTab())
+                    createLazyTab("Order Food", this::createOrderFoodTab),
+                    createLazyTab("My Orders", this::createMyOrdersTab),
+                    createLazyTab("Book Table", this::createTableBookingTab),
+                    createLazyTab("My Bookings", this::createMyBookingsTab),
+                    createLazyTab("Feedback & Ratings", this::createFeedbackAndRatingsTab)
             );
         } else if (currentUser.getRole() == UserRole.ADMIN) {
             tabPane.getTabs().addAll(
-                    new Tab("Manage Menu", createAdminMenuManagementTab()),
-                    new Tab("Manage Orders", createAdminOrderManagementTab()),
-                    new Tab("Manage Bookings", createAdminBookingManagementTab()),
-                    new Tab("Manage Users", createAdminUserManagementTab()),
-                    new Tab("View Feedback", createAdminFeedbackTab()),
-                    new Tab("View Dish Ratings", createAdminDishRatingsTab())
+                    createLazyTab("Manage Menu", this::createAdminMenuManagementTab),
+                    createLazyTab("Ingredients", this::createIngredientsTab),
+                    createLazyTab("Manage Orders", this::createAdminOrderManagementTab),
+                    createLazyTab("Kitchen Display", this::createKitchenDisplayTab),
+                    createLazyTab("Order Latency", this::createOrderLatencyTab),
+                    createLazyTab("Stock Forecast", this::createStockForecastTab),
+                    createLazyTab("Sales Reports", this::createSalesReportTab),
+                    createLazyTab("GST Ledger", this::createGstLedgerTab),
+                    createLazyTab("Manage Bookings", this::createAdminBookingManagementTab),
+                    createLazyTab("Waitlist", this::createWaitlistTab),
+                    createLazyTab("Floor Plan", this::createAdminFloorPlanTab),
+                    createLazyTab("Manage Users", this::createAdminUserManagementTab),
+                    createLazyTab("View Feedback", this::createAdminFeedbackTab),
+                    createLazyTab("Feedback Insights", this::createFeedbackInsightsTab),
+                    createLazyTab("View Dish Ratings", this::createAdminDishRatingsTab)
             );
         }
 
         // Add a common Profile tab for both roles
-        tabPane.getTabs().add(new Tab("Profile", createProfileView()));
+        tabPane.getTabs().add(createLazyTab("Profile", this::createProfileView));
+        // The initially selected tab may not fire a selection change, so build it now
+        loadTabContent(tabPane.getSelectionModel().getSelectedItem());
 
         root.setCenter(tabPane);
 
@@ -484,32 +616,50 @@ public class Main extends Application {
     }
 
 
+    /**
+     * Booking fee for a duration, in paise. Durations are multiples of 30 minutes, so this is exact.
+     * @param durationMinutes The booking duration.
+     * @return The fee in paise.
+     */
+    private static long bookingFeePaise(int durationMinutes) {
+        return BOOKING_FEE_PAISE_PER_HOUR * durationMinutes / 60;
+    }
+
+    /**
+     * @param taxLines The tax lines of an order.
+     * @return "GST" with the rates charged, e.g. "GST (5% + 18%)".
+     */
+    private static String gstLabelText(List<TaxLine> taxLines) {
+        return taxLines.isEmpty() ? "GST" : "GST (" + TaxLedger.describeRates(taxLines) + ")";
+    }
+
     /**
      * Helper to update the current order summary displayed in the "Order Food" tab.
      * This is now a private method of the Main class to improve accessibility.
      */
     private void updateCurrentOrderSummary(ListView<String> orderListView, Label subtotalLabel, Label gstLabel, Label totalLabel) {
         orderListView.getItems().clear();
-        double subtotal = 0;
+        long subtotalPaise = 0;
         for (Map.Entry<MenuItem, Integer> entry : currentOrderItemQuantities.entrySet()) {
             MenuItem item = entry.getKey();
             Integer quantity = entry.getValue();
-            orderListView.getItems().add(String.format("%s x %d (Rs.%.2f each)", item.getName(), quantity, item.getPrice()));
-            subtotal += item.getPrice() * quantity;
+            orderListView.getItems().add(String.format("%s x %d (Rs.%s each)", item.getName(), quantity, Money.format(item.getPricePaise())));
+            subtotalPaise += Money.times(item.getPricePaise(), quantity);
         }
 
-        double gstAmount = subtotal * GST_RATE;
-        double total = subtotal + gstAmount;
+        List<TaxLine> taxLines = TaxLedger.getInstance().quote(currentOrderItemQuantities, 0, java.time.LocalDate.now());
+        long gstPaise = TaxLedger.totalTax(taxLines);
 
-        subtotalLabel.setText("Subtotal: Rs." + String.format("%.2f", subtotal));
-        gstLabel.setText("GST (5%): Rs." + String.format("%.2f", gstAmount));
-        totalLabel.setText("Total: Rs." + String.format("%.2f", total));
+        subtotalLabel.setText("Subtotal: Rs." + Money.format(subtotalPaise));
+        gstLabel.setText(gstLabelText(taxLines) + ": Rs." + Money.format(gstPaise));
+        totalLabel.setText("Total: Rs." + Money.format(subtotalPaise + gstPaise));
 
         if (currentOrderItemQuantities.isEmpty()) {
             orderListView.setPlaceholder(new Label("No items in current order."));
         } else {
             orderListView.setPlaceholder(null);
         }
+        refreshCartSuggestions.run();
     }
 
 
@@ -527,16 +677,11 @@ public class Main extends Application {
         Label titleLabel = new Label("Place New Order");
         titleLabel.getStyleClass().add("h1-label");
 
-        // Menu items display
-        FlowPane menuFlowPane = new FlowPane();
-        menuFlowPane.setHgap(15);
-        menuFlowPane.setVgap(15);
-        menuFlowPane.setAlignment(Pos.CENTER);
-        menuFlowPane.setPadding(new Insets(10));
-
         // This list is updated on entry to the tab and on cart changes.
         // It reflects the current stock.
-        allMenuItems.setAll(DatabaseManager.getAllMenuItems());
+        dataVersions.apply(allMenuItems, takePrefetched("menuItems", DataVersions.Entity.MENU_ITEMS, DatabaseManager::getAllMenuItems), MenuItem::getId, MenuItem::hasSameContent);
+        // Average ratings for every dish, loaded with one query instead of one per card
+        Map<Integer, Double> averageRatings = takePrefetched("averageRatings", DataVersions.Entity.DISH_RATINGS, DatabaseManager::getAverageRatingsByMenuItem);
 
 
         // Current Order Summary
@@ -580,7 +725,7 @@ public class Main extends Application {
                             if (itemInDb != null) {
                                 itemInDb.setStock(itemInDb.getStock() + 1);
                                 DatabaseManager.updateMenuItem(itemInDb);
-                                allMenuItems.setAll(DatabaseManager.getAllMenuItems()); // Refresh menu for stock update
+                                replaceMenuItem(itemInDb); // Updates just this dish's card
                             }
                             // Call updateCurrentOrderSummary directly from here
                             updateCurrentOrderSummary(orderListView, (Label) orderSummaryBox.getChildren().get(2), (Label) orderSummaryBox.getChildren().get(3), (Label) orderSummaryBox.getChildren().get(4));
@@ -611,7 +756,7 @@ public class Main extends Application {
         Label subtotalLabel = new Label("Subtotal: Rs.0.00");
         subtotalLabel.getStyleClass().add("body-text");
 
-        Label gstLabel = new Label("GST (5%): Rs.0.00");
+        Label gstLabel = new Label("GST: Rs.0.00");
         gstLabel.getStyleClass().add("body-text");
 
         Label totalLabel = new Label("Total: Rs.0.00");
@@ -628,75 +773,67 @@ public class Main extends Application {
         placeOrderButton.setOnAction(e -> showPaymentDialogForOrder());
 
 
-        orderSummaryBox.getChildren().addAll(orderSummaryTitle, orderListView, subtotalLabel, gstLabel, totalLabel, placeOrderButton);
-
-        HBox mainContent = new HBox(20); // Spacing between menu and order summary
-        mainContent.setPadding(new Insets(0, 20, 20, 20)); // Padding around the content
-        mainContent.getChildren().addAll(menuFlowPane, orderSummaryBox); // Changed to menuFlowPane
-        HBox.setHgrow(menuFlowPane, Priority.ALWAYS); // Allow menu area to grow
-
-
-        // Populate menu items (removed image display)
-        for (MenuItem item : allMenuItems) {
-            VBox itemCard = new VBox(10);
-            itemCard.getStyleClass().add("menu-item-card");
-            itemCard.setAlignment(Pos.CENTER);
-            itemCard.setPrefWidth(180);
-
-            // Removed ImageView and image loading logic
-            // Instead, you could use a simple text or a shape if desired, or nothing.
-
-            Label nameLabel = new Label(item.getName());
-            nameLabel.getStyleClass().add("menu-item-name");
-            nameLabel.setWrapText(true);
-            nameLabel.setTextAlignment(javafx.scene.text.TextAlignment.CENTER);
-
-            Label priceLabel = new Label(String.format("Rs.%.2f", item.getPrice()));
-            priceLabel.getStyleClass().add("menu-item-price");
-
-            // Display average rating
-            double avgRating = DatabaseManager.getAverageRatingForMenuItem(item.getId());
-            Label ratingLabel;
-            if (avgRating > 0) {
-                ratingLabel = new Label(String.format("Rating: %.1f ★", avgRating));
-                ratingLabel.getStyleClass().add("menu-item-rating");
+        // Adds one portion of a dish to the cart (from its card or from a suggestion)
+        java.util.function.Consumer<MenuItem> addToCart = item -> {
+            // Re-fetch item to ensure latest stock
+            MenuItem itemInDb = DatabaseManager.getMenuItemById(item.getId());
+            // Stock is taken when a dish goes into the cart, ingredients only when the order is placed
+            int inCart = currentOrderItemQuantities.entrySet().stream()
+                    .filter(entry -> entry.getKey().getId() == item.getId()).mapToInt(Map.Entry::getValue).sum();
+            if (itemInDb != null && itemInDb.getStock() > 0 // Check if at least one item is in stock
+                    && (itemInDb.getIngredientPortions() == MenuItem.NO_RECIPE || itemInDb.getIngredientPortions() > inCart)) {
+                currentOrderItemQuantities.merge(itemInDb, 1, Integer::sum); // Add 1 to quantity
+                // Deduct stock in DB
+                itemInDb.setStock(itemInDb.getStock() - 1);
+                DatabaseManager.updateMenuItem(itemInDb); // Update stock in DB
+                replaceMenuItem(itemInDb); // Updates just this dish's card
+                showCustomAlertDialog("Item Added", item.getName() + " added to your cart.", Alert.AlertType.INFORMATION);
+                updateCurrentOrderSummary(orderListView, subtotalLabel, gstLabel, totalLabel);
             } else {
-                ratingLabel = new Label("No ratings yet");
-                ratingLabel.getStyleClass().add("body-text");
-            }
-
-            Button addToCartButton = new Button("Add to Cart");
-            addToCartButton.getStyleClass().add("button-add-to-cart");
-            // Disable button if out of stock
-            addToCartButton.setDisable(item.getStock() == 0);
-
-
-            // Modified action to add one item at a time and deduct stock immediately
-            addToCartButton.setOnAction(e -> {
-                // Re-fetch item to ensure latest stock
-                MenuItem itemInDb = DatabaseManager.getMenuItemById(item.getId());
-                if (itemInDb != null && itemInDb.getStock() > 0) { // Check if at least one item is in stock
-                    currentOrderItemQuantities.merge(itemInDb, 1, Integer::sum); // Add 1 to quantity
-                    // Deduct stock in DB
-                    itemInDb.setStock(itemInDb.getStock() - 1);
-                    DatabaseManager.updateMenuItem(itemInDb); // Update stock in DB
-                    allMenuItems.setAll(DatabaseManager.getAllMenuItems()); // Refresh all menu items to reflect new stock
-                    showCustomAlertDialog("Item Added", item.getName() + " added to your cart.", Alert.AlertType.INFORMATION);
-                    updateCurrentOrderSummary(orderListView, subtotalLabel, gstLabel, totalLabel);
-                } else {
-                    showCustomAlertDialog("Out of Stock", item.getName() + " is currently out of stock.", Alert.AlertType.WARNING);
+                showCustomAlertDialog("Out of Stock", item.getName() + " is currently out of stock.", Alert.AlertType.WARNING);
+            }
+        };
+
+        // Suggestions: dishes often ordered with the cart, or the popular dishes while the cart is empty
+        Label suggestionsTitle = new Label();
+        suggestionsTitle.getStyleClass().add("h3-label");
+        FlowPane suggestionsPane = new FlowPane(8, 8);
+        refreshCartSuggestions = () -> {
+            List<Integer> cartIds = new ArrayList<>();
+            for (MenuItem item : currentOrderItemQuantities.keySet()) {
+                cartIds.add(item.getId());
+            }
+            List<Integer> suggestedIds = cartIds.isEmpty()
+                    ? DishRecommender.getInstance().topDishesNow(8)
+                    : DishRecommender.getInstance().recommend(cartIds, 8);
+            suggestionsTitle.setText(cartIds.isEmpty() ? "Popular Right Now" : "Often Ordered Together");
+            suggestionsPane.getChildren().clear();
+            for (int id : suggestedIds) {
+                MenuItem item = allMenuItems.stream().filter(mi -> mi.getId() == id).findFirst().orElse(null);
+                if (item == null || item.getAvailableStock() == 0 || suggestionsPane.getChildren().size() == 4) {
+                    continue; // Deleted, sold out, or enough shown
                 }
-            });
+                Button suggestionButton = new Button("+ " + item.getName());
+                suggestionButton.getStyleClass().add("button-secondary");
+                suggestionButton.setOnAction(e -> addToCart.accept(item));
+                suggestionsPane.getChildren().add(suggestionButton);
+            }
+            suggestionsTitle.setVisible(!suggestionsPane.getChildren().isEmpty());
+        };
+        refreshCartSuggestions.run();
 
-            // Removed imageView from children.
-            itemCard.getChildren().addAll(nameLabel, priceLabel, ratingLabel, addToCartButton);
-            menuFlowPane.getChildren().add(itemCard);
-        }
+        orderSummaryBox.getChildren().addAll(orderSummaryTitle, orderListView, subtotalLabel, gstLabel, totalLabel, placeOrderButton,
+                suggestionsTitle, suggestionsPane);
 
-        ScrollPane menuScrollPane = new ScrollPane(menuFlowPane);
-        menuScrollPane.setFitToWidth(true);
-        menuScrollPane.getStyleClass().add("scroll-pane-custom"); // Apply scroll pane style
-        HBox.setHgrow(menuScrollPane, Priority.ALWAYS); // Allow menu area to grow
+        // Menu grid: only the cards of visible rows exist, and they are recycled while scrolling
+        MenuGrid menuGrid = new MenuGrid(allMenuItems, averageRatings, addToCart);
+        menuGrid.setPlaceholder(new Label("No menu items available."));
+
+        HBox mainContent = new HBox(20); // Spacing between menu and order summary
+        mainContent.setPadding(new Insets(0, 20, 20, 20)); // Padding around the content
+        mainContent.getChildren().addAll(menuGrid, orderSummaryBox);
+        HBox.setHgrow(menuGrid, Priority.ALWAYS); // Allow menu area to grow
+        VBox.setVgrow(mainContent, Priority.ALWAYS); // The grid scrolls itself, so give it the height
 
         layout.getChildren().addAll(titleLabel, mainContent);
 
@@ -707,6 +844,81 @@ public class Main extends Application {
         return mainScrollPane;
     }
 
+    /**
+     * Creates the search box of an admin table. The table shows the rows of the list that match the
+     * box, through a FilteredList driven by the list's SearchIndex, and can still be sorted by its
+     * columns through a SortedList (the list itself keeps the database order).
+     * @param table The table to filter.
+     * @param rows The list of all rows.
+     * @param index The search index of that list.
+     * @param prompt The prompt text of the box.
+     * @return The search box, to be placed above the table.
+     */
+    private <T> TextField createTableSearchField(TableView<T> table, ObservableList<T> rows, SearchIndex<T> index, String prompt) {
+        FilteredList<T> filtered = new FilteredList<>(rows);
+        SortedList<T> sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+
+        TextField searchField = new TextField();
+        searchField.setPromptText(prompt);
+        searchField.getStyleClass().add("text-field-custom");
+        searchField.setMaxWidth(400);
+        searchField.textProperty().addListener((obs, oldText, newText) -> filtered.setPredicate(index.predicate(newText)));
+        return searchField;
+    }
+
+    // --- List refreshes: reload only if the data changed, then patch only the changed rows ---
+
+    private void refreshMenuItems() {
+        dataVersions.refresh(allMenuItems, DataVersions.Entity.MENU_ITEMS, "all", DatabaseManager::getAllMenuItems, MenuItem::getId, MenuItem::hasSameContent);
+    }
+
+    private void refreshCustomerOrders() {
+        String username = currentUser.getUsername();
+        dataVersions.refresh(allOrders, DataVersions.Entity.ORDERS, "customer:" + username,
+                () -> DatabaseManager.getOrdersByCustomerUsername(username), Order::getOrderId, Order::hasSameContent);
+    }
+
+    private void refreshAllOrders() {
+        dataVersions.refresh(allOrders, DataVersions.Entity.ORDERS, "all", DatabaseManager::getAllOrders, Order::getOrderId, Order::hasSameContent);
+    }
+
+    private void refreshCustomerTableBookings() {
+        String userId = currentUser.getUserId();
+        dataVersions.refresh(allTableBookings, DataVersions.Entity.TABLE_BOOKINGS, "customer:" + userId,
+                () -> DatabaseManager.getTableBookingsByCustomerId(userId), TableBooking::getBookingId, TableBooking::hasSameContent);
+    }
+
+    private void refreshAllTableBookings() {
+        dataVersions.refresh(allTableBookings, DataVersions.Entity.TABLE_BOOKINGS, "all", DatabaseManager::getAllTableBookings,
+                TableBooking::getBookingId, TableBooking::hasSameContent);
+    }
+
+    private void refreshFeedback() {
+        dataVersions.refresh(allFeedback, DataVersions.Entity.FEEDBACK, "all", DatabaseManager::getAllFeedback, Feedback::getFeedbackId, Feedback::hasSameContent);
+    }
+
+    private void refreshDishRatings() {
+        dataVersions.refresh(allDishRatings, DataVersions.Entity.DISH_RATINGS, "all", DatabaseManager::getAllDishRatings,
+                DishRating::getRatingId, DishRating::hasSameContent);
+    }
+
+    /**
+     * Replaces a dish in allMenuItems with a fresher copy (e.g. after a stock change), in place, so
+     * views bound to the list update that one entry instead of reloading the whole menu.
+     * @param item The dish as read from the database.
+     */
+    private void replaceMenuItem(MenuItem item) {
+        for (int i = 0; i < allMenuItems.size(); i++) {
+            if (allMenuItems.get(i).getId() == item.getId()) {
+                allMenuItems.set(i, item);
+                return;
+            }
+        }
+        allMenuItems.add(item);
+    }
+
     /**
      * Helper to check if a string is a valid URL for image loading.
      * This method is no longer strictly needed as images are removed.
@@ -738,20 +950,28 @@ public class Main extends Application {
             dialog.getDialogPane().getStylesheets().add(cssStylesheet);
         }
 
-        double subtotal = currentOrderItemQuantities.entrySet().stream()
-                                .mapToDouble(entry -> entry.getKey().getPrice() * entry.getValue())
-                                .sum();
-        double gstAmount = subtotal * GST_RATE;
-        double finalTotal = subtotal + gstAmount;
+        long subtotalPaise = 0;
+        for (Map.Entry<MenuItem, Integer> entry : currentOrderItemQuantities.entrySet()) {
+            subtotalPaise += Money.times(entry.getKey().getPricePaise(), entry.getValue());
+        }
+        List<TaxLine> taxLines = TaxLedger.getInstance().quote(currentOrderItemQuantities, 0, java.time.LocalDate.now());
+        long gstPaise = TaxLedger.totalTax(taxLines);
+        long finalTotalPaise = subtotalPaise + gstPaise;
+
+        Map<String, Integer> kitchenItems = new LinkedHashMap<>();
+        currentOrderItemQuantities.forEach((item, qty) -> kitchenItems.merge(item.getName(), qty, Integer::sum));
+        KitchenCapacityModel.Quote quote = KitchenCapacityModel.getInstance().quoteReadyTime(kitchenItems, LocalDateTime.now());
 
         VBox content = new VBox(15);
         content.setPadding(new Insets(15));
         content.setAlignment(Pos.CENTER_LEFT);
 
         Label orderSummaryLabel = new Label(
-                "Order Subtotal: Rs." + String.format("%.2f", subtotal) + "\n" +
-                "GST (5%): Rs." + String.format("%.2f", gstAmount) + "\n" +
-                "Total Payable: Rs." + String.format("%.2f", finalTotal)
+                "Order Subtotal: Rs." + Money.format(subtotalPaise) + "\n" +
+                gstLabelText(taxLines) + ": Rs." + Money.format(gstPaise) + "\n" +
+                "Total Payable: Rs." + Money.format(finalTotalPaise) + "\n" +
+                "Estimated ready by " + quote.getReadyAt().format(DateTimeFormatter.ofPattern("HH:mm")) +
+                " (about " + quote.getWaitMinutes() + " min)"
         );
         orderSummaryLabel.getStyleClass().add("h3-label");
 
@@ -842,19 +1062,30 @@ public class Main extends Application {
                 newOrder.setPaymentMethod(selectedPaymentMethod);
                 newOrder.setOrderTime(LocalDateTime.now()); // Set current time
 
+                // Capacity check right before placing; the quote may have changed while the dialogs were open
+                KitchenCapacityModel.Quote admission = KitchenCapacityModel.getInstance().checkAdmission(kitchenItems, newOrder.getOrderTime());
+                if (!admission.isAccepted()) {
+                    String retry = admission.getRetryAfterSeconds() > 0
+                            ? " Please try again in about " + admission.getRetryAfterSeconds() + " seconds."
+                            : " Please try again later.";
+                    showCustomAlertDialog("Kitchen Busy", "The kitchen is at capacity (about " + admission.getWaitMinutes() + " min wait)." + retry, Alert.AlertType.WARNING);
+                    return;
+                }
+
                 if (DatabaseManager.addOrder(newOrder)) {
-                    showCustomAlertDialog("Order Placed!", "Your order has been placed successfully. Total: Rs." + String.format("%.2f", finalTotal), Alert.AlertType.INFORMATION);
+                    showCustomAlertDialog("Order Placed!", "Your order has been placed successfully. Total: Rs." + Money.format(newOrder.getTotalWithGSTPaise()) +
+                            "\nEstimated ready by " + admission.getReadyAt().format(DateTimeFormatter.ofPattern("HH:mm")) + ".", Alert.AlertType.INFORMATION);
                     currentOrderItemQuantities.clear(); // Clear the cart
                     // Offer to download bill
                     String billContent = newOrder.generateBillContent(); // Corrected: calling existing method
                     showBillDownloadDialog(billContent, "order_" + newOrder.getOrderId() + "_bill.txt");
                     // Refresh menu items to reflect stock changes
-                    allMenuItems.setAll(DatabaseManager.getAllMenuItems());
+                    refreshMenuItems();
                     // Refresh my orders tab as well
-                    allOrders.setAll(DatabaseManager.getOrdersByCustomerUsername(currentUser.getUsername()));
+                    refreshCustomerOrders();
 
                 } else {
-                    showCustomAlertDialog("Order Failed", "There was an error placing your order. Please try again.", Alert.AlertType.ERROR);
+                    showCustomAlertDialog("Order Failed", "There was an error placing your order, or an ingredient ran out. Please check your cart and try again.", Alert.AlertType.ERROR);
                 }
             });
         } else {
@@ -881,7 +1112,7 @@ public class Main extends Application {
         ordersTable.setPlaceholder(new Label("No orders placed yet."));
 
         // Filter orders for the current user and set to ObservableList
-        allOrders.setAll(DatabaseManager.getOrdersByCustomerUsername(currentUser.getUsername()));
+        dataVersions.apply(allOrders, takePrefetched("orders", DataVersions.Entity.ORDERS, () -> DatabaseManager.getOrdersByCustomerUsername(currentUser.getUsername())), Order::getOrderId, Order::hasSameContent);
         ordersTable.setItems(allOrders);
 
 
@@ -984,7 +1215,7 @@ public class Main extends Application {
         Button refreshOrdersButton = new Button("Refresh Orders");
         refreshOrdersButton.getStyleClass().add("button-secondary");
         refreshOrdersButton.setOnAction(e -> {
-            allOrders.setAll(DatabaseManager.getOrdersByCustomerUsername(currentUser.getUsername()));
+            refreshCustomerOrders();
             showCustomAlertDialog("Refreshed", "Your order list has been updated.", Alert.AlertType.INFORMATION);
         });
 
@@ -1031,7 +1262,7 @@ public class Main extends Application {
 
         Label requiredSeatsLabel = new Label("Number of Guests:");
         requiredSeatsLabel.getStyleClass().add("label");
-        Spinner<Integer> requiredSeatsSpinner = new Spinner<>(1, 10, 2); // For 1 to 10 guests, default 2
+        Spinner<Integer> requiredSeatsSpinner = new Spinner<>(1, 50, 2); // 1 to 50 guests, default 2; large parties get combined tables
         requiredSeatsSpinner.getStyleClass().add("spinner-custom");
         requiredSeatsSpinner.setEditable(true);
 
@@ -1079,10 +1310,24 @@ public class Main extends Application {
         GridPane.setColumnSpan(bookingFeeLabel, 2);
         GridPane.setHalignment(bookingFeeLabel, HPos.CENTER); // Center align the fee label
 
+        Label openStartTimesLabel = new Label();
+        openStartTimesLabel.getStyleClass().add("body-text");
+        openStartTimesLabel.setWrapText(true);
+        GridPane.setColumnSpan(openStartTimesLabel, 2);
+
+        // Neighbouring tables offered when no single table seats the party; null otherwise
+        javafx.beans.property.ObjectProperty<int[]> combinedTables = new javafx.beans.property.SimpleObjectProperty<>();
+        Label combinedTablesLabel = new Label();
+        combinedTablesLabel.getStyleClass().add("body-text");
+        combinedTablesLabel.setWrapText(true);
+        GridPane.setColumnSpan(combinedTablesLabel, 2);
+
         // Helper method to update available tables
         Runnable updateAvailableTables = () -> {
             availableTableTypeComboBox.getItems().clear();
             availableTableNumberComboBox.getItems().clear();
+            combinedTables.set(null);
+            combinedTablesLabel.setText("");
 
             java.time.LocalDate date = bookingDatePicker.getValue();
             String time = bookingTimeComboBox.getSelectionModel().getSelectedItem();
@@ -1092,7 +1337,19 @@ public class Main extends Application {
             if (date != null && time != null && duration != null && seats != null) {
                 LocalTime localTime = LocalTime.parse(time);
                 LocalDateTime desiredDateTime = LocalDateTime.of(date, localTime);
-                Map<TableType, List<Integer>> available = DatabaseManager.getAvailableTables(desiredDateTime, duration, seats);
+                // One query for the whole day; availability, best fit and open start times come from its bitsets
+                TableSlotAllocator allocator = DatabaseManager.getTableSlotAllocator(date);
+                Map<TableType, List<Integer>> available = allocator.findFreeTables(desiredDateTime, duration, seats);
+                int bestTable = allocator.findBestFit(desiredDateTime, duration, seats);
+                if (bestTable < 0) {
+                    combinedTables.set(allocator.findCombination(desiredDateTime, duration, seats));
+                    if (combinedTables.get() != null) {
+                        combinedTablesLabel.setText("No single table seats " + seats + " guests. Neighbouring tables "
+                                + describeTables(combinedTables.get()) + " are free together and will be booked as one party.");
+                    }
+                }
+                openStartTimesLabel.setText(describeStartTimes(
+                        allocator.findStartTimes(duration, seats, LocalTime.parse(timeSlots.get(0)), LocalTime.parse(timeSlots.get(timeSlots.size() - 1)), 30, true)));
 
                 // Populate available table types
                 List<TableType> sortedTableTypes = available.keySet().stream()
@@ -1105,14 +1362,27 @@ public class Main extends Application {
                 if (currentlySelectedType != null && available.containsKey(currentlySelectedType)) {
                     availableTableTypeComboBox.getSelectionModel().select(currentlySelectedType);
                     availableTableNumberComboBox.setItems(FXCollections.observableArrayList(available.get(currentlySelectedType)));
+                } else if (bestTable >= 0) {
+                    // Preselect the smallest free table that fits the party
+                    TableType bestType = allocator.getTableType(bestTable);
+                    availableTableTypeComboBox.getSelectionModel().select(bestType);
+                    availableTableNumberComboBox.setItems(FXCollections.observableArrayList(available.get(bestType)));
+                    availableTableNumberComboBox.getSelectionModel().select(Integer.valueOf(bestTable));
                 } else if (!sortedTableTypes.isEmpty()) {
                     availableTableTypeComboBox.getSelectionModel().selectFirst();
                     if (!available.get(sortedTableTypes.get(0)).isEmpty()) {
                          availableTableNumberComboBox.setItems(FXCollections.observableArrayList(available.get(sortedTableTypes.get(0))));
                          availableTableNumberComboBox.getSelectionModel().selectFirst();
                     }
-                } else {
-                    showCustomAlertDialog("No Tables", "No tables available for selected criteria. Try adjusting date, time, duration, or number of guests.", Alert.AlertType.INFORMATION);
+                } else if (combinedTables.get() == null) {
+                    String message = "No tables available for selected criteria. Try adjusting date, time, duration, or number of guests.";
+                    if (date.equals(java.time.LocalDate.now())) {
+                        int wait = WalkInWaitlist.getInstance().estimateWaitMinutes(seats);
+                        message += wait >= 0
+                                ? "\nWalk-ins for " + seats + " can join the waitlist at the front desk; estimated wait about " + wait + " min."
+                                : "\nNo table for " + seats + " is expected to free up in the next few hours.";
+                    }
+                    showCustomAlertDialog("No Tables", message, Alert.AlertType.INFORMATION);
                 }
             }
         };
@@ -1148,14 +1418,11 @@ public class Main extends Application {
         // Listener to update booking fee based on duration
         durationSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                double hours = newVal / 60.0;
-                double fee = hours * BOOKING_FEE_PER_HOUR;
-                bookingFeeLabel.setText(String.format("Estimated Fee: Rs.%.2f", fee));
+                bookingFeeLabel.setText("Estimated Fee: Rs." + Money.format(bookingFeePaise(newVal)));
             }
         });
         // Initial fee calculation
-        double initialHours = durationSpinner.getValue() / 60.0;
-        bookingFeeLabel.setText(String.format("Estimated Fee: Rs.%.2f", initialHours * BOOKING_FEE_PER_HOUR));
+        bookingFeeLabel.setText("Estimated Fee: Rs." + Money.format(bookingFeePaise(durationSpinner.getValue())));
 
 
         Button bookTableButton = new Button("Confirm Booking");
@@ -1177,6 +1444,16 @@ public class Main extends Application {
             int duration = durationSpinner.getValue();
             int seats = requiredSeatsSpinner.getValue(); // Get seats from spinner
 
+            if ((selectedTableType == null || selectedTableNumber == null) && combinedTables.get() != null
+                    && !customerName.isEmpty() && !phone.isEmpty() && bookingDate != null && timeString != null) {
+                // Large party: one booking per combined table
+                LocalDateTime bookingDateTime = LocalDateTime.of(bookingDate, LocalTime.parse(timeString));
+                showPaymentDialogForTableBooking(TableBooking.forParty(DatabaseManager.getFloorPlan(), combinedTables.get(),
+                        currentUser.getUserId(), customerName, phone, seats, bookingDateTime, duration, bookingFeePaise(duration)));
+                updateAvailableTables.run();
+                return;
+            }
+
             if (customerName.isEmpty() || phone.isEmpty() || selectedTableType == null || selectedTableNumber == null || bookingDate == null || timeString == null) {
                 showCustomAlertDialog("Missing Information", "Please fill in all booking details and select an available table.", Alert.AlertType.WARNING);
                 return;
@@ -1185,7 +1462,6 @@ public class Main extends Application {
             LocalTime bookingLocalTime = LocalTime.parse(timeString);
             LocalDateTime bookingDateTime = LocalDateTime.of(bookingDate, bookingLocalTime);
 
-            double fee = (duration / 60.0) * BOOKING_FEE_PER_HOUR;
 
             // Use currentUser.getUserId() for the customerId
             TableBooking newBooking = new TableBooking(
@@ -1197,8 +1473,9 @@ public class Main extends Application {
                     seats, // Pass seats here
                     bookingDateTime,
                     duration,
-                    fee
+                    0
             );
+            newBooking.setBookingFeePaise(bookingFeePaise(duration));
 
             // Call the correct payment dialog method for booking
             showPaymentDialogForTableBooking(newBooking);
@@ -1215,7 +1492,9 @@ public class Main extends Application {
         formGrid.addRow(6, availableTableTypeLabel, availableTableTypeComboBox);
         formGrid.addRow(7, availableTableNumberLabel, availableTableNumberComboBox);
         formGrid.add(bookingFeeLabel, 0, 8); // Row 8, column 0, spans 2 columns
-        formGrid.add(bookTableButton, 0, 9); // Row 9, column 0, spans 2 columns
+        formGrid.add(openStartTimesLabel, 0, 9); // Row 9, column 0, spans 2 columns
+        formGrid.add(combinedTablesLabel, 0, 10); // Row 10, column 0, spans 2 columns
+        formGrid.add(bookTableButton, 0, 11); // Row 11, column 0, spans 2 columns
 
 
         layout.getChildren().addAll(titleLabel, formGrid);
@@ -1223,11 +1502,60 @@ public class Main extends Application {
         return layout;
     }
 
+    /**
+     * @param tableNumbers Table numbers.
+     * @return The numbers joined for display, e.g. "10 + 11 + 12".
+     */
+    private static String describeTables(int[] tableNumbers) {
+        return Arrays.stream(tableNumbers).mapToObj(String::valueOf).collect(Collectors.joining(" + "));
+    }
+
+    /**
+     * Summarises the start times at which a table is free as ranges, e.g. "12:00-14:30, 18:00".
+     * @param startTimes Free start times in 30-minute steps, in order.
+     * @return The text for the booking form.
+     */
+    private static String describeStartTimes(List<LocalTime> startTimes) {
+        if (startTimes.isEmpty()) {
+            return "No table is free for this party and duration on the selected date.";
+        }
+        StringBuilder sb = new StringBuilder("Free start times for this party: ");
+        LocalTime rangeStart = startTimes.get(0);
+        LocalTime previous = rangeStart;
+        for (int i = 1; i <= startTimes.size(); i++) {
+            LocalTime current = i < startTimes.size() ? startTimes.get(i) : null;
+            if (current == null || !current.equals(previous.plusMinutes(30))) {
+                sb.append(rangeStart);
+                if (!previous.equals(rangeStart)) {
+                    sb.append('-').append(previous);
+                }
+                if (current != null) {
+                    sb.append(", ");
+                }
+                rangeStart = current;
+            }
+            previous = current;
+        }
+        return sb.toString();
+    }
+
     /**
      * Shows the payment dialog for a table booking.
      * @param booking The TableBooking object to process payment for.
      */
     private void showPaymentDialogForTableBooking(TableBooking booking) {
+        showPaymentDialogForTableBooking(Collections.singletonList(booking));
+    }
+
+    /**
+     * Shows the payment dialog for the bookings of one party; several bookings mean combined
+     * tables, which are confirmed together or not at all.
+     * @param bookings The bookings, the first one carrying the booking fee.
+     */
+    private void showPaymentDialogForTableBooking(List<TableBooking> bookings) {
+        TableBooking booking = bookings.get(0);
+        int[] tableNumbers = bookings.stream().mapToInt(TableBooking::getTableNumber).toArray();
+        int totalSeats = bookings.stream().mapToInt(TableBooking::getSeats).sum();
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Confirm Table Booking & Payment");
         dialog.setHeaderText("Choose Payment Method for Booking");
@@ -1242,9 +1570,10 @@ public class Main extends Application {
 
         Label bookingSummaryLabel = new Label(
                 "Booking Details:\n" +
-                "Table Type: " + booking.getTableType().getDisplayValue() + "\n" +
-                "Table No: " + booking.getTableNumber() + "\n" +
-                "Seats: " + booking.getSeats() + "\n" + // Display seats
+                (bookings.size() == 1
+                        ? "Table Type: " + booking.getTableType().getDisplayValue() + "\n" + "Table No: " + booking.getTableNumber() + "\n"
+                        : "Combined Tables: " + describeTables(tableNumbers) + "\n") +
+                "Seats: " + totalSeats + "\n" + // Display seats
                 "Time: " + booking.getBookingTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) + "\n" +
                 "Duration: " + booking.getDurationMinutes() + " minutes\n" +
                 "Booking Fee: Rs." + String.format("%.2f", booking.getBookingFee())
@@ -1322,13 +1651,17 @@ public class Main extends Application {
             // OTP verification before proceeding
             showOtpVerificationDialog(() -> {
                 PaymentMethod selectedPaymentMethod = paymentMethodComboBox.getSelectionModel().getSelectedItem();
-                booking.setPaymentStatus(PaymentStatus.PAID); // Mark as paid upon confirmation
-                booking.setPaymentMethod(selectedPaymentMethod);
+                for (TableBooking b : bookings) {
+                    b.setPaymentStatus(PaymentStatus.PAID); // Mark as paid upon confirmation
+                    b.setPaymentMethod(selectedPaymentMethod);
+                }
 
-                if (DatabaseManager.addTableBooking(booking)) {
-                    showCustomAlertDialog("Booking Confirmed!", "Your table booking has been confirmed for Table " + booking.getTableNumber() + ".", Alert.AlertType.INFORMATION);
+                boolean added = bookings.size() == 1 ? DatabaseManager.addTableBooking(booking) : DatabaseManager.addTableBookings(bookings);
+                if (added) {
+                    showCustomAlertDialog("Booking Confirmed!", "Your table booking has been confirmed for "
+                            + (bookings.size() == 1 ? "Table " : "Tables ") + describeTables(tableNumbers) + ".", Alert.AlertType.INFORMATION);
                     // Refresh my bookings tab
-                    allTableBookings.setAll(DatabaseManager.getTableBookingsByCustomerId(currentUser.getUserId()));
+                    refreshCustomerTableBookings();
                 } else {
                     showCustomAlertDialog("Booking Failed", "There was an error confirming your booking, possibly due to table unavailability. Please try again.", Alert.AlertType.ERROR);
                 }
@@ -1357,7 +1690,7 @@ public class Main extends Application {
         bookingsTable.setPlaceholder(new Label("No table bookings yet."));
 
         // Filter bookings for the current user and set to ObservableList
-        allTableBookings.setAll(DatabaseManager.getTableBookingsByCustomerId(currentUser.getUserId()));
+        dataVersions.apply(allTableBookings, takePrefetched("tableBookings", DataVersions.Entity.TABLE_BOOKINGS, () -> DatabaseManager.getTableBookingsByCustomerId(currentUser.getUserId())), TableBooking::getBookingId, TableBooking::hasSameContent);
         bookingsTable.setItems(allTableBookings);
 
         TableColumn<TableBooking, String> tableTypeCol = new TableColumn<>("Table Type");
@@ -1472,7 +1805,7 @@ public class Main extends Application {
         Button refreshBookingsButton = new Button("Refresh Bookings");
         refreshBookingsButton.getStyleClass().add("button-secondary");
         refreshBookingsButton.setOnAction(e -> {
-            allTableBookings.setAll(DatabaseManager.getTableBookingsByCustomerId(currentUser.getUserId()));
+            refreshCustomerTableBookings();
             showCustomAlertDialog("Refreshed", "Your booking list has been updated.", Alert.AlertType.INFORMATION);
         });
 
@@ -1546,7 +1879,7 @@ public class Main extends Application {
             if (DatabaseManager.addFeedback(newFeedback)) {
                 showCustomAlertDialog("Success", "Thank you for your feedback!", Alert.AlertType.INFORMATION);
                 commentsField.clear(); // Clear the form
-                allFeedback.setAll(DatabaseManager.getAllFeedback()); // Refresh admin view of feedback
+                refreshFeedback(); // Refresh admin view of feedback
             } else {
                 showCustomAlertDialog("Error", "Failed to submit feedback. Please try again.", Alert.AlertType.ERROR);
             }
@@ -1570,6 +1903,9 @@ public class Main extends Application {
         Label dishLabel = new Label("Select Dish:");
         dishLabel.getStyleClass().add("label");
         // Use allMenuItems to populate dish selection
+        if (allMenuItems.isEmpty()) {
+            dataVersions.apply(allMenuItems, takePrefetched("menuItems", DataVersions.Entity.MENU_ITEMS, DatabaseManager::getAllMenuItems), MenuItem::getId, MenuItem::hasSameContent);
+        }
         ComboBox<MenuItem> dishComboBox = new ComboBox<>(allMenuItems);
         dishComboBox.setPromptText("Select a Dish");
         dishComboBox.getStyleClass().add("combo-box-custom");
@@ -1610,7 +1946,7 @@ public class Main extends Application {
             if (DatabaseManager.addDishRating(newRating)) {
                 showCustomAlertDialog("Success", "Rating for " + selectedDish.getName() + " submitted!", Alert.AlertType.INFORMATION);
                 dishComboBox.getSelectionModel().clearSelection(); // Clear the form
-                allDishRatings.setAll(DatabaseManager.getAllDishRatings()); // Refresh all dish ratings for display
+                refreshDishRatings(); // Refresh all dish ratings for display
             } else {
                 showCustomAlertDialog("Error", "Failed to submit dish rating. Please try again.", Alert.AlertType.ERROR);
             }
@@ -1641,7 +1977,7 @@ public class Main extends Application {
         menuTable.setEditable(true);
 
         // Load all menu items initially
-        allMenuItems.setAll(DatabaseManager.getAllMenuItems());
+        dataVersions.apply(allMenuItems, takePrefetched("menuItems", DataVersions.Entity.MENU_ITEMS, DatabaseManager::getAllMenuItems), MenuItem::getId, MenuItem::hasSameContent);
         menuTable.setItems(allMenuItems);
 
         TableColumn<MenuItem, Integer> idCol = new TableColumn<>("ID");
@@ -1672,6 +2008,20 @@ public class Main extends Application {
 
         // Removed imageUrlCol
 
+        TableColumn<MenuItem, TaxCategory> taxCategoryCol = new TableColumn<>("GST Category");
+        taxCategoryCol.setCellValueFactory(new PropertyValueFactory<>("taxCategory"));
+        taxCategoryCol.setPrefWidth(140);
+        taxCategoryCol.setCellFactory(ComboBoxTableCell.forTableColumn(TaxCategory.values()));
+        taxCategoryCol.setOnEditCommit(event -> {
+            MenuItem item = event.getRowValue();
+            item.setTaxCategory(event.getNewValue());
+            if (DatabaseManager.updateMenuItem(item)) { // Orders already placed keep the GST they were charged
+                showCustomAlertDialog("Updated", "Menu item GST category updated.", Alert.AlertType.INFORMATION);
+            } else {
+                showCustomAlertDialog("Error", "Failed to update menu item GST category.", Alert.AlertType.ERROR);
+            }
+        });
+
 
         TableColumn<MenuItem, Integer> stockCol = new TableColumn<>("Stock");
         stockCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
@@ -1689,6 +2039,11 @@ public class Main extends Application {
         });
 
 
+        TableColumn<MenuItem, String> ingredientPortionsCol = new TableColumn<>("Ingredients For");
+        ingredientPortionsCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(
+                cellData.getValue().getIngredientPortions() == MenuItem.NO_RECIPE ? "No recipe" : cellData.getValue().getIngredientPortions() + " portions"));
+        ingredientPortionsCol.setPrefWidth(120);
+
         TableColumn<MenuItem, Void> actionsCol = new TableColumn<>("Actions");
         actionsCol.setPrefWidth(100);
         actionsCol.setCellFactory(param -> new TableCell<MenuItem, Void>() {
@@ -1719,7 +2074,7 @@ public class Main extends Application {
             }
         });
 
-        menuTable.getColumns().addAll(idCol, nameCol, priceCol, stockCol, actionsCol); // Removed imageUrlCol
+        menuTable.getColumns().addAll(idCol, nameCol, priceCol, taxCategoryCol, stockCol, ingredientPortionsCol, actionsCol); // Removed imageUrlCol
         menuTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
 
@@ -1757,6 +2112,10 @@ public class Main extends Application {
         newStockSpinner.setPrefWidth(100);
         newStockSpinner.setEditable(true);
 
+        ComboBox<TaxCategory> newTaxCategoryComboBox = new ComboBox<>(FXCollections.observableArrayList(TaxCategory.values()));
+        newTaxCategoryComboBox.getStyleClass().add("combo-box-custom");
+        newTaxCategoryComboBox.setValue(TaxCategory.FOOD);
+
 
         Button addItemButton = new Button("Add Item");
         addItemButton.getStyleClass().add("button-primary");
@@ -1774,6 +2133,7 @@ public class Main extends Application {
             try {
                 double price = Double.parseDouble(priceText);
                 MenuItem newItem = new MenuItem(0, name, price, imageUrl, initialStock);
+                newItem.setTaxCategory(newTaxCategoryComboBox.getValue());
                 // Call addMenuItem, stock is already part of the MenuItem object
                 if (DatabaseManager.addMenuItem(newItem)) {
                     allMenuItems.add(newItem); // Add to observable list
@@ -1782,6 +2142,7 @@ public class Main extends Application {
                     newPriceField.clear();
                     // newImageUrlField.clear(); // Removed
                     newStockSpinner.getValueFactory().setValue(50); // Reset spinner
+                    newTaxCategoryComboBox.setValue(TaxCategory.FOOD);
                 } else {
                     showCustomAlertDialog("Error", "Failed to add menu item. Name might already exist.", Alert.AlertType.ERROR);
                 }
@@ -1790,13 +2151,14 @@ public class Main extends Application {
             }
         });
 
-        addMenuItemBox.getChildren().addAll(addHeader, newNameField, newPriceField, new Label("Initial Stock:"), newStockSpinner, addItemButton); // Removed newImageUrlField
+        addMenuItemBox.getChildren().addAll(addHeader, newNameField, newPriceField, new Label("Initial Stock:"), newStockSpinner,
+                new Label("GST Category:"), newTaxCategoryComboBox, addItemButton); // Removed newImageUrlField
 
 
         Button refreshMenuButton = new Button("Refresh Menu");
         refreshMenuButton.getStyleClass().add("button-secondary");
         refreshMenuButton.setOnAction(e -> {
-            allMenuItems.setAll(DatabaseManager.getAllMenuItems());
+            refreshMenuItems();
             showCustomAlertDialog("Refreshed", "Menu list has been updated.", Alert.AlertType.INFORMATION);
         });
 
@@ -1824,8 +2186,13 @@ public class Main extends Application {
         ordersTable.setPlaceholder(new Label("No orders available."));
         ordersTable.setEditable(true);
 
-        allOrders.setAll(DatabaseManager.getAllOrders()); // Load all orders
-        ordersTable.setItems(allOrders);
+        dataVersions.apply(allOrders, takePrefetched("orders", DataVersions.Entity.ORDERS, DatabaseManager::getAllOrders), Order::getOrderId, Order::hasSameContent); // Load all orders
+        if (orderSearchIndex == null) {
+            orderSearchIndex = new SearchIndex<>(allOrders, order -> order.getOrderId() + " " + order.getCustomerUsername() + " " +
+                    order.getStatus() + " " + order.getPaymentStatus() + " " +
+                    order.getItems().stream().map(MenuItem::getName).distinct().collect(Collectors.joining(" ")));
+        }
+        TextField orderSearchField = createTableSearchField(ordersTable, allOrders, orderSearchIndex, "Search by order ID, customer, dish or status");
 
         TableColumn<Order, Integer> orderIdCol = new TableColumn<>("Order ID");
         orderIdCol.setCellValueFactory(new PropertyValueFactory<>("orderId"));
@@ -1941,7 +2308,7 @@ public class Main extends Application {
                             allOrders.remove(order);
                             showCustomAlertDialog("Success", "Order " + order.getOrderId() + " deleted and stock returned.", Alert.AlertType.INFORMATION);
                             // Refresh menu items for customer view to reflect stock changes
-                            allMenuItems.setAll(DatabaseManager.getAllMenuItems());
+                            refreshMenuItems();
                         } else {
                             showCustomAlertDialog("Error", "Failed to delete order.", Alert.AlertType.ERROR);
                         }
@@ -1967,16 +2334,270 @@ public class Main extends Application {
         Button refreshOrdersButton = new Button("Refresh Orders");
         refreshOrdersButton.getStyleClass().add("button-secondary");
         refreshOrdersButton.setOnAction(e -> {
-            allOrders.setAll(DatabaseManager.getAllOrders());
+            refreshAllOrders();
             showCustomAlertDialog("Refreshed", "Order list has been updated.", Alert.AlertType.INFORMATION);
         });
 
-        layout.getChildren().addAll(titleLabel, ordersTable, refreshOrdersButton);
+        layout.getChildren().addAll(titleLabel, orderSearchField, ordersTable, refreshOrdersButton);
         VBox.setVgrow(ordersTable, Priority.ALWAYS);
         return layout;
     }
 
 
+    /**
+     * Creates the "Waitlist" tab content for the front desk.
+     * Walk-in parties join the waitlist here; the list shows each party's estimated wait and is
+     * refreshed whenever the waitlist changes. When tables are booked for a party, an alert tells
+     * the front desk which tables to take them to.
+     */
+    private VBox createWaitlistTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Walk-in Waitlist");
+        titleLabel.getStyleClass().add("h1-label");
+
+        WalkInWaitlist waitlist = WalkInWaitlist.getInstance();
+        ObservableList<WaitlistEntry> entries = FXCollections.observableArrayList(waitlist.getWaiting());
+        TableView<WaitlistEntry> waitlistTable = new TableView<>(entries);
+        waitlistTable.getStyleClass().add("table-view-custom");
+        waitlistTable.setPlaceholder(new Label("Nobody is waiting."));
+
+        TableColumn<WaitlistEntry, String> nameCol = new TableColumn<>("Party");
+        nameCol.setCellValueFactory(new PropertyValueFactory<>("partyName"));
+        TableColumn<WaitlistEntry, Integer> sizeCol = new TableColumn<>("Guests");
+        sizeCol.setCellValueFactory(new PropertyValueFactory<>("partySize"));
+        TableColumn<WaitlistEntry, String> phoneCol = new TableColumn<>("Phone");
+        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phone"));
+        TableColumn<WaitlistEntry, String> joinedCol = new TableColumn<>("Joined");
+        joinedCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(
+                cellData.getValue().getJoinedAt().format(DateTimeFormatter.ofPattern("HH:mm"))));
+        TableColumn<WaitlistEntry, String> waitCol = new TableColumn<>("Estimated Wait");
+        waitCol.setCellValueFactory(cellData -> {
+            int wait = cellData.getValue().getEstimatedWaitMinutes();
+            return new ReadOnlyStringWrapper(wait < 0 ? "Over 6 h" : wait + " min");
+        });
+        waitlistTable.getColumns().addAll(nameCol, sizeCol, phoneCol, joinedCol, waitCol);
+        waitlistTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        // Add Party Section
+        VBox addBox = new VBox(10);
+        addBox.setPadding(new Insets(15));
+        addBox.getStyleClass().add("section-box");
+
+        Label addHeader = new Label("Add Walk-in Party");
+        addHeader.getStyleClass().add("h2-label");
+
+        TextField partyNameField = new TextField();
+        partyNameField.setPromptText("Party Name");
+        partyNameField.getStyleClass().add("text-field-custom");
+        TextField partyPhoneField = new TextField();
+        partyPhoneField.setPromptText("Phone Number");
+        partyPhoneField.getStyleClass().add("text-field-custom");
+        Spinner<Integer> partySizeSpinner = new Spinner<>(1, 50, 2);
+        partySizeSpinner.getStyleClass().add("spinner-custom");
+        partySizeSpinner.setPrefWidth(90);
+        partySizeSpinner.setEditable(true);
+
+        Label quoteLabel = new Label();
+        quoteLabel.getStyleClass().add("body-text");
+        Runnable updateQuote = () -> {
+            int wait = waitlist.estimateWaitMinutes(partySizeSpinner.getValue());
+            quoteLabel.setText(wait < 0 ? "No table for this party is expected in the next 6 hours."
+                    : wait == 0 ? "A table is free now." : "Estimated wait for a new party of this size: about " + wait + " min.");
+        };
+        partySizeSpinner.valueProperty().addListener((obs, oldVal, newVal) -> updateQuote.run());
+        Platform.runLater(updateQuote);
+
+        // Updates arrive on the waitlist thread
+        waitlist.addListener(new WalkInWaitlist.Listener() {
+            @Override
+            public void onWaitlistChanged(List<WaitlistEntry> waiting) {
+                Platform.runLater(() -> {
+                    entries.setAll(waiting);
+                    waitlistTable.refresh(); // Estimates change inside the same entries
+                    updateQuote.run();
+                });
+            }
+
+            @Override
+            public void onTableReady(WaitlistEntry entry) {
+                Platform.runLater(() -> showCustomAlertDialog("Table Ready",
+                        "Please seat " + entry.getPartyName() + " (" + entry.getPartySize() + " guests) at "
+                                + (entry.getTableNumbers().length == 1 ? "Table " : "Tables ") + describeTables(entry.getTableNumbers()) + ".",
+                        Alert.AlertType.INFORMATION));
+            }
+        });
+
+        Button addButton = new Button("Add to Waitlist");
+        addButton.getStyleClass().add("button-primary");
+        addButton.setOnAction(e -> {
+            String partyName = partyNameField.getText().trim();
+            if (partyName.isEmpty()) {
+                showCustomAlertDialog("Missing Information", "Please enter a name to call the party by.", Alert.AlertType.WARNING);
+                return;
+            }
+            waitlist.join(currentUser.getUserId(), partyName, partyPhoneField.getText().trim(), partySizeSpinner.getValue());
+            partyNameField.clear();
+            partyPhoneField.clear();
+        });
+
+        Button removeButton = new Button("Remove Selected");
+        removeButton.getStyleClass().add("button-danger");
+        removeButton.setOnAction(e -> {
+            WaitlistEntry selected = waitlistTable.getSelectionModel().getSelectedItem();
+            if (selected == null) {
+                showCustomAlertDialog("No Selection", "Please select a party to remove.", Alert.AlertType.WARNING);
+                return;
+            }
+            if (showConfirmationDialog("Confirm Removal", "Remove " + selected.getPartyName() + " from the waitlist?")) {
+                waitlist.cancel(selected.getEntryId());
+            }
+        });
+
+        HBox fieldsBox = new HBox(10, partyNameField, partyPhoneField, partySizeSpinner, addButton);
+        fieldsBox.setAlignment(Pos.CENTER_LEFT);
+        addBox.getChildren().addAll(addHeader, fieldsBox, quoteLabel);
+
+        layout.getChildren().addAll(titleLabel, waitlistTable, removeButton, addBox);
+        VBox.setVgrow(waitlistTable, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Creates the "Floor Plan" tab content for admin users.
+     * Lists the restaurant's tables and lets admins add, edit and remove them, including which
+     * neighbouring tables can be combined for larger parties.
+     */
+    private VBox createAdminFloorPlanTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Floor Plan");
+        titleLabel.getStyleClass().add("h1-label");
+
+        ObservableList<RestaurantTable> tables = FXCollections.observableArrayList(DatabaseManager.getAllRestaurantTables());
+        TableView<RestaurantTable> floorTable = new TableView<>(tables);
+        floorTable.getStyleClass().add("table-view-custom");
+        floorTable.setPlaceholder(new Label("No tables on the floor plan."));
+
+        TableColumn<RestaurantTable, Integer> numberCol = new TableColumn<>("Table No.");
+        numberCol.setCellValueFactory(new PropertyValueFactory<>("tableNumber"));
+        TableColumn<RestaurantTable, TableType> typeCol = new TableColumn<>("Type");
+        typeCol.setCellValueFactory(new PropertyValueFactory<>("tableType"));
+        TableColumn<RestaurantTable, Integer> capacityCol = new TableColumn<>("Seats");
+        capacityCol.setCellValueFactory(new PropertyValueFactory<>("capacity"));
+        TableColumn<RestaurantTable, String> zoneCol = new TableColumn<>("Zone");
+        zoneCol.setCellValueFactory(new PropertyValueFactory<>("zone"));
+        TableColumn<RestaurantTable, String> neighboursCol = new TableColumn<>("Combinable With");
+        neighboursCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getCombinableWith().stream()
+                .map(String::valueOf).collect(Collectors.joining(", "))));
+        floorTable.getColumns().addAll(numberCol, typeCol, capacityCol, zoneCol, neighboursCol);
+        floorTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        // Add / Edit Table Section
+        VBox editBox = new VBox(10);
+        editBox.setPadding(new Insets(15));
+        editBox.getStyleClass().add("section-box");
+
+        Label editHeader = new Label("Add or Edit Table");
+        editHeader.getStyleClass().add("h2-label");
+
+        TextField numberField = new TextField();
+        numberField.setPromptText("Table No.");
+        numberField.getStyleClass().add("text-field-custom");
+        ComboBox<TableType> typeComboBox = new ComboBox<>(FXCollections.observableArrayList(TableType.values()));
+        typeComboBox.setPromptText("Type");
+        typeComboBox.getStyleClass().add("combo-box-custom");
+        Spinner<Integer> capacitySpinner = new Spinner<>(1, 50, 4);
+        capacitySpinner.getStyleClass().add("spinner-custom");
+        capacitySpinner.setPrefWidth(90);
+        capacitySpinner.setEditable(true);
+        typeComboBox.valueProperty().addListener((obs, oldType, newType) -> {
+            if (newType != null) {
+                capacitySpinner.getValueFactory().setValue(newType.getSeats()); // Default seats for the type
+            }
+        });
+        TextField zoneField = new TextField();
+        zoneField.setPromptText("Zone (e.g. Window)");
+        zoneField.getStyleClass().add("text-field-custom");
+        TextField neighboursField = new TextField();
+        neighboursField.setPromptText("Combinable with (e.g. 2, 3)");
+        neighboursField.getStyleClass().add("text-field-custom");
+
+        floorTable.getSelectionModel().selectedItemProperty().addListener((obs, oldTable, selected) -> {
+            if (selected != null) {
+                numberField.setText(String.valueOf(selected.getTableNumber()));
+                typeComboBox.setValue(selected.getTableType());
+                capacitySpinner.getValueFactory().setValue(selected.getCapacity());
+                zoneField.setText(selected.getZone());
+                neighboursField.setText(selected.getCombinableWith().stream().map(String::valueOf).collect(Collectors.joining(", ")));
+            }
+        });
+
+        Button saveButton = new Button("Save Table");
+        saveButton.getStyleClass().add("button-primary");
+        saveButton.setOnAction(e -> {
+            List<Integer> neighbours = new ArrayList<>();
+            int tableNumber;
+            try {
+                tableNumber = Integer.parseInt(numberField.getText().trim());
+                for (String part : neighboursField.getText().split(",")) {
+                    if (!part.trim().isEmpty()) {
+                        neighbours.add(Integer.parseInt(part.trim()));
+                    }
+                }
+            } catch (NumberFormatException ex) {
+                showCustomAlertDialog("Invalid Input", "Table numbers must be whole numbers.", Alert.AlertType.WARNING);
+                return;
+            }
+            if (tableNumber <= 0 || typeComboBox.getValue() == null || zoneField.getText().trim().isEmpty()) {
+                showCustomAlertDialog("Missing Information", "Please enter a table number, type and zone.", Alert.AlertType.WARNING);
+                return;
+            }
+            RestaurantTable table = new RestaurantTable(tableNumber, typeComboBox.getValue(), capacitySpinner.getValue(),
+                    zoneField.getText().trim(), neighbours);
+            if (DatabaseManager.saveRestaurantTable(table)) {
+                tables.setAll(DatabaseManager.getAllRestaurantTables()); // Neighbour links changed on both sides
+                showCustomAlertDialog("Success", "Table " + tableNumber + " saved.", Alert.AlertType.INFORMATION);
+            } else {
+                showCustomAlertDialog("Error", "Failed to save table " + tableNumber + ".", Alert.AlertType.ERROR);
+            }
+        });
+
+        Button deleteButton = new Button("Remove Selected");
+        deleteButton.getStyleClass().add("button-danger");
+        deleteButton.setOnAction(e -> {
+            RestaurantTable selected = floorTable.getSelectionModel().getSelectedItem();
+            if (selected == null) {
+                showCustomAlertDialog("No Selection", "Please select a table to remove.", Alert.AlertType.WARNING);
+                return;
+            }
+            if (showConfirmationDialog("Confirm Removal", "Remove table " + selected.getTableNumber() + " from the floor plan?")) {
+                if (DatabaseManager.deleteRestaurantTable(selected.getTableNumber())) {
+                    tables.setAll(DatabaseManager.getAllRestaurantTables());
+                    showCustomAlertDialog("Success", "Table " + selected.getTableNumber() + " removed.", Alert.AlertType.INFORMATION);
+                } else {
+                    showCustomAlertDialog("Error", "Table " + selected.getTableNumber() + " could not be removed. It may still have upcoming bookings.", Alert.AlertType.ERROR);
+                }
+            }
+        });
+
+        HBox fieldsBox = new HBox(10, numberField, typeComboBox, capacitySpinner, zoneField, neighboursField);
+        fieldsBox.setAlignment(Pos.CENTER_LEFT);
+        HBox buttonsBox = new HBox(10, saveButton, deleteButton);
+        buttonsBox.setAlignment(Pos.CENTER_LEFT);
+        editBox.getChildren().addAll(editHeader, fieldsBox, buttonsBox);
+
+        layout.getChildren().addAll(titleLabel, floorTable, editBox);
+        VBox.setVgrow(floorTable, Priority.ALWAYS);
+        return layout;
+    }
+
     /**
      * Creates the "Manage Users" tab content for admin users.
      * Allows admins to view, edit roles, and delete users.
@@ -1995,8 +2616,10 @@ public class Main extends Application {
         usersTable.setPlaceholder(new Label("No users available."));
         usersTable.setEditable(true);
 
-        ObservableList<User> allUsers = FXCollections.observableArrayList(DatabaseManager.getAllUsers()); // Load all users
-        usersTable.setItems(allUsers);
+        ObservableList<User> allUsers = FXCollections.observableArrayList(takePrefetched("users", DataVersions.Entity.USERS, DatabaseManager::getAllUsers)); // Load all users
+        SearchIndex<User> userSearchIndex = new SearchIndex<>(allUsers, user -> user.getUserId() + " " + user.getUsername() + " " +
+                user.getFullName() + " " + user.getEmail() + " " + user.getPhoneNumber() + " " + user.getRole());
+        TextField userSearchField = createTableSearchField(usersTable, allUsers, userSearchIndex, "Search by username, name, email or phone");
 
         TableColumn<User, String> userIdCol = new TableColumn<>("User ID");
         userIdCol.setCellValueFactory(new PropertyValueFactory<>("userId"));
@@ -2082,15 +2705,763 @@ public class Main extends Application {
         Button refreshUsersButton = new Button("Refresh Users");
         refreshUsersButton.getStyleClass().add("button-secondary");
         refreshUsersButton.setOnAction(e -> {
-            allUsers.setAll(DatabaseManager.getAllUsers());
+            dataVersions.refresh(allUsers, DataVersions.Entity.USERS, "all", DatabaseManager::getAllUsers, User::getUserId, User::hasSameContent);
             showCustomAlertDialog("Refreshed", "User list has been updated.", Alert.AlertType.INFORMATION);
         });
 
-        layout.getChildren().addAll(titleLabel, usersTable, refreshUsersButton);
+        layout.getChildren().addAll(titleLabel, userSearchField, usersTable, refreshUsersButton);
         VBox.setVgrow(usersTable, Priority.ALWAYS);
         return layout;
     }
 
+    /**
+     * Creates the "Kitchen Display" tab content for admin users.
+     * Shows one column per kitchen station with its open tickets in priority order. New orders and
+     * status changes arrive through KitchenOrderQueue; the display drains it once a second and
+     * only redraws when something changed. Orders placed or changed on other terminals are picked
+     * up by re-reading the open orders whenever the ORDERS change version moves.
+     */
+    private VBox createKitchenDisplayTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Kitchen Display");
+        titleLabel.getStyleClass().add("h1-label");
+        Label summaryLabel = new Label();
+        summaryLabel.getStyleClass().add("body-text");
+
+        KitchenOrderQueue kitchenQueue = KitchenOrderQueue.getInstance();
+        kitchenQueue.attachConsumer(); // Before reading the open orders, so no change in between is missed
+        long[] syncedVersion = {DatabaseManager.getDataVersion(DataVersions.Entity.ORDERS)}; // Read before loading
+        kitchenQueue.sync(DatabaseManager.getOpenKitchenOrders());
+
+        HBox stationsBox = new HBox(15);
+        stationsBox.setAlignment(Pos.TOP_CENTER);
+        Map<KitchenStation, ListView<KitchenTicket>> stationLists = new EnumMap<>(KitchenStation.class);
+        Runnable refresh = () -> {
+            for (Map.Entry<KitchenStation, ListView<KitchenTicket>> entry : stationLists.entrySet()) {
+                entry.getValue().getItems().setAll(kitchenQueue.snapshot(entry.getKey()));
+            }
+            KitchenCapacityModel capacity = KitchenCapacityModel.getInstance();
+            summaryLabel.setText(kitchenQueue.openOrderCount() + " order(s) in the kitchen | new orders wait about "
+                    + Math.round(capacity.getPredictedWaitMinutes()) + " min | admission: " + capacity.getAdmissionMode());
+        };
+
+        for (KitchenStation station : KitchenStation.values()) {
+            Label stationLabel = new Label(station.getDisplayValue());
+            stationLabel.getStyleClass().add("h2-label");
+
+            ListView<KitchenTicket> ticketList = new ListView<>();
+            ticketList.setPlaceholder(new Label("No open tickets."));
+            stationLists.put(station, ticketList);
+
+            Button startButton = new Button("Start");
+            startButton.getStyleClass().add("button-secondary");
+            startButton.setOnAction(e -> {
+                KitchenTicket ticket = ticketList.getSelectionModel().getSelectedItem();
+                if (ticket != null && ticket.getStatus() == OrderStatus.PENDING) {
+                    setOrderStatusFromKitchen(ticket.getOrderId(), OrderStatus.PREPARING);
+                }
+            });
+
+            Button bumpButton = new Button("Bump (Done)");
+            bumpButton.getStyleClass().add("button-primary");
+            bumpButton.setOnAction(e -> {
+                KitchenTicket ticket = ticketList.getSelectionModel().getSelectedItem();
+                if (ticket == null) {
+                    return;
+                }
+                if (kitchenQueue.bump(ticket)) {
+                    // Last station finished: the whole order is ready
+                    setOrderStatusFromKitchen(ticket.getOrderId(), OrderStatus.READY_FOR_PICKUP);
+                }
+                refresh.run();
+            });
+
+            HBox buttons = new HBox(10, startButton, bumpButton);
+            buttons.setAlignment(Pos.CENTER);
+            VBox column = new VBox(10, stationLabel, ticketList, buttons);
+            column.setAlignment(Pos.TOP_CENTER);
+            HBox.setHgrow(column, Priority.ALWAYS);
+            VBox.setVgrow(ticketList, Priority.ALWAYS);
+            stationsBox.getChildren().add(column);
+        }
+
+        refresh.run();
+        if (kitchenDisplayTimeline != null) {
+            kitchenDisplayTimeline.stop();
+        }
+        kitchenDisplayTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
+            long version = DatabaseManager.getDataVersion(DataVersions.Entity.ORDERS); // A primary-key lookup
+            boolean changed;
+            if (version < 0 || version != syncedVersion[0]) {
+                changed = kitchenQueue.sync(DatabaseManager.getOpenKitchenOrders());
+                syncedVersion[0] = version;
+            } else {
+                changed = kitchenQueue.drain() > 0;
+            }
+            if (changed) {
+                refresh.run();
+            }
+        }));
+        kitchenDisplayTimeline.setCycleCount(Timeline.INDEFINITE);
+        kitchenDisplayTimeline.play();
+
+        layout.getChildren().addAll(titleLabel, summaryLabel, stationsBox);
+        VBox.setVgrow(stationsBox, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Persists an order status change made on the kitchen display and mirrors it in the loaded orders.
+     * @param orderId The order ID.
+     * @param status The new status.
+     */
+    private void setOrderStatusFromKitchen(int orderId, OrderStatus status) {
+        if (!DatabaseManager.updateOrderStatus(orderId, status)) {
+            showCustomAlertDialog("Error", "Failed to update order " + orderId + ".", Alert.AlertType.ERROR);
+            return;
+        }
+        for (int i = 0; i < allOrders.size(); i++) {
+            Order order = allOrders.get(i);
+            if (order.getOrderId() == orderId) {
+                order.setStatus(status);
+                allOrders.set(i, order); // Fire an update so the Manage Orders table redraws the row
+                break;
+            }
+        }
+    }
+
+    /**
+     * Creates the "Order Latency" tab content for admin users.
+     * Shows p50/p95 time-in-state from the order status history, per status, per hour or per dish.
+     */
+    private VBox createOrderLatencyTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Order Latency");
+        titleLabel.getStyleClass().add("h1-label");
+        Label summaryLabel = new Label();
+        summaryLabel.getStyleClass().add("body-text");
+
+        ComboBox<String> rangeComboBox = new ComboBox<>(FXCollections.observableArrayList("Today", "Last 7 days", "Last 30 days"));
+        rangeComboBox.setValue("Today");
+        ComboBox<OrderLatencyReport.Grouping> groupingComboBox = new ComboBox<>(FXCollections.observableArrayList(OrderLatencyReport.Grouping.values()));
+        groupingComboBox.setValue(OrderLatencyReport.Grouping.STATUS);
+        Button refreshButton = new Button("Refresh");
+        refreshButton.getStyleClass().add("button-secondary");
+        HBox controls = new HBox(10, new Label("Orders placed:"), rangeComboBox, new Label("Group:"), groupingComboBox, refreshButton);
+        controls.setAlignment(Pos.CENTER);
+
+        TableView<OrderLatencyReport.LatencyStat> latencyTable = new TableView<>();
+        latencyTable.getStyleClass().add("table-view-custom");
+        latencyTable.setPlaceholder(new Label("No status history for this period."));
+
+        TableColumn<OrderLatencyReport.LatencyStat, String> groupCol = new TableColumn<>("Group");
+        groupCol.setCellValueFactory(new PropertyValueFactory<>("group"));
+        TableColumn<OrderLatencyReport.LatencyStat, String> stateCol = new TableColumn<>("Status");
+        stateCol.setCellValueFactory(new PropertyValueFactory<>("state"));
+        TableColumn<OrderLatencyReport.LatencyStat, Integer> countCol = new TableColumn<>("Orders");
+        countCol.setCellValueFactory(new PropertyValueFactory<>("count"));
+        TableColumn<OrderLatencyReport.LatencyStat, String> p50Col = new TableColumn<>("p50");
+        p50Col.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(formatSeconds(cellData.getValue().getP50Seconds())));
+        TableColumn<OrderLatencyReport.LatencyStat, String> p95Col = new TableColumn<>("p95");
+        p95Col.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(formatSeconds(cellData.getValue().getP95Seconds())));
+        latencyTable.getColumns().addAll(groupCol, stateCol, countCol, p50Col, p95Col);
+        latencyTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        Runnable refresh = () -> {
+            LocalDateTime since = java.time.LocalDate.now().atStartOfDay();
+            if ("Last 7 days".equals(rangeComboBox.getValue())) {
+                since = since.minusDays(6);
+            } else if ("Last 30 days".equals(rangeComboBox.getValue())) {
+                since = since.minusDays(29);
+            }
+            List<OrderLatencyReport.LatencyStat> stats = OrderLatencyReport.build(since, groupingComboBox.getValue());
+            latencyTable.setItems(FXCollections.observableArrayList(stats));
+            summaryLabel.setText("Time spent in each status by orders placed since " +
+                    since.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ". \"" + OrderLatencyReport.ORDER_TO_READY +
+                    "\" is the time from placing the order until it was ready.");
+        };
+        rangeComboBox.setOnAction(e -> refresh.run());
+        groupingComboBox.setOnAction(e -> refresh.run());
+        refreshButton.setOnAction(e -> refresh.run());
+        refresh.run();
+
+        layout.getChildren().addAll(titleLabel, summaryLabel, controls, latencyTable);
+        VBox.setVgrow(latencyTable, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Creates the "Ingredients" tab content for admin users.
+     * Lists the ingredient inventory, where stock can be edited, and the recipe of each dish, which
+     * decides how many portions of it the ingredients in stock are enough for.
+     */
+    private VBox createIngredientsTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Ingredients");
+        titleLabel.getStyleClass().add("h1-label");
+
+        ObservableList<Ingredient> ingredients = FXCollections.observableArrayList(DatabaseManager.getAllIngredients());
+        TableView<Ingredient> ingredientsTable = new TableView<>(ingredients);
+        ingredientsTable.getStyleClass().add("table-view-custom");
+        ingredientsTable.setPlaceholder(new Label("No ingredients yet."));
+        ingredientsTable.setEditable(true);
+
+        // Recipe of the selected dish; declared here so ingredient changes can refresh it
+        ComboBox<MenuItem> dishComboBox = new ComboBox<>(allMenuItems);
+        dishComboBox.getStyleClass().add("combo-box-custom");
+        dishComboBox.setPromptText("Select a dish");
+        dishComboBox.setConverter(new javafx.util.StringConverter<MenuItem>() {
+            @Override
+            public String toString(MenuItem item) {
+                return item != null ? item.getName() : "";
+            }
+            @Override
+            public MenuItem fromString(String string) {
+                return null; // Not used for selection
+            }
+        });
+        TableView<RecipeLine> recipeTable = new TableView<>();
+        recipeTable.getStyleClass().add("table-view-custom");
+        recipeTable.setPlaceholder(new Label("No recipe: the dish is limited by its own stock only."));
+        Label bottleneckLabel = new Label();
+        bottleneckLabel.getStyleClass().add("body-text");
+        Runnable refreshRecipe = () -> {
+            MenuItem dish = dishComboBox.getValue();
+            List<RecipeLine> lines = dish != null ? DatabaseManager.getRecipe(dish.getId()) : new ArrayList<>();
+            recipeTable.setItems(FXCollections.observableArrayList(lines));
+            RecipeLine scarcest = lines.stream().min(Comparator.comparingLong(RecipeLine::getPortions)).orElse(null);
+            bottleneckLabel.setText(scarcest == null ? "" : "Ingredients in stock are enough for " + scarcest.getPortions() +
+                    " portions, limited by " + scarcest.getIngredientName() + ".");
+        };
+        Runnable reloadIngredients = () -> {
+            ingredients.setAll(DatabaseManager.getAllIngredients());
+            refreshRecipe.run();
+            refreshMenuItems(); // Dish availability may have changed
+        };
+
+        TableColumn<Ingredient, String> nameCol = new TableColumn<>("Name");
+        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        TableColumn<Ingredient, String> unitCol = new TableColumn<>("Unit");
+        unitCol.setCellValueFactory(new PropertyValueFactory<>("unit"));
+        TableColumn<Ingredient, Long> onHandCol = new TableColumn<>("On Hand");
+        onHandCol.setCellValueFactory(new PropertyValueFactory<>("onHand"));
+        onHandCol.setCellFactory(TextFieldTableCell.forTableColumn(new javafx.util.converter.LongStringConverter()));
+        onHandCol.setOnEditCommit(event -> {
+            Ingredient ingredient = event.getRowValue();
+            if (event.getNewValue() == null || event.getNewValue() < 0) {
+                showCustomAlertDialog("Invalid Quantity", "Stock cannot be negative.", Alert.AlertType.WARNING);
+                ingredientsTable.refresh();
+                return;
+            }
+            ingredient.setOnHand(event.getNewValue());
+            if (DatabaseManager.updateIngredient(ingredient)) {
+                reloadIngredients.run();
+            } else {
+                showCustomAlertDialog("Error", "Failed to update ingredient stock.", Alert.AlertType.ERROR);
+            }
+        });
+
+        TableColumn<Ingredient, Void> actionsCol = new TableColumn<>("Actions");
+        actionsCol.setCellFactory(param -> new TableCell<Ingredient, Void>() {
+            private final Button deleteButton = new Button("Delete");
+            {
+                deleteButton.getStyleClass().add("button-danger-small");
+                deleteButton.setOnAction(event -> {
+                    Ingredient ingredient = getTableView().getItems().get(getIndex());
+                    if (showConfirmationDialog("Confirm Deletion", "Delete " + ingredient.getName() + "? It will be removed from every recipe.")) {
+                        if (DatabaseManager.deleteIngredient(ingredient.getIngredientId())) {
+                            reloadIngredients.run();
+                        } else {
+                            showCustomAlertDialog("Error", "Failed to delete ingredient.", Alert.AlertType.ERROR);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : deleteButton);
+            }
+        });
+
+        ingredientsTable.getColumns().addAll(nameCol, unitCol, onHandCol, actionsCol);
+        ingredientsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        // Add New Ingredient Section
+        TextField newNameField = new TextField();
+        newNameField.setPromptText("Ingredient Name");
+        newNameField.getStyleClass().add("text-field-custom");
+        ComboBox<String> newUnitComboBox = new ComboBox<>(FXCollections.observableArrayList("g", "ml", "pcs"));
+        newUnitComboBox.setValue("g");
+        TextField newOnHandField = new TextField();
+        newOnHandField.setPromptText("On Hand");
+        newOnHandField.getStyleClass().add("text-field-custom");
+        newOnHandField.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!newVal.matches("\\d{0,12}")) {
+                newOnHandField.setText(oldVal);
+            }
+        });
+        Button addIngredientButton = new Button("Add Ingredient");
+        addIngredientButton.getStyleClass().add("button-primary");
+        addIngredientButton.setOnAction(e -> {
+            String name = newNameField.getText().trim();
+            if (name.isEmpty()) {
+                showCustomAlertDialog("Missing Information", "Enter the ingredient name.", Alert.AlertType.WARNING);
+                return;
+            }
+            long onHand = newOnHandField.getText().isEmpty() ? 0 : Long.parseLong(newOnHandField.getText());
+            if (DatabaseManager.addIngredient(new Ingredient(0, name, newUnitComboBox.getValue(), onHand))) {
+                newNameField.clear();
+                newOnHandField.clear();
+                reloadIngredients.run();
+            } else {
+                showCustomAlertDialog("Error", "Failed to add ingredient. Name might already exist.", Alert.AlertType.ERROR);
+            }
+        });
+        HBox addIngredientBox = new HBox(10, newNameField, newUnitComboBox, newOnHandField, addIngredientButton);
+        addIngredientBox.setAlignment(Pos.CENTER_LEFT);
+
+        // Recipes Section
+        VBox recipeBox = new VBox(10);
+        recipeBox.setPadding(new Insets(15));
+        recipeBox.getStyleClass().add("section-box");
+        Label recipeHeader = new Label("Recipes (per portion)");
+        recipeHeader.getStyleClass().add("h2-label");
+
+        TableColumn<RecipeLine, String> ingredientCol = new TableColumn<>("Ingredient");
+        ingredientCol.setCellValueFactory(new PropertyValueFactory<>("ingredientName"));
+        TableColumn<RecipeLine, String> quantityCol = new TableColumn<>("Per Portion");
+        quantityCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getQuantity() + " " + cellData.getValue().getUnit()));
+        TableColumn<RecipeLine, String> inStockCol = new TableColumn<>("In Stock");
+        inStockCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getOnHand() + " " + cellData.getValue().getUnit()));
+        TableColumn<RecipeLine, Long> portionsCol = new TableColumn<>("Enough For");
+        portionsCol.setCellValueFactory(new PropertyValueFactory<>("portions"));
+        TableColumn<RecipeLine, Void> removeCol = new TableColumn<>("Actions");
+        removeCol.setCellFactory(param -> new TableCell<RecipeLine, Void>() {
+            private final Button removeButton = new Button("Remove");
+            {
+                removeButton.getStyleClass().add("button-danger-small");
+                removeButton.setOnAction(event -> {
+                    RecipeLine line = getTableView().getItems().get(getIndex());
+                    if (DatabaseManager.removeRecipeLine(line.getMenuItemId(), line.getIngredientId())) {
+                        refreshRecipe.run();
+                        refreshMenuItems();
+                    } else {
+                        showCustomAlertDialog("Error", "Failed to update recipe.", Alert.AlertType.ERROR);
+                    }
+                });
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : removeButton);
+            }
+        });
+        recipeTable.getColumns().addAll(ingredientCol, quantityCol, inStockCol, portionsCol, removeCol);
+        recipeTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        recipeTable.setPrefHeight(200);
+
+        ComboBox<Ingredient> lineIngredientComboBox = new ComboBox<>(ingredients);
+        lineIngredientComboBox.getStyleClass().add("combo-box-custom");
+        lineIngredientComboBox.setPromptText("Ingredient");
+        TextField lineQuantityField = new TextField();
+        lineQuantityField.setPromptText("Quantity per portion");
+        lineQuantityField.getStyleClass().add("text-field-custom");
+        lineQuantityField.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!newVal.matches("\\d{0,9}")) {
+                lineQuantityField.setText(oldVal);
+            }
+        });
+        Button setLineButton = new Button("Set Quantity");
+        setLineButton.getStyleClass().add("button-primary");
+        setLineButton.setOnAction(e -> {
+            MenuItem dish = dishComboBox.getValue();
+            Ingredient ingredient = lineIngredientComboBox.getValue();
+            if (dish == null || ingredient == null || lineQuantityField.getText().isEmpty() || Integer.parseInt(lineQuantityField.getText()) == 0) {
+                showCustomAlertDialog("Missing Information", "Select a dish and an ingredient, and enter a quantity above zero.", Alert.AlertType.WARNING);
+                return;
+            }
+            if (DatabaseManager.setRecipeLine(dish.getId(), ingredient.getIngredientId(), Integer.parseInt(lineQuantityField.getText()))) {
+                lineQuantityField.clear();
+                refreshRecipe.run();
+                refreshMenuItems();
+            } else {
+                showCustomAlertDialog("Error", "Failed to update recipe.", Alert.AlertType.ERROR);
+            }
+        });
+        dishComboBox.setOnAction(e -> refreshRecipe.run());
+        HBox recipeLineBox = new HBox(10, lineIngredientComboBox, lineQuantityField, setLineButton);
+        recipeLineBox.setAlignment(Pos.CENTER_LEFT);
+        recipeBox.getChildren().addAll(recipeHeader, dishComboBox, recipeTable, bottleneckLabel, recipeLineBox);
+
+        layout.getChildren().addAll(titleLabel, ingredientsTable, addIngredientBox, recipeBox);
+        VBox.setVgrow(ingredientsTable, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Creates the "Stock Forecast" tab content for admin users.
+     * Shows the forecast demand of every dish (see DemandForecaster) next to its stock, with alerts
+     * for dishes that will run out and a button to restock a dish to the recommended level.
+     */
+    private VBox createStockForecastTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Stock Forecast");
+        titleLabel.getStyleClass().add("h1-label");
+        Label summaryLabel = new Label("Demand forecast from the orders of the last " + DemandForecaster.HISTORY_WEEKS +
+                " weeks, by day of week and hour. \"Recommended\" is tomorrow's forecast plus a safety margin.");
+        summaryLabel.getStyleClass().add("body-text");
+        summaryLabel.setWrapText(true);
+
+        TableView<DemandForecaster.StockRecommendation> forecastTable = new TableView<>();
+        forecastTable.getStyleClass().add("table-view-custom");
+        forecastTable.setPlaceholder(new Label("No dishes on the menu."));
+
+        TableColumn<DemandForecaster.StockRecommendation, String> dishCol = new TableColumn<>("Dish");
+        dishCol.setCellValueFactory(new PropertyValueFactory<>("dishName"));
+        TableColumn<DemandForecaster.StockRecommendation, Integer> stockCol = new TableColumn<>("Stock");
+        stockCol.setCellValueFactory(new PropertyValueFactory<>("currentStock"));
+        TableColumn<DemandForecaster.StockRecommendation, String> todayCol = new TableColumn<>("Rest of Today");
+        todayCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.format("%.1f", cellData.getValue().getRestOfTodayForecast())));
+        TableColumn<DemandForecaster.StockRecommendation, String> tomorrowCol = new TableColumn<>("Tomorrow");
+        tomorrowCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.format("%.1f", cellData.getValue().getTomorrowForecast())));
+        TableColumn<DemandForecaster.StockRecommendation, Integer> recommendedCol = new TableColumn<>("Recommended");
+        recommendedCol.setCellValueFactory(new PropertyValueFactory<>("recommendedStock"));
+        TableColumn<DemandForecaster.StockRecommendation, Integer> restockCol = new TableColumn<>("Restock");
+        restockCol.setCellValueFactory(new PropertyValueFactory<>("restockQuantity"));
+        TableColumn<DemandForecaster.StockRecommendation, DemandForecaster.StockAlert> alertCol = new TableColumn<>("Alert");
+        alertCol.setCellValueFactory(new PropertyValueFactory<>("alert"));
+
+        Runnable refresh = () -> forecastTable.setItems(FXCollections.observableArrayList(DemandForecaster.getInstance().recommendStock()));
+
+        TableColumn<DemandForecaster.StockRecommendation, Void> actionsCol = new TableColumn<>("Actions");
+        actionsCol.setCellFactory(param -> new TableCell<DemandForecaster.StockRecommendation, Void>() {
+            private final Button restockButton = new Button("Restock");
+            {
+                restockButton.getStyleClass().add("button-info-small");
+                restockButton.setOnAction(event -> {
+                    DemandForecaster.StockRecommendation recommendation = getTableView().getItems().get(getIndex());
+                    MenuItem item = DatabaseManager.getMenuItemById(recommendation.getMenuItemId()); // Current stock, not the table's
+                    if (item == null) {
+                        showCustomAlertDialog("Error", "Menu item not found.", Alert.AlertType.ERROR);
+                        return;
+                    }
+                    item.setStock(item.getStock() + recommendation.getRestockQuantity());
+                    if (DatabaseManager.updateMenuItem(item)) {
+                        showCustomAlertDialog("Restocked", item.getName() + " stock set to " + item.getStock() + ".", Alert.AlertType.INFORMATION);
+                        refreshMenuItems();
+                        refresh.run();
+                    } else {
+                        showCustomAlertDialog("Error", "Failed to update stock.", Alert.AlertType.ERROR);
+                    }
+                });
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                boolean show = !empty && getIndex() < getTableView().getItems().size()
+                        && getTableView().getItems().get(getIndex()).getRestockQuantity() > 0;
+                setGraphic(show ? restockButton : null);
+            }
+        });
+
+        forecastTable.getColumns().addAll(dishCol, stockCol, todayCol, tomorrowCol, recommendedCol, restockCol, alertCol, actionsCol);
+        forecastTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.getStyleClass().add("button-secondary");
+        refreshButton.setOnAction(e -> refresh.run());
+        refresh.run();
+
+        layout.getChildren().addAll(titleLabel, summaryLabel, forecastTable, refreshButton);
+        VBox.setVgrow(forecastTable, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Creates the "Sales Reports" tab content for admin users: sales by dish, payment method and
+     * hour, discounts and GST liability over a range of days. Reports are built in the background.
+     */
+    private VBox createSalesReportTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Sales Reports");
+        titleLabel.getStyleClass().add("h1-label");
+
+        DatePicker fromPicker = new DatePicker(java.time.LocalDate.now().withDayOfMonth(1));
+        DatePicker toPicker = new DatePicker(java.time.LocalDate.now());
+        Button generateButton = new Button("Generate");
+        generateButton.getStyleClass().add("button-primary");
+        HBox rangeBox = new HBox(10, new Label("From:"), fromPicker, new Label("To:"), toPicker, generateButton);
+        rangeBox.setAlignment(Pos.CENTER);
+
+        Label totalsLabel = new Label("Choose a range of days and click Generate.");
+        totalsLabel.getStyleClass().add("body-text");
+        totalsLabel.setWrapText(true);
+        Label discountLabel = new Label();
+        discountLabel.getStyleClass().add("body-text");
+        Label gstLabel = new Label();
+        gstLabel.getStyleClass().add("body-text");
+        VBox summaryBox = new VBox(8, totalsLabel, discountLabel, gstLabel);
+        summaryBox.getStyleClass().add("section-box");
+
+        TableView<ReportEngine.ReportLine> dishTable = createReportTable("Dish", "Portions", "portions", "Gross Sales (Rs.)");
+        TableView<ReportEngine.ReportLine> paymentTable = createReportTable("Payment Method", "Orders", "orders", "Collected (Rs.)");
+        TableView<ReportEngine.ReportLine> hourTable = createReportTable("Hour", "Orders", "orders", "Gross Sales (Rs.)");
+        HBox tablesBox = new HBox(20, dishTable, paymentTable, hourTable);
+        HBox.setHgrow(dishTable, Priority.ALWAYS);
+        HBox.setHgrow(paymentTable, Priority.ALWAYS);
+        HBox.setHgrow(hourTable, Priority.ALWAYS);
+
+        generateButton.setOnAction(e -> {
+            java.time.LocalDate from = fromPicker.getValue();
+            java.time.LocalDate to = toPicker.getValue();
+            if (from == null || to == null || to.isBefore(from)) {
+                showCustomAlertDialog("Input Error", "Please choose a first day on or before the last day.", Alert.AlertType.ERROR);
+                return;
+            }
+            Map<Integer, String> dishNames = new HashMap<>();
+            generateButton.setDisable(true);
+            totalsLabel.setText("Generating...");
+            CompletableFuture.supplyAsync(() -> {
+                for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+                    dishNames.put(item.getId(), item.getName());
+                }
+                return ReportEngine.getInstance().report(from, to);
+            }).whenComplete((report, error) -> Platform.runLater(() -> {
+                generateButton.setDisable(false);
+                if (error != null) {
+                    totalsLabel.setText("");
+                    showCustomAlertDialog("Error", "Failed to generate the report: " + error.getMessage(), Alert.AlertType.ERROR);
+                    return;
+                }
+                totalsLabel.setText(String.format("%d orders, gross sales Rs.%s, net sales Rs.%s, average order Rs.%s.",
+                        report.getOrders(), Money.format(report.getGrossPaise()), Money.format(report.getNetPaise()),
+                        Money.format(report.getAverageOrderPaise())));
+                discountLabel.setText(String.format("Discounts: Rs.%s on %d orders (%.1f%% of their gross sales).",
+                        Money.format(report.getDiscountPaise()), report.getDiscountedOrders(), report.getDiscountRatePercent()));
+                gstLabel.setText(String.format("GST liability: Rs.%s on a taxable value of Rs.%s. Collected: Rs.%s.",
+                        Money.format(report.getGstPaise()), Money.format(report.getNetPaise()), Money.format(report.getCollectedPaise())));
+                dishTable.setItems(FXCollections.observableArrayList(report.getSalesByDish(dishNames)));
+                paymentTable.setItems(FXCollections.observableArrayList(report.getSalesByPaymentMethod()));
+                hourTable.setItems(FXCollections.observableArrayList(report.getSalesByHour()));
+            }));
+        });
+
+        layout.getChildren().addAll(titleLabel, rangeBox, summaryBox, tablesBox);
+        VBox.setVgrow(tablesBox, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Creates a three-column table for one breakdown of a sales report.
+     */
+    private TableView<ReportEngine.ReportLine> createReportTable(String labelHeader, String countHeader, String countProperty, String amountHeader) {
+        TableView<ReportEngine.ReportLine> table = new TableView<>();
+        table.getStyleClass().add("table-view-custom");
+        table.setPlaceholder(new Label("No sales."));
+        TableColumn<ReportEngine.ReportLine, String> labelCol = new TableColumn<>(labelHeader);
+        labelCol.setCellValueFactory(new PropertyValueFactory<>("label"));
+        TableColumn<ReportEngine.ReportLine, Long> countCol = new TableColumn<>(countHeader);
+        countCol.setCellValueFactory(new PropertyValueFactory<>(countProperty));
+        TableColumn<ReportEngine.ReportLine, String> amountCol = new TableColumn<>(amountHeader);
+        amountCol.setCellValueFactory(new PropertyValueFactory<>("amount"));
+        table.getColumns().addAll(labelCol, countCol, amountCol);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        return table;
+    }
+
+    /**
+     * Creates the "GST Ledger" tab content for admin users: the GST rate of each tax category by
+     * effective date, and the GST totals of a month or quarter for filing. The totals are kept up
+     * to date as orders are placed and changed, so a period is read in a few rows.
+     */
+    private VBox createGstLedgerTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("GST Ledger");
+        titleLabel.getStyleClass().add("h1-label");
+
+        // GST rates
+        VBox ratesBox = new VBox(10);
+        ratesBox.setPadding(new Insets(15));
+        ratesBox.getStyleClass().add("section-box");
+        Label ratesHeader = new Label("GST Rates");
+        ratesHeader.getStyleClass().add("h2-label");
+        Label ratesHint = new Label("A rate applies from its effective date until the category's next rate. Orders keep the rate they were placed at.");
+        ratesHint.getStyleClass().add("body-text");
+        ratesHint.setWrapText(true);
+
+        ObservableList<TaxRate> taxRates = FXCollections.observableArrayList(DatabaseManager.getAllTaxRates());
+        TableView<TaxRate> ratesTable = new TableView<>(taxRates);
+        ratesTable.getStyleClass().add("table-view-custom");
+        ratesTable.setPlaceholder(new Label("No GST rates."));
+        ratesTable.setPrefHeight(220);
+        TableColumn<TaxRate, TaxCategory> rateCategoryCol = new TableColumn<>("Category");
+        rateCategoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
+        TableColumn<TaxRate, java.time.LocalDate> effectiveFromCol = new TableColumn<>("Effective From");
+        effectiveFromCol.setCellValueFactory(new PropertyValueFactory<>("effectiveFrom"));
+        TableColumn<TaxRate, String> rateCol = new TableColumn<>("Rate");
+        rateCol.setCellValueFactory(new PropertyValueFactory<>("rate"));
+        TableColumn<TaxRate, Void> rateActionsCol = new TableColumn<>("Actions");
+        rateActionsCol.setCellFactory(param -> new TableCell<TaxRate, Void>() {
+            private final Button deleteButton = new Button("Delete");
+            {
+                deleteButton.getStyleClass().add("button-danger-small");
+                deleteButton.setOnAction(event -> {
+                    TaxRate rate = getTableView().getItems().get(getIndex());
+                    if (showConfirmationDialog("Confirm Deletion", "Delete the " + rate.getRate() + " rate for " + rate.getCategory() +
+                            " from " + rate.getEffectiveFrom() + "?")) {
+                        if (DatabaseManager.deleteTaxRate(rate.getCategory(), rate.getEffectiveFrom())) {
+                            taxRates.setAll(DatabaseManager.getAllTaxRates());
+                        } else {
+                            showCustomAlertDialog("Error", "Failed to delete the GST rate.", Alert.AlertType.ERROR);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : deleteButton);
+            }
+        });
+        ratesTable.getColumns().addAll(rateCategoryCol, effectiveFromCol, rateCol, rateActionsCol);
+        ratesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        ComboBox<TaxCategory> newRateCategoryComboBox = new ComboBox<>(FXCollections.observableArrayList(TaxCategory.values()));
+        newRateCategoryComboBox.getStyleClass().add("combo-box-custom");
+        newRateCategoryComboBox.setValue(TaxCategory.FOOD);
+        DatePicker newRateFromPicker = new DatePicker(java.time.LocalDate.now().plusMonths(1).withDayOfMonth(1));
+        TextField newRateField = new TextField();
+        newRateField.setPromptText("Rate (%)");
+        newRateField.getStyleClass().add("text-field-custom");
+        newRateField.setPrefWidth(90);
+        newRateField.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!newVal.matches("|\\d{0,2}([\\.]\\d{0,2})?")) {
+                newRateField.setText(oldVal);
+            }
+        });
+        Button saveRateButton = new Button("Save Rate");
+        saveRateButton.getStyleClass().add("button-primary");
+        saveRateButton.setOnAction(e -> {
+            if (newRateFromPicker.getValue() == null || newRateField.getText().isEmpty() || newRateField.getText().equals(".")) {
+                showCustomAlertDialog("Missing Information", "Please choose an effective date and enter a rate.", Alert.AlertType.WARNING);
+                return;
+            }
+            int basisPoints = (int) Money.fromRupees(Double.parseDouble(newRateField.getText())); // Percent to basis points, like rupees to paise
+            TaxRate rate = new TaxRate(newRateCategoryComboBox.getValue(), newRateFromPicker.getValue(), basisPoints);
+            if (DatabaseManager.saveTaxRate(rate)) {
+                taxRates.setAll(DatabaseManager.getAllTaxRates());
+                newRateField.clear();
+            } else {
+                showCustomAlertDialog("Error", "Failed to save the GST rate.", Alert.AlertType.ERROR);
+            }
+        });
+        HBox newRateBox = new HBox(10, newRateCategoryComboBox, new Label("From:"), newRateFromPicker, newRateField, saveRateButton);
+        newRateBox.setAlignment(Pos.CENTER_LEFT);
+        ratesBox.getChildren().addAll(ratesHeader, ratesHint, ratesTable, newRateBox);
+
+        // Filing period totals
+        VBox filingBox = new VBox(10);
+        filingBox.setPadding(new Insets(15));
+        filingBox.getStyleClass().add("section-box");
+        Label filingHeader = new Label("Filing Period Totals");
+        filingHeader.getStyleClass().add("h2-label");
+
+        ComboBox<TaxLedger.Period> periodComboBox = new ComboBox<>(FXCollections.observableArrayList(TaxLedger.Period.values()));
+        periodComboBox.getStyleClass().add("combo-box-custom");
+        periodComboBox.setValue(TaxLedger.Period.MONTH);
+        DatePicker periodDayPicker = new DatePicker(java.time.LocalDate.now());
+        Button showTotalsButton = new Button("Show");
+        showTotalsButton.getStyleClass().add("button-primary");
+        HBox periodBox = new HBox(10, new Label("Period:"), periodComboBox, new Label("Containing:"), periodDayPicker, showTotalsButton);
+        periodBox.setAlignment(Pos.CENTER_LEFT);
+
+        TableView<TaxLedger.PeriodTotal> totalsTable = new TableView<>();
+        totalsTable.getStyleClass().add("table-view-custom");
+        totalsTable.setPlaceholder(new Label("No sales in this period."));
+        TableColumn<TaxLedger.PeriodTotal, TaxCategory> totalCategoryCol = new TableColumn<>("Category");
+        totalCategoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
+        TableColumn<TaxLedger.PeriodTotal, String> totalRateCol = new TableColumn<>("Rate");
+        totalRateCol.setCellValueFactory(new PropertyValueFactory<>("rate"));
+        TableColumn<TaxLedger.PeriodTotal, Integer> totalOrdersCol = new TableColumn<>("Orders");
+        totalOrdersCol.setCellValueFactory(new PropertyValueFactory<>("orders"));
+        TableColumn<TaxLedger.PeriodTotal, String> taxableCol = new TableColumn<>("Taxable Value (Rs.)");
+        taxableCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(Money.format(cellData.getValue().getTaxablePaise())));
+        TableColumn<TaxLedger.PeriodTotal, String> taxCol = new TableColumn<>("GST (Rs.)");
+        taxCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(Money.format(cellData.getValue().getTaxPaise())));
+        totalsTable.getColumns().addAll(totalCategoryCol, totalRateCol, totalOrdersCol, taxableCol, taxCol);
+        totalsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        Label periodSummaryLabel = new Label();
+        periodSummaryLabel.getStyleClass().add("body-text");
+
+        Runnable showTotals = () -> {
+            if (periodDayPicker.getValue() == null) {
+                return;
+            }
+            TaxLedger.Period period = periodComboBox.getValue();
+            java.time.LocalDate start = period.startOf(periodDayPicker.getValue());
+            List<TaxLedger.PeriodTotal> totals = DatabaseManager.getTaxPeriodTotals(period, start);
+            long taxablePaise = 0;
+            long taxPaise = 0;
+            for (TaxLedger.PeriodTotal total : totals) {
+                taxablePaise += total.getTaxablePaise();
+                taxPaise += total.getTaxPaise();
+            }
+            totalsTable.setItems(FXCollections.observableArrayList(totals));
+            periodSummaryLabel.setText(String.format("%s: GST payable Rs.%s on a taxable value of Rs.%s.",
+                    period.describe(start), Money.format(taxPaise), Money.format(taxablePaise)));
+        };
+        showTotalsButton.setOnAction(e -> showTotals.run());
+        showTotals.run();
+        filingBox.getChildren().addAll(filingHeader, periodBox, totalsTable, periodSummaryLabel);
+
+        layout.getChildren().addAll(titleLabel, ratesBox, filingBox);
+        VBox.setVgrow(filingBox, Priority.ALWAYS);
+        return layout;
+    }
+
+    /**
+     * Formats a duration for the latency table, e.g. "1h 05m", "12m 30s" or "45s".
+     */
+    private static String formatSeconds(long seconds) {
+        if (seconds >= 3600) {
+            return String.format("%dh %02dm", seconds / 3600, (seconds % 3600) / 60);
+        }
+        if (seconds >= 60) {
+            return String.format("%dm %02ds", seconds / 60, seconds % 60);
+        }
+        return seconds + "s";
+    }
+
     /**
      * Creates the "View Feedback" tab content for admin users.
      * Displays all customer feedback entries.
@@ -2108,8 +3479,12 @@ public class Main extends Application {
         feedbackTable.getStyleClass().add("table-view-custom");
         feedbackTable.setPlaceholder(new Label("No feedback available."));
 
-        allFeedback.setAll(DatabaseManager.getAllFeedback()); // Load all feedback
-        feedbackTable.setItems(allFeedback);
+        dataVersions.apply(allFeedback, takePrefetched("feedback", DataVersions.Entity.FEEDBACK, DatabaseManager::getAllFeedback), Feedback::getFeedbackId, Feedback::hasSameContent); // Load all feedback
+        if (feedbackSearchIndex == null) {
+            feedbackSearchIndex = new SearchIndex<>(allFeedback, feedback -> feedback.getFeedbackId() + " " +
+                    feedback.getCustomerUsername() + " " + feedback.getComments());
+        }
+        TextField feedbackSearchField = createTableSearchField(feedbackTable, allFeedback, feedbackSearchIndex, "Search by customer or comment");
 
         TableColumn<Feedback, Integer> feedbackIdCol = new TableColumn<>("ID");
         feedbackIdCol.setCellValueFactory(new PropertyValueFactory<>("feedbackId"));
@@ -2159,15 +3534,150 @@ public class Main extends Application {
         Button refreshFeedbackButton = new Button("Refresh Feedback");
         refreshFeedbackButton.getStyleClass().add("button-secondary");
         refreshFeedbackButton.setOnAction(e -> {
-            allFeedback.setAll(DatabaseManager.getAllFeedback());
+            refreshFeedback();
             showCustomAlertDialog("Refreshed", "Feedback list has been updated.", Alert.AlertType.INFORMATION);
         });
 
-        layout.getChildren().addAll(titleLabel, feedbackTable, refreshFeedbackButton);
+        layout.getChildren().addAll(titleLabel, feedbackSearchField, feedbackTable, refreshFeedbackButton);
         VBox.setVgrow(feedbackTable, Priority.ALWAYS);
         return layout;
     }
 
+    /**
+     * Creates the "Feedback Insights" tab content for admin users: ranked keyword search over the
+     * comments, sentiment per day and the dishes customers mention. Everything is read from the
+     * full-text index and totals that DatabaseManager.addFeedback keeps up to date.
+     */
+    private VBox createFeedbackInsightsTab() {
+        VBox layout = new VBox(20);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.TOP_CENTER);
+        layout.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Feedback Insights");
+        titleLabel.getStyleClass().add("h1-label");
+
+        // Ranked search; also shows the comments of a dish selected below
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search comments, e.g. \"cold biryani\"");
+        searchField.getStyleClass().add("text-field-custom");
+        searchField.setPrefWidth(350);
+        Button searchButton = new Button("Search");
+        searchButton.getStyleClass().add("button-secondary");
+        HBox searchBox = new HBox(10, searchField, searchButton);
+        searchBox.setAlignment(Pos.CENTER);
+        Label resultsLabel = new Label();
+        resultsLabel.getStyleClass().add("body-text");
+
+        TableView<FeedbackAnalytics.SearchHit> resultsTable = new TableView<>();
+        resultsTable.getStyleClass().add("table-view-custom");
+        resultsTable.setPlaceholder(new Label("Search the comments, or select a dish below."));
+        TableColumn<FeedbackAnalytics.SearchHit, String> scoreCol = new TableColumn<>("Relevance");
+        scoreCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(
+                cellData.getValue().getScore() > 0 ? String.format("%.2f", cellData.getValue().getScore()) : ""));
+        scoreCol.setPrefWidth(80);
+        TableColumn<FeedbackAnalytics.SearchHit, String> sentimentCol = new TableColumn<>("Sentiment");
+        sentimentCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(FeedbackAnalytics.describe(cellData.getValue().getSentiment())));
+        sentimentCol.setPrefWidth(120);
+        TableColumn<FeedbackAnalytics.SearchHit, String> customerCol = new TableColumn<>("Customer");
+        customerCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getFeedback().getCustomerUsername()));
+        customerCol.setPrefWidth(120);
+        TableColumn<FeedbackAnalytics.SearchHit, Integer> ratingCol = new TableColumn<>("Rating");
+        ratingCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getFeedback().getRating()));
+        ratingCol.setPrefWidth(60);
+        TableColumn<FeedbackAnalytics.SearchHit, String> commentsCol = new TableColumn<>("Comments");
+        commentsCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getFeedback().getComments()));
+        commentsCol.setPrefWidth(350);
+        TableColumn<FeedbackAnalytics.SearchHit, String> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(
+                cellData.getValue().getFeedback().getFeedbackDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))));
+        dateCol.setPrefWidth(130);
+        resultsTable.getColumns().addAll(scoreCol, sentimentCol, customerCol, ratingCol, commentsCol, dateCol);
+        resultsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        Runnable search = () -> {
+            List<FeedbackAnalytics.SearchHit> hits = DatabaseManager.searchFeedback(searchField.getText(), 100);
+            resultsTable.setItems(FXCollections.observableArrayList(hits));
+            resultsLabel.setText(hits.isEmpty() ? "No comments match \"" + searchField.getText().trim() + "\"." :
+                    "Best " + hits.size() + " matches for \"" + searchField.getText().trim() + "\", most relevant first.");
+        };
+        searchField.setOnAction(e -> search.run());
+        searchButton.setOnAction(e -> search.run());
+
+        // Sentiment per day
+        Label dailyLabel = new Label("Sentiment by Day");
+        dailyLabel.getStyleClass().add("h2-label");
+        ComboBox<String> rangeComboBox = new ComboBox<>(FXCollections.observableArrayList("Last 7 days", "Last 30 days", "Last 90 days"));
+        rangeComboBox.setValue("Last 30 days");
+        TableView<FeedbackAnalytics.DaySentiment> dailyTable = new TableView<>();
+        dailyTable.getStyleClass().add("table-view-custom");
+        dailyTable.setPlaceholder(new Label("No feedback in this period."));
+        TableColumn<FeedbackAnalytics.DaySentiment, java.time.LocalDate> dayCol = new TableColumn<>("Day");
+        dayCol.setCellValueFactory(new PropertyValueFactory<>("day"));
+        TableColumn<FeedbackAnalytics.DaySentiment, Integer> commentCountCol = new TableColumn<>("Comments");
+        commentCountCol.setCellValueFactory(new PropertyValueFactory<>("comments"));
+        TableColumn<FeedbackAnalytics.DaySentiment, String> averageCol = new TableColumn<>("Average");
+        averageCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.format("%+.2f", cellData.getValue().getAverage())));
+        TableColumn<FeedbackAnalytics.DaySentiment, String> rollingCol = new TableColumn<>(FeedbackAnalytics.ROLLING_DAYS + "-day average");
+        rollingCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.format("%+.2f", cellData.getValue().getRollingAverage())));
+        TableColumn<FeedbackAnalytics.DaySentiment, Integer> positiveCol = new TableColumn<>("Positive");
+        positiveCol.setCellValueFactory(new PropertyValueFactory<>("positive"));
+        TableColumn<FeedbackAnalytics.DaySentiment, Integer> negativeCol = new TableColumn<>("Negative");
+        negativeCol.setCellValueFactory(new PropertyValueFactory<>("negative"));
+        dailyTable.getColumns().addAll(dayCol, commentCountCol, averageCol, rollingCol, positiveCol, negativeCol);
+        dailyTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        // Dish mentions
+        Label dishesLabel = new Label("Dishes Mentioned");
+        dishesLabel.getStyleClass().add("h2-label");
+        TableView<FeedbackAnalytics.DishMentions> dishesTable = new TableView<>();
+        dishesTable.getStyleClass().add("table-view-custom");
+        dishesTable.setPlaceholder(new Label("No dishes mentioned yet."));
+        TableColumn<FeedbackAnalytics.DishMentions, String> dishCol = new TableColumn<>("Dish");
+        dishCol.setCellValueFactory(new PropertyValueFactory<>("dishName"));
+        TableColumn<FeedbackAnalytics.DishMentions, Integer> mentionsCol = new TableColumn<>("Mentions");
+        mentionsCol.setCellValueFactory(new PropertyValueFactory<>("mentions"));
+        TableColumn<FeedbackAnalytics.DishMentions, String> dishSentimentCol = new TableColumn<>("Average Sentiment");
+        dishSentimentCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(FeedbackAnalytics.describe(cellData.getValue().getAverageSentiment())));
+        dishesTable.getColumns().addAll(dishCol, mentionsCol, dishSentimentCol);
+        dishesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        dishesTable.getSelectionModel().selectedItemProperty().addListener((obs, oldDish, dish) -> {
+            if (dish != null) {
+                resultsTable.setItems(FXCollections.observableArrayList(DatabaseManager.getFeedbackMentioningDish(dish.getMenuItemId())));
+                resultsLabel.setText("Comments mentioning " + dish.getDishName() + ", newest first.");
+            }
+        });
+
+        Runnable refreshTotals = () -> {
+            int days = "Last 7 days".equals(rangeComboBox.getValue()) ? 7 : "Last 90 days".equals(rangeComboBox.getValue()) ? 90 : 30;
+            java.time.LocalDate today = java.time.LocalDate.now();
+            List<FeedbackAnalytics.DaySentiment> daily = DatabaseManager.getDailyFeedbackSentiment(today.minusDays(days - 1), today);
+            Collections.reverse(daily); // Newest first
+            dailyTable.setItems(FXCollections.observableArrayList(daily));
+            dishesTable.setItems(FXCollections.observableArrayList(DatabaseManager.getDishMentions()));
+        };
+        rangeComboBox.setOnAction(e -> refreshTotals.run());
+        Button refreshButton = new Button("Refresh");
+        refreshButton.getStyleClass().add("button-secondary");
+        refreshButton.setOnAction(e -> refreshTotals.run());
+        refreshTotals.run();
+
+        HBox dailyHeader = new HBox(10, dailyLabel, rangeComboBox, refreshButton);
+        dailyHeader.setAlignment(Pos.CENTER_LEFT);
+        VBox dailyBox = new VBox(10, dailyHeader, dailyTable);
+        VBox dishesBox = new VBox(10, dishesLabel, dishesTable);
+        HBox totalsBox = new HBox(20, dailyBox, dishesBox);
+        HBox.setHgrow(dailyBox, Priority.ALWAYS);
+        HBox.setHgrow(dishesBox, Priority.ALWAYS);
+        VBox.setVgrow(dailyTable, Priority.ALWAYS);
+        VBox.setVgrow(dishesTable, Priority.ALWAYS);
+
+        layout.getChildren().addAll(titleLabel, searchBox, resultsLabel, resultsTable, totalsBox);
+        VBox.setVgrow(resultsTable, Priority.ALWAYS);
+        VBox.setVgrow(totalsBox, Priority.ALWAYS);
+        return layout;
+    }
+
     /**
      * Creates the "View Dish Ratings" tab content for admin users.
      * Displays all dish ratings and average ratings for each dish.
@@ -2190,8 +3700,19 @@ public class Main extends Application {
         dishRatingsTable.getStyleClass().add("table-view-custom");
         dishRatingsTable.setPlaceholder(new Label("No dish ratings available."));
 
-        allDishRatings.setAll(DatabaseManager.getAllDishRatings()); // Load all dish ratings
-        dishRatingsTable.setItems(allDishRatings);
+        dataVersions.apply(allDishRatings, takePrefetched("dishRatings", DataVersions.Entity.DISH_RATINGS, DatabaseManager::getAllDishRatings), DishRating::getRatingId, DishRating::hasSameContent); // Load all dish ratings
+        if (dishRatingSearchIndex == null) {
+            Map<Integer, String> dishNames = new HashMap<>();
+            for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+                dishNames.put(item.getId(), item.getName());
+            }
+            dishRatingSearchIndex = new SearchIndex<>(allDishRatings, rating -> rating.getRatingId() + " " + rating.getCustomerUsername() + " " +
+                    dishNames.computeIfAbsent(rating.getMenuItemId(), id -> {
+                        MenuItem item = DatabaseManager.getMenuItemById(id); // Added after the index was created
+                        return item != null ? item.getName() : "";
+                    }));
+        }
+        TextField dishRatingSearchField = createTableSearchField(dishRatingsTable, allDishRatings, dishRatingSearchIndex, "Search by dish or customer");
 
         TableColumn<DishRating, Integer> ratingIdCol = new TableColumn<>("ID");
         ratingIdCol.setCellValueFactory(new PropertyValueFactory<>("ratingId"));
@@ -2263,11 +3784,11 @@ public class Main extends Application {
         avgRatingsTable.getColumns().addAll(avgDishNameCol, avgRatingValueCol);
         avgRatingsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
-        // Populate average ratings
+        // Populate average ratings (one GROUP BY query for all dishes)
+        Map<Integer, Double> averageRatingsById = takePrefetched("averageRatings", DataVersions.Entity.DISH_RATINGS, DatabaseManager::getAverageRatingsByMenuItem);
         Map<String, Double> averageRatingsMap = new HashMap<>();
         for (MenuItem item : DatabaseManager.getAllMenuItems()) {
-            double avgRating = DatabaseManager.getAverageRatingForMenuItem(item.getId());
-            averageRatingsMap.put(item.getName(), avgRating);
+            averageRatingsMap.put(item.getName(), averageRatingsById.getOrDefault(item.getId(), 0.0));
         }
         avgRatingsTable.setItems(FXCollections.observableArrayList(averageRatingsMap.entrySet()));
 
@@ -2275,18 +3796,18 @@ public class Main extends Application {
         Button refreshRatingsButton = new Button("Refresh Ratings");
         refreshRatingsButton.getStyleClass().add("button-secondary");
         refreshRatingsButton.setOnAction(e -> {
-            allDishRatings.setAll(DatabaseManager.getAllDishRatings());
+            refreshDishRatings();
             // Recalculate and update average ratings
+            Map<Integer, Double> refreshedAveragesById = DatabaseManager.getAverageRatingsByMenuItem();
             Map<String, Double> refreshedAverageRatingsMap = new HashMap<>();
             for (MenuItem item : DatabaseManager.getAllMenuItems()) {
-                double avgRating = DatabaseManager.getAverageRatingForMenuItem(item.getId());
-                refreshedAverageRatingsMap.put(item.getName(), avgRating);
+                refreshedAverageRatingsMap.put(item.getName(), refreshedAveragesById.getOrDefault(item.getId(), 0.0));
             }
             avgRatingsTable.setItems(FXCollections.observableArrayList(refreshedAverageRatingsMap.entrySet()));
             showCustomAlertDialog("Refreshed", "Dish ratings have been updated.", Alert.AlertType.INFORMATION);
         });
 
-        layout.getChildren().addAll(titleLabel, individualRatingsLabel, dishRatingsTable, averageRatingsLabel, avgRatingsTable, refreshRatingsButton);
+        layout.getChildren().addAll(titleLabel, individualRatingsLabel, dishRatingSearchField, dishRatingsTable, averageRatingsLabel, avgRatingsTable, refreshRatingsButton);
         VBox.setVgrow(dishRatingsTable, Priority.ALWAYS);
         VBox.setVgrow(avgRatingsTable, Priority.ALWAYS);
         return layout;
@@ -2621,18 +4142,24 @@ public class Main extends Application {
         Map<MenuItem, Integer> itemCounts = order.getItemsWithQuantities();
         if (itemCounts != null && !itemCounts.isEmpty()) {
             itemCounts.forEach((item, count) -> {
-                bill.append(String.format("  %-25s x %-3d Rs.%.2f\n", item.getName(), count, item.getPrice() * count));
+                bill.append(String.format("  %-25s x %-3d Rs.%s\n", item.getName(), count, Money.format(Money.times(item.getPricePaise(), count))));
             });
         } else {
             bill.append("  No items in this order.\n");
         }
         bill.append("-----------------------------------------\n");
-        bill.append(String.format("Subtotal:            Rs.%.2f\n", order.getSubtotal()));
-        bill.append(String.format("Discount Applied:    Rs.%.2f\n", order.getDiscountApplied()));
-        bill.append(String.format("Net Amount:          Rs.%.2f\n", order.getFinalPriceBeforeGST()));
-        bill.append(String.format("GST (%.0f%%):         Rs.%.2f\n", GST_RATE * 100, order.getGSTAmount()));
+        bill.append(String.format("Subtotal:            Rs.%s\n", Money.format(order.getSubtotalPaise())));
+        bill.append(String.format("Discount Applied:    Rs.%s\n", Money.format(order.getDiscountPaise())));
+        bill.append(String.format("Net Amount:          Rs.%s\n", Money.format(order.getFinalPriceBeforeGSTPaise())));
+        List<TaxLine> taxLines = order.getTaxLines().isEmpty() ? DatabaseManager.getOrderTaxLines(order.getOrderId()) : order.getTaxLines();
+        if (taxLines.isEmpty()) {
+            bill.append(String.format("GST:                 Rs.%s\n", Money.format(order.getGSTAmountPaise())));
+        }
+        for (TaxLine line : taxLines) {
+            bill.append(String.format("%-21sRs.%s\n", "GST " + line.getCategory().getDisplayValue() + " (" + line.getRate() + "):", Money.format(line.getTaxPaise())));
+        }
         bill.append("-----------------------------------------\n");
-        bill.append(String.format("Total Payable:       Rs.%.2f\n", order.getTotalWithGST()));
+        bill.append(String.format("Total Payable:       Rs.%s\n", Money.format(order.getTotalWithGSTPaise())));
         bill.append("Payment Status: ").append(order.getPaymentStatus().getDisplayValue()).append("\n");
         bill.append("Payment Method: ").append(order.getPaymentMethod().getDisplayValue()).append("\n");
         bill.append("=========================================\n");
@@ -2690,6 +4217,12 @@ public class Main extends Application {
      * @param order The Order object for which to print the bill.
      */
     private void printOrderBill(Order order) {
+        if (order.getTaxLines().isEmpty()) {
+            List<TaxLine> taxLines = DatabaseManager.getOrderTaxLines(order.getOrderId()); // Order lists carry only the GST total
+            if (!taxLines.isEmpty()) {
+                order.setTaxLines(taxLines);
+            }
+        }
         String billContent = order.generateBillContent(); // Corrected: calling existing method
         showBillDownloadDialog(billContent, "order_" + order.getOrderId() + "_bill.txt");
     }
@@ -2796,8 +4329,13 @@ public class Main extends Application {
         bookingsTable.setPlaceholder(new Label("No table bookings available."));
         bookingsTable.setEditable(true);
 
-        allTableBookings.setAll(DatabaseManager.getAllTableBookings()); // Load all bookings
-        bookingsTable.setItems(allTableBookings);
+        dataVersions.apply(allTableBookings, takePrefetched("tableBookings", DataVersions.Entity.TABLE_BOOKINGS, DatabaseManager::getAllTableBookings), TableBooking::getBookingId, TableBooking::hasSameContent); // Load all bookings
+        if (bookingSearchIndex == null) {
+            bookingSearchIndex = new SearchIndex<>(allTableBookings, booking -> booking.getBookingId() + " " + booking.getCustomerId() + " " +
+                    booking.getCustomerName() + " " + booking.getPhone() + " table " + booking.getTableNumber() + " " +
+                    booking.getTableType() + " " + booking.getPaymentStatus());
+        }
+        TextField bookingSearchField = createTableSearchField(bookingsTable, allTableBookings, bookingSearchIndex, "Search by customer, phone, table or booking ID");
 
         // --- Column Definitions for Admin Booking Management Tab ---
         TableColumn<TableBooking, Integer> bookingIdCol = new TableColumn<>("Booking ID");
@@ -2925,11 +4463,11 @@ public class Main extends Application {
         Button refreshBookingsButton = new Button("Refresh Bookings");
         refreshBookingsButton.getStyleClass().add("button-secondary");
         refreshBookingsButton.setOnAction(e -> {
-            allTableBookings.setAll(DatabaseManager.getAllTableBookings());
+            refreshAllTableBookings();
             showCustomAlertDialog("Refreshed", "Booking list has been updated.", Alert.AlertType.INFORMATION);
         });
 
-        layout.getChildren().addAll(titleLabel, bookingsTable, refreshBookingsButton);
+        layout.getChildren().addAll(titleLabel, bookingSearchField, bookingsTable, refreshBookingsButton);
         VBox.setVgrow(bookingsTable, Priority.ALWAYS);
         return layout;
     }
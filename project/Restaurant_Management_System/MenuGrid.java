@@ -0,0 +1,224 @@
+package application;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized grid of menu item cards for the Order Food tab.
+ *
+ * The grid is a ListView whose rows each show up to getColumns() cards, so the ListView's
+ * VirtualFlow only creates the rows that are on screen and recycles them while scrolling: a menu
+ * with 500 dishes needs the cards of a few visible rows, not 500 cards. The rows are just row
+ * numbers; a row cell reads its dishes straight from the bound menu list.
+ *
+ * The grid listens to the menu list. When an entry is replaced by the same dish (e.g. with new
+ * stock after an add to cart) only that dish's card is updated, and only if it is on screen; rows
+ * are rebuilt only when dishes are added, removed or reordered.
+ */
+public final class MenuGrid extends ListView<Integer> {
+
+    private static final double CARD_WIDTH = 180;
+    private static final double CARD_HEIGHT = 150;
+    private static final double GAP = 15;
+
+    private final ObservableList<MenuItem> menuItems;
+    private final Map<Integer, Double> averageRatings;
+    private final Consumer<MenuItem> onAddToCart;
+    private final ObservableList<Integer> rows = FXCollections.observableArrayList();
+    private final Map<Integer, List<MenuCard>> visibleCards = new HashMap<>(); // Menu item ID -> cards showing it
+    private int columns = 1;
+
+    /**
+     * Creates the grid.
+     * @param menuItems The menu to show; the grid follows its changes.
+     * @param averageRatings Average rating per menu item ID (dishes without ratings may be missing).
+     * @param onAddToCart Called with the dish of a card whose "Add to Cart" button was pressed.
+     */
+    public MenuGrid(ObservableList<MenuItem> menuItems, Map<Integer, Double> averageRatings, Consumer<MenuItem> onAddToCart) {
+        this.menuItems = menuItems;
+        this.averageRatings = averageRatings;
+        this.onAddToCart = onAddToCart;
+        getStyleClass().add("menu-grid");
+        setItems(rows);
+        setFixedCellSize(CARD_HEIGHT + GAP); // Lets the VirtualFlow skip measuring rows
+        setFocusTraversable(false);
+        setCellFactory(lv -> new RowCell());
+
+        menuItems.addListener((ListChangeListener<MenuItem>) this::onMenuChanged);
+        widthProperty().addListener((obs, oldWidth, newWidth) -> updateColumns(newWidth.doubleValue()));
+        rebuildRows();
+    }
+
+    /**
+     * @return The number of cards per row for the current width.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    private void updateColumns(double width) {
+        // Leave room for the vertical scroll bar and the cell padding
+        int fitting = Math.max(1, (int) ((width - 30 + GAP) / (CARD_WIDTH + GAP)));
+        if (fitting != columns) {
+            columns = fitting;
+            rebuildRows();
+        }
+    }
+
+    private void rebuildRows() {
+        int rowCount = (menuItems.size() + columns - 1) / columns;
+        List<Integer> rowNumbers = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            rowNumbers.add(row);
+        }
+        if (rowNumbers.equals(rows)) {
+            refresh(); // Same rows, but the dishes in them moved
+        } else {
+            rows.setAll(rowNumbers);
+        }
+    }
+
+    private void onMenuChanged(ListChangeListener.Change<? extends MenuItem> change) {
+        boolean structural = false;
+        while (change.next()) {
+            if (change.wasReplaced() && change.getRemovedSize() == change.getAddedSize()) {
+                // Same positions: update the cards of dishes that are still the same dish
+                List<? extends MenuItem> removed = change.getRemoved();
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    MenuItem item = menuItems.get(i);
+                    if (removed.get(i - change.getFrom()).getId() != item.getId()) {
+                        structural = true;
+                        break;
+                    }
+                    for (MenuCard card : visibleCards.getOrDefault(item.getId(), Collections.emptyList())) {
+                        card.show(item);
+                    }
+                }
+            } else if (!change.wasUpdated()) {
+                structural = true;
+            }
+            if (structural) {
+                break;
+            }
+        }
+        if (structural) {
+            rebuildRows();
+        }
+    }
+
+    /**
+     * A row of the grid. Its cards are created once and rebound as the row is recycled.
+     */
+    private final class RowCell extends ListCell<Integer> {
+        private final HBox box = new HBox(GAP);
+        private final List<MenuCard> cards = new ArrayList<>();
+
+        RowCell() {
+            box.setAlignment(Pos.CENTER);
+            box.setPadding(new Insets(0, 0, GAP, 0));
+            setGraphic(null);
+        }
+
+        @Override
+        protected void updateItem(Integer row, boolean empty) {
+            super.updateItem(row, empty);
+            for (MenuCard card : cards) {
+                card.unbind();
+            }
+            if (empty || row == null) {
+                setGraphic(null);
+                return;
+            }
+            int from = row * columns;
+            int to = Math.min(from + columns, menuItems.size());
+            while (cards.size() < to - from) {
+                cards.add(new MenuCard());
+            }
+            box.getChildren().setAll(cards.subList(0, Math.max(0, to - from)));
+            for (int i = from; i < to; i++) {
+                cards.get(i - from).bind(menuItems.get(i));
+            }
+            setGraphic(box);
+        }
+    }
+
+    /**
+     * One dish: name, price, average rating and the "Add to Cart" button (disabled when out of stock).
+     */
+    private final class MenuCard extends VBox {
+        private final Label nameLabel = new Label();
+        private final Label priceLabel = new Label();
+        private final Label ratingLabel = new Label();
+        private final Button addToCartButton = new Button("Add to Cart");
+        private MenuItem item;
+
+        MenuCard() {
+            super(10);
+            getStyleClass().add("menu-item-card");
+            setAlignment(Pos.CENTER);
+            setPrefSize(CARD_WIDTH, CARD_HEIGHT);
+            setMinSize(CARD_WIDTH, CARD_HEIGHT);
+            setMaxSize(CARD_WIDTH, CARD_HEIGHT);
+
+            nameLabel.getStyleClass().add("menu-item-name");
+            nameLabel.setWrapText(true);
+            nameLabel.setTextAlignment(javafx.scene.text.TextAlignment.CENTER);
+            priceLabel.getStyleClass().add("menu-item-price");
+            addToCartButton.getStyleClass().add("button-add-to-cart");
+            addToCartButton.setOnAction(e -> {
+                if (item != null) {
+                    onAddToCart.accept(item);
+                }
+            });
+            getChildren().addAll(nameLabel, priceLabel, ratingLabel, addToCartButton);
+        }
+
+        void bind(MenuItem item) {
+            visibleCards.computeIfAbsent(item.getId(), id -> new ArrayList<>(1)).add(this);
+            show(item);
+        }
+
+        void unbind() {
+            if (item != null) {
+                List<MenuCard> cards = visibleCards.get(item.getId());
+                if (cards != null && cards.remove(this) && cards.isEmpty()) {
+                    visibleCards.remove(item.getId());
+                }
+            }
+            item = null;
+        }
+
+        void show(MenuItem item) {
+            this.item = item;
+            nameLabel.setText(item.getName());
+            priceLabel.setText(String.format("Rs.%.2f", item.getPrice()));
+            double avgRating = averageRatings.getOrDefault(item.getId(), 0.0);
+            ratingLabel.getStyleClass().removeAll("menu-item-rating", "body-text");
+            if (avgRating > 0) {
+                ratingLabel.setText(String.format("Rating: %.1f ★", avgRating));
+                ratingLabel.getStyleClass().add("menu-item-rating");
+            } else {
+                ratingLabel.setText("No ratings yet");
+                ratingLabel.getStyleClass().add("body-text");
+            }
+            // Disable button if out of stock
+            addToCartButton.setDisable(item.getAvailableStock() == 0);
+        }
+    }
+}
@@ -7,11 +7,15 @@ import java.util.Objects;
  * Includes properties like ID, name, price, image URL, and stock quantity.
  */
 public class MenuItem {
+    public static final int NO_RECIPE = -1; // ingredientPortions of a dish without a recipe
+
     private int id; // Unique identifier for the menu item
     private String name;
-    private double price;
+    private long pricePaise; // Price in paise (fixed point, see Money)
     private String imageUrl; // URL to the image of the menu item
     private int stock; // New: Added stock quantity for inventory management
+    private int ingredientPortions = NO_RECIPE; // Portions the ingredients in stock are enough for (dish_availability)
+    private TaxCategory taxCategory = TaxCategory.FOOD; // Decides the GST rate, see TaxLedger
 
     /**
      * Constructor for a new MenuItem with default image and zero stock.
@@ -47,7 +51,7 @@ public class MenuItem {
     public MenuItem(int id, String name, double price, String imageUrl, int stock) {
         this.id = id;
         this.name = name;
-        this.price = price;
+        this.pricePaise = Money.fromRupees(price);
         // Set a default placeholder image if the provided URL is null or empty
         if (imageUrl == null || imageUrl.trim().isEmpty()) {
             this.imageUrl = "https://placehold.co/100x100/CCCCCC/FFFFFF?text=Dish";
@@ -67,7 +71,11 @@ public class MenuItem {
     }
 
     public double getPrice() {
-        return price;
+        return Money.toRupees(pricePaise);
+    }
+
+    public long getPricePaise() {
+        return pricePaise;
     }
 
     public String getImageUrl() {
@@ -78,6 +86,21 @@ public class MenuItem {
         return stock;
     }
 
+    public int getIngredientPortions() {
+        return ingredientPortions;
+    }
+
+    public TaxCategory getTaxCategory() {
+        return taxCategory;
+    }
+
+    /**
+     * @return The portions that can be sold now: the stock, limited by the ingredients if the dish has a recipe.
+     */
+    public int getAvailableStock() {
+        return ingredientPortions == NO_RECIPE ? stock : Math.min(stock, ingredientPortions);
+    }
+
     // --- Setters ---
     public void setId(int id) {
         this.id = id;
@@ -88,7 +111,11 @@ public class MenuItem {
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.pricePaise = Money.fromRupees(price);
+    }
+
+    public void setPricePaise(long pricePaise) {
+        this.pricePaise = pricePaise;
     }
 
     public void setImageUrl(String imageUrl) {
@@ -104,6 +131,14 @@ public class MenuItem {
         this.stock = stock;
     }
 
+    public void setIngredientPortions(int ingredientPortions) {
+        this.ingredientPortions = ingredientPortions;
+    }
+
+    public void setTaxCategory(TaxCategory taxCategory) {
+        this.taxCategory = taxCategory;
+    }
+
     /**
      * Provides a string representation of the MenuItem object.
      * @return A formatted string displaying item details including stock.
@@ -113,15 +148,16 @@ public class MenuItem {
         return "MenuItem{" +
                "id=" + id +
                ", name='" + name + '\'' +
-               ", price=" + price +
+               ", price=" + Money.format(pricePaise) +
                ", imageUrl='" + imageUrl + '\'' +
                ", stock=" + stock + // Include stock in toString
+               ", taxCategory=" + taxCategory +
                '}';
     }
 
     /**
      * Checks if two MenuItem objects are equal.
-     * Equality is based on ID, name, price, image URL, and stock.
+     * Equality is based on ID, name, price, image URL, stock, and tax category.
      * @param o The object to compare with.
      * @return true if the objects are equal, false otherwise.
      */
@@ -131,19 +167,30 @@ public class MenuItem {
         if (o == null || getClass() != o.getClass()) return false;
         MenuItem menuItem = (MenuItem) o;
         return id == menuItem.id &&
-               Double.compare(menuItem.price, price) == 0 &&
+               pricePaise == menuItem.pricePaise &&
                stock == menuItem.stock && // Include stock in equals
+               taxCategory == menuItem.taxCategory &&
                Objects.equals(name, menuItem.name) &&
                Objects.equals(imageUrl, menuItem.imageUrl);
     }
 
+    /**
+     * Checks whether another copy of this menu item shows the same values, including the ingredient
+     * portions (which equals leaves out, as they are derived and not part of the item itself).
+     * @param other The other copy.
+     * @return true if nothing displayed differs.
+     */
+    public boolean hasSameContent(MenuItem other) {
+        return equals(other) && ingredientPortions == other.ingredientPortions;
+    }
+
     /**
      * Generates a hash code for the MenuItem object.
-     * The hash code is based on ID, name, price, image URL, and stock.
+     * The hash code is based on ID, name, price, image URL, stock, and tax category.
      * @return The hash code.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, price, imageUrl, stock);
+        return Objects.hash(id, name, pricePaise, imageUrl, stock, taxCategory);
     }
 }
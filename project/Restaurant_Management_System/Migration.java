@@ -0,0 +1,75 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A single, numbered schema migration.
+ * Migrations are applied in ascending version order by SchemaMigrator, exactly once per database.
+ */
+public class Migration {
+
+    /**
+     * The work performed by a migration, run on the migrator's connection.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final Step step;
+
+    /**
+     * Constructor for Migration.
+     * @param version The schema version this migration brings the database to. Must be unique and increasing.
+     * @param description A short human-readable description, stored in 'schema_version'.
+     * @param step The work to perform.
+     */
+    public Migration(int version, String description, Step step) {
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    /**
+     * Creates a migration made of plain SQL statements, executed in order.
+     * @param version The schema version this migration brings the database to.
+     * @param description A short human-readable description.
+     * @param statements The SQL statements to execute.
+     * @return The migration.
+     */
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+            }
+        });
+    }
+
+    // --- Getters ---
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Applies this migration on the given connection.
+     * @param conn The connection (inside the migrator's transaction).
+     */
+    public void apply(Connection conn) throws SQLException {
+        step.apply(conn);
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
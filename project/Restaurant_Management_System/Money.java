@@ -0,0 +1,101 @@
+package application;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Amounts are held as a long number of paise (1/100 rupee), so sums,
+ * discounts and tax are exact to the paisa and need no allocation. Conversion to double only
+ * happens at the edges (TableView columns, legacy getters); conversion to BigDecimal only at the
+ * JDBC boundary, where prices are stored as DECIMAL(10,2).
+ */
+public final class Money {
+
+    public static final long PAISE_PER_RUPEE = 100;
+    // Rates are expressed in basis points: 500 bp = 5%
+    public static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a rupee amount to paise, rounding to the nearest paisa.
+     * @param rupees The amount in rupees, e.g. 150.5.
+     * @return The amount in paise, e.g. 15050.
+     */
+    public static long fromRupees(double rupees) {
+        return Math.round(rupees * PAISE_PER_RUPEE);
+    }
+
+    /**
+     * Converts paise to rupees for display or legacy double-based APIs.
+     * @param paise The amount in paise.
+     * @return The amount in rupees.
+     */
+    public static double toRupees(long paise) {
+        return paise / (double) PAISE_PER_RUPEE;
+    }
+
+    /**
+     * Applies a rate to an amount, rounding half away from zero to the nearest paisa.
+     * @param paise The amount in paise.
+     * @param basisPoints The rate in basis points (500 = 5%).
+     * @return The rated amount in paise.
+     */
+    public static long applyRate(long paise, long basisPoints) {
+        long scaled = Math.multiplyExact(paise, basisPoints);
+        long half = BASIS_POINTS / 2;
+        return scaled >= 0 ? (scaled + half) / BASIS_POINTS : -((-scaled + half) / BASIS_POINTS);
+    }
+
+    /**
+     * Multiplies a unit price by a quantity, failing loudly on overflow instead of wrapping.
+     * @param unitPaise The unit price in paise.
+     * @param quantity The quantity.
+     * @return The line total in paise.
+     */
+    public static long times(long unitPaise, int quantity) {
+        return Math.multiplyExact(unitPaise, quantity);
+    }
+
+    /**
+     * Reads a DECIMAL column value as paise.
+     * @param amount The value from ResultSet.getBigDecimal, may be null.
+     * @return The amount in paise, or 0 for null.
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts paise to a DECIMAL(…,2) value for a PreparedStatement.
+     * @param paise The amount in paise.
+     * @return The amount as a BigDecimal with scale 2.
+     */
+    public static BigDecimal toDecimal(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /**
+     * Formats paise as rupees with exactly two decimals, e.g. 15050 -> "150.50".
+     * Callers add their own "Rs." prefix, matching the existing "Rs.%.2f" formats.
+     * @param paise The amount in paise.
+     * @return The formatted amount.
+     */
+    public static String format(long paise) {
+        StringBuilder sb = new StringBuilder(12);
+        if (paise < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(paise);
+        long fraction = abs % PAISE_PER_RUPEE;
+        sb.append(abs / PAISE_PER_RUPEE).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+}
@@ -0,0 +1,192 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Command-line benchmark comparing the previous double-based order totals (stream summation with
+ * a 0.05 GST multiplier) against the fixed-point paise arithmetic in Order/Money, both computed
+ * from the items the same way, and against reading the totals Order keeps cached.
+ *
+ * For every generated order it also computes the exact total with BigDecimal and counts how many
+ * totals each approach gets wrong at the paisa. Allocation per pass is read from the JVM's
+ * per-thread allocation counter where available.
+ *
+ *   java application.MoneyBenchmark [--orders=200000] [--items=12] [--passes=10]
+ */
+public class MoneyBenchmark {
+
+    // Prices chosen to include values that are not exact in binary floating point
+    private static final double[] PRICES = {150.00, 99.99, 0.10, 19.95, 229.90, 49.49, 0.05, 120.35, 80.01, 333.33};
+    private static final int GST_RATE_BASIS_POINTS = 500; // The 5% the double path multiplies by
+
+    public static void main(String[] args) {
+        int orderCount = 200_000;
+        int maxItems = 12;
+        int passes = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--orders=")) orderCount = Integer.parseInt(arg.substring(9));
+            else if (arg.startsWith("--items=")) maxItems = Integer.parseInt(arg.substring(8));
+            else if (arg.startsWith("--passes=")) passes = Integer.parseInt(arg.substring(9));
+        }
+
+        MenuItem[] menu = new MenuItem[PRICES.length];
+        for (int i = 0; i < PRICES.length; i++) {
+            menu[i] = new MenuItem(i + 1, "item " + (i + 1), PRICES[i]);
+        }
+        Random random = new Random(42);
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int o = 0; o < orderCount; o++) {
+            Order order = new Order(o + 1);
+            int items = 1 + random.nextInt(maxItems);
+            for (int i = 0; i < items; i++) {
+                order.addItem(menu[random.nextInt(menu.length)]);
+            }
+            // As DatabaseManager.addOrder does, with every item in one tax category
+            order.setTaxLines(TaxLedger.applyDiscount(Collections.singletonList(
+                    new TaxLine(TaxCategory.FOOD, GST_RATE_BASIS_POINTS, order.getSubtotalPaise(), 0, 0)), order.getDiscountPaise()));
+            orders.add(order);
+        }
+
+        // Exactness: compare each approach's total, rounded to paise, against BigDecimal
+        int doubleMismatches = 0;
+        int paiseMismatches = 0;
+        int cachedMismatches = 0;
+        for (Order order : orders) {
+            long exact = exactTotalPaise(order);
+            if (Math.round(doubleTotal(order) * 100) != exact) {
+                doubleMismatches++;
+            }
+            if (paiseTotal(order) != exact) {
+                paiseMismatches++;
+            }
+            if (order.getTotalWithGSTPaise() != exact) {
+                cachedMismatches++;
+            }
+        }
+
+        // Warm up both paths before timing
+        for (int i = 0; i < 3; i++) {
+            sumDouble(orders);
+            sumPaise(orders);
+            sumCachedPaise(orders);
+        }
+        long doubleNanos = Long.MAX_VALUE;
+        long paiseNanos = Long.MAX_VALUE;
+        long cachedNanos = Long.MAX_VALUE;
+        long doubleBytes = -1;
+        long paiseBytes = -1;
+        long cachedBytes = -1;
+        double doubleSink = 0;
+        long paiseSink = 0;
+        long cachedSink = 0;
+        for (int p = 0; p < passes; p++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            doubleSink += sumDouble(orders);
+            doubleNanos = Math.min(doubleNanos, System.nanoTime() - start);
+            doubleBytes = bytesDelta(bytesBefore);
+
+            bytesBefore = allocatedBytes();
+            start = System.nanoTime();
+            paiseSink += sumPaise(orders);
+            paiseNanos = Math.min(paiseNanos, System.nanoTime() - start);
+            paiseBytes = bytesDelta(bytesBefore);
+
+            bytesBefore = allocatedBytes();
+            start = System.nanoTime();
+            cachedSink += sumCachedPaise(orders);
+            cachedNanos = Math.min(cachedNanos, System.nanoTime() - start);
+            cachedBytes = bytesDelta(bytesBefore);
+        }
+
+        System.out.println(String.format("%d orders, 1-%d items each, best of %d passes", orderCount, maxItems, passes));
+        System.out.println(String.format("%-22s %10s %14s %18s", "", "ms/pass", "bytes/pass", "wrong to paisa"));
+        System.out.println(String.format("%-22s %10.2f %14s %18d", "double stream + 0.05", doubleNanos / 1e6, bytes(doubleBytes), doubleMismatches));
+        System.out.println(String.format("%-22s %10.2f %14s %18d", "long paise from items", paiseNanos / 1e6, bytes(paiseBytes), paiseMismatches));
+        System.out.println(String.format("%-22s %10.2f %14s %18d", "long paise (cached)", cachedNanos / 1e6, bytes(cachedBytes), cachedMismatches));
+        System.out.println("(checksums " + Math.round(doubleSink) + " / " + paiseSink + " / " + cachedSink + ")");
+    }
+
+    /**
+     * The previous implementation: stream summation over the items and a double GST multiplier.
+     * (Goes through getItems(), which copies the list; the old code streamed the field directly.)
+     */
+    private static double doubleTotal(Order order) {
+        double subtotal = order.getItems().stream().mapToDouble(MenuItem::getPrice).sum();
+        double net = subtotal - order.getDiscountApplied();
+        return net + net * 0.05;
+    }
+
+    private static double sumDouble(List<Order> orders) {
+        double sum = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            sum += doubleTotal(orders.get(i));
+        }
+        return sum;
+    }
+
+    /**
+     * The paise total computed from the items, as Order does when its items are set: a long sum of
+     * the item prices and GST rounded once with Money.applyRate. Also goes through getItems(), so
+     * it pays the same list copy as doubleTotal.
+     */
+    private static long paiseTotal(Order order) {
+        List<MenuItem> items = order.getItems();
+        long subtotal = 0;
+        for (int i = 0; i < items.size(); i++) {
+            subtotal += items.get(i).getPricePaise();
+        }
+        long net = subtotal - order.getDiscountPaise();
+        return net + Money.applyRate(net, GST_RATE_BASIS_POINTS);
+    }
+
+    private static long sumPaise(List<Order> orders) {
+        long sum = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            sum += paiseTotal(orders.get(i));
+        }
+        return sum;
+    }
+
+    private static long sumCachedPaise(List<Order> orders) {
+        long sum = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            sum += orders.get(i).getTotalWithGSTPaise();
+        }
+        return sum;
+    }
+
+    /**
+     * Reference total: exact decimal sum, GST rounded half-up to the paisa.
+     */
+    private static long exactTotalPaise(Order order) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (MenuItem item : order.getItems()) {
+            subtotal = subtotal.add(BigDecimal.valueOf(item.getPrice()));
+        }
+        BigDecimal net = subtotal.subtract(BigDecimal.valueOf(order.getDiscountApplied()));
+        BigDecimal gst = net.multiply(new BigDecimal("0.05")).setScale(2, java.math.RoundingMode.HALF_UP);
+        return net.add(gst).movePointRight(2).longValueExact();
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+
+    private static long bytesDelta(long before) {
+        return before < 0 ? -1 : allocatedBytes() - before;
+    }
+
+    private static String bytes(long value) {
+        return value < 0 ? "n/a" : String.valueOf(value);
+    }
+}
@@ -19,12 +19,15 @@ public class Order {
     private List<MenuItem> items;
     private OrderStatus status; // Changed to private
     private PaymentStatus paymentStatus; // Changed to private
-    private double discountApplied; // Changed to private
+    private long discountPaise; // Discount in paise (fixed point, see Money)
     private PaymentMethod paymentMethod; // Changed to private
     private String customerUsername; // Link to the User who placed the order
     private LocalDateTime orderTime; // New: Actual time the order was placed/recorded
-
-    private static final double GST_RATE = 0.05; // 5% GST
+    private LocalDateTime prepStartedAt; // When the kitchen started it (PREPARING), null if not yet
+    private LocalDateTime readyAt; // When it became READY_FOR_PICKUP, null if not yet
+    private long subtotalPaise; // Running sum of item prices, kept in step with 'items'
+    private List<TaxLine> taxLines = Collections.emptyList(); // GST per tax category, set when the order is placed
+    private long gstPaise; // Sum of the tax lines' GST (orders.gst_amount)
 
     /**
      * Constructor for a new order without a specific customer username yet.
@@ -37,7 +40,7 @@ public class Order {
         this.items = new ArrayList<>();
         this.status = OrderStatus.PENDING; // Default status for new order
         this.paymentStatus = PaymentStatus.PENDING; // Default payment status
-        this.discountApplied = 0.0; // Default no discount
+        this.discountPaise = 0; // Default no discount
         this.paymentMethod = PaymentMethod.CASH; // Default to cash
         this.orderTime = LocalDateTime.now(); // Set order time to current time
     }
@@ -56,10 +59,10 @@ public class Order {
     public Order(int orderId, List<MenuItem> items, OrderStatus status, PaymentStatus paymentStatus,
                  double discountApplied, PaymentMethod paymentMethod, String customerUsername, LocalDateTime orderTime) {
         this.orderId = orderId;
-        this.items = new ArrayList<>(items); // Defensive copy
+        replaceItems(items);
         this.status = status;
         this.paymentStatus = paymentStatus;
-        this.discountApplied = discountApplied;
+        this.discountPaise = Money.fromRupees(discountApplied);
         this.paymentMethod = paymentMethod;
         this.customerUsername = customerUsername;
         this.orderTime = orderTime;
@@ -84,7 +87,11 @@ public class Order {
     }
 
     public double getDiscountApplied() {
-        return discountApplied;
+        return Money.toRupees(discountPaise);
+    }
+
+    public long getDiscountPaise() {
+        return discountPaise;
     }
 
     public PaymentMethod getPaymentMethod() {
@@ -99,13 +106,41 @@ public class Order {
         return orderTime;
     }
 
+    public LocalDateTime getPrepStartedAt() {
+        return prepStartedAt;
+    }
+
+    public LocalDateTime getReadyAt() {
+        return readyAt;
+    }
+
+    /**
+     * @return The GST charged per tax category; empty for orders read from the order lists, which
+     *         only carry the total (see DatabaseManager.getOrderTaxLines).
+     */
+    public List<TaxLine> getTaxLines() {
+        return taxLines;
+    }
+
     // --- Setters ---
     public void setOrderId(int orderId) {
         this.orderId = orderId;
     }
 
     public void setItems(List<MenuItem> items) {
+        replaceItems(items);
+    }
+
+    /**
+     * Copies the items and recomputes the subtotal; also used by the constructor.
+     */
+    private void replaceItems(List<MenuItem> items) {
         this.items = new ArrayList<>(items); // Defensive copy
+        long sum = 0;
+        for (int i = 0; i < this.items.size(); i++) {
+            sum += this.items.get(i).getPricePaise();
+        }
+        this.subtotalPaise = sum;
     }
 
     public void setStatus(OrderStatus status) {
@@ -117,7 +152,11 @@ public class Order {
     }
 
     public void setDiscountApplied(double discountApplied) {
-        this.discountApplied = discountApplied;
+        this.discountPaise = Money.fromRupees(discountApplied);
+    }
+
+    public void setDiscountPaise(long discountPaise) {
+        this.discountPaise = discountPaise;
     }
 
     public void setPaymentMethod(PaymentMethod paymentMethod) {
@@ -132,20 +171,77 @@ public class Order {
         this.orderTime = orderTime;
     }
 
+    public void setPrepStartedAt(LocalDateTime prepStartedAt) {
+        this.prepStartedAt = prepStartedAt;
+    }
+
+    public void setReadyAt(LocalDateTime readyAt) {
+        this.readyAt = readyAt;
+    }
+
+    /**
+     * Sets the GST charged per tax category, and the order's GST to their sum.
+     * @param taxLines The tax lines (see TaxLedger).
+     */
+    public void setTaxLines(List<TaxLine> taxLines) {
+        this.taxLines = Collections.unmodifiableList(new ArrayList<>(taxLines));
+        this.gstPaise = TaxLedger.totalTax(taxLines);
+    }
+
+    public void setGSTAmountPaise(long gstPaise) {
+        this.gstPaise = gstPaise;
+    }
+
     /**
      * Adds a single MenuItem to the order.
+     * The item's current price is added to the cached subtotal, so later price changes on the
+     * menu do not alter an order that has already been built.
      * @param item The MenuItem to add.
      */
     public void addItem(MenuItem item) {
         this.items.add(item);
+        this.subtotalPaise += item.getPricePaise();
+    }
+
+    // --- Totals (exact, in paise) ---
+
+    /**
+     * @return The subtotal of all items before discounts or GST, in paise.
+     */
+    public long getSubtotalPaise() {
+        return subtotalPaise;
+    }
+
+    /**
+     * @return The subtotal after discount, before GST, in paise.
+     */
+    public long getFinalPriceBeforeGSTPaise() {
+        return subtotalPaise - discountPaise;
+    }
+
+    /**
+     * @return The GST charged, in paise: each tax category's share of the discounted subtotal at
+     *         its rate, rounded per category. 0 until the order is placed or read back.
+     */
+    public long getGSTAmountPaise() {
+        return gstPaise;
     }
 
+    /**
+     * @return The total payable including GST, in paise.
+     */
+    public long getTotalWithGSTPaise() {
+        return getFinalPriceBeforeGSTPaise() + getGSTAmountPaise();
+    }
+
+    // --- Totals in rupees, for display and existing callers ---
+
     /**
      * Calculates the subtotal of all items in the order before any discounts or GST.
      * @return The subtotal amount.
      */
     public double getSubtotal() {
-        return items.stream().mapToDouble(MenuItem::getPrice).sum();
+        return Money.toRupees(getSubtotalPaise());
     }
 
     /**
@@ -153,7 +249,7 @@ public class Order {
      * @return The final price after discount, before GST.
      */
     public double getFinalPriceBeforeGST() {
-        return getSubtotal() - discountApplied;
+        return Money.toRupees(getFinalPriceBeforeGSTPaise());
     }
 
     /**
@@ -161,7 +257,7 @@ public class Order {
      * @return The GST amount.
      */
     public double getGSTAmount() {
-        return getFinalPriceBeforeGST() * GST_RATE;
+        return Money.toRupees(getGSTAmountPaise());
     }
 
     /**
@@ -169,7 +265,7 @@ public class Order {
      * @return The total payable amount.
      */
     public double getTotalWithGST() {
-        return getFinalPriceBeforeGST() + getGSTAmount();
+        return Money.toRupees(getTotalWithGSTPaise());
     }
 
     /**
@@ -205,15 +301,20 @@ public class Order {
             Map<MenuItem, Integer> itemCounts = getItemsWithQuantities(); // Use the existing method
 
             itemCounts.forEach((item, count) -> {
-                sb.append(String.format("- %s x %d (Rs.%.2f each)\n", item.getName(), count, item.getPrice()));
+                sb.append(String.format("- %s x %d (Rs.%s each)\n", item.getName(), count, Money.format(item.getPricePaise())));
             });
         }
         sb.append("-----------------\n");
-        sb.append(String.format("Subtotal: Rs.%.2f\n", getSubtotal()));
-        sb.append(String.format("Discount Applied: Rs.%.2f\n", discountApplied));
-        sb.append(String.format("Net Amount (Before GST): Rs.%.2f\n", getFinalPriceBeforeGST()));
-        sb.append(String.format("GST (%.0f%%): Rs.%.2f\n", GST_RATE * 100, getGSTAmount()));
-        sb.append(String.format("Final Amount (With GST): Rs.%.2f\n", getTotalWithGST()));
+        sb.append(String.format("Subtotal: Rs.%s\n", Money.format(getSubtotalPaise())));
+        sb.append(String.format("Discount Applied: Rs.%s\n", Money.format(discountPaise)));
+        sb.append(String.format("Net Amount (Before GST): Rs.%s\n", Money.format(getFinalPriceBeforeGSTPaise())));
+        if (taxLines.isEmpty()) {
+            sb.append(String.format("GST: Rs.%s\n", Money.format(getGSTAmountPaise())));
+        }
+        for (TaxLine line : taxLines) {
+            sb.append(String.format("GST on %s (%s): Rs.%s\n", line.getCategory().getDisplayValue(), line.getRate(), Money.format(line.getTaxPaise())));
+        }
+        sb.append(String.format("Final Amount (With GST): Rs.%s\n", Money.format(getTotalWithGSTPaise())));
         sb.append(String.format("Payment Status: %s\n", paymentStatus.getDisplayValue()));
         sb.append(String.format("Payment Method: %s\n", paymentMethod.getDisplayValue()));
         return sb.toString();
@@ -230,13 +331,40 @@ public class Order {
                ", items=" + items.size() + " items" +
                ", status=" + status +
                ", paymentStatus=" + paymentStatus +
-               ", discountApplied=" + discountApplied +
+               ", discountApplied=" + Money.format(discountPaise) +
                ", paymentMethod=" + paymentMethod +
                ", customerUsername='" + customerUsername + '\'' +
                ", orderTime=" + orderTime +
                '}';
     }
 
+    /**
+     * Compares every field shown in the order tables, unlike equals() which compares the order ID
+     * only. Items are compared by dish and price at order time, not by the dish's current stock.
+     * @param other Another version of the same order.
+     * @return true if nothing visible differs.
+     */
+    public boolean hasSameContent(Order other) {
+        if (items.size() != other.items.size()) {
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId() != other.items.get(i).getId() || items.get(i).getPricePaise() != other.items.get(i).getPricePaise()) {
+                return false;
+            }
+        }
+        return orderId == other.orderId &&
+               status == other.status &&
+               paymentStatus == other.paymentStatus &&
+               discountPaise == other.discountPaise &&
+               gstPaise == other.gstPaise &&
+               paymentMethod == other.paymentMethod &&
+               Objects.equals(customerUsername, other.customerUsername) &&
+               Objects.equals(orderTime, other.orderTime) &&
+               Objects.equals(prepStartedAt, other.prepStartedAt) &&
+               Objects.equals(readyAt, other.readyAt);
+    }
+
     /**
      * Checks if two Order objects are equal based on their orderId.
      * @param o The object to compare with.
@@ -0,0 +1,805 @@
+package application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Columnar copy of the order history for sales analytics, kept outside the Java heap in
+ * memory-mapped files, so that totals over years of orders never create Order or MenuItem objects.
+ *
+ * Every order item is one row. The rows are stored in segment files of SEGMENT_ROWS rows; within a
+ * segment each column (order time, price, order discount, order GST, order ID, menu item ID, quantity,
+ * payment method, status) is one contiguous array of primitives. A query reads only the columns it needs, BLOCK_ROWS rows
+ * at a time: each block is copied into small primitive arrays, a selection vector of the rows in
+ * the time range is built, and the aggregate runs over that in a tight loop the JIT can unroll and
+ * vectorize. The minimum and maximum order time of every block (a zone map) let a query skip
+ * blocks outside its range without reading them.
+ *
+ * The store mirrors the database. New orders are appended from orders/order_items by order ID
+ * before each query, once the ORDERS change version (see DataVersions) has moved. Status and
+ * payment method changes and deleted orders are applied in place by DatabaseManager after it
+ * commits them. Changes made while the store was closed (or by another process) are reconciled
+ * when it is next opened. Deleted rows are marked, not removed. Every change bumps a version of the
+ * day the order was placed on (see getDayVersion), so per-day results can be cached.
+ */
+public class OrderHistoryStore {
+
+    public static final String DIRECTORY_PROPERTY = "restaurant.analytics.dir";
+    private static final String DEFAULT_DIRECTORY = "analytics";
+    private static final int FORMAT_VERSION = 3;
+    static final int SEGMENT_ROWS = 1 << 20;
+    static final int BLOCK_ROWS = 1024;
+    private static final int RECHECK_ORDERS = 1000; // Order IDs below the newest re-read by each sync, in case they committed late
+    private static final int MAX_TIME_BUCKETS = 1 << 20;
+
+    private static final byte DELETED = -1;                                        // Status of rows of deleted orders
+    private static final byte CANCELLED = (byte) OrderStatus.CANCELLED.ordinal(); // Not a sale
+
+    // Column offsets within a segment file, in bytes
+    private static final long TIMES = 0;                          // long: order time, seconds since 1970 in local time
+    private static final long PRICES = TIMES + 8L * SEGMENT_ROWS; // long: unit price at order, in paise
+    private static final long DISCOUNTS = PRICES + 8L * SEGMENT_ROWS; // long: the order's discount in paise, on each of its rows
+    private static final long TAXES = DISCOUNTS + 8L * SEGMENT_ROWS;     // long: the order's GST in paise, on each of its rows
+    private static final long ORDER_IDS = TAXES + 8L * SEGMENT_ROWS;
+    private static final long ITEM_IDS = ORDER_IDS + 4L * SEGMENT_ROWS;
+    private static final long QUANTITIES = ITEM_IDS + 4L * SEGMENT_ROWS;
+    private static final long PAYMENTS = QUANTITIES + 4L * SEGMENT_ROWS; // byte: PaymentMethod ordinal
+    private static final long STATUSES = PAYMENTS + SEGMENT_ROWS;         // byte: OrderStatus ordinal or DELETED
+    private static final long SEGMENT_BYTES = STATUSES + SEGMENT_ROWS;
+
+    private static volatile OrderHistoryStore instance;
+
+    /**
+     * Returns the store, opening it on first use: it is built from the database if it does not exist yet.
+     * @return The process-wide store.
+     * @throws IllegalStateException If the store files cannot be opened or created.
+     */
+    public static OrderHistoryStore getInstance() {
+        OrderHistoryStore store = instance;
+        if (store == null) {
+            synchronized (OrderHistoryStore.class) {
+                store = instance;
+                if (store == null) {
+                    try {
+                        store = new OrderHistoryStore(Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cannot open the order history store: " + e.getMessage(), e);
+                    }
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @return The store if it has been opened, otherwise null.
+     */
+    static OrderHistoryStore getIfOpen() {
+        return instance;
+    }
+
+    /**
+     * Receives order items read from the database (see DatabaseManager.streamOrderLinesAfter).
+     */
+    interface LineVisitor {
+        void visit(int orderId, LocalDateTime orderTime, OrderStatus status, PaymentMethod paymentMethod, long discountPaise,
+                   long gstPaise, int menuItemId, int quantity, long pricePaise);
+    }
+
+    /**
+     * Receives the status, payment method, discount and GST of every order (see DatabaseManager.streamOrderStates).
+     */
+    interface OrderStateVisitor {
+        void visit(int orderId, OrderStatus status, PaymentMethod paymentMethod, long discountPaise, long gstPaise);
+    }
+
+    /**
+     * What aggregate() groups the sales by.
+     */
+    public enum GroupBy {
+        TOTAL,          // One group, key 0
+        DISH,           // Key: menu item ID
+        PAYMENT_METHOD, // Key: PaymentMethod ordinal
+        HOUR_OF_DAY     // Key: 0 to 23
+    }
+
+    /**
+     * The sales of one group. Cancelled orders are not sales.
+     */
+    public static class Group {
+        private final long key;
+        private final long orders;
+        private final long portions;
+        private final long revenuePaise;
+
+        Group(long key, long orders, long portions, long revenuePaise) {
+            this.key = key;
+            this.orders = orders;
+            this.portions = portions;
+            this.revenuePaise = revenuePaise;
+        }
+
+        // --- Getters ---
+
+        /**
+         * @return The group: see GroupBy, or for aggregateByTime the bucket start as local seconds since 1970.
+         */
+        public long getKey() {
+            return key;
+        }
+
+        /**
+         * @return The start of the bucket, for groups of aggregateByTime.
+         */
+        public LocalDateTime getBucketStart() {
+            return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public long getPortions() {
+            return portions;
+        }
+
+        /**
+         * @return Quantity times price at order, before discounts and GST.
+         */
+        public long getRevenuePaise() {
+            return revenuePaise;
+        }
+    }
+
+    /**
+     * One memory-mapped segment file and typed views of its columns.
+     */
+    private static final class Segment {
+        final LongBuffer times;
+        final LongBuffer prices;
+        final LongBuffer discounts;
+        final LongBuffer taxes;
+        final IntBuffer orderIds;
+        final IntBuffer itemIds;
+        final IntBuffer quantities;
+        final ByteBuffer payments;
+        final ByteBuffer statuses;
+        private final MappedByteBuffer mapped;
+
+        Segment(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES); // Stays valid after the channel closes
+            }
+            times = column(TIMES, 8 * SEGMENT_ROWS).asLongBuffer();
+            prices = column(PRICES, 8 * SEGMENT_ROWS).asLongBuffer();
+            discounts = column(DISCOUNTS, 8 * SEGMENT_ROWS).asLongBuffer();
+            taxes = column(TAXES, 8 * SEGMENT_ROWS).asLongBuffer();
+            orderIds = column(ORDER_IDS, 4 * SEGMENT_ROWS).asIntBuffer();
+            itemIds = column(ITEM_IDS, 4 * SEGMENT_ROWS).asIntBuffer();
+            quantities = column(QUANTITIES, 4 * SEGMENT_ROWS).asIntBuffer();
+            payments = column(PAYMENTS, SEGMENT_ROWS);
+            statuses = column(STATUSES, SEGMENT_ROWS);
+        }
+
+        private ByteBuffer column(long offset, int length) {
+            return mapped.slice((int) offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void force() {
+            mapped.force();
+        }
+    }
+
+    /**
+     * The column vectors of one block of rows, reused by each scanning thread. Rows
+     * selection[0..selected) are the sales in the period scanned.
+     */
+    static final class Block {
+        final long[] times = new long[BLOCK_ROWS];
+        final long[] prices = new long[BLOCK_ROWS];
+        final long[] discounts = new long[BLOCK_ROWS];
+        final long[] taxes = new long[BLOCK_ROWS];
+        final int[] orderIds = new int[BLOCK_ROWS];
+        final int[] itemIds = new int[BLOCK_ROWS];
+        final int[] quantities = new int[BLOCK_ROWS];
+        final byte[] payments = new byte[BLOCK_ROWS];
+        final byte[] statuses = new byte[BLOCK_ROWS];
+        final int[] selection = new int[BLOCK_ROWS];
+        int size;
+        int selected;
+        int previousOrderId; // Order ID of the row before the block, -1 for the first block
+
+        /**
+         * @return Whether row i is the first row of its order (the rows of an order are stored together).
+         */
+        boolean startsOrder(int i) {
+            return orderIds[i] != (i == 0 ? previousOrderId : orderIds[i - 1]);
+        }
+    }
+
+    /**
+     * Receives the blocks of a scan (see forEachBlock).
+     */
+    interface BlockVisitor {
+        void visit(Block block);
+    }
+
+    private static final ThreadLocal<Block> BLOCKS = ThreadLocal.withInitial(Block::new);
+
+    // --- State, written under the write lock ---
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path directory;
+    private final List<Segment> segments = new ArrayList<>();
+    private long[] blockMinTime = new long[16]; // Zone map, by block number (row / BLOCK_ROWS)
+    private long[] blockMaxTime = new long[16];
+    private final BitSet storedOrders = new BitSet(); // Order IDs with rows in the store
+    private int rowCount;
+    private int lastOrderId;
+    private int resyncAfterOrderId = Integer.MAX_VALUE; // Set by reconcile() when orders are missing
+    private volatile long syncedVersion = -1;           // ORDERS change version the store was last synced at
+    private final BitSet pendingOrders = new BitSet();  // Orders appended by the running sync
+    private final Map<Long, Integer> dayVersions = new HashMap<>(); // Epoch day -> changes to the orders of that day
+
+    private OrderHistoryStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+        Properties meta = readMeta();
+        boolean compatible = meta != null
+                && String.valueOf(FORMAT_VERSION).equals(meta.getProperty("format"))
+                && DBConnection.getUrl().equals(meta.getProperty("database"));
+        if (compatible) {
+            rowCount = Integer.parseInt(meta.getProperty("rows"));
+            syncedVersion = Long.parseLong(meta.getProperty("ordersVersion"));
+            for (int s = 0; s * (long) SEGMENT_ROWS < rowCount; s++) {
+                segments.add(new Segment(segmentFile(s)));
+            }
+            rebuildInMemoryIndexes();
+            if (syncedVersion != DatabaseManager.getDataVersion(DataVersions.Entity.ORDERS)) {
+                reconcile(); // Orders changed while the store was closed
+            }
+        } else {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.getFileName().toString().startsWith("segment-")) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        syncLocked();
+        System.out.printf("Order history store opened with %d rows in %d ms.%n", rowCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // --- Queries ---
+
+    /**
+     * Totals the sales of a period, grouped.
+     * @param from The start of the period (inclusive).
+     * @param to The end of the period (exclusive).
+     * @param groupBy What to group by.
+     * @return The non-empty groups by key.
+     */
+    public List<Group> aggregate(LocalDateTime from, LocalDateTime to, GroupBy groupBy) {
+        return scan(toSeconds(from), toSeconds(to), groupBy, 0);
+    }
+
+    /**
+     * Totals the sales of a period in time buckets of equal length (aligned to midnight for buckets
+     * that divide a day), e.g. per hour over a week or per day over a year.
+     * @param from The start of the period (inclusive).
+     * @param to The end of the period (exclusive).
+     * @param bucket The bucket length; at least a second.
+     * @return The non-empty buckets in time order, keyed by their start.
+     * @throws IllegalArgumentException If the period has too many buckets.
+     */
+    public List<Group> aggregateByTime(LocalDateTime from, LocalDateTime to, Duration bucket) {
+        long seconds = Math.max(1, bucket.getSeconds());
+        if ((toSeconds(to) - toSeconds(from)) / seconds >= MAX_TIME_BUCKETS) {
+            throw new IllegalArgumentException("Too many time buckets: use a longer bucket or a shorter period.");
+        }
+        return scan(toSeconds(from), toSeconds(to), null, seconds);
+    }
+
+    /**
+     * @return The number of rows (order items) in the store, including rows of deleted orders.
+     */
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return rowCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Group> scan(long from, long to, GroupBy groupBy, long bucketSeconds) {
+        sync();
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        long firstBucket = bucketSeconds > 0 ? Math.floorDiv(from, bucketSeconds) : 0;
+        int keys = bucketSeconds > 0 ? (int) (Math.floorDiv(to - 1, bucketSeconds) - firstBucket + 1)
+                 : groupBy == GroupBy.PAYMENT_METHOD ? PaymentMethod.values().length
+                 : groupBy == GroupBy.HOUR_OF_DAY ? 24
+                 : groupBy == GroupBy.DISH ? 64 : 1;
+        long[] orders = new long[Math.max(1, keys)];
+        long[] portions = new long[orders.length];
+        long[] revenue = new long[orders.length];
+        Block v = BLOCKS.get();
+        lock.readLock().lock();
+        try {
+            for (int blockStart = 0; blockStart < rowCount; blockStart += BLOCK_ROWS) {
+                if (!select(v, blockStart, from, to)) {
+                    continue;
+                }
+                Segment segment = segments.get(blockStart / SEGMENT_ROWS);
+                int offset = blockStart % SEGMENT_ROWS;
+                int n = v.size;
+                int selected = v.selected;
+
+                // Only the columns the query needs
+                segment.prices.get(offset, v.prices, 0, n);
+                segment.quantities.get(offset, v.quantities, 0, n);
+                segment.orderIds.get(offset, v.orderIds, 0, n);
+                if (groupBy == GroupBy.DISH) {
+                    segment.itemIds.get(offset, v.itemIds, 0, n);
+                    int maxId = 0;
+                    for (int s = 0; s < selected; s++) {
+                        maxId = Math.max(maxId, v.itemIds[v.selection[s]]);
+                    }
+                    if (maxId >= orders.length) {
+                        int capacity = Math.max(orders.length * 2, maxId + 1);
+                        orders = Arrays.copyOf(orders, capacity);
+                        portions = Arrays.copyOf(portions, capacity);
+                        revenue = Arrays.copyOf(revenue, capacity);
+                    }
+                } else if (groupBy == GroupBy.PAYMENT_METHOD) {
+                    segment.payments.get(offset, v.payments, 0, n);
+                }
+
+                if (groupBy == GroupBy.TOTAL && selected == n) {
+                    // The whole block: dense loops without the selection vector
+                    long blockPortions = 0;
+                    long blockRevenue = 0;
+                    long blockOrders = 0;
+                    for (int i = 0; i < n; i++) {
+                        blockPortions += v.quantities[i];
+                        blockRevenue += v.quantities[i] * v.prices[i];
+                    }
+                    for (int i = 0; i < n; i++) {
+                        blockOrders += v.startsOrder(i) ? 1 : 0;
+                    }
+                    orders[0] += blockOrders;
+                    portions[0] += blockPortions;
+                    revenue[0] += blockRevenue;
+                    continue;
+                }
+                for (int s = 0; s < selected; s++) {
+                    int i = v.selection[s];
+                    int key;
+                    if (bucketSeconds > 0) {
+                        key = (int) (Math.floorDiv(v.times[i], bucketSeconds) - firstBucket);
+                    } else if (groupBy == GroupBy.DISH) {
+                        key = v.itemIds[i];
+                    } else if (groupBy == GroupBy.PAYMENT_METHOD) {
+                        key = v.payments[i];
+                    } else if (groupBy == GroupBy.HOUR_OF_DAY) {
+                        key = (int) (Math.floorMod(v.times[i], 86400L) / 3600);
+                    } else {
+                        key = 0;
+                    }
+                    orders[key] += v.startsOrder(i) ? 1 : 0;
+                    portions[key] += v.quantities[i];
+                    revenue[key] += v.quantities[i] * v.prices[i];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Group> groups = new ArrayList<>();
+        for (int key = 0; key < orders.length; key++) {
+            if (portions[key] > 0) {
+                long groupKey = bucketSeconds > 0 ? (firstBucket + key) * bucketSeconds : key;
+                groups.add(new Group(groupKey, orders[key], portions[key], revenue[key]));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Passes every block with sales in a period to a visitor, with all columns loaded, for
+     * aggregations that aggregate() does not cover. Blocks are visited in row order, so the rows
+     * of an order arrive together. Several threads may scan at once. Does not sync: call sync()
+     * first, once for all the scans of one report.
+     * @param from The start of the period (inclusive).
+     * @param to The end of the period (exclusive).
+     * @param visitor Receives each block; the block is reused after visit returns.
+     */
+    void forEachBlock(LocalDateTime from, LocalDateTime to, BlockVisitor visitor) {
+        Block v = BLOCKS.get();
+        lock.readLock().lock();
+        try {
+            for (int blockStart = 0; blockStart < rowCount; blockStart += BLOCK_ROWS) {
+                if (!select(v, blockStart, toSeconds(from), toSeconds(to))) {
+                    continue;
+                }
+                Segment segment = segments.get(blockStart / SEGMENT_ROWS);
+                int offset = blockStart % SEGMENT_ROWS;
+                segment.prices.get(offset, v.prices, 0, v.size);
+                segment.discounts.get(offset, v.discounts, 0, v.size);
+                segment.taxes.get(offset, v.taxes, 0, v.size);
+                segment.orderIds.get(offset, v.orderIds, 0, v.size);
+                segment.itemIds.get(offset, v.itemIds, 0, v.size);
+                segment.quantities.get(offset, v.quantities, 0, v.size);
+                segment.payments.get(offset, v.payments, 0, v.size);
+                visitor.visit(v);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a number that changes whenever an order placed on the day is added, changed or
+     * deleted, so results for a day can be cached until it changes. Call sync() first.
+     * @param day The day.
+     * @return The day's version.
+     */
+    public int getDayVersion(LocalDate day) {
+        lock.readLock().lock();
+        try {
+            return dayVersions.getOrDefault(day.toEpochDay(), 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the times and statuses of one block and builds its selection vector of the sales in
+     * [from, to). Called under the read lock.
+     * @return false if no row of the block was selected.
+     */
+    private boolean select(Block v, int blockStart, long from, long to) {
+        int block = blockStart / BLOCK_ROWS;
+        if (blockMaxTime[block] < from || blockMinTime[block] >= to) {
+            return false; // Zone map: no row of this block is in the period
+        }
+        Segment segment = segments.get(blockStart / SEGMENT_ROWS);
+        int offset = blockStart % SEGMENT_ROWS;
+        int n = Math.min(BLOCK_ROWS, rowCount - blockStart);
+        segment.times.get(offset, v.times, 0, n);
+        segment.statuses.get(offset, v.statuses, 0, n);
+        int selected = 0;
+        if (blockMinTime[block] >= from && blockMaxTime[block] < to) {
+            for (int i = 0; i < n; i++) { // The whole block is in the period
+                byte status = v.statuses[i];
+                v.selection[selected] = i;
+                selected += (status != CANCELLED & status != DELETED) ? 1 : 0;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                long t = v.times[i];
+                byte status = v.statuses[i];
+                v.selection[selected] = i;
+                selected += (t >= from & t < to & status != CANCELLED & status != DELETED) ? 1 : 0;
+            }
+        }
+        v.size = n;
+        v.selected = selected;
+        v.previousOrderId = blockStart == 0 ? -1 : orderIdAt(blockStart - 1);
+        return selected > 0;
+    }
+
+    // --- Keeping the store in sync ---
+
+    /**
+     * Appends the orders added to the database since the last sync. Cheap when nothing changed:
+     * one read of the ORDERS change version.
+     */
+    public void sync() {
+        if (syncedVersion >= 0 && syncedVersion == DatabaseManager.getDataVersion(DataVersions.Entity.ORDERS)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            syncLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void syncLocked() {
+        long version = DatabaseManager.getDataVersion(DataVersions.Entity.ORDERS); // Read before the orders
+        if (version >= 0 && version == syncedVersion) {
+            return;
+        }
+        int rowsBefore = rowCount;
+        int lastOrderIdBefore = lastOrderId;
+        int after = Math.min(Math.max(0, lastOrderId - RECHECK_ORDERS), resyncAfterOrderId);
+        pendingOrders.clear();
+        boolean complete = DatabaseManager.streamOrderLinesAfter(after, this::appendIfNew);
+        if (!complete) {
+            // Drop the partly read rows: orders are only marked stored once all their rows are in
+            rowCount = rowsBefore;
+            lastOrderId = lastOrderIdBefore;
+            for (int row = rowsBefore - rowsBefore % BLOCK_ROWS; row < rowsBefore; row++) {
+                extendZoneMap(row, segments.get(row / SEGMENT_ROWS).times.get(row % SEGMENT_ROWS));
+            }
+            return;
+        }
+        if (rowCount > rowsBefore) {
+            forceSegments(rowsBefore);
+        }
+        storedOrders.or(pendingOrders);
+        resyncAfterOrderId = Integer.MAX_VALUE;
+        syncedVersion = version;
+        writeMeta();
+    }
+
+    private void appendIfNew(int orderId, LocalDateTime orderTime, OrderStatus status, PaymentMethod paymentMethod,
+                             long discountPaise, long gstPaise, int menuItemId, int quantity, long pricePaise) {
+        if (storedOrders.get(orderId)) {
+            return;
+        }
+        pendingOrders.set(orderId);
+        if (rowCount == segments.size() * SEGMENT_ROWS) {
+            try {
+                segments.add(new Segment(segmentFile(segments.size())));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot add an order history segment: " + e.getMessage(), e);
+            }
+        }
+        Segment segment = segments.get(rowCount / SEGMENT_ROWS);
+        int row = rowCount % SEGMENT_ROWS;
+        long time = toSeconds(orderTime);
+        segment.times.put(row, time);
+        segment.prices.put(row, pricePaise);
+        segment.discounts.put(row, discountPaise);
+        segment.taxes.put(row, gstPaise);
+        segment.orderIds.put(row, orderId);
+        segment.itemIds.put(row, menuItemId);
+        segment.quantities.put(row, quantity);
+        segment.payments.put(row, (byte) paymentMethod.ordinal());
+        segment.statuses.put(row, (byte) status.ordinal());
+        extendZoneMap(rowCount, time);
+        dayVersions.merge(Math.floorDiv(time, 86400L), 1, Integer::sum);
+        rowCount++;
+        lastOrderId = Math.max(lastOrderId, orderId);
+    }
+
+    /**
+     * Applies a committed change of an order's status, payment method, discount and GST. Called by DatabaseManager.
+     * @param orderId The order.
+     * @param status The new status.
+     * @param paymentMethod The new payment method.
+     * @param discountPaise The new discount.
+     * @param gstPaise The GST on the new discount.
+     */
+    void orderUpdated(int orderId, OrderStatus status, PaymentMethod paymentMethod, long discountPaise, long gstPaise) {
+        lock.writeLock().lock();
+        try {
+            setOrderState(orderId, (byte) status.ordinal(), paymentMethod, discountPaise, gstPaise);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed change of an order's status only. Called by DatabaseManager.
+     * @param orderId The order.
+     * @param status The new status.
+     */
+    void orderStatusChanged(int orderId, OrderStatus status) {
+        lock.writeLock().lock();
+        try {
+            setOrderState(orderId, (byte) status.ordinal(), null, 0, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the rows of a deleted order. Called by DatabaseManager after the delete is committed.
+     * @param orderId The order.
+     */
+    void orderDeleted(int orderId) {
+        lock.writeLock().lock();
+        try {
+            setOrderState(orderId, DELETED, null, 0, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the status (and, unless paymentMethod is null, the payment method, discount and GST) of the
+     * rows of one order. They are searched from the newest row back, since it is nearly always a
+     * recent order that changes.
+     */
+    private void setOrderState(int orderId, byte status, PaymentMethod paymentMethod, long discountPaise, long gstPaise) {
+        if (!storedOrders.get(orderId)) {
+            return; // Not synced yet; the sync will read its current state
+        }
+        boolean found = false;
+        for (int row = rowCount - 1; row >= 0; row--) {
+            if (orderIdAt(row) == orderId) {
+                Segment segment = segments.get(row / SEGMENT_ROWS);
+                segment.statuses.put(row % SEGMENT_ROWS, status);
+                if (paymentMethod != null) {
+                    segment.payments.put(row % SEGMENT_ROWS, (byte) paymentMethod.ordinal());
+                    segment.discounts.put(row % SEGMENT_ROWS, discountPaise);
+                    segment.taxes.put(row % SEGMENT_ROWS, gstPaise);
+                }
+                if (!found) {
+                    dayVersions.merge(Math.floorDiv(segment.times.get(row % SEGMENT_ROWS), 86400L), 1, Integer::sum);
+                }
+                found = true;
+            } else if (found) {
+                return; // Past the order's rows
+            }
+        }
+    }
+
+    /**
+     * Brings the status, payment method, discount and GST of every stored order up to date with the database,
+     * marks the rows of orders that no longer exist, and makes the next sync read from the first
+     * order the store is missing.
+     */
+    private void reconcile() {
+        byte[][] states = {new byte[Math.max(16, lastOrderId + 1)], new byte[Math.max(16, lastOrderId + 1)]}; // Status + 1 (0 = no such order), payment method
+        long[][] amounts = {new long[states[0].length], new long[states[0].length]}; // Discount, GST
+        boolean complete = DatabaseManager.streamOrderStates((orderId, status, paymentMethod, discountPaise, gstPaise) -> {
+            if (orderId >= states[0].length) {
+                states[0] = Arrays.copyOf(states[0], Math.max(states[0].length * 2, orderId + 1));
+                states[1] = Arrays.copyOf(states[1], states[0].length);
+                amounts[0] = Arrays.copyOf(amounts[0], states[0].length);
+                amounts[1] = Arrays.copyOf(amounts[1], states[0].length);
+            }
+            states[0][orderId] = (byte) (status.ordinal() + 1);
+            states[1][orderId] = (byte) paymentMethod.ordinal();
+            amounts[0][orderId] = discountPaise;
+            amounts[1][orderId] = gstPaise;
+        });
+        if (!complete) {
+            return; // Try again at the next open
+        }
+        int missing = Integer.MAX_VALUE;
+        for (int orderId = storedOrders.nextClearBit(1); orderId < states[0].length; orderId = storedOrders.nextClearBit(orderId + 1)) {
+            if (states[0][orderId] != 0) {
+                missing = orderId; // In the database but not in the store
+                break;
+            }
+        }
+        for (int row = 0; row < rowCount; row++) {
+            int orderId = orderIdAt(row);
+            Segment segment = segments.get(row / SEGMENT_ROWS);
+            byte state = orderId < states[0].length ? states[0][orderId] : 0;
+            segment.statuses.put(row % SEGMENT_ROWS, state == 0 ? DELETED : (byte) (state - 1));
+            if (state != 0) {
+                segment.payments.put(row % SEGMENT_ROWS, states[1][orderId]);
+                segment.discounts.put(row % SEGMENT_ROWS, amounts[0][orderId]);
+                segment.taxes.put(row % SEGMENT_ROWS, amounts[1][orderId]);
+            }
+        }
+        forceSegments(0);
+        resyncAfterOrderId = missing - 1; // The next sync reads from the first missing order
+        syncedVersion = -1;
+    }
+
+    private void rebuildInMemoryIndexes() {
+        int blocks = (rowCount + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        blockMinTime = new long[Math.max(16, blocks)];
+        blockMaxTime = new long[blockMinTime.length];
+        long[] times = new long[BLOCK_ROWS];
+        int[] orderIds = new int[BLOCK_ROWS];
+        for (int blockStart = 0; blockStart < rowCount; blockStart += BLOCK_ROWS) {
+            Segment segment = segments.get(blockStart / SEGMENT_ROWS);
+            int n = Math.min(BLOCK_ROWS, rowCount - blockStart);
+            segment.times.get(blockStart % SEGMENT_ROWS, times, 0, n);
+            segment.orderIds.get(blockStart % SEGMENT_ROWS, orderIds, 0, n);
+            for (int i = 0; i < n; i++) {
+                extendZoneMap(blockStart + i, times[i]);
+                storedOrders.set(orderIds[i]);
+                lastOrderId = Math.max(lastOrderId, orderIds[i]);
+            }
+        }
+    }
+
+    private void extendZoneMap(int row, long time) {
+        int block = row / BLOCK_ROWS;
+        if (block >= blockMinTime.length) {
+            blockMinTime = Arrays.copyOf(blockMinTime, blockMinTime.length * 2);
+            blockMaxTime = Arrays.copyOf(blockMaxTime, blockMinTime.length);
+        }
+        if (row % BLOCK_ROWS == 0) {
+            blockMinTime[block] = time;
+            blockMaxTime[block] = time;
+        } else {
+            blockMinTime[block] = Math.min(blockMinTime[block], time);
+            blockMaxTime[block] = Math.max(blockMaxTime[block], time);
+        }
+    }
+
+    private int orderIdAt(int row) {
+        return segments.get(row / SEGMENT_ROWS).orderIds.get(row % SEGMENT_ROWS);
+    }
+
+    private void forceSegments(int fromRow) {
+        for (int s = fromRow / SEGMENT_ROWS; s < segments.size(); s++) {
+            segments.get(s).force(); // Rows reach the disk before the metadata that counts them
+        }
+    }
+
+    // --- Files ---
+
+    private Path segmentFile(int segment) {
+        return directory.resolve(String.format("segment-%05d.col", segment));
+    }
+
+    private Properties readMeta() {
+        Path file = directory.resolve("store.properties");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            System.err.println("Error reading order history store metadata: " + e.getMessage());
+            return null; // Rebuilt from the database
+        }
+    }
+
+    private void writeMeta() {
+        Properties meta = new Properties();
+        meta.setProperty("format", String.valueOf(FORMAT_VERSION));
+        meta.setProperty("database", DBConnection.getUrl());
+        meta.setProperty("rows", String.valueOf(rowCount));
+        meta.setProperty("ordersVersion", String.valueOf(syncedVersion));
+        Path temp = directory.resolve("store.properties.tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            meta.store(out, "Order history store");
+        } catch (IOException e) {
+            System.err.println("Error writing order history store metadata: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, directory.resolve("store.properties"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing order history store metadata: " + e.getMessage());
+        }
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC); // Local time as if it were UTC: days and hours stay local
+    }
+}
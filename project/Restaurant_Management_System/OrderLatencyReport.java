@@ -0,0 +1,224 @@
+package application;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Time-in-state percentiles computed from the order status history (order_status_events).
+ *
+ * An order is in a status from the event that entered it until the next event with a different
+ * status. Repeats of the same status are ignored, and the last status of an order has no duration
+ * yet, so DELIVERED and CANCELLED never appear. "Order to ready" is the time from the first event
+ * until the order first became ready for pickup (or was delivered, if it skipped that status).
+ */
+public class OrderLatencyReport {
+
+    public static final String ORDER_TO_READY = "Order to ready";
+
+    /**
+     * How the samples are grouped.
+     */
+    public enum Grouping {
+        STATUS("By status"), // One group for all orders
+        HOUR("By hour"),     // Hour of day the order entered the status
+        DISH("By dish");     // Every dish on the order; an order counts once per distinct dish
+
+        private final String displayValue;
+
+        Grouping(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+
+        @Override
+        public String toString() {
+            return displayValue;
+        }
+    }
+
+    /**
+     * One row of the report: percentiles for one group and one status.
+     */
+    public static class LatencyStat {
+        private final String group;
+        private final String state;
+        private final int count;
+        private final long p50Seconds;
+        private final long p95Seconds;
+
+        LatencyStat(String group, String state, int count, long p50Seconds, long p95Seconds) {
+            this.group = group;
+            this.state = state;
+            this.count = count;
+            this.p50Seconds = p50Seconds;
+            this.p95Seconds = p95Seconds;
+        }
+
+        // --- Getters ---
+        public String getGroup() {
+            return group;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getP50Seconds() {
+            return p50Seconds;
+        }
+
+        public long getP95Seconds() {
+            return p95Seconds;
+        }
+    }
+
+    /**
+     * Growable array of durations in seconds; avoids boxing every sample.
+     */
+    private static final class Samples {
+        long[] values = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static final String ALL_ORDERS = "All orders";
+
+    /**
+     * Builds the report for all orders placed since the given time.
+     * @param since The earliest order time to include.
+     * @param grouping How to group the samples.
+     * @return The rows, sorted by group and then by status in OrderStatus order.
+     */
+    public static List<LatencyStat> build(LocalDateTime since, Grouping grouping) {
+        List<OrderStatusEvent> events = DatabaseManager.getStatusEventsSince(since);
+        Map<Integer, List<String>> dishesByOrder = grouping == Grouping.DISH
+                ? DatabaseManager.getOrderDishNamesSince(since) : Collections.emptyMap();
+        return build(events, dishesByOrder, grouping);
+    }
+
+    /**
+     * Builds the report from already loaded events.
+     * @param events Status events grouped by order and in the order they happened.
+     * @param dishesByOrder Order ID -> dish names; only used for Grouping.DISH.
+     * @param grouping How to group the samples.
+     * @return The rows, sorted by group and then by status in OrderStatus order.
+     */
+    static List<LatencyStat> build(List<OrderStatusEvent> events, Map<Integer, List<String>> dishesByOrder, Grouping grouping) {
+        // group -> state -> samples; TreeMap keeps groups sorted ("07:00" < "19:00", dish names alphabetically)
+        Map<String, Map<String, Samples>> samples = new TreeMap<>();
+        int i = 0;
+        while (i < events.size()) {
+            int orderId = events.get(i).getOrderId();
+            int end = i;
+            while (end < events.size() && events.get(end).getOrderId() == orderId) {
+                end++;
+            }
+            addOrder(events.subList(i, end), dishesByOrder.get(orderId), grouping, samples);
+            i = end;
+        }
+
+        List<LatencyStat> stats = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Samples>> group : samples.entrySet()) {
+            List<String> states = new ArrayList<>(group.getValue().keySet());
+            states.sort(Comparator.comparingInt(OrderLatencyReport::stateOrder));
+            for (String state : states) {
+                Samples s = group.getValue().get(state);
+                long[] sorted = Arrays.copyOf(s.values, s.size);
+                Arrays.sort(sorted);
+                stats.add(new LatencyStat(group.getKey(), state, sorted.length, percentile(sorted, 50), percentile(sorted, 95)));
+            }
+        }
+        return stats;
+    }
+
+    private static void addOrder(List<OrderStatusEvent> history, List<String> dishes, Grouping grouping,
+                                 Map<String, Map<String, Samples>> samples) {
+        Set<String> dishGroups = grouping == Grouping.DISH
+                ? new LinkedHashSet<>(dishes != null ? dishes : Collections.emptyList()) : null;
+        LocalDateTime placedAt = history.get(0).getChangedAt();
+        LocalDateTime readyAt = null;
+        OrderStatusEvent current = history.get(0);
+        for (int i = 1; i < history.size(); i++) {
+            OrderStatusEvent next = history.get(i);
+            if (next.getStatus() == current.getStatus()) {
+                continue; // Saved again without a status change
+            }
+            add(samples, grouping, dishGroups, current.getChangedAt(), current.getStatus().getDisplayValue(),
+                    seconds(current.getChangedAt(), next.getChangedAt()));
+            if (readyAt == null && (next.getStatus() == OrderStatus.READY_FOR_PICKUP || next.getStatus() == OrderStatus.DELIVERED)) {
+                readyAt = next.getChangedAt();
+            }
+            current = next;
+        }
+        if (readyAt != null) {
+            add(samples, grouping, dishGroups, placedAt, ORDER_TO_READY, seconds(placedAt, readyAt));
+        }
+    }
+
+    private static void add(Map<String, Map<String, Samples>> samples, Grouping grouping, Set<String> dishGroups,
+                            LocalDateTime enteredAt, String state, long seconds) {
+        switch (grouping) {
+            case STATUS:
+                addSample(samples, ALL_ORDERS, state, seconds);
+                break;
+            case HOUR:
+                addSample(samples, String.format("%02d:00", enteredAt.getHour()), state, seconds);
+                break;
+            case DISH:
+                for (String dish : dishGroups) {
+                    addSample(samples, dish, state, seconds);
+                }
+                break;
+        }
+    }
+
+    private static void addSample(Map<String, Map<String, Samples>> samples, String group, String state, long seconds) {
+        samples.computeIfAbsent(group, g -> new TreeMap<>()).computeIfAbsent(state, s -> new Samples()).add(seconds);
+    }
+
+    private static long seconds(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).getSeconds()); // Clocks of different terminals may disagree
+    }
+
+    /**
+     * Nearest-rank percentile of a sorted array.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+
+    private static int stateOrder(String state) {
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.getDisplayValue().equals(state)) {
+                return status.ordinal();
+            }
+        }
+        return OrderStatus.values().length; // ORDER_TO_READY last
+    }
+}
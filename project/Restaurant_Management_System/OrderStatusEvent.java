@@ -0,0 +1,44 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents one entry of the append-only order status history: the moment an order entered a status.
+ */
+public class OrderStatusEvent {
+    private final int orderId;            // The order whose status changed
+    private final OrderStatus status;     // The status the order entered
+    private final LocalDateTime changedAt; // When the order entered the status
+
+    /**
+     * Constructor for OrderStatusEvent.
+     * @param orderId The ID of the order.
+     * @param status The status the order entered.
+     * @param changedAt When the order entered the status.
+     */
+    public OrderStatusEvent(int orderId, OrderStatus status, LocalDateTime changedAt) {
+        this.orderId = orderId;
+        this.status = status;
+        this.changedAt = changedAt;
+    }
+
+    // --- Getters ---
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Order ID: " + orderId +
+               ", Status: " + status +
+               ", Changed At: " + changedAt;
+    }
+}
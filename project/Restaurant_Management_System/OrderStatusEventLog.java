@@ -0,0 +1,131 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only log of order status changes, stored in order_status_events.
+ *
+ * record() only enqueues the event, so status changes on the UI path never wait for this table.
+ * A single background thread writes the queue in batches every FLUSH_INTERVAL_MILLIS, or sooner
+ * once BATCH_SIZE events are waiting. Batches that fail are kept and retried with the next flush;
+ * if the database stays unavailable the oldest events beyond MAX_PENDING are dropped.
+ * Events still queued at JVM exit are flushed by a shutdown hook.
+ */
+public class OrderStatusEventLog {
+
+    private static final OrderStatusEventLog INSTANCE = new OrderStatusEventLog();
+
+    private static final long FLUSH_INTERVAL_MILLIS = 500;
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_PENDING = 50_000;
+
+    private static final String INSERT_SQL = "INSERT INTO order_status_events (order_id, status, changed_at) VALUES (?, ?, ?)";
+
+    private final ConcurrentLinkedQueue<OrderStatusEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final List<OrderStatusEvent> retry = new ArrayList<>(); // Failed batch, guarded by the monitor
+    private final ScheduledExecutorService writer;
+
+    /**
+     * @return The process-wide event log.
+     */
+    public static OrderStatusEventLog getInstance() {
+        return INSTANCE;
+    }
+
+    private OrderStatusEventLog() {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-status-events");
+            thread.setDaemon(true); // Never keeps the application alive; the shutdown hook flushes instead
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "order-status-events-shutdown"));
+    }
+
+    /**
+     * Appends a status change to the log. Never blocks on the database.
+     * @param orderId The order ID.
+     * @param status The status the order entered.
+     * @param changedAt When it entered the status.
+     */
+    public void record(int orderId, OrderStatus status, LocalDateTime changedAt) {
+        pending.add(new OrderStatusEvent(orderId, status, changedAt));
+        if (pendingCount.incrementAndGet() == BATCH_SIZE) {
+            writer.execute(this::flush); // Don't wait for the next tick when a full batch is ready
+        }
+    }
+
+    /**
+     * Writes all queued events now. Called by the background writer; callers that need the log to be
+     * complete (reports, the simulator) may call it directly.
+     * @return true if nothing is left queued.
+     */
+    public synchronized boolean flush() {
+        List<OrderStatusEvent> batch = new ArrayList<>(retry);
+        retry.clear();
+        OrderStatusEvent event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            writeBatch(conn, batch);
+            return pending.isEmpty();
+        } catch (SQLException e) {
+            System.err.println("Error writing order status events (will retry): " + e.getMessage());
+            int overflow = batch.size() - MAX_PENDING;
+            if (overflow > 0) {
+                System.err.println("Dropping " + overflow + " oldest order status events.");
+                batch = batch.subList(overflow, batch.size());
+            }
+            retry.addAll(batch);
+            return false;
+        }
+    }
+
+    private static void writeBatch(Connection conn, List<OrderStatusEvent> batch) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            conn.setAutoCommit(false);
+            try {
+                int inBatch = 0;
+                for (OrderStatusEvent e : batch) {
+                    pstmt.setInt(1, e.getOrderId());
+                    pstmt.setString(2, e.getStatus().name());
+                    pstmt.setTimestamp(3, Timestamp.valueOf(e.getChangedAt()));
+                    pstmt.addBatch();
+                    if (++inBatch == BATCH_SIZE) {
+                        pstmt.executeBatch();
+                        inBatch = 0;
+                    }
+                }
+                if (inBatch > 0) {
+                    pstmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -7,7 +7,8 @@ package application;
 public enum PaymentStatus {
     PENDING("Pending"),   // Payment is awaited
     PAID("Paid"),         // Payment has been successfully completed
-    REFUNDED("Refunded"); // Payment has been refunded
+    REFUNDED("Refunded"), // Payment has been refunded
+    EXPIRED("Expired");   // Unpaid booking released after a no-show (see BookingExpiryScheduler)
 
     private final String displayValue; // User-friendly string representation of the status
 
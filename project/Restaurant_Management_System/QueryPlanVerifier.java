@@ -0,0 +1,106 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line tool that runs EXPLAIN on every query registered in IndexCatalog and fails if any of
+ * them scans a full table. Run it against a database with realistic data, since the optimizer may
+ * prefer a scan on near-empty tables:
+ *
+ *   java -Drestaurant.db.url=jdbc:mysql://localhost:3306/restaurant_db application.QueryPlanVerifier
+ *
+ * Understands MySQL's tabular EXPLAIN (access type "ALL" is a full scan) and H2's textual plan
+ * ("tableScan"), so it can also be run against the in-memory database used by DinnerRushSimulator.
+ * Exits with status 1 if a full scan was found.
+ */
+public class QueryPlanVerifier {
+
+    public static void main(String[] args) {
+        DatabaseManager.initializeDatabase(); // Make sure the indexes exist
+
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            for (IndexCatalog.RegisteredQuery query : IndexCatalog.queries()) {
+                String plan = explain(conn, query);
+                String fullScan = findFullScan(plan);
+                if (fullScan == null) {
+                    System.out.println("OK    " + query.getName());
+                } else {
+                    System.out.println("SCAN  " + query.getName() + " -> full scan of " + fullScan);
+                    System.out.println("      " + query.getSql());
+                    System.out.println("      " + plan.replace("\n", "\n      "));
+                    failures.add(query.getName());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error verifying query plans: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("All " + IndexCatalog.queries().size() + " registered queries use an index.");
+        } else {
+            System.out.println(failures.size() + " registered query(ies) scan a full table: " + failures);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs EXPLAIN on a registered query with its sample parameters.
+     * @return The plan as text: one line per row, "column=value" pairs for tabular output.
+     */
+    private static String explain(Connection conn, IndexCatalog.RegisteredQuery query) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + query.getSql())) {
+            Object[] params = query.getSampleParameters();
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    if (plan.length() > 0) {
+                        plan.append('\n');
+                    }
+                    if (meta.getColumnCount() == 1) {
+                        plan.append(rs.getString(1)); // H2 style: the whole plan as one string
+                    } else {
+                        for (int c = 1; c <= meta.getColumnCount(); c++) {
+                            plan.append(meta.getColumnLabel(c).toLowerCase()).append('=').append(rs.getString(c)).append(' ');
+                        }
+                    }
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    /**
+     * Looks for a full table scan in a plan.
+     * @return The scanned table, or null if the plan uses indexes throughout.
+     */
+    static String findFullScan(String plan) {
+        for (String line : plan.split("\n")) {
+            // MySQL: "... table=orders ... type=ALL ..."
+            if (line.contains(" type=ALL ")) {
+                int start = line.indexOf("table=");
+                return start < 0 ? "?" : line.substring(start + 6, line.indexOf(' ', start));
+            }
+            // H2: "/* PUBLIC.ORDERS.tableScan */" (lower case with DATABASE_TO_LOWER)
+            String lower = line.toLowerCase();
+            int scan = lower.indexOf(".tablescan");
+            if (scan >= 0) {
+                int start = lower.lastIndexOf("public.", scan);
+                return start < 0 ? "?" : lower.substring(start + 7, scan);
+            }
+        }
+        return null;
+    }
+}
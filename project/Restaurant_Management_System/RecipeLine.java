@@ -0,0 +1,63 @@
+package application;
+
+/**
+ * One line of a dish's recipe: how much of an ingredient one portion uses.
+ */
+public class RecipeLine {
+    private final int menuItemId;
+    private final int ingredientId;
+    private final String ingredientName;
+    private final String unit;
+    private final int quantity;  // Units of the ingredient per portion
+    private final long onHand;   // The ingredient's stock when the recipe was read
+
+    /**
+     * Full constructor for RecipeLine.
+     * @param menuItemId The dish.
+     * @param ingredientId The ingredient.
+     * @param ingredientName The ingredient name.
+     * @param unit The ingredient's unit.
+     * @param quantity Units per portion.
+     * @param onHand The ingredient's stock.
+     */
+    public RecipeLine(int menuItemId, int ingredientId, String ingredientName, String unit, int quantity, long onHand) {
+        this.menuItemId = menuItemId;
+        this.ingredientId = ingredientId;
+        this.ingredientName = ingredientName;
+        this.unit = unit;
+        this.quantity = quantity;
+        this.onHand = onHand;
+    }
+
+    // --- Getters ---
+    public int getMenuItemId() {
+        return menuItemId;
+    }
+
+    public int getIngredientId() {
+        return ingredientId;
+    }
+
+    public String getIngredientName() {
+        return ingredientName;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getOnHand() {
+        return onHand;
+    }
+
+    /**
+     * @return The portions the ingredient's stock is enough for.
+     */
+    public long getPortions() {
+        return Math.max(0, onHand) / quantity;
+    }
+}
@@ -0,0 +1,123 @@
+package application;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes when a standing reservation repeats, e.g. "every Tuesday at 19:00 for 12 weeks".
+ * Used by DatabaseManager.addRecurringTableBookings to generate the occurrences of a booking.
+ */
+public class RecurrenceRule {
+
+    /**
+     * How far apart consecutive occurrences are, before the interval is applied.
+     */
+    public enum Frequency {
+        DAILY("Daily"),
+        WEEKLY("Weekly"),
+        MONTHLY("Monthly"); // Same day of the month; clamped to the last day in shorter months
+
+        private final String displayValue;
+
+        Frequency(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+
+        @Override
+        public String toString() {
+            return displayValue;
+        }
+    }
+
+    public static final int MAX_OCCURRENCES = 366; // One year of daily bookings
+
+    private final LocalDateTime first;
+    private final Frequency frequency;
+    private final int interval;
+    private final int count;
+    private final LocalDate until;
+
+    /**
+     * Constructor for RecurrenceRule.
+     * @param first The first occurrence; later ones keep its time of day.
+     * @param frequency The unit between occurrences.
+     * @param interval Number of units between occurrences (1 = every week, 2 = every other week, ...).
+     * @param count Maximum number of occurrences, including the first (capped at MAX_OCCURRENCES).
+     * @param until Last day an occurrence may fall on, or null to stop after count occurrences only.
+     */
+    public RecurrenceRule(LocalDateTime first, Frequency frequency, int interval, int count, LocalDate until) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Recurrence interval must be at least 1: " + interval);
+        }
+        this.first = first;
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = Math.max(0, Math.min(count, MAX_OCCURRENCES));
+        this.until = until;
+    }
+
+    /**
+     * Generates the start times of all occurrences.
+     * @return The occurrences in ascending order.
+     */
+    public List<LocalDateTime> occurrences() {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Always step from the first occurrence so monthly dates do not drift after a short month
+            LocalDateTime occurrence = occurrence(i);
+            if (until != null && occurrence.toLocalDate().isAfter(until)) {
+                break;
+            }
+            occurrences.add(occurrence);
+        }
+        return Collections.unmodifiableList(occurrences);
+    }
+
+    private LocalDateTime occurrence(int index) {
+        long steps = (long) index * interval;
+        switch (frequency) {
+            case DAILY:
+                return first.plusDays(steps);
+            case WEEKLY:
+                return first.plusWeeks(steps);
+            default:
+                return first.plusMonths(steps);
+        }
+    }
+
+    // --- Getters ---
+    public LocalDateTime getFirst() {
+        return first;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    @Override
+    public String toString() {
+        return frequency + (interval > 1 ? " (every " + interval + ")" : "") +
+               " from " + first +
+               ", " + count + " times" +
+               (until != null ? " until " + until : "");
+    }
+}
@@ -0,0 +1,439 @@
+package application;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds sales reports over a range of days: sales by dish, by payment method and by hour, the
+ * impact of discounts, and the GST liability.
+ *
+ * The range is partitioned by day. Fork/join splits the days across the common pool, each day is
+ * aggregated in one pass over that day's rows of the OrderHistoryStore, and the partial reports are
+ * merged pairwise on the way back up. A report is immutable, so a closed day (any day before today)
+ * is computed once and cached until an order of that day changes (see
+ * OrderHistoryStore.getDayVersion); a month-end report only scans today and the days that changed.
+ */
+public class ReportEngine {
+
+    private static final ReportEngine INSTANCE = new ReportEngine();
+
+    private static final int HOURS = 24;
+
+    /**
+     * @return The process-wide report engine.
+     */
+    public static ReportEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * One line of a report breakdown, e.g. one dish or one hour.
+     */
+    public static class ReportLine {
+        private final String label;
+        private final long orders;
+        private final long portions;
+        private final long amountPaise;
+
+        ReportLine(String label, long orders, long portions, long amountPaise) {
+            this.label = label;
+            this.orders = orders;
+            this.portions = portions;
+            this.amountPaise = amountPaise;
+        }
+
+        // --- Getters ---
+        public String getLabel() {
+            return label;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public long getPortions() {
+            return portions;
+        }
+
+        public long getAmountPaise() {
+            return amountPaise;
+        }
+
+        /**
+         * @return The amount in rupees, for display.
+         */
+        public String getAmount() {
+            return Money.format(amountPaise);
+        }
+    }
+
+    /**
+     * The sales of a range of days. Cancelled and deleted orders are not sales. Immutable.
+     */
+    public static final class SalesReport {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int days;
+        private final int cachedDays;
+        private final long orders;
+        private final long grossPaise;           // Quantity times price at order
+        private final long discountPaise;
+        private final long discountedOrders;
+        private final long discountedGrossPaise; // Gross sales of the discounted orders
+        private final long gstPaise;             // GST charged on each order, as recorded on its bill (see TaxLedger)
+        private final long[] dishPortions;       // By menu item ID
+        private final long[] dishGrossPaise;
+        private final long[] dishOrders;
+        private final long[] paymentOrders;      // By PaymentMethod ordinal
+        private final long[] paymentCollectedPaise; // Net sales plus GST
+        private final long[] hourOrders;         // By hour of day
+        private final long[] hourGrossPaise;
+
+        private SalesReport(LocalDate from, LocalDate to, int days, int cachedDays, long orders, long grossPaise,
+                            long discountPaise, long discountedOrders, long discountedGrossPaise, long gstPaise,
+                            long[] dishPortions, long[] dishGrossPaise, long[] dishOrders, long[] paymentOrders,
+                            long[] paymentCollectedPaise, long[] hourOrders, long[] hourGrossPaise) {
+            this.from = from;
+            this.to = to;
+            this.days = days;
+            this.cachedDays = cachedDays;
+            this.orders = orders;
+            this.grossPaise = grossPaise;
+            this.discountPaise = discountPaise;
+            this.discountedOrders = discountedOrders;
+            this.discountedGrossPaise = discountedGrossPaise;
+            this.gstPaise = gstPaise;
+            this.dishPortions = dishPortions;
+            this.dishGrossPaise = dishGrossPaise;
+            this.dishOrders = dishOrders;
+            this.paymentOrders = paymentOrders;
+            this.paymentCollectedPaise = paymentCollectedPaise;
+            this.hourOrders = hourOrders;
+            this.hourGrossPaise = hourGrossPaise;
+        }
+
+        /**
+         * Merges the reports of two adjacent ranges.
+         * @param earlier The earlier range.
+         * @param later The range starting the day after earlier ends.
+         * @return The report of both ranges.
+         */
+        static SalesReport merge(SalesReport earlier, SalesReport later) {
+            return new SalesReport(earlier.from, later.to, earlier.days + later.days, earlier.cachedDays + later.cachedDays,
+                    earlier.orders + later.orders, earlier.grossPaise + later.grossPaise,
+                    earlier.discountPaise + later.discountPaise, earlier.discountedOrders + later.discountedOrders,
+                    earlier.discountedGrossPaise + later.discountedGrossPaise, earlier.gstPaise + later.gstPaise,
+                    add(earlier.dishPortions, later.dishPortions), add(earlier.dishGrossPaise, later.dishGrossPaise),
+                    add(earlier.dishOrders, later.dishOrders), add(earlier.paymentOrders, later.paymentOrders),
+                    add(earlier.paymentCollectedPaise, later.paymentCollectedPaise), add(earlier.hourOrders, later.hourOrders),
+                    add(earlier.hourGrossPaise, later.hourGrossPaise));
+        }
+
+        /**
+         * @return The same report, counted as read from the cache.
+         */
+        private SalesReport fromCache() {
+            return new SalesReport(from, to, days, days, orders, grossPaise, discountPaise, discountedOrders,
+                    discountedGrossPaise, gstPaise, dishPortions, dishGrossPaise, dishOrders, paymentOrders,
+                    paymentCollectedPaise, hourOrders, hourGrossPaise);
+        }
+
+        private static long[] add(long[] a, long[] b) {
+            long[] sum = Arrays.copyOf(a, Math.max(a.length, b.length));
+            for (int i = 0; i < b.length; i++) {
+                sum[i] += b[i];
+            }
+            return sum;
+        }
+
+        // --- Getters ---
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        /**
+         * @return How many of the days were served from the cache of closed days.
+         */
+        public int getCachedDays() {
+            return cachedDays;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public long getGrossPaise() {
+            return grossPaise;
+        }
+
+        public long getDiscountPaise() {
+            return discountPaise;
+        }
+
+        public long getDiscountedOrders() {
+            return discountedOrders;
+        }
+
+        /**
+         * @return The discounts as a share of the gross sales of the discounted orders, in percent.
+         */
+        public double getDiscountRatePercent() {
+            return discountedGrossPaise == 0 ? 0 : 100.0 * discountPaise / discountedGrossPaise;
+        }
+
+        /**
+         * @return Gross sales less discounts: the taxable value GST is charged on.
+         */
+        public long getNetPaise() {
+            return grossPaise - discountPaise;
+        }
+
+        public long getGstPaise() {
+            return gstPaise;
+        }
+
+        /**
+         * @return Net sales plus GST: what customers paid.
+         */
+        public long getCollectedPaise() {
+            return getNetPaise() + gstPaise;
+        }
+
+        /**
+         * @return The average net sale per order.
+         */
+        public long getAverageOrderPaise() {
+            return orders == 0 ? 0 : getNetPaise() / orders;
+        }
+
+        /**
+         * @param dishNames Dish names by menu item ID; dishes since removed from the menu are shown by ID.
+         * @return Portions and gross sales of each dish sold, best-selling first.
+         */
+        public List<ReportLine> getSalesByDish(Map<Integer, String> dishNames) {
+            List<ReportLine> lines = new ArrayList<>();
+            for (int id = 0; id < dishPortions.length; id++) {
+                if (dishPortions[id] > 0) {
+                    lines.add(new ReportLine(dishNames.getOrDefault(id, "Dish #" + id), dishOrders[id], dishPortions[id], dishGrossPaise[id]));
+                }
+            }
+            lines.sort((a, b) -> Long.compare(b.getAmountPaise(), a.getAmountPaise()));
+            return lines;
+        }
+
+        /**
+         * @return Orders and amount collected (net sales plus GST) per payment method.
+         */
+        public List<ReportLine> getSalesByPaymentMethod() {
+            List<ReportLine> lines = new ArrayList<>();
+            for (PaymentMethod method : PaymentMethod.values()) {
+                if (paymentOrders[method.ordinal()] > 0) {
+                    lines.add(new ReportLine(method.getDisplayValue(), paymentOrders[method.ordinal()], 0, paymentCollectedPaise[method.ordinal()]));
+                }
+            }
+            return lines;
+        }
+
+        /**
+         * @return Orders and gross sales per hour of day, for the hours with orders.
+         */
+        public List<ReportLine> getSalesByHour() {
+            List<ReportLine> lines = new ArrayList<>();
+            for (int hour = 0; hour < HOURS; hour++) {
+                if (hourOrders[hour] > 0) {
+                    lines.add(new ReportLine(String.format("%02d:00", hour), hourOrders[hour], 0, hourGrossPaise[hour]));
+                }
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * A cached closed day and the day version it was computed at.
+     */
+    private static final class CachedDay {
+        final int version;
+        final SalesReport report;
+
+        CachedDay(int version, SalesReport report) {
+            this.version = version;
+            this.report = report;
+        }
+    }
+
+    private final Map<LocalDate, CachedDay> closedDays = new ConcurrentHashMap<>();
+
+    private ReportEngine() {
+    }
+
+    /**
+     * Builds the sales report of a range of days.
+     * @param from The first day.
+     * @param to The last day (inclusive); not before from.
+     * @return The report.
+     * @throws IllegalArgumentException If to is before from.
+     */
+    public SalesReport report(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The report must end on or after its first day.");
+        }
+        OrderHistoryStore store = OrderHistoryStore.getInstance();
+        store.sync(); // Once, before the day versions are read
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        return ForkJoinPool.commonPool().invoke(new DayRangeTask(store, from, days, LocalDate.now()));
+    }
+
+    /**
+     * Reports the days [from, from + days), splitting the range down to single days.
+     */
+    private final class DayRangeTask extends RecursiveTask<SalesReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient OrderHistoryStore store; // Tasks are never serialized
+        private final LocalDate from;
+        private final int days;
+        private final LocalDate today;
+
+        DayRangeTask(OrderHistoryStore store, LocalDate from, int days, LocalDate today) {
+            this.store = store;
+            this.from = from;
+            this.days = days;
+            this.today = today;
+        }
+
+        @Override
+        protected SalesReport compute() {
+            if (days == 1) {
+                return reportDay(store, from, today);
+            }
+            int half = days / 2;
+            DayRangeTask later = new DayRangeTask(store, from.plusDays(half), days - half, today);
+            later.fork();
+            SalesReport earlier = new DayRangeTask(store, from, half, today).compute();
+            return SalesReport.merge(earlier, later.join());
+        }
+    }
+
+    /**
+     * Returns a closed day from the cache if it has not changed, otherwise aggregates it.
+     */
+    private SalesReport reportDay(OrderHistoryStore store, LocalDate day, LocalDate today) {
+        if (!day.isBefore(today)) {
+            return new DayAggregator(day).run(store); // Still open
+        }
+        int version = store.getDayVersion(day); // Read before the rows
+        CachedDay cached = closedDays.get(day);
+        if (cached != null && cached.version == version) {
+            return cached.report.fromCache();
+        }
+        SalesReport report = new DayAggregator(day).run(store);
+        closedDays.put(day, new CachedDay(version, report));
+        return report;
+    }
+
+    /**
+     * Aggregates one day in a single pass over its blocks. The rows of an order arrive together,
+     * so the per-order figures (discount, GST, payment method) are settled when the order ID changes.
+     */
+    private static final class DayAggregator implements OrderHistoryStore.BlockVisitor {
+        private final LocalDate day;
+        private long orders;
+        private long grossPaise;
+        private long discountPaise;
+        private long discountedOrders;
+        private long discountedGrossPaise;
+        private long gstPaise;
+        private long[] dishPortions = new long[64];
+        private long[] dishGrossPaise = new long[64];
+        private long[] dishOrders = new long[64];
+        private final long[] paymentOrders = new long[PaymentMethod.values().length];
+        private final long[] paymentCollectedPaise = new long[PaymentMethod.values().length];
+        private final long[] hourOrders = new long[HOURS];
+        private final long[] hourGrossPaise = new long[HOURS];
+
+        // The order being read
+        private int orderId = -1;
+        private long orderGrossPaise;
+        private long orderDiscountPaise;
+        private long orderGstPaise;
+        private int orderPayment;
+        private int orderHour;
+
+        DayAggregator(LocalDate day) {
+            this.day = day;
+        }
+
+        SalesReport run(OrderHistoryStore store) {
+            store.forEachBlock(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), this);
+            endOrder();
+            return new SalesReport(day, day, 1, 0, orders, grossPaise, discountPaise, discountedOrders, discountedGrossPaise,
+                    gstPaise, dishPortions, dishGrossPaise, dishOrders, paymentOrders, paymentCollectedPaise, hourOrders, hourGrossPaise);
+        }
+
+        @Override
+        public void visit(OrderHistoryStore.Block block) {
+            for (int s = 0; s < block.selected; s++) {
+                int i = block.selection[s];
+                if (block.orderIds[i] != orderId) {
+                    endOrder();
+                    orderId = block.orderIds[i];
+                    orderDiscountPaise = block.discounts[i];
+                    orderGstPaise = block.taxes[i];
+                    orderPayment = block.payments[i];
+                    orderHour = (int) (Math.floorMod(block.times[i], 86400L) / 3600); // Times are local seconds
+                }
+                int dish = block.itemIds[i];
+                if (dish >= dishPortions.length) {
+                    int capacity = Math.max(dishPortions.length * 2, dish + 1);
+                    dishPortions = Arrays.copyOf(dishPortions, capacity);
+                    dishGrossPaise = Arrays.copyOf(dishGrossPaise, capacity);
+                    dishOrders = Arrays.copyOf(dishOrders, capacity);
+                }
+                long linePaise = block.quantities[i] * block.prices[i];
+                dishPortions[dish] += block.quantities[i];
+                dishGrossPaise[dish] += linePaise;
+                dishOrders[dish]++;
+                orderGrossPaise += linePaise;
+            }
+        }
+
+        /**
+         * Adds the order read so far to the totals, with the GST its bill charged (see Order).
+         */
+        private void endOrder() {
+            if (orderId < 0) {
+                return;
+            }
+            long netPaise = orderGrossPaise - orderDiscountPaise;
+            orders++;
+            grossPaise += orderGrossPaise;
+            gstPaise += orderGstPaise;
+            if (orderDiscountPaise != 0) {
+                discountPaise += orderDiscountPaise;
+                discountedOrders++;
+                discountedGrossPaise += orderGrossPaise;
+            }
+            paymentOrders[orderPayment]++;
+            paymentCollectedPaise[orderPayment] += netPaise + orderGstPaise;
+            hourOrders[orderHour]++;
+            hourGrossPaise[orderHour] += orderGrossPaise;
+            orderId = -1;
+            orderGrossPaise = 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents one physical table on the restaurant floor plan.
+ * Includes the table number, its type, seating capacity, zone, and the tables it can be pushed
+ * together with for larger parties.
+ */
+public class RestaurantTable {
+    private int tableNumber;          // Unique number shown to guests and staff
+    private TableType tableType;      // Category stored on bookings
+    private int capacity;             // Seats at this table
+    private String zone;              // Area of the floor, e.g. "Window" or "Main Hall"
+    private List<Integer> combinableWith; // Neighbouring tables it can be combined with
+
+    /**
+     * Full constructor for RestaurantTable.
+     * @param tableNumber The table number.
+     * @param tableType The table type.
+     * @param capacity The number of seats.
+     * @param zone The floor zone.
+     * @param combinableWith Numbers of neighbouring tables it can be combined with.
+     */
+    public RestaurantTable(int tableNumber, TableType tableType, int capacity, String zone, List<Integer> combinableWith) {
+        this.tableNumber = tableNumber;
+        this.tableType = tableType;
+        this.capacity = capacity;
+        this.zone = zone;
+        this.combinableWith = new ArrayList<>(combinableWith);
+    }
+
+    // --- Getters ---
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    public TableType getTableType() {
+        return tableType;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public List<Integer> getCombinableWith() {
+        return new ArrayList<>(combinableWith);
+    }
+
+    // --- Setters ---
+    public void setTableNumber(int tableNumber) {
+        this.tableNumber = tableNumber;
+    }
+
+    public void setTableType(TableType tableType) {
+        this.tableType = tableType;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public void setCombinableWith(List<Integer> combinableWith) {
+        this.combinableWith = new ArrayList<>(combinableWith);
+    }
+
+    @Override
+    public String toString() {
+        return "Table " + tableNumber + " (" + tableType + ", " + capacity + " seats, " + zone + ")";
+    }
+}
@@ -0,0 +1,550 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The ordered list of schema migrations for the Restaurant Management System.
+ * Never edit a migration that has shipped; add a new one with the next version number instead.
+ */
+public class SchemaMigrations {
+
+    // Admin credentials provided by the user
+    private static final String ADMIN_USERNAME = "Dinesh Reddy";
+    private static final String ADMIN_PASSWORD_PLAIN = "Dinesh@2624"; // This will be hashed before storage
+
+    /**
+     * Returns all migrations in version order.
+     * @return The list of migrations.
+     */
+    public static List<Migration> all() {
+        return Arrays.asList(
+                baselineTables(),
+                new Migration(2, "Seed default admin user and menu", SchemaMigrations::seedDefaults),
+                hotLookupIndexes(),
+                IndexCatalog.migration(4, "Covering indexes for DatabaseManager access paths",
+                        // Each of these is a leading-column prefix of a V4 index
+                        "orders.idx_orders_customer_username",
+                        "order_items.idx_order_items_order_id",
+                        "table_bookings.idx_table_bookings_customer_id",
+                        "table_bookings.idx_table_bookings_booking_time",
+                        "dish_ratings.idx_dish_ratings_menu_item_id",
+                        "user_cards.idx_user_cards_user_id",
+                        "feedback.idx_feedback_feedback_date"),
+                Migration.sql(5, "Store money as DECIMAL(10,2)",
+                        // Existing DOUBLE values are rounded to the paisa by the conversion
+                        "ALTER TABLE menu_items MODIFY price DECIMAL(10,2) NOT NULL",
+                        "ALTER TABLE orders MODIFY discount_applied DECIMAL(10,2) DEFAULT 0.00",
+                        "ALTER TABLE order_items MODIFY price_at_order DECIMAL(10,2) NOT NULL",
+                        "ALTER TABLE table_bookings MODIFY booking_fee DECIMAL(10,2) NOT NULL"),
+                Migration.sql(6, "Kitchen status timestamps on orders",
+                        "ALTER TABLE orders ADD COLUMN prep_started_at DATETIME NULL",
+                        "ALTER TABLE orders ADD COLUMN ready_at DATETIME NULL"),
+                IndexCatalog.migration(7, "Indexes for kitchen queries"),
+                orderStatusEvents(),
+                IndexCatalog.migration(9, "Indexes for order status events"),
+                floorPlan(),
+                IndexCatalog.migration(11, "Booking time index that also covers payment status",
+                        // Same leading column; availability queries now skip expired bookings
+                        "table_bookings.idx_table_bookings_time_cover"),
+                IndexCatalog.migration(12, "Per-table booking time index for recurring bookings"),
+                new Migration(13, "Table slot claims for overlap-free bookings", SchemaMigrations::bookingSlots),
+                Migration.sql(14, "Change versions for screen refreshes",
+                        "CREATE TABLE data_versions (" +
+                        "entity VARCHAR(50) PRIMARY KEY," + // DataVersions.Entity name
+                        "version BIGINT NOT NULL" +
+                        ")",
+                        "INSERT INTO data_versions (entity, version) VALUES " +
+                        "('MENU_ITEMS', 0), ('ORDERS', 0), ('TABLE_BOOKINGS', 0), " +
+                        "('FEEDBACK', 0), ('DISH_RATINGS', 0), ('USERS', 0)"),
+                new Migration(15, "Feedback full-text index and sentiment totals", SchemaMigrations::feedbackIndex),
+                ingredientInventory(),
+                IndexCatalog.migration(17, "Index for the dishes that use an ingredient"),
+                new Migration(18, "GST rates, order tax lines and filing-period totals", SchemaMigrations::taxLedger)
+        );
+    }
+
+    /**
+     * V1: the original tables. Uses CREATE TABLE IF NOT EXISTS so that databases created before
+     * migrations existed are adopted without changes.
+     */
+    private static Migration baselineTables() {
+        return Migration.sql(1, "Baseline tables",
+                "CREATE TABLE IF NOT EXISTS users (" +
+                "user_id VARCHAR(255) PRIMARY KEY," + // Using UUID as primary key
+                "username VARCHAR(50) NOT NULL UNIQUE," +
+                "password_hash VARCHAR(255) NOT NULL," +
+                "full_name VARCHAR(100) NOT NULL," +
+                "email VARCHAR(100)," +
+                "phone_number VARCHAR(20)," +
+                "role VARCHAR(20) NOT NULL" + // e.g., 'ADMIN', 'CUSTOMER'
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS user_cards (" +
+                "card_id VARCHAR(255) PRIMARY KEY," + // Using card_id as PK, useful for upsert
+                "user_id VARCHAR(255) NOT NULL," +
+                "last_four_digits VARCHAR(4) NOT NULL," +
+                "card_type VARCHAR(50) NOT NULL," +
+                "expiry_month VARCHAR(2) NOT NULL," +
+                "expiry_year VARCHAR(4) NOT NULL," +
+                "FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE" +
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS menu_items (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "name VARCHAR(100) NOT NULL UNIQUE," + // Item names must be unique
+                "price DOUBLE NOT NULL," +
+                "image_url VARCHAR(255)," +
+                "stock INT DEFAULT 0" +
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS orders (" +
+                "order_id INT AUTO_INCREMENT PRIMARY KEY," +
+                "customer_username VARCHAR(50)," + // Link to users table (username, not user_id directly for simplicity)
+                "order_time DATETIME NOT NULL," +
+                "status VARCHAR(50) NOT NULL," +
+                "payment_status VARCHAR(50) NOT NULL," +
+                "payment_method VARCHAR(50) NOT NULL," +
+                "discount_applied DOUBLE DEFAULT 0.0," +
+                "FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE SET NULL" +
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS order_items (" +
+                "order_item_id INT AUTO_INCREMENT PRIMARY KEY," +
+                "order_id INT NOT NULL," +
+                "menu_item_id INT NOT NULL," +
+                "quantity INT NOT NULL," +
+                "price_at_order DOUBLE NOT NULL," + // Price at the time of order
+                "FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE," +
+                "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE RESTRICT" + // RESTRICT to prevent deleting menu item if part of existing order
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS table_bookings (" +
+                "booking_id INT AUTO_INCREMENT PRIMARY KEY," +
+                "customer_id VARCHAR(255) NOT NULL," + // Link to users table (user_id)
+                "customer_name VARCHAR(100) NOT NULL," +
+                "phone VARCHAR(20)," +
+                "table_type VARCHAR(50) NOT NULL," +
+                "table_number INT NOT NULL," +
+                "seats INT NOT NULL," + // Number of seats for this booking
+                "booking_time DATETIME NOT NULL," +
+                "duration_minutes INT NOT NULL," +
+                "booking_fee DOUBLE NOT NULL," +
+                "payment_status VARCHAR(50) NOT NULL," +
+                "payment_method VARCHAR(50) NOT NULL," +
+                "FOREIGN KEY (customer_id) REFERENCES users(user_id) ON DELETE CASCADE" +
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS feedback (" +
+                "feedback_id INT AUTO_INCREMENT PRIMARY KEY," +
+                "customer_username VARCHAR(50)," + // Link to users table
+                "rating INT NOT NULL," +          // e.g., 1-5 stars
+                "comments TEXT," +
+                "feedback_date DATETIME NOT NULL," +
+                "FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE SET NULL" +
+                ")",
+
+                "CREATE TABLE IF NOT EXISTS dish_ratings (" +
+                "rating_id INT AUTO_INCREMENT PRIMARY KEY," +
+                "menu_item_id INT NOT NULL," +
+                "customer_username VARCHAR(50)," + // Link to users table
+                "rating INT NOT NULL," +          // e.g., 1-5 stars
+                "rating_date DATETIME NOT NULL," +
+                "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE CASCADE," +
+                "FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE SET NULL" +
+                ")"
+        );
+    }
+
+    /**
+     * V2: inserts the default admin user and the default menu.
+     * Both checks are single-row lookups rather than loading whole tables, and both are skipped
+     * for databases that already have an admin / any menu items.
+     */
+    private static void seedDefaults(Connection conn) throws SQLException {
+        boolean adminExists;
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM users WHERE username = ?")) {
+            pstmt.setString(1, ADMIN_USERNAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                adminExists = rs.next();
+            }
+        }
+        if (!adminExists) {
+            String adminPasswordHash = PasswordUtil.hashPassword(ADMIN_PASSWORD_PLAIN);
+            if (adminPasswordHash == null) {
+                throw new SQLException("Failed to hash admin password during initialization.");
+            }
+            String sql = "INSERT INTO users (user_id, username, password_hash, full_name, email, phone_number, role) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, UUID.randomUUID().toString()); // Generate a UUID for the admin user
+                pstmt.setString(2, ADMIN_USERNAME);
+                pstmt.setString(3, adminPasswordHash);
+                pstmt.setString(4, "Dinesh Reddy (Admin)");
+                pstmt.setString(5, "admin@example.com");
+                pstmt.setString(6, "9876543210");
+                pstmt.setString(7, UserRole.ADMIN.name());
+                pstmt.executeUpdate();
+            }
+            System.out.println("Default admin user added: " + ADMIN_USERNAME);
+        }
+
+        boolean menuEmpty;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM menu_items LIMIT 1")) {
+            menuEmpty = !rs.next();
+        }
+        if (menuEmpty) {
+            Object[][] defaults = {
+                    {"chicken biryani", 150.00, "https://drive.google.com/uc?export=download&id=1DOcsjdVSiHfFbw98KRlDNsEpxqJOkXWf", 100},
+                    {"mutton biryani", 200.00, "https://drive.google.com/uc?export=download&id=1P7SH9HAPUHuvQ9wkcaM0YOYeINANg5QK", 80},
+                    {"veg biryani", 100.00, "https://drive.google.com/uc?export=download&id=1c493CZ0Nu8P4qdnQ55XlKLbG2o9bx7J5", 120},
+                    {"chicken curry", 180.00, "https://drive.google.com/uc?export=download&id=1i3jLFLraZaH6AH9dvkb-MrG_tbxVLNu1", 90},
+                    {"mutton curry", 220.00, "https://drive.google.com/uc?export=download&id=1cQoE6W9_s7NY4GqxRIgZTtguO6uJkC7z", 70},
+                    {"veg curry", 120.00, "https://drive.google.com/uc?export=download&id=1RDw0ymUbvk7ITx563nyV0LeWVrcXw5dQ", 110},
+                    {"chicken tikka", 160.00, "https://drive.google.com/uc?export=download&id=105169q3LUgXDsuxw2U6uoI4A0-qeYdvO", 95},
+                    {"mutton tikka", 210.00, "https://drive.google.com/uc?export=download&id=1m5yjJJkfQ_yJflgwBAhtGb6G2O3f3UEG", 65},
+                    {"veg tikka", 130.00, "https://drive.google.com/uc?export=download&id=12OBzeP61PHbCTpBOI7NCTB7Xs7HMsioN", 105},
+                    {"chicken kebab", 170.00, "https://drive.google.com/uc?export=download&id=1t4_FBXzgwBhclm_aKOiwlL-daqTyiOM2", 85},
+                    {"mutton kebab", 230.00, "https://drive.google.com/uc?export=download&id=116_YvTUVPCRSecjuYlWtQgmp7hIEERlm", 60},
+                    {"veg kebab", 140.00, "https://drive.google.com/uc?export=download&id=11kSyg2mxLkX4vaoJMVOeN4UB8ff5w-TC", 100},
+                    {"soft drink", 50.00, "https://drive.google.com/uc?export=download&id=1oZGTjuzltsiSdyPlMHrwRt37fRnaAkTM", 200},
+                    {"water", 20.00, "https://drive.google.com/uc?export=download&id=1EqsZddDosywdiN7k5atU-DCiYcYN6MvZ", 500},
+                    {"salad", 30.00, "https://drive.google.com/uc?export=download&id=1D-srw_vsgd1UHmMS7D7mIu-RwgB7oZ4s", 150},
+                    {"dessert", 80.00, "https://drive.google.com/uc?export=download&id=1Z271ej253HWtRdgMjFOpg-42z0GmlmgC", 130}
+            };
+            String sql = "INSERT INTO menu_items (name, price, image_url, stock) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Object[] row : defaults) {
+                    pstmt.setString(1, (String) row[0]);
+                    pstmt.setDouble(2, (Double) row[1]);
+                    pstmt.setString(3, (String) row[2]);
+                    pstmt.setInt(4, (Integer) row[3]);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            System.out.println("Default biryani-style menu items inserted with food-related images.");
+        }
+    }
+
+    /**
+     * V3: secondary indexes on the columns DatabaseManager filters and joins on.
+     */
+    private static Migration hotLookupIndexes() {
+        return Migration.sql(3, "Indexes for hot lookup columns",
+                "CREATE INDEX idx_orders_customer_username ON orders (customer_username)",
+                "CREATE INDEX idx_order_items_order_id ON order_items (order_id)",
+                "CREATE INDEX idx_table_bookings_customer_id ON table_bookings (customer_id)",
+                "CREATE INDEX idx_table_bookings_booking_time ON table_bookings (booking_time)",
+                "CREATE INDEX idx_dish_ratings_menu_item_id ON dish_ratings (menu_item_id)",
+                "CREATE INDEX idx_user_cards_user_id ON user_cards (user_id)",
+                "CREATE INDEX idx_feedback_feedback_date ON feedback (feedback_date)"
+        );
+    }
+
+    /**
+     * V8: append-only order status history. There is no foreign key to orders, so the history of
+     * deleted orders is kept. Existing orders are backfilled from order_time and the V6 kitchen
+     * timestamps, which is all that is known about their past.
+     */
+    private static Migration orderStatusEvents() {
+        return Migration.sql(8, "Order status history",
+                "CREATE TABLE order_status_events (" +
+                "event_id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "order_id INT NOT NULL," +
+                "status VARCHAR(50) NOT NULL," + // OrderStatus the order entered
+                "changed_at DATETIME NOT NULL" +
+                ")",
+                "INSERT INTO order_status_events (order_id, status, changed_at) " +
+                "SELECT order_id, 'PENDING', order_time FROM orders",
+                "INSERT INTO order_status_events (order_id, status, changed_at) " +
+                "SELECT order_id, 'PREPARING', prep_started_at FROM orders WHERE prep_started_at IS NOT NULL",
+                "INSERT INTO order_status_events (order_id, status, changed_at) " +
+                "SELECT order_id, 'READY_FOR_PICKUP', ready_at FROM orders WHERE ready_at IS NOT NULL");
+    }
+
+    /**
+     * V10: the floor plan, replacing the table list that was hard-coded in DatabaseManager. Seeded
+     * with the same table numbers and types; tables can be combined with their neighbours in the
+     * same zone. Neighbour links are stored in both directions.
+     */
+    private static Migration floorPlan() {
+        return Migration.sql(10, "Restaurant floor plan",
+                "CREATE TABLE restaurant_tables (" +
+                "table_number INT PRIMARY KEY," +
+                "table_type VARCHAR(50) NOT NULL," + // TableType stored on bookings
+                "capacity INT NOT NULL," +
+                "zone VARCHAR(50) NOT NULL" +
+                ")",
+                "CREATE TABLE restaurant_table_neighbours (" +
+                "table_number INT NOT NULL," +
+                "neighbour_number INT NOT NULL," +
+                "PRIMARY KEY (table_number, neighbour_number)" +
+                ")",
+                "INSERT INTO restaurant_tables (table_number, table_type, capacity, zone) VALUES " +
+                "(1, 'SMALL', 2, 'Window'), (2, 'SMALL', 2, 'Window'), (3, 'SMALL', 2, 'Window'), " +
+                "(4, 'SMALL', 2, 'Window'), (5, 'SMALL', 2, 'Window'), " +
+                "(10, 'MEDIUM', 4, 'Main Hall'), (11, 'MEDIUM', 4, 'Main Hall'), (12, 'MEDIUM', 4, 'Main Hall'), " +
+                "(20, 'LARGE', 6, 'Main Hall'), (21, 'LARGE', 6, 'Main Hall'), " +
+                "(30, 'PRIVATE_DINING', 10, 'Private Room')",
+                "INSERT INTO restaurant_table_neighbours (table_number, neighbour_number) VALUES " +
+                "(1, 2), (2, 1), (2, 3), (3, 2), (3, 4), (4, 3), (4, 5), (5, 4), " +
+                "(10, 11), (11, 10), (11, 12), (12, 11), (12, 20), (20, 12), (20, 21), (21, 20)");
+    }
+
+    /**
+     * V13: one row per booked table and 15-minute slot. The primary key (table_number, slot_start)
+     * lets the database itself reject a second booking of a slot, so two terminals booking the
+     * same table at once cannot both succeed. Slots are claimed in the same transaction as the
+     * booking row and go away with it (ON DELETE CASCADE).
+     * Existing bookings that have not ended are backfilled; where the old check-then-insert race
+     * already double-booked a slot, the earlier booking keeps it.
+     */
+    private static void bookingSlots(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE table_booking_slots (" +
+                    "table_number INT NOT NULL," +
+                    "slot_start DATETIME NOT NULL," + // Start of a 15-minute slot (TableSlotAllocator.SLOT_MINUTES)
+                    "booking_id INT NOT NULL," +
+                    "PRIMARY KEY (table_number, slot_start)," +
+                    "FOREIGN KEY (booking_id) REFERENCES table_bookings(booking_id) ON DELETE CASCADE" +
+                    ")");
+        }
+        String selectSql = "SELECT booking_id, table_number, booking_time, duration_minutes FROM table_bookings " +
+                           "WHERE booking_time > ? AND payment_status <> 'EXPIRED' ORDER BY booking_id";
+        String insertSql = "INSERT IGNORE INTO table_booking_slots (table_number, slot_start, booking_id) VALUES (?, ?, ?)";
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            select.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime start = rs.getTimestamp("booking_time").toLocalDateTime();
+                    LocalDateTime end = start.plusMinutes(rs.getInt("duration_minutes"));
+                    LocalDateTime slot = start.truncatedTo(ChronoUnit.HOURS).plusMinutes(start.getMinute() / 15 * 15);
+                    for (; slot.isBefore(end); slot = slot.plusMinutes(15)) {
+                        insert.setInt(1, rs.getInt("table_number"));
+                        insert.setTimestamp(2, Timestamp.valueOf(slot));
+                        insert.setInt(3, rs.getInt("booking_id"));
+                        insert.addBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * V16: ingredient inventory. recipe_lines says how much of each ingredient one portion of a dish
+     * uses; order_ingredient_usage records what each order took out of stock, so deleting the order
+     * puts back exactly that even if the recipe changed since. dish_availability holds, for every
+     * dish with a recipe, the portions its scarcest ingredient is enough for; DatabaseManager keeps
+     * it current whenever ingredient stock or a recipe changes.
+     */
+    private static Migration ingredientInventory() {
+        return Migration.sql(16, "Ingredient inventory and recipes",
+                "CREATE TABLE ingredients (" +
+                "ingredient_id INT AUTO_INCREMENT PRIMARY KEY," +
+                "name VARCHAR(100) NOT NULL UNIQUE," +
+                "unit VARCHAR(20) NOT NULL," + // "g", "ml" or "pcs"
+                "on_hand BIGINT NOT NULL DEFAULT 0" +
+                ")",
+                "CREATE TABLE recipe_lines (" +
+                "menu_item_id INT NOT NULL," +
+                "ingredient_id INT NOT NULL," +
+                "quantity INT NOT NULL," + // Units per portion
+                "PRIMARY KEY (menu_item_id, ingredient_id)," +
+                "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE CASCADE," +
+                "FOREIGN KEY (ingredient_id) REFERENCES ingredients(ingredient_id) ON DELETE CASCADE" +
+                ")",
+                "CREATE TABLE order_ingredient_usage (" +
+                "order_id INT NOT NULL," +
+                "ingredient_id INT NOT NULL," +
+                "quantity BIGINT NOT NULL," +
+                "PRIMARY KEY (order_id, ingredient_id)," +
+                "FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE," +
+                "FOREIGN KEY (ingredient_id) REFERENCES ingredients(ingredient_id) ON DELETE CASCADE" +
+                ")",
+                "CREATE TABLE dish_availability (" +
+                "menu_item_id INT PRIMARY KEY," +
+                "portions INT NOT NULL," +
+                "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE CASCADE" +
+                ")");
+    }
+
+    /**
+     * V15: the feedback full-text index and sentiment totals (see FeedbackAnalytics).
+     * feedback_terms is the inverted index: one row per term and comment, clustered by term so a
+     * search reads one contiguous range per query term. It also holds the comment's term count,
+     * which BM25 ranking needs, so a search never reads the feedback rows it does not return.
+     * The per-day, per-dish and overall totals are updated in the transaction that adds a comment.
+     * Existing feedback is indexed here.
+     */
+    private static void feedbackIndex(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE feedback ADD COLUMN sentiment DOUBLE");
+            stmt.execute("CREATE TABLE feedback_terms (" +
+                    "term VARCHAR(50) NOT NULL," +
+                    "feedback_id INT NOT NULL," +
+                    "term_count INT NOT NULL," + // Occurrences of the term in the comment
+                    "doc_terms INT NOT NULL," +  // Indexed terms in the whole comment
+                    "PRIMARY KEY (term, feedback_id)," +
+                    "FOREIGN KEY (feedback_id) REFERENCES feedback(feedback_id) ON DELETE CASCADE" +
+                    ")");
+            stmt.execute("CREATE TABLE feedback_index_totals (" +
+                    "id INT PRIMARY KEY," + // Always 1
+                    "documents BIGINT NOT NULL," +
+                    "terms BIGINT NOT NULL" +
+                    ")");
+            stmt.execute("INSERT INTO feedback_index_totals (id, documents, terms) VALUES (1, 0, 0)");
+            stmt.execute("CREATE TABLE feedback_daily_sentiment (" +
+                    "feedback_day DATE PRIMARY KEY," +
+                    "comments INT NOT NULL," +
+                    "sentiment_sum DOUBLE NOT NULL," +
+                    "positive INT NOT NULL," +
+                    "negative INT NOT NULL" +
+                    ")");
+            stmt.execute("CREATE TABLE feedback_dish_mentions (" +
+                    "menu_item_id INT NOT NULL," +
+                    "feedback_id INT NOT NULL," +
+                    "PRIMARY KEY (menu_item_id, feedback_id)," +
+                    "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE CASCADE," +
+                    "FOREIGN KEY (feedback_id) REFERENCES feedback(feedback_id) ON DELETE CASCADE" +
+                    ")");
+            stmt.execute("CREATE TABLE dish_mention_totals (" +
+                    "menu_item_id INT PRIMARY KEY," +
+                    "mentions INT NOT NULL," +
+                    "sentiment_sum DOUBLE NOT NULL," +
+                    "FOREIGN KEY (menu_item_id) REFERENCES menu_items(id) ON DELETE CASCADE" +
+                    ")");
+        }
+        Map<Integer, List<String>> dishTokens = DatabaseManager.loadDishTokens(conn);
+        String selectSql = "SELECT feedback_id, customer_username, rating, comments, feedback_date FROM feedback ORDER BY feedback_id";
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                Feedback feedback = new Feedback(rs.getInt("feedback_id"), rs.getString("customer_username"), rs.getInt("rating"),
+                        rs.getString("comments"), rs.getTimestamp("feedback_date").toLocalDateTime());
+                DatabaseManager.indexFeedback(conn, feedback, dishTokens);
+            }
+        }
+    }
+
+    /**
+     * V18: the GST ledger (see TaxLedger). Menu items get a tax category and tax_rates the rate of
+     * each category by effective date. order_tax_lines holds the GST charged on each order, one row
+     * per category, and orders.gst_amount their sum. tax_period_totals holds the lines of the orders
+     * that count (all but cancelled ones) added up per month and per quarter, by category and rate.
+     * Existing orders were all charged 5% on the discounted subtotal, so each gets one FOOD line at
+     * 5% with exactly the GST its bill showed, and the totals are built from those.
+     */
+    private static void taxLedger(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE menu_items ADD COLUMN tax_category VARCHAR(30) NOT NULL DEFAULT 'FOOD'"); // TaxCategory name
+            stmt.execute("ALTER TABLE orders ADD COLUMN gst_amount DECIMAL(10,2) NOT NULL DEFAULT 0.00");
+            stmt.execute("CREATE TABLE tax_rates (" +
+                    "tax_category VARCHAR(30) NOT NULL," +
+                    "effective_from DATE NOT NULL," +
+                    "rate_basis_points INT NOT NULL," + // 500 = 5%
+                    "PRIMARY KEY (tax_category, effective_from)" +
+                    ")");
+            stmt.execute("INSERT INTO tax_rates (tax_category, effective_from, rate_basis_points) VALUES " +
+                    "('FOOD', '2017-07-01', 500), ('BEVERAGE', '2017-07-01', 500), ('PACKAGED_GOODS', '2017-07-01', 1800)");
+            stmt.execute("CREATE TABLE order_tax_lines (" +
+                    "order_id INT NOT NULL," +
+                    "tax_category VARCHAR(30) NOT NULL," +
+                    "rate_basis_points INT NOT NULL," + // The rate on the order date, kept if the rate changes later
+                    "gross_amount DECIMAL(10,2) NOT NULL," +
+                    "discount_amount DECIMAL(10,2) NOT NULL," + // This category's share of the order discount
+                    "tax_amount DECIMAL(10,2) NOT NULL," +
+                    "PRIMARY KEY (order_id, tax_category)," +
+                    "FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE CASCADE" +
+                    ")");
+            stmt.execute("CREATE TABLE tax_period_totals (" +
+                    "period_type VARCHAR(10) NOT NULL," + // TaxLedger.Period name
+                    "period_start DATE NOT NULL," +
+                    "tax_category VARCHAR(30) NOT NULL," +
+                    "rate_basis_points INT NOT NULL," +
+                    "orders INT NOT NULL," +
+                    "gross_amount DECIMAL(15,2) NOT NULL," +
+                    "discount_amount DECIMAL(15,2) NOT NULL," +
+                    "tax_amount DECIMAL(15,2) NOT NULL," +
+                    "PRIMARY KEY (period_type, period_start, tax_category, rate_basis_points)" +
+                    ")");
+            stmt.execute("INSERT INTO data_versions (entity, version) VALUES ('TAX_RATES', 0)");
+        }
+
+        int rate = 500;
+        Map<TaxLedger.Period, Map<LocalDate, long[]>> totals = new EnumMap<>(TaxLedger.Period.class); // orders, gross, discount, tax
+        String selectSql = "SELECT o.order_id, o.order_time, o.status, o.discount_applied, SUM(oi.quantity * oi.price_at_order) AS gross " +
+                           "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id " +
+                           "GROUP BY o.order_id, o.order_time, o.status, o.discount_applied";
+        String lineSql = "INSERT INTO order_tax_lines (order_id, tax_category, rate_basis_points, gross_amount, discount_amount, tax_amount) " +
+                         "VALUES (?, ?, ?, ?, ?, ?)";
+        String orderSql = "UPDATE orders SET gst_amount = ? WHERE order_id = ?";
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement line = conn.prepareStatement(lineSql);
+             PreparedStatement order = conn.prepareStatement(orderSql);
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                long gross = Money.fromDecimal(rs.getBigDecimal("gross"));
+                long discount = Money.fromDecimal(rs.getBigDecimal("discount_applied"));
+                long tax = Money.applyRate(gross - discount, rate);
+                line.setInt(1, rs.getInt("order_id"));
+                line.setString(2, TaxCategory.FOOD.name());
+                line.setInt(3, rate);
+                line.setBigDecimal(4, Money.toDecimal(gross));
+                line.setBigDecimal(5, Money.toDecimal(discount));
+                line.setBigDecimal(6, Money.toDecimal(tax));
+                line.addBatch();
+                order.setBigDecimal(1, Money.toDecimal(tax));
+                order.setInt(2, rs.getInt("order_id"));
+                order.addBatch();
+                if (!OrderStatus.CANCELLED.name().equals(rs.getString("status"))) {
+                    LocalDate day = rs.getTimestamp("order_time").toLocalDateTime().toLocalDate();
+                    for (TaxLedger.Period period : TaxLedger.Period.values()) {
+                        long[] sums = totals.computeIfAbsent(period, p -> new TreeMap<>()).computeIfAbsent(period.startOf(day), d -> new long[4]);
+                        sums[0]++;
+                        sums[1] += gross;
+                        sums[2] += discount;
+                        sums[3] += tax;
+                    }
+                }
+            }
+            line.executeBatch();
+            order.executeBatch();
+        }
+
+        String totalsSql = "INSERT INTO tax_period_totals (period_type, period_start, tax_category, rate_basis_points, orders, gross_amount, discount_amount, tax_amount) " +
+                           "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = conn.prepareStatement(totalsSql)) {
+            for (Map.Entry<TaxLedger.Period, Map<LocalDate, long[]>> period : totals.entrySet()) {
+                for (Map.Entry<LocalDate, long[]> entry : period.getValue().entrySet()) {
+                    long[] sums = entry.getValue();
+                    insert.setString(1, period.getKey().name());
+                    insert.setDate(2, java.sql.Date.valueOf(entry.getKey()));
+                    insert.setString(3, TaxCategory.FOOD.name());
+                    insert.setInt(4, rate);
+                    insert.setLong(5, sums[0]);
+                    insert.setBigDecimal(6, Money.toDecimal(sums[1]));
+                    insert.setBigDecimal(7, Money.toDecimal(sums[2]));
+                    insert.setBigDecimal(8, Money.toDecimal(sums[3]));
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+}
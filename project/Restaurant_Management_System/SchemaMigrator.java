@@ -0,0 +1,167 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies pending schema migrations and records them in the 'schema_version' table.
+ *
+ * Boot path: one connection and one "SELECT MAX(version)" query. If the database is already at the
+ * latest version nothing else runs, and once verified the result is cached for the rest of the process.
+ * Pending migrations are applied in version order inside a single transaction. (MySQL commits DDL
+ * implicitly, so each migration's version row is written right after it to keep the record accurate.)
+ *
+ * Databases first started before migrations existed have a 'schema_version' table without the
+ * description column, holding version 1 for the baseline tables (V1 here). The column is added, and
+ * the old rows described, before any pending migration is recorded.
+ */
+public class SchemaMigrator {
+
+    // Latest version verified in this process; -1 until the first successful check.
+    private static volatile int verifiedVersion = -1;
+
+    /**
+     * Brings the database up to the latest migration in the given list.
+     * @param migrations All known migrations (any order; they are sorted by version).
+     * @return true if the database is at the latest version afterwards, false if a migration failed.
+     */
+    public static synchronized boolean migrate(List<Migration> migrations) {
+        List<Migration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(Migration::getVersion));
+        int latest = ordered.isEmpty() ? 0 : ordered.get(ordered.size() - 1).getVersion();
+        if (verifiedVersion >= latest) {
+            return true;
+        }
+
+        long startNanos = System.nanoTime();
+        try (Connection conn = DBConnection.getConnection()) {
+            int current = readCurrentVersion(conn);
+            if (current >= latest) {
+                verifiedVersion = current;
+                System.out.println(String.format("Schema is current at version %d (checked in %d us).",
+                        current, (System.nanoTime() - startNanos) / 1_000));
+                return true;
+            }
+            if (current == 0) {
+                createVersionTable(conn);
+            } else {
+                upgradeLegacyVersionTable(conn, ordered);
+            }
+            applyPending(conn, ordered, current);
+            verifiedVersion = latest;
+            System.out.println(String.format("Schema migrated from version %d to %d in %d ms.",
+                    current, latest, (System.nanoTime() - startNanos) / 1_000_000));
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error migrating database schema: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Applies every migration newer than the current version, in order, in one transaction.
+     */
+    private static void applyPending(Connection conn, List<Migration> ordered, int current) throws SQLException {
+        String recordSql = "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)";
+        conn.setAutoCommit(false); // Start transaction
+        try (PreparedStatement record = conn.prepareStatement(recordSql)) {
+            for (Migration migration : ordered) {
+                if (migration.getVersion() <= current) {
+                    continue;
+                }
+                migration.apply(conn);
+                record.setInt(1, migration.getVersion());
+                record.setString(2, migration.getDescription());
+                record.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                record.executeUpdate();
+                System.out.println("Applied migration " + migration);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                conn.rollback(); // Rollback whatever part of the failed migration was transactional
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back migration: " + ex.getMessage());
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true); // Reset auto-commit
+        }
+    }
+
+    /**
+     * Reads the latest applied version.
+     * @param conn The connection to use.
+     * @return The latest version, or 0 if 'schema_version' does not exist yet (fresh database).
+     * @throws SQLException If the database cannot be read; never taken to mean a fresh database,
+     *                      which would re-run every migration.
+     */
+    static int readCurrentVersion(Connection conn) throws SQLException {
+        if (!hasVersionColumn(conn, null)) {
+            return 0;
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Looks up 'schema_version' in the catalog of the connection.
+     * @param column A column to look for, or null to check only that the table exists.
+     * @return true if the table (and the column) exist.
+     */
+    private static boolean hasVersionColumn(Connection conn, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = column == null
+                ? meta.getTables(conn.getCatalog(), null, "schema_version", null)
+                : meta.getColumns(conn.getCatalog(), null, "schema_version", column)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Creates the 'schema_version' bookkeeping table.
+     */
+    private static void createVersionTable(Connection conn) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS schema_version (" +
+                     "version INT PRIMARY KEY," +
+                     "description VARCHAR(255) NOT NULL," +
+                     "applied_at DATETIME NOT NULL" +
+                     ")";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Adds the description column to a 'schema_version' table written before migrations existed,
+     * and fills it in for the versions already recorded. Does nothing if the column exists.
+     */
+    private static void upgradeLegacyVersionTable(Connection conn, List<Migration> ordered) throws SQLException {
+        if (hasVersionColumn(conn, "description")) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE schema_version ADD COLUMN description VARCHAR(255) NOT NULL DEFAULT ''");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE schema_version SET description = ? WHERE version = ?")) {
+            for (Migration migration : ordered) {
+                pstmt.setString(1, migration.getDescription());
+                pstmt.setInt(2, migration.getVersion());
+                pstmt.executeUpdate();
+            }
+        }
+        System.out.println("Upgraded the schema_version table from before versioned migrations.");
+    }
+}
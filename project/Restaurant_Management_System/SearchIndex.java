@@ -0,0 +1,312 @@
+package application;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over the rows of an ObservableList, for the search boxes of the admin tables.
+ *
+ * The searchable text of every row (names, usernames, phone numbers, comments...) is split into
+ * words, and each word is indexed under its trigrams (3-character substrings) and under its first
+ * one and two characters. A query word of 3 or more characters matches rows containing it anywhere
+ * ("9876" finds "+91 98765 43210", "pane" finds "Paneer Tikka"); a shorter word matches rows with a
+ * word starting with it. A query with several words matches rows containing all of them.
+ *
+ * A query intersects the posting lists of its n-grams, starting with the shortest, and then checks
+ * the few remaining candidates against their text; the rows are never scanned one by one. The
+ * result is a Predicate for a FilteredList.
+ *
+ * The index listens to the list and follows its changes: added rows are indexed, removed ones are
+ * marked dead and the index is rebuilt once more than half of it is dead. Rows added after a
+ * predicate was created are checked against their text directly, so a predicate stays correct
+ * while the list changes. It must be created before any FilteredList over the same list, so its
+ * listener runs first. Used on the JavaFX thread only.
+ */
+public class SearchIndex<T> {
+
+    private static final int MIN_COMPACT_DOCS = 1024;
+
+    private final ObservableList<T> source;
+    private final Function<? super T, String> textOf;
+
+    // Each row indexed gets a new document number; its old one is dead from then on
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final List<String> texts = new ArrayList<>(); // Normalized text by document number
+    private final BitSet live = new BitSet();
+    private final Map<T, Integer> docs = new IdentityHashMap<>(); // Row -> its live document number
+    private int liveCount;
+    private int generation; // Incremented by every rebuild, which renumbers the documents
+
+    /**
+     * Creates the index and indexes the current rows of a list.
+     * @param source The list to search; the index follows its changes.
+     * @param textOf Returns the searchable text of a row.
+     */
+    public SearchIndex(ObservableList<T> source, Function<? super T, String> textOf) {
+        this.source = source;
+        this.textOf = textOf;
+        rebuild();
+        source.addListener((ListChangeListener<T>) this::onSourceChanged);
+    }
+
+    /**
+     * @return The number of rows indexed.
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Returns the predicate that keeps the rows matching a query.
+     * @param query The words typed in the search box; blank matches every row.
+     * @return The predicate for a FilteredList.
+     */
+    public Predicate<T> predicate(String query) {
+        String[] words = words(normalize(query));
+        if (words.length == 0) {
+            return row -> true;
+        }
+        BitSet matches = search(words);
+        int indexedUpTo = texts.size();
+        int searchedGeneration = generation;
+        return row -> {
+            Integer doc = docs.get(row);
+            if (doc == null) {
+                return matchesText(normalize(textOf.apply(row)), words); // Not indexed (yet)
+            }
+            if (generation != searchedGeneration || doc >= indexedUpTo) {
+                return matchesText(texts.get(doc), words); // Indexed after this search
+            }
+            return matches.get(doc);
+        };
+    }
+
+    private BitSet search(String[] words) {
+        // Every n-gram of every word must be present; look up all posting lists first
+        List<IntList> lists = new ArrayList<>();
+        for (String word : words) {
+            for (String gram : queryGrams(word)) {
+                IntList list = postings.get(gram);
+                if (list == null) {
+                    return new BitSet(); // An n-gram no row has
+                }
+                lists.add(list);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        // Intersect, shortest list first, so the candidates only shrink
+        int[] candidates = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+
+        // The trigrams of a longer word may be spread over the text; then confirm the word itself is there
+        boolean exact = true;
+        for (String word : words) {
+            exact &= word.length() <= 3; // Its only n-gram is the word itself
+        }
+        BitSet matches = new BitSet(texts.size());
+        for (int i = 0; i < count; i++) {
+            int doc = candidates[i];
+            if (live.get(doc) && (exact || matchesText(texts.get(doc), words))) {
+                matches.set(doc);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Keeps the candidates (sorted) that are also in a posting list.
+     * @return The number of candidates kept at the start of the array.
+     */
+    private static int intersect(int[] candidates, int count, IntList list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int doc = candidates[i];
+            j = list.seek(j, doc);
+            if (j < list.size && list.values[j] == doc) {
+                candidates[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    private static boolean matchesText(String text, String[] words) {
+        for (String word : words) {
+            if (word.length() < 3) {
+                if (!text.startsWith(word) && !text.contains(" " + word)) {
+                    return false;
+                }
+            } else if (!text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Keeping the index in sync ---
+
+    private void onSourceChanged(ListChangeListener.Change<? extends T> change) {
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue; // Same rows in another order
+            }
+            if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    index(source.get(i)); // Edited in place; index its new text
+                }
+                continue;
+            }
+            for (T row : change.getRemoved()) {
+                Integer doc = docs.remove(row);
+                if (doc != null && live.get(doc)) {
+                    live.clear(doc);
+                    liveCount--;
+                }
+            }
+            for (T row : change.getAddedSubList()) {
+                index(row);
+            }
+        }
+        int dead = texts.size() - liveCount;
+        if (dead > MIN_COMPACT_DOCS && dead > liveCount) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        postings.clear();
+        texts.clear();
+        live.clear();
+        docs.clear();
+        liveCount = 0;
+        generation++;
+        for (T row : source) {
+            index(row);
+        }
+    }
+
+    private void index(T row) {
+        Integer previous = docs.get(row);
+        if (previous != null && live.get(previous)) {
+            live.clear(previous); // The same row added again (e.g. set() with the same object after editing it)
+            liveCount--;
+        }
+        int doc = texts.size();
+        String text = normalize(textOf.apply(row));
+        texts.add(text);
+        live.set(doc);
+        liveCount++;
+        docs.put(row, doc);
+        for (String word : words(text)) {
+            addPosting(word.substring(0, 1), doc);
+            if (word.length() >= 2) {
+                addPosting(word.substring(0, 2), doc);
+            }
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                addPosting(word.substring(i, i + 3), doc);
+            }
+        }
+    }
+
+    private void addPosting(String gram, int doc) {
+        // Prefix grams are stored with a leading space so "ab" (prefix) and "abc" (trigram) never clash
+        postings.computeIfAbsent(gram.length() < 3 ? " " + gram : gram, g -> new IntList()).add(doc);
+    }
+
+    private static List<String> queryGrams(String word) {
+        List<String> grams = new ArrayList<>();
+        if (word.length() < 3) {
+            grams.add(" " + word);
+        } else {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                grams.add(word.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Lower-cases the text and turns every run of characters other than letters and digits into one space.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        return sb.toString().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] words(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    /**
+     * Growable posting list of document numbers, in increasing order: documents are numbered in
+     * the order they are indexed, and all n-grams of a row are added together.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return; // The same n-gram twice in one row
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * @return The first position at or after from whose value is not below target (galloping search).
+         */
+        int seek(int from, int target) {
+            if (from >= size || values[from] >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && values[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            // values[low] < target, and values[high] >= target or high == size
+            while (low + 1 < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < target) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            return high;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package application;
+
+import javafx.animation.AnimationTimer;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Startup-time instrumentation for the JavaFX application.
+ * Logs how long each startup phase took, measured from JVM start, and the time to the
+ * first rendered frame of a scene.
+ */
+public class StartupMetrics {
+
+    // Wall-clock time at which the JVM was started, used as the zero point for all marks
+    private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    /**
+     * Logs a startup phase with the elapsed time since JVM start.
+     * @param phase A short description of the phase that has just completed.
+     */
+    public static void mark(String phase) {
+        System.out.println(String.format("[startup] %-32s +%d ms", phase, System.currentTimeMillis() - JVM_START_MILLIS));
+    }
+
+    /**
+     * Logs the time to the next rendered frame. Must be called on the JavaFX thread right after
+     * the scene has been set/shown; the first animation pulse after that is the frame being drawn.
+     * @param label What is being rendered, e.g. "login screen".
+     */
+    public static void logFirstFrame(String label) {
+        long requestedAt = System.nanoTime();
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                System.out.println(String.format("[startup] time-to-first-frame (%s): +%d ms since JVM start, %d ms after request",
+                        label, System.currentTimeMillis() - JVM_START_MILLIS, (System.nanoTime() - requestedAt) / 1_000_000));
+            }
+        }.start();
+    }
+
+    /**
+     * Logs how long a piece of UI took to build.
+     * @param label What was built.
+     * @param startNanos The System.nanoTime() value taken before building started.
+     */
+    public static void logElapsed(String label, long startNanos) {
+        System.out.println(String.format("[startup] %-32s %d ms", label, (System.nanoTime() - startNanos) / 1_000_000));
+    }
+}
@@ -1,6 +1,8 @@
 package application;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -15,7 +17,7 @@ public class TableBooking {
     private TableType tableType; // Changed to private
     private int tableNumber; // Changed to private
     private int seats; // New: Storing seats for convenience, derived from TableType (changed to private)
-    private double bookingFee; // Changed to private
+    private long bookingFeePaise; // Fee in paise (fixed point, see Money)
     private PaymentStatus paymentStatus; // Changed to private
     private PaymentMethod paymentMethod; // Changed to private
     private LocalDateTime bookingTime;
@@ -67,11 +69,40 @@ public class TableBooking {
         this.seats = seats;
         this.bookingTime = bookingTime;
         this.durationMinutes = durationMinutes;
-        this.bookingFee = bookingFee;
+        this.bookingFeePaise = Money.fromRupees(bookingFee);
         this.paymentStatus = paymentStatus;
         this.paymentMethod = paymentMethod;
     }
 
+    /**
+     * Creates the bookings of a party seated at several tables, one per table. Guests are spread
+     * over the tables in order, each taking as many as it seats, and the fee is put on the first table.
+     * @param floorPlan The floor plan, for table types and capacities.
+     * @param tableNumbers The tables, e.g. from TableSlotAllocator.findCombination.
+     * @param customerId The ID of the user making the booking.
+     * @param customerName The name of the customer.
+     * @param phone The phone number of the customer.
+     * @param guests The party size.
+     * @param bookingTime The date and time of the booking.
+     * @param durationMinutes The duration of the booking in minutes.
+     * @param feePaise The booking fee of the whole party, in paise.
+     * @return The bookings, not yet saved.
+     */
+    public static List<TableBooking> forParty(FloorPlan floorPlan, int[] tableNumbers, String customerId, String customerName,
+                                              String phone, int guests, LocalDateTime bookingTime, int durationMinutes, long feePaise) {
+        List<TableBooking> bookings = new ArrayList<>();
+        int guestsLeft = guests;
+        for (int tableNumber : tableNumbers) {
+            int atTable = Math.max(1, Math.min(guestsLeft, floorPlan.getCapacity(tableNumber)));
+            guestsLeft -= atTable;
+            TableBooking booking = new TableBooking(customerId, customerName, phone,
+                    floorPlan.getTableType(tableNumber), tableNumber, atTable, bookingTime, durationMinutes, 0);
+            booking.setBookingFeePaise(bookings.isEmpty() ? feePaise : 0);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
     // --- Getters ---
     public int getBookingId() {
         return bookingId;
@@ -110,7 +141,11 @@ public class TableBooking {
     }
 
     public double getBookingFee() {
-        return bookingFee;
+        return Money.toRupees(bookingFeePaise);
+    }
+
+    public long getBookingFeePaise() {
+        return bookingFeePaise;
     }
 
     public PaymentStatus getPaymentStatus() {
@@ -159,7 +194,11 @@ public class TableBooking {
     }
 
     public void setBookingFee(double bookingFee) {
-        this.bookingFee = bookingFee;
+        this.bookingFeePaise = Money.fromRupees(bookingFee);
+    }
+
+    public void setBookingFeePaise(long bookingFeePaise) {
+        this.bookingFeePaise = bookingFeePaise;
     }
 
     public void setPaymentStatus(PaymentStatus paymentStatus) {
@@ -183,10 +222,30 @@ public class TableBooking {
                ", Seats: " + seats +
                ", Time: " + bookingTime.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) +
                ", Duration: " + durationMinutes + " minutes" +
-               ", Fee: Rs." + String.format("%.2f", bookingFee) +
+               ", Fee: Rs." + Money.format(bookingFeePaise) +
                ", Payment: " + paymentStatus.getDisplayValue();
     }
 
+    /**
+     * Compares every field, unlike equals() which only compares customer, table and time.
+     * @param other Another version of the same booking.
+     * @return true if nothing differs.
+     */
+    public boolean hasSameContent(TableBooking other) {
+        return bookingId == other.bookingId &&
+               tableNumber == other.tableNumber &&
+               seats == other.seats &&
+               durationMinutes == other.durationMinutes &&
+               bookingFeePaise == other.bookingFeePaise &&
+               tableType == other.tableType &&
+               paymentStatus == other.paymentStatus &&
+               paymentMethod == other.paymentMethod &&
+               Objects.equals(customerId, other.customerId) &&
+               Objects.equals(customerName, other.customerName) &&
+               Objects.equals(phone, other.phone) &&
+               Objects.equals(bookingTime, other.bookingTime);
+    }
+
     /**
      * Checks if two TableBooking objects are equal.
      * Equality is based on customerId, tableNumber, and bookingTime to prevent duplicate logical bookings.
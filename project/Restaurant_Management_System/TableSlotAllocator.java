@@ -0,0 +1,642 @@
+package application;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seating allocator for one day. Every table of the FloorPlan is a bitset of 15-minute slots, one bit per
+ * slot, set while the table is booked. The day covers 32 hours from midnight (128 slots, two longs
+ * per table), so late bookings that run past midnight are still inside the bitset.
+ *
+ * Checking a table for a window is two AND operations against a precomputed window mask.
+ * Bookings that do not start or end on a slot boundary occupy every slot they touch.
+ * Parties too large for any single table are seated at a connected group of free neighbouring
+ * tables (see findCombination).
+ * Instances are built per request by DatabaseManager.getTableSlotAllocator and are not thread-safe.
+ */
+public class TableSlotAllocator {
+
+    public static final int SLOT_MINUTES = 15;
+    private static final int WORDS_PER_TABLE = 2;
+    public static final int SLOTS = WORDS_PER_TABLE * Long.SIZE; // 32 hours
+    // Upper bound on search steps per combination query; the best group found so far is returned when it is reached
+    private static final int MAX_COMBINATION_STEPS = 200_000;
+
+    /**
+     * A free interval of one table.
+     */
+    public static class FreeWindow {
+        private final int tableNumber;
+        private final TableType tableType;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        FreeWindow(int tableNumber, TableType tableType, LocalDateTime start, LocalDateTime end) {
+            this.tableNumber = tableNumber;
+            this.tableType = tableType;
+            this.start = start;
+            this.end = end;
+        }
+
+        // --- Getters ---
+        public int getTableNumber() {
+            return tableNumber;
+        }
+
+        public TableType getTableType() {
+            return tableType;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "Table " + tableNumber + " (" + tableType + ") free " + start.toLocalTime() + "-" + end.toLocalTime();
+        }
+    }
+
+    private final LocalDateTime dayStart;
+    private final FloorPlan floorPlan;
+    // Tables in FloorPlan capacity order, so the first free fitting table is the best fit
+    private final int[] tableNumbers;
+    private final int[] seats;
+    private final long[] booked; // WORDS_PER_TABLE words per table, bit i = slot i is booked
+    // Combinable neighbours by position: those of table i are neighbourIndexes[neighbourStart[i] .. neighbourStart[i + 1])
+    private final int[] neighbourStart;
+    private final int[] neighbourIndexes;
+    // Set of free tables + party size -> best group (positions, empty if none); cleared by markBooked
+    private final Map<CombinationKey, int[]> combinationCache = new HashMap<>();
+
+    /**
+     * Constructor for TableSlotAllocator. All tables start out free.
+     * @param day The day whose slots are modelled, starting at midnight.
+     * @param floorPlan The tables of the restaurant.
+     */
+    public TableSlotAllocator(LocalDate day, FloorPlan floorPlan) {
+        this.dayStart = day.atStartOfDay();
+        this.floorPlan = floorPlan;
+        int count = floorPlan.getTableCount();
+        tableNumbers = new int[count];
+        seats = new int[count];
+        for (int i = 0; i < count; i++) {
+            tableNumbers[i] = floorPlan.getTableBySeats(i);
+            seats[i] = floorPlan.getCapacity(tableNumbers[i]);
+        }
+        booked = new long[count * WORDS_PER_TABLE];
+
+        neighbourStart = new int[count + 1];
+        int[][] byIndex = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int[] numbers = floorPlan.getNeighbours(tableNumbers[i]);
+            byIndex[i] = new int[numbers.length];
+            for (int j = 0; j < numbers.length; j++) {
+                byIndex[i][j] = floorPlan.getRankBySeats(numbers[j]);
+            }
+            neighbourStart[i + 1] = neighbourStart[i] + numbers.length;
+        }
+        neighbourIndexes = new int[neighbourStart[count]];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(byIndex[i], 0, neighbourIndexes, neighbourStart[i], byIndex[i].length);
+        }
+    }
+
+    /**
+     * Marks a table as booked for a window. Parts of the window outside this day are ignored.
+     * @param tableNumber The table.
+     * @param start Start of the booking.
+     * @param durationMinutes Length of the booking.
+     */
+    public void markBooked(int tableNumber, LocalDateTime start, int durationMinutes) {
+        int index = indexOf(tableNumber);
+        if (index < 0) {
+            return; // Table no longer exists
+        }
+        int from = Math.max(0, startSlot(start));
+        int to = Math.min(SLOTS, endSlot(start.plusMinutes(durationMinutes)));
+        if (from >= to) {
+            return;
+        }
+        long[] mask = mask(from, to);
+        int base = index * WORDS_PER_TABLE;
+        booked[base] |= mask[0];
+        booked[base + 1] |= mask[1];
+        combinationCache.clear();
+    }
+
+    /**
+     * @param tableNumber The table.
+     * @param start Start of the window.
+     * @param durationMinutes Length of the window.
+     * @return true if the table exists and is free for the whole window.
+     */
+    public boolean isFree(int tableNumber, LocalDateTime start, int durationMinutes) {
+        int index = indexOf(tableNumber);
+        long[] mask = windowMask(start, durationMinutes);
+        return index >= 0 && mask != null && isFree(index, mask);
+    }
+
+    /**
+     * Finds the best table for a party: the smallest table with enough seats that is free for the
+     * window. Among tables of that size, the one whose surrounding free gap is shortest is chosen,
+     * so long free stretches stay available for later bookings.
+     * @param start Start of the window.
+     * @param durationMinutes Length of the window.
+     * @param requiredSeats Party size.
+     * @return The table number, or -1 if no table fits.
+     */
+    public int findBestFit(LocalDateTime start, int durationMinutes, int requiredSeats) {
+        long[] mask = windowMask(start, durationMinutes);
+        if (mask == null) {
+            return -1;
+        }
+        int best = -1;
+        int bestGap = Integer.MAX_VALUE;
+        for (int i = 0; i < tableNumbers.length; i++) {
+            if (seats[i] < requiredSeats || !isFree(i, mask)) {
+                continue;
+            }
+            if (best >= 0 && seats[i] > seats[best]) {
+                break; // Sorted by seats: every remaining table is bigger than the best one
+            }
+            int gap = freeGapAround(i, startSlot(start), endSlot(start.plusMinutes(durationMinutes)));
+            if (gap < bestGap) {
+                best = i;
+                bestGap = gap;
+            }
+        }
+        return best < 0 ? -1 : tableNumbers[best];
+    }
+
+    /**
+     * Finds a group of neighbouring tables that together seat the party and are all free for the
+     * window. The group is connected through FloorPlan neighbour links; among all such groups the
+     * one with the fewest total seats wins, then the one with the fewest tables. A single table
+     * counts as a group, so this also works for parties that fit one table.
+     *
+     * Connected groups are enumerated once each (every group grows only from its lowest table and
+     * only through tables not yet adjacent to it), and a branch stops as soon as it seats the party
+     * or cannot beat the best group found. Results are cached by the set of free tables, so
+     * repeated queries and other start times with the same free tables cost one lookup.
+     * @param start Start of the window.
+     * @param durationMinutes Length of the window.
+     * @param requiredSeats Party size.
+     * @return The table numbers in ascending order, or null if no group of free tables is large enough.
+     */
+    public int[] findCombination(LocalDateTime start, int durationMinutes, int requiredSeats) {
+        long[] mask = windowMask(start, durationMinutes);
+        if (mask == null) {
+            return null;
+        }
+        long[] free = new long[(tableNumbers.length + Long.SIZE - 1) / Long.SIZE];
+        for (int i = 0; i < tableNumbers.length; i++) {
+            if (isFree(i, mask)) {
+                free[i / Long.SIZE] |= 1L << (i % Long.SIZE);
+            }
+        }
+        CombinationKey key = new CombinationKey(free, requiredSeats);
+        int[] group = combinationCache.get(key);
+        if (group == null) {
+            group = new CombinationSearch(free, requiredSeats).run();
+            combinationCache.put(key, group);
+        }
+        if (group.length == 0) {
+            return null;
+        }
+        int[] numbers = new int[group.length];
+        for (int i = 0; i < group.length; i++) {
+            numbers[i] = tableNumbers[group[i]];
+        }
+        Arrays.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Returns every table with enough seats that is free for the window, grouped by type.
+     * @param start Start of the window.
+     * @param durationMinutes Length of the window.
+     * @param requiredSeats Party size.
+     * @return Table type -> free table numbers, smallest table first; types with enough seats are
+     *         present even if none of their tables is free.
+     */
+    public Map<TableType, List<Integer>> findFreeTables(LocalDateTime start, int durationMinutes, int requiredSeats) {
+        Map<TableType, List<Integer>> free = new EnumMap<>(TableType.class);
+        long[] mask = windowMask(start, durationMinutes);
+        for (int i = 0; i < tableNumbers.length; i++) {
+            if (seats[i] < requiredSeats) {
+                continue;
+            }
+            List<Integer> numbers = free.computeIfAbsent(floorPlan.getTableType(tableNumbers[i]), t -> new ArrayList<>());
+            if (mask != null && isFree(i, mask)) {
+                numbers.add(tableNumbers[i]);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Finds the start times, between first and last, at which some table for the party is free for
+     * the whole duration. For each table the startable slots are its free bits ANDed with
+     * themselves shifted by 1..n-1 slots; the result is ORed over all tables that fit. The shifts
+     * bring in zeros, so windows running past the last slot are never startable.
+     * @param durationMinutes Length of the stay.
+     * @param requiredSeats Party size.
+     * @param first The earliest start time offered.
+     * @param last The latest start time offered.
+     * @param stepMinutes Interval between offered start times; a multiple of SLOT_MINUTES.
+     * @return The start times, in order.
+     */
+    public List<LocalTime> findStartTimes(int durationMinutes, int requiredSeats, LocalTime first, LocalTime last, int stepMinutes) {
+        return findStartTimes(durationMinutes, requiredSeats, first, last, stepMinutes, false);
+    }
+
+    /**
+     * Same as findStartTimes, optionally also offering start times at which the party can only be
+     * seated at combined tables. Those are checked with findCombination, slot by slot, only where no
+     * single table is free.
+     * @param durationMinutes Length of the stay.
+     * @param requiredSeats Party size.
+     * @param first The earliest start time offered.
+     * @param last The latest start time offered.
+     * @param stepMinutes Interval between offered start times; a multiple of SLOT_MINUTES.
+     * @param allowCombining true to include start times that need combined tables.
+     * @return The start times, in order.
+     */
+    public List<LocalTime> findStartTimes(int durationMinutes, int requiredSeats, LocalTime first, LocalTime last, int stepMinutes,
+                                          boolean allowCombining) {
+        int length = (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        long startable0 = 0;
+        long startable1 = 0;
+        for (int i = 0; i < tableNumbers.length; i++) {
+            if (seats[i] < requiredSeats) {
+                continue;
+            }
+            long free0 = ~booked[i * WORDS_PER_TABLE];
+            long free1 = ~booked[i * WORDS_PER_TABLE + 1];
+            long run0 = free0;
+            long run1 = free1;
+            for (int shift = 1; shift < length; shift++) {
+                // 128-bit right shift of the free bits: slot s becomes slot s - shift
+                run0 &= shift < Long.SIZE ? (free0 >>> shift) | (free1 << (Long.SIZE - shift)) : free1 >>> (shift - Long.SIZE);
+                run1 &= shift < Long.SIZE ? free1 >>> shift : 0;
+            }
+            startable0 |= run0;
+            startable1 |= run1;
+        }
+
+        List<LocalTime> times = new ArrayList<>();
+        int firstSlot = first.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int lastSlot = last.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int step = Math.max(1, stepMinutes / SLOT_MINUTES);
+        for (int slot = firstSlot; slot <= lastSlot; slot += step) {
+            long word = slot < Long.SIZE ? startable0 : startable1;
+            if ((word & (1L << (slot % Long.SIZE))) != 0
+                    || (allowCombining && findCombination(slotTime(slot), durationMinutes, requiredSeats) != null)) {
+                times.add(LocalTime.of(0, 0).plusMinutes((long) slot * SLOT_MINUTES));
+            }
+        }
+        return times;
+    }
+
+    /**
+     * Lists the free windows of every table with enough seats between opening and closing time.
+     * @param requiredSeats Party size.
+     * @param minDurationMinutes Shorter free windows are left out.
+     * @param open Opening time.
+     * @param close Closing time (exclusive); may be before open to mean after midnight.
+     * @return The windows, by table (smallest first) and then by time.
+     */
+    public List<FreeWindow> findFreeWindows(int requiredSeats, int minDurationMinutes, LocalTime open, LocalTime close) {
+        int from = open.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int to = (close.toSecondOfDay() + (close.isAfter(open) ? 0 : 24 * 3600)) / 60 / SLOT_MINUTES;
+        to = Math.min(to, SLOTS);
+        int minSlots = Math.max(1, (minDurationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        List<FreeWindow> windows = new ArrayList<>();
+        for (int i = 0; i < tableNumbers.length; i++) {
+            if (seats[i] < requiredSeats) {
+                continue;
+            }
+            int slot = from;
+            while (slot < to) {
+                int freeStart = nextClearBit(i, slot, to);
+                if (freeStart >= to) {
+                    break;
+                }
+                int freeEnd = nextSetBit(i, freeStart, to);
+                if (freeEnd - freeStart >= minSlots) {
+                    windows.add(new FreeWindow(tableNumbers[i], floorPlan.getTableType(tableNumbers[i]), slotTime(freeStart), slotTime(freeEnd)));
+                }
+                slot = freeEnd;
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * @param tableNumber A table number.
+     * @return The table's type, or null if there is no such table.
+     */
+    public TableType getTableType(int tableNumber) {
+        return floorPlan.getTableType(tableNumber);
+    }
+
+    // --- Bit helpers ---
+
+    private int indexOf(int tableNumber) {
+        return floorPlan.getRankBySeats(tableNumber);
+    }
+
+    private boolean isFree(int index, long[] mask) {
+        int base = index * WORDS_PER_TABLE;
+        return (booked[base] & mask[0]) == 0 && (booked[base + 1] & mask[1]) == 0;
+    }
+
+    /**
+     * @return The mask of a requested window, or null if it starts before this day or ends after its last slot.
+     */
+    private long[] windowMask(LocalDateTime start, int durationMinutes) {
+        int from = startSlot(start);
+        int to = endSlot(start.plusMinutes(durationMinutes));
+        if (from < 0 || to > SLOTS || from >= to) {
+            return null;
+        }
+        return mask(from, to);
+    }
+
+    private static long[] mask(int from, int to) {
+        long[] mask = new long[WORDS_PER_TABLE];
+        for (int w = 0; w < WORDS_PER_TABLE; w++) {
+            int lo = Math.max(from, w * Long.SIZE) - w * Long.SIZE;
+            int hi = Math.min(to, (w + 1) * Long.SIZE) - w * Long.SIZE;
+            if (lo < hi) {
+                long upper = hi == Long.SIZE ? -1L : (1L << hi) - 1;
+                mask[w] = upper & (-1L << lo);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Length in slots of the free run of a table that contains [from, to).
+     */
+    private int freeGapAround(int index, int from, int to) {
+        int start = from;
+        while (start > 0 && !isBooked(index, start - 1)) {
+            start--;
+        }
+        return nextSetBit(index, to, SLOTS) - start;
+    }
+
+    private boolean isBooked(int index, int slot) {
+        return (booked[index * WORDS_PER_TABLE + slot / Long.SIZE] & (1L << (slot % Long.SIZE))) != 0;
+    }
+
+    private int nextSetBit(int index, int from, int limit) {
+        for (int w = from / Long.SIZE; w < WORDS_PER_TABLE && w * Long.SIZE < limit; w++) {
+            long word = booked[index * WORDS_PER_TABLE + w];
+            if (w == from / Long.SIZE) {
+                word &= -1L << (from % Long.SIZE);
+            }
+            if (word != 0) {
+                return Math.min(limit, w * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return limit;
+    }
+
+    private int nextClearBit(int index, int from, int limit) {
+        for (int w = from / Long.SIZE; w < WORDS_PER_TABLE && w * Long.SIZE < limit; w++) {
+            long word = ~booked[index * WORDS_PER_TABLE + w];
+            if (w == from / Long.SIZE) {
+                word &= -1L << (from % Long.SIZE);
+            }
+            if (word != 0) {
+                return Math.min(limit, w * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return limit;
+    }
+
+    private int startSlot(LocalDateTime time) {
+        return (int) Math.floorDiv(Duration.between(dayStart, time).toMinutes(), SLOT_MINUTES);
+    }
+
+    private int endSlot(LocalDateTime time) {
+        long minutes = Duration.between(dayStart, time).toMinutes();
+        return (int) -Math.floorDiv(-minutes, SLOT_MINUTES); // Round up
+    }
+
+    private LocalDateTime slotTime(int slot) {
+        return dayStart.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    // --- Table combinations ---
+
+    /**
+     * Cache key of findCombination: the free tables as a bitset over positions, and the party size.
+     */
+    private static final class CombinationKey {
+        private final long[] free;
+        private final int requiredSeats;
+
+        CombinationKey(long[] free, int requiredSeats) {
+            this.free = free;
+            this.requiredSeats = requiredSeats;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CombinationKey)) {
+                return false;
+            }
+            CombinationKey other = (CombinationKey) o;
+            return requiredSeats == other.requiredSeats && Arrays.equals(free, other.free);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(free) + requiredSeats;
+        }
+    }
+
+    /**
+     * One run of the group search over a fixed set of free tables. Tables are identified by their
+     * position in tableNumbers.
+     */
+    private final class CombinationSearch {
+        private final long[] free;
+        private final int requiredSeats;
+        private final int[] group;      // Tables of the group being grown
+        private final int[] adjacent;   // Per table: how many group members it is, or is next to
+        private int groupSize;
+        private int[] best = new int[0];
+        private int bestSeats = Integer.MAX_VALUE;
+        private int fewestTablesPossible; // No group can use fewer tables than this
+        private int steps;
+
+        CombinationSearch(long[] free, int requiredSeats) {
+            this.free = free;
+            this.requiredSeats = requiredSeats;
+            this.group = new int[tableNumbers.length];
+            this.adjacent = new int[tableNumbers.length];
+        }
+
+        /**
+         * @return The best group, or an empty array if none seats the party.
+         */
+        int[] run() {
+            // Lower bound on the group size: the largest free tables taken first
+            int seatsSoFar = 0;
+            for (int i = tableNumbers.length - 1; i >= 0 && seatsSoFar < requiredSeats; i--) {
+                if (isFreeTable(i)) {
+                    seatsSoFar += seats[i];
+                    fewestTablesPossible++;
+                }
+            }
+            if (seatsSoFar < requiredSeats) {
+                return best; // Not even all free tables together are enough
+            }
+
+            // Search each connected part of the free tables that is large enough on its own
+            boolean[] visited = new boolean[tableNumbers.length];
+            int[] members = new int[tableNumbers.length];
+            for (int i = 0; i < tableNumbers.length && !isDone(); i++) {
+                if (!isFreeTable(i) || visited[i]) {
+                    continue;
+                }
+                int size = 0;
+                int componentSeats = 0;
+                members[size++] = i;
+                visited[i] = true;
+                for (int head = 0; head < size; head++) {
+                    int table = members[head];
+                    componentSeats += seats[table];
+                    for (int k = neighbourStart[table]; k < neighbourStart[table + 1]; k++) {
+                        int neighbour = neighbourIndexes[k];
+                        if (isFreeTable(neighbour) && !visited[neighbour]) {
+                            visited[neighbour] = true;
+                            members[size++] = neighbour;
+                        }
+                    }
+                }
+                if (componentSeats >= requiredSeats) {
+                    searchComponent(Arrays.copyOf(members, size), componentSeats);
+                }
+            }
+            return best;
+        }
+
+        private void searchComponent(int[] members, int componentSeats) {
+            Arrays.sort(members);
+            int seatsFromRoot = componentSeats; // Seats of the members at or after the current root
+            for (int m = 0; m < members.length && !isDone(); m++) {
+                if (seatsFromRoot < requiredSeats) {
+                    break; // Groups rooted here or later only use the remaining members
+                }
+                searchFrom(members[m]);
+                seatsFromRoot -= seats[members[m]];
+            }
+        }
+
+        /**
+         * Enumerates the groups whose lowest table is root.
+         */
+        private void searchFrom(int root) {
+            if (seats[root] > bestSeats || (seats[root] == bestSeats && best.length == 1)) {
+                return; // Every group containing root has more seats, or as many and more tables
+            }
+            if (seats[root] >= requiredSeats) {
+                group[0] = root;
+                record(1, seats[root]);
+                return;
+            }
+            group[0] = root;
+            groupSize = 1;
+            markAdjacent(root, 1);
+            int[] extension = new int[neighbourStart[root + 1] - neighbourStart[root]];
+            int length = 0;
+            for (int k = neighbourStart[root]; k < neighbourStart[root + 1]; k++) {
+                int neighbour = neighbourIndexes[k];
+                if (neighbour > root && isFreeTable(neighbour)) {
+                    extension[length++] = neighbour;
+                }
+            }
+            extend(seats[root], extension, length, root);
+            markAdjacent(root, -1);
+            groupSize = 0;
+        }
+
+        /**
+         * Grows the current group by each table of the extension in turn. Tables newly reachable
+         * through an added table join the extension only if no earlier group member already
+         * touches them, so every connected group is produced exactly once.
+         */
+        private void extend(int groupSeats, int[] extension, int length, int root) {
+            for (int k = length - 1; k >= 0 && !isDone(); k--) {
+                steps++;
+                int table = extension[k];
+                int total = groupSeats + seats[table];
+                if (total > bestSeats || (total == bestSeats && groupSize + 1 >= best.length)) {
+                    continue; // Cannot beat the best group; larger groups only add seats
+                }
+                if (total >= requiredSeats) {
+                    group[groupSize] = table;
+                    record(groupSize + 1, total);
+                    continue; // Seats the party; adding tables would only waste seats
+                }
+                int[] next = new int[k + neighbourStart[table + 1] - neighbourStart[table]];
+                System.arraycopy(extension, 0, next, 0, k);
+                int nextLength = k;
+                for (int n = neighbourStart[table]; n < neighbourStart[table + 1]; n++) {
+                    int neighbour = neighbourIndexes[n];
+                    if (neighbour > root && isFreeTable(neighbour) && adjacent[neighbour] == 0) {
+                        next[nextLength++] = neighbour;
+                    }
+                }
+                group[groupSize++] = table;
+                markAdjacent(table, 1);
+                extend(total, next, nextLength, root);
+                markAdjacent(table, -1);
+                groupSize--;
+            }
+        }
+
+        private void record(int size, int total) {
+            if (total < bestSeats || (total == bestSeats && size < best.length)) {
+                best = Arrays.copyOf(group, size);
+                bestSeats = total;
+            }
+        }
+
+        private void markAdjacent(int table, int delta) {
+            adjacent[table] += delta;
+            for (int k = neighbourStart[table]; k < neighbourStart[table + 1]; k++) {
+                adjacent[neighbourIndexes[k]] += delta;
+            }
+        }
+
+        private boolean isFreeTable(int index) {
+            return (free[index / Long.SIZE] & (1L << (index % Long.SIZE))) != 0;
+        }
+
+        /**
+         * @return true once no better group can exist or the step budget is spent.
+         */
+        private boolean isDone() {
+            return steps > MAX_COMBINATION_STEPS || (bestSeats == requiredSeats && best.length == fewestTablesPossible);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package application;
+
+/**
+ * Enum representing the GST category of a menu item. Each category has its own rate, which can
+ * change over time (see TaxLedger and the tax_rates table).
+ */
+public enum TaxCategory {
+    FOOD("Food"),                     // Dishes cooked and served by the restaurant
+    BEVERAGE("Beverages"),            // Drinks prepared in-house
+    PACKAGED_GOODS("Packaged Goods"); // Sold in the maker's packaging, e.g. bottled water
+
+    private final String displayValue; // User-friendly string representation of the category
+
+    /**
+     * Constructor for TaxCategory enum.
+     * @param displayValue The string representation of the category.
+     */
+    TaxCategory(String displayValue) {
+        this.displayValue = displayValue;
+    }
+
+    /**
+     * Returns the user-friendly display value of the category.
+     * @return The display string for the category.
+     */
+    public String getDisplayValue() {
+        return displayValue;
+    }
+
+    /**
+     * Overrides the default toString method to return the display value.
+     * @return The display string of the category.
+     */
+    @Override
+    public String toString() {
+        return displayValue;
+    }
+}
@@ -0,0 +1,279 @@
+package application;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes GST for orders and describes the filing periods it is reported in.
+ *
+ * Each menu item has a tax category, and each category has a rate that can change on a given date
+ * (table tax_rates). When an order is placed, its items are grouped by category, the order
+ * discount is shared out in proportion to each category's value, and GST is charged per category
+ * at the rate in force on the order date, rounded per category as on the bill. DatabaseManager
+ * stores the result as the order's tax lines (order_tax_lines) in the transaction that adds the
+ * order, and adds them to the monthly and quarterly totals (tax_period_totals) in the same
+ * transaction, so a filing period is read as a handful of rows however many orders it had.
+ * Later changes (a new discount, a cancellation, a deletion) adjust the lines and totals the same
+ * way; the rate recorded at placement is kept.
+ *
+ * The rates are cached until they are changed (the TAX_RATES change version, see DataVersions).
+ */
+public class TaxLedger {
+
+    private static final TaxLedger INSTANCE = new TaxLedger();
+
+    /**
+     * @return The process-wide tax ledger.
+     */
+    public static TaxLedger getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * A GST filing period.
+     */
+    public enum Period {
+        MONTH("Month"),
+        QUARTER("Quarter"); // Calendar quarters, which are also the financial-year quarters (Apr-Jun = Q1)
+
+        private final String displayValue;
+
+        Period(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+
+        /**
+         * @param day Any day.
+         * @return The first day of the period that contains it.
+         */
+        public LocalDate startOf(LocalDate day) {
+            LocalDate month = day.withDayOfMonth(1);
+            return this == MONTH ? month : month.withMonth((day.getMonthValue() - 1) / 3 * 3 + 1);
+        }
+
+        /**
+         * @param start The first day of a period.
+         * @return The period for display, e.g. "October 2026" or "Oct-Dec 2026".
+         */
+        public String describe(LocalDate start) {
+            if (this == MONTH) {
+                return start.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
+            }
+            return start.format(DateTimeFormatter.ofPattern("MMM")) + "-" + start.plusMonths(2).format(DateTimeFormatter.ofPattern("MMM yyyy"));
+        }
+
+        @Override
+        public String toString() {
+            return displayValue;
+        }
+    }
+
+    /**
+     * The tax lines of one category and rate added up over a filing period.
+     */
+    public static class PeriodTotal {
+        private final TaxCategory category;
+        private final int rateBasisPoints;
+        private final int orders;
+        private final long grossPaise;
+        private final long discountPaise;
+        private final long taxPaise;
+
+        PeriodTotal(TaxCategory category, int rateBasisPoints, int orders, long grossPaise, long discountPaise, long taxPaise) {
+            this.category = category;
+            this.rateBasisPoints = rateBasisPoints;
+            this.orders = orders;
+            this.grossPaise = grossPaise;
+            this.discountPaise = discountPaise;
+            this.taxPaise = taxPaise;
+        }
+
+        // --- Getters ---
+        public TaxCategory getCategory() {
+            return category;
+        }
+
+        public int getRateBasisPoints() {
+            return rateBasisPoints;
+        }
+
+        public String getRate() {
+            return formatRate(rateBasisPoints);
+        }
+
+        /**
+         * @return The orders with a line in this category and at this rate.
+         */
+        public int getOrders() {
+            return orders;
+        }
+
+        public long getGrossPaise() {
+            return grossPaise;
+        }
+
+        public long getDiscountPaise() {
+            return discountPaise;
+        }
+
+        public long getTaxablePaise() {
+            return grossPaise - discountPaise;
+        }
+
+        public long getTaxPaise() {
+            return taxPaise;
+        }
+    }
+
+    /**
+     * The rates of every category by effective date, for one TAX_RATES version.
+     */
+    private static final class Rates {
+        final long version;
+        final Map<TaxCategory, TreeMap<LocalDate, Integer>> byCategory = new EnumMap<>(TaxCategory.class);
+
+        Rates(long version, List<TaxRate> rates) {
+            this.version = version;
+            for (TaxRate rate : rates) {
+                byCategory.computeIfAbsent(rate.getCategory(), c -> new TreeMap<>()).put(rate.getEffectiveFrom(), rate.getRateBasisPoints());
+            }
+        }
+    }
+
+    private volatile Rates cached;
+
+    private TaxLedger() {
+    }
+
+    /**
+     * Returns the GST rate of a category on a day.
+     * @param category The tax category.
+     * @param day The day.
+     * @return The rate in basis points, or 0 if no rate was in force yet.
+     */
+    public int rateOn(TaxCategory category, LocalDate day) {
+        TreeMap<LocalDate, Integer> rates = currentRates().byCategory.get(category);
+        Map.Entry<LocalDate, Integer> rate = rates == null ? null : rates.floorEntry(day);
+        return rate == null ? 0 : rate.getValue();
+    }
+
+    /**
+     * Computes the tax lines of an order: one per tax category among its items.
+     * @param itemQuantities The items and their quantities, at the prices charged.
+     * @param discountPaise The order discount.
+     * @param day The order date, which decides the rates.
+     * @return The tax lines; none if there are no items.
+     */
+    public List<TaxLine> quote(Map<MenuItem, Integer> itemQuantities, long discountPaise, LocalDate day) {
+        Map<TaxCategory, Long> grossByCategory = new EnumMap<>(TaxCategory.class);
+        for (Map.Entry<MenuItem, Integer> entry : itemQuantities.entrySet()) {
+            grossByCategory.merge(entry.getKey().getTaxCategory(), Money.times(entry.getKey().getPricePaise(), entry.getValue()), Long::sum);
+        }
+        List<TaxLine> lines = new ArrayList<>();
+        for (Map.Entry<TaxCategory, Long> entry : grossByCategory.entrySet()) {
+            lines.add(new TaxLine(entry.getKey(), rateOn(entry.getKey(), day), entry.getValue(), 0, 0));
+        }
+        return applyDiscount(lines, discountPaise);
+    }
+
+    /**
+     * Shares a discount out over tax lines in proportion to their gross value and recomputes the
+     * GST of each at its own rate. The shares are rounded down and the paise left over go to the
+     * lines with the largest remainders, so they always add up to the discount.
+     * @param lines The lines; their gross values and rates are kept.
+     * @param discountPaise The order discount.
+     * @return New lines with the discount applied.
+     */
+    static List<TaxLine> applyDiscount(List<TaxLine> lines, long discountPaise) {
+        long gross = 0;
+        for (TaxLine line : lines) {
+            gross += line.getGrossPaise();
+        }
+        long[] shares = new long[lines.size()];
+        long[] remainders = new long[lines.size()];
+        long allocated = 0;
+        for (int i = 0; i < lines.size() && gross != 0; i++) {
+            long scaled = Math.multiplyExact(discountPaise, lines.get(i).getGrossPaise());
+            shares[i] = Math.floorDiv(scaled, gross);
+            remainders[i] = Math.floorMod(scaled, gross);
+            allocated += shares[i];
+        }
+        for (long left = gross == 0 ? 0 : discountPaise - allocated; left > 0; left--) {
+            int largest = 0;
+            for (int i = 1; i < lines.size(); i++) {
+                if (remainders[i] > remainders[largest]) {
+                    largest = i;
+                }
+            }
+            shares[largest]++;
+            remainders[largest] = -1;
+        }
+        List<TaxLine> discounted = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            TaxLine line = lines.get(i);
+            long taxable = line.getGrossPaise() - shares[i];
+            discounted.add(new TaxLine(line.getCategory(), line.getRateBasisPoints(), line.getGrossPaise(),
+                    shares[i], Money.applyRate(taxable, line.getRateBasisPoints())));
+        }
+        return discounted;
+    }
+
+    /**
+     * @param lines Tax lines.
+     * @return Their total GST.
+     */
+    public static long totalTax(List<TaxLine> lines) {
+        long tax = 0;
+        for (TaxLine line : lines) {
+            tax += line.getTaxPaise();
+        }
+        return tax;
+    }
+
+    /**
+     * @param lines Tax lines.
+     * @return Their distinct rates for labels, e.g. "5%" or "5% + 18%".
+     */
+    public static String describeRates(List<TaxLine> lines) {
+        List<String> rates = new ArrayList<>();
+        for (TaxLine line : lines) {
+            String rate = line.getRate();
+            if (!rates.contains(rate)) {
+                rates.add(rate);
+            }
+        }
+        return String.join(" + ", rates);
+    }
+
+    /**
+     * Formats a rate, e.g. 500 as "5%" and 250 as "2.5%".
+     * @param basisPoints The rate in basis points.
+     * @return The rate in percent.
+     */
+    public static String formatRate(int basisPoints) {
+        return (basisPoints % 100 == 0 ? String.valueOf(basisPoints / 100) : String.valueOf(basisPoints / 100.0)) + "%";
+    }
+
+    /**
+     * Returns the cached rates if they have not changed since they were read, otherwise reloads them.
+     */
+    private Rates currentRates() {
+        long version = DatabaseManager.getDataVersion(DataVersions.Entity.TAX_RATES); // Read before the rates
+        Rates rates = cached;
+        if (rates != null && version >= 0 && rates.version == version) {
+            return rates;
+        }
+        rates = new Rates(version, DatabaseManager.getAllTaxRates());
+        cached = rates;
+        return rates;
+    }
+}
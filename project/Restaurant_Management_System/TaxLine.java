@@ -0,0 +1,64 @@
+package application;
+
+/**
+ * The GST of one tax category of an order, as recorded when the order was placed.
+ * Amounts are in paise (see Money).
+ */
+public class TaxLine {
+    private final TaxCategory category;
+    private final int rateBasisPoints; // The rate in force when the order was placed
+    private final long grossPaise;     // Item prices times quantities
+    private final long discountPaise;  // The category's share of the order discount
+    private final long taxPaise;
+
+    /**
+     * Full constructor for TaxLine.
+     * @param category The tax category.
+     * @param rateBasisPoints The GST rate.
+     * @param grossPaise The value of the category's items before discount.
+     * @param discountPaise The discount allocated to the category.
+     * @param taxPaise The GST on the taxable value.
+     */
+    public TaxLine(TaxCategory category, int rateBasisPoints, long grossPaise, long discountPaise, long taxPaise) {
+        this.category = category;
+        this.rateBasisPoints = rateBasisPoints;
+        this.grossPaise = grossPaise;
+        this.discountPaise = discountPaise;
+        this.taxPaise = taxPaise;
+    }
+
+    // --- Getters ---
+    public TaxCategory getCategory() {
+        return category;
+    }
+
+    public int getRateBasisPoints() {
+        return rateBasisPoints;
+    }
+
+    /**
+     * @return The rate for display, e.g. "5%".
+     */
+    public String getRate() {
+        return TaxLedger.formatRate(rateBasisPoints);
+    }
+
+    public long getGrossPaise() {
+        return grossPaise;
+    }
+
+    public long getDiscountPaise() {
+        return discountPaise;
+    }
+
+    /**
+     * @return The value GST is charged on: gross less discount.
+     */
+    public long getTaxablePaise() {
+        return grossPaise - discountPaise;
+    }
+
+    public long getTaxPaise() {
+        return taxPaise;
+    }
+}
@@ -0,0 +1,44 @@
+package application;
+
+import java.time.LocalDate;
+
+/**
+ * A GST rate for one tax category, in force from a date until the category's next rate.
+ */
+public class TaxRate {
+    private final TaxCategory category;
+    private final LocalDate effectiveFrom;
+    private final int rateBasisPoints; // 500 = 5%
+
+    /**
+     * Full constructor for TaxRate.
+     * @param category The tax category.
+     * @param effectiveFrom The first day the rate applies to.
+     * @param rateBasisPoints The rate in basis points.
+     */
+    public TaxRate(TaxCategory category, LocalDate effectiveFrom, int rateBasisPoints) {
+        this.category = category;
+        this.effectiveFrom = effectiveFrom;
+        this.rateBasisPoints = rateBasisPoints;
+    }
+
+    // --- Getters ---
+    public TaxCategory getCategory() {
+        return category;
+    }
+
+    public LocalDate getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    public int getRateBasisPoints() {
+        return rateBasisPoints;
+    }
+
+    /**
+     * @return The rate for display, e.g. "5%" or "2.5%".
+     */
+    public String getRate() {
+        return TaxLedger.formatRate(rateBasisPoints);
+    }
+}
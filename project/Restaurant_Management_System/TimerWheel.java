@@ -0,0 +1,280 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel. Level 0 is a ring of buckets, one per tick; each level above has
+ * the same number of buckets, each covering a whole revolution of the level below (with 64
+ * buckets and one-second ticks: seconds, about a minute, about an hour, about three days, ...).
+ * A timeout goes into the lowest level whose current revolution contains its deadline. When a
+ * level's bucket comes due, its timeouts are cascaded into the levels below, so each timeout is
+ * moved at most once per level and every tick only touches the buckets that are due.
+ * Buckets are doubly linked lists, so scheduling and cancelling are O(1) regardless of how many
+ * timeouts are pending or how far ahead they are. Levels are created when first needed.
+ *
+ * Threading: schedule() and Timeout.cancel() may be called from any thread and only hand the
+ * timeout over through lock-free queues. A single daemon thread owns the buckets, applies the
+ * handed-over work at every tick and runs the expired tasks, so tasks should be short.
+ */
+public class TimerWheel {
+
+    /**
+     * A scheduled task. Cancelled or expired timeouts are dropped from their bucket.
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadlineMillis;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // --- Owned by the wheel thread ---
+        private long dueTick;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(TimerWheel wheel, Runnable task, long deadlineMillis) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Cancels the timeout if it has not run yet.
+         * @return true if the task will not run because of this call.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts of one tick.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (tail == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private static final int MAX_LEVELS = 16;
+
+    private final String name;
+    private final long tickMillis;
+    private final int bucketBits;          // log2 of the buckets per level
+    private final int mask;
+    private final Bucket[][] levels = new Bucket[MAX_LEVELS][]; // Created on first use
+    private final long startMillis;
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private long tick; // Tick being processed; wheel thread only
+    private final List<Timeout> dueNow = new ArrayList<>(); // Scratch list of the wheel thread
+
+    /**
+     * Creates the wheel and starts its thread.
+     * @param name Name of the wheel thread.
+     * @param tickMillis Length of one tick; deadlines are rounded up to it.
+     * @param bucketsPerLevel Number of buckets per level; rounded up to a power of two (at least 2).
+     */
+    public TimerWheel(String name, long tickMillis, int bucketsPerLevel) {
+        this.name = name;
+        this.tickMillis = tickMillis;
+        int size = Math.max(2, Integer.highestOneBit(Math.max(1, bucketsPerLevel - 1)) << 1);
+        bucketBits = Integer.numberOfTrailingZeros(size);
+        mask = size - 1;
+        startMillis = System.currentTimeMillis();
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true); // Pending timeouts never keep the application alive
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a task. A deadline in the past runs it at the next tick.
+     * @param deadline When to run the task (system time zone).
+     * @param task The task; runs on the wheel thread.
+     * @return The timeout, for cancelling.
+     */
+    public Timeout schedule(LocalDateTime deadline, Runnable task) {
+        return schedule(deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), task);
+    }
+
+    /**
+     * Schedules a task.
+     * @param deadlineMillis When to run the task, in epoch milliseconds.
+     * @param task The task; runs on the wheel thread.
+     * @return The timeout, for cancelling.
+     */
+    public Timeout schedule(long deadlineMillis, Runnable task) {
+        Timeout timeout = new Timeout(this, task, deadlineMillis);
+        scheduled.add(timeout);
+        pendingCount.incrementAndGet();
+        return timeout;
+    }
+
+    /**
+     * @return The number of timeouts that have neither run nor been cancelled.
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Processes every tick that has elapsed. Called by the wheel thread only.
+     */
+    private void advance() {
+        long currentTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+        while (tick < currentTick) {
+            tick++;
+            cascade();
+            applyHandOvers();
+            Bucket bucket = bucket(0, tick);
+            while (bucket.head != null) {
+                Timeout timeout = bucket.head;
+                bucket.remove(timeout);
+                dueNow.add(timeout);
+            }
+            runDue();
+        }
+    }
+
+    /**
+     * Moves the timeouts of every higher-level bucket that starts at this tick into the levels below.
+     */
+    private void cascade() {
+        for (int level = 1; level < MAX_LEVELS && bucketBits * level < Long.SIZE - 1; level++) {
+            if ((tick & ((1L << (bucketBits * level)) - 1)) != 0) {
+                break; // Not at a bucket boundary of this level, so neither of any level above
+            }
+            if (levels[level] == null) {
+                continue; // Not used yet; place() may still have created a level above it
+            }
+            Bucket bucket = bucket(level, tick);
+            while (bucket.head != null) {
+                Timeout timeout = bucket.head;
+                bucket.remove(timeout);
+                place(timeout);
+            }
+        }
+    }
+
+    private void applyHandOvers() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                pendingCount.decrementAndGet();
+            }
+            // Otherwise it is still in the scheduled queue and is skipped below
+        }
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.isCancelled()) {
+                pendingCount.decrementAndGet();
+                continue;
+            }
+            timeout.dueTick = -Math.floorDiv(-(timeout.deadlineMillis - startMillis), tickMillis); // Round up
+            place(timeout);
+        }
+    }
+
+    /**
+     * Puts a timeout into the lowest level whose current revolution contains its due tick; a
+     * timeout that is already due goes to the list run at this tick.
+     */
+    private void place(Timeout timeout) {
+        if (timeout.dueTick <= tick) {
+            dueNow.add(timeout);
+            return;
+        }
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            int shift = bucketBits * (level + 1);
+            if (shift >= Long.SIZE - 1 || (timeout.dueTick >>> shift) == (tick >>> shift)) {
+                bucket(level, timeout.dueTick).add(timeout);
+                return;
+            }
+        }
+    }
+
+    private Bucket bucket(int level, long atTick) {
+        Bucket[] buckets = levels[level];
+        if (buckets == null) {
+            buckets = new Bucket[mask + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new Bucket();
+            }
+            levels[level] = buckets;
+        }
+        return buckets[(int) ((atTick >>> (bucketBits * level)) & mask)];
+    }
+
+    private void runDue() {
+        for (Timeout timeout : dueNow) {
+            pendingCount.decrementAndGet();
+            if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error in " + name + " timer task: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+        dueNow.clear();
+    }
+}
@@ -171,6 +171,21 @@ public class User {
                '}';
     }
 
+    /**
+     * Compares the fields shown in Manage Users, unlike equals() which compares the user ID only.
+     * @param other Another version of the same user.
+     * @return true if nothing shown differs.
+     */
+    public boolean hasSameContent(User other) {
+        return role == other.role &&
+               Objects.equals(userId, other.userId) &&
+               Objects.equals(username, other.username) &&
+               Objects.equals(passwordHash, other.passwordHash) &&
+               Objects.equals(fullName, other.fullName) &&
+               Objects.equals(email, other.email) &&
+               Objects.equals(phoneNumber, other.phoneNumber);
+    }
+
     /**
      * Checks if two User objects are equal based on their userId.
      * The userId is considered the primary key for equality.
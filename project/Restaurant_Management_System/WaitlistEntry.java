@@ -0,0 +1,119 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a walk-in party waiting for a table, managed by WalkInWaitlist.
+ */
+public class WaitlistEntry {
+
+    /**
+     * Where the party is in the waitlist.
+     */
+    public enum Status {
+        WAITING("Waiting"),       // No table yet
+        TABLE_READY("Table ready"), // Tables assigned and booked; call the party
+        CANCELLED("Cancelled");   // Left or removed by the front desk
+
+        private final String displayValue;
+
+        Status(String displayValue) {
+            this.displayValue = displayValue;
+        }
+
+        public String getDisplayValue() {
+            return displayValue;
+        }
+
+        @Override
+        public String toString() {
+            return displayValue;
+        }
+    }
+
+    private final int entryId;
+    private final String customerId;   // Staff user who added the party; owner of the walk-in bookings
+    private final String partyName;
+    private final String phone;
+    private final int partySize;
+    private final LocalDateTime joinedAt;
+    private volatile Status status = Status.WAITING;
+    private volatile int estimatedWaitMinutes = -1; // -1 = no table expected within the quote horizon
+    private volatile int[] tableNumbers = new int[0]; // Set once the status is TABLE_READY
+
+    /**
+     * Constructor for WaitlistEntry.
+     * @param entryId Sequence number, unique while the application runs.
+     * @param customerId The user ID the walk-in bookings are made under.
+     * @param partyName Name to call the party by.
+     * @param phone Contact number.
+     * @param partySize Number of guests.
+     * @param joinedAt When the party joined the waitlist.
+     */
+    public WaitlistEntry(int entryId, String customerId, String partyName, String phone, int partySize, LocalDateTime joinedAt) {
+        this.entryId = entryId;
+        this.customerId = customerId;
+        this.partyName = partyName;
+        this.phone = phone;
+        this.partySize = partySize;
+        this.joinedAt = joinedAt;
+    }
+
+    // --- Getters ---
+    public int getEntryId() {
+        return entryId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getPartyName() {
+        return partyName;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public int getPartySize() {
+        return partySize;
+    }
+
+    public LocalDateTime getJoinedAt() {
+        return joinedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getEstimatedWaitMinutes() {
+        return estimatedWaitMinutes;
+    }
+
+    public int[] getTableNumbers() {
+        return tableNumbers.clone();
+    }
+
+    // --- Setters (used by WalkInWaitlist) ---
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    void setEstimatedWaitMinutes(int estimatedWaitMinutes) {
+        this.estimatedWaitMinutes = estimatedWaitMinutes;
+    }
+
+    void setTableNumbers(int[] tableNumbers) {
+        this.tableNumbers = tableNumbers.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "Waitlist #" + entryId +
+               ", Party: " + partyName +
+               ", Size: " + partySize +
+               ", Status: " + status;
+    }
+}
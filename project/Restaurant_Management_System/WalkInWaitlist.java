@@ -0,0 +1,287 @@
+package application;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walk-in waitlist for the front desk. Parties join with their size and are seated automatically
+ * as soon as a table (or a group of neighbouring tables) is free for STAY_MINUTES; a walk-in
+ * booking is written for the tables so online bookings cannot take them.
+ *
+ * Nothing is polled. A TimerWheel holds one release timer per booking that has not ended yet,
+ * set to the end of the booking's last 15-minute slot, and matching runs when a timer fires, when a
+ * party joins or leaves, or when DatabaseManager adds, moves, deletes or expires a booking. Matching reads
+ * the day's TableSlotAllocator once, offers tables in arrival order (a party that does not fit yet
+ * does not hold up smaller parties behind it) and then quotes the remaining parties by placing
+ * them, in order, at the earliest slot with room in the same allocator.
+ *
+ * Listeners are called on the waitlist thread; UI listeners must hand over to their own thread.
+ * The stay length of walk-ins is the system property restaurant.waitlist.stayMinutes (default 60).
+ */
+public class WalkInWaitlist {
+
+    /**
+     * Notified about changes of the waitlist, on the waitlist thread.
+     */
+    public interface Listener {
+        /**
+         * @param waiting The parties still waiting, in arrival order, with fresh wait estimates.
+         */
+        void onWaitlistChanged(List<WaitlistEntry> waiting);
+
+        /**
+         * @param entry A party whose tables have just been booked; call them to their table.
+         */
+        void onTableReady(WaitlistEntry entry);
+    }
+
+    public static final int STAY_MINUTES = Integer.getInteger("restaurant.waitlist.stayMinutes", 60);
+    private static final int QUOTE_HORIZON_MINUTES = 6 * 60; // Longer waits are shown as unknown
+    private static final long TICK_MILLIS = 1000;
+    private static final int BUCKETS_PER_LEVEL = 64;
+
+    private static volatile WalkInWaitlist instance;
+
+    private final TimerWheel wheel = new TimerWheel("walk-in-waitlist", TICK_MILLIS, BUCKETS_PER_LEVEL);
+    private final ConcurrentLinkedQueue<WaitlistEntry> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextEntryId = new AtomicInteger(1);
+    private final Map<Integer, TimerWheel.Timeout> releaseTimers = new ConcurrentHashMap<>(); // Booking ID -> timer
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean matchScheduled = new AtomicBoolean();
+
+    /**
+     * Returns the waitlist, starting it on first use: the release timers of all bookings that have
+     * not ended yet are scheduled.
+     * @return The process-wide waitlist.
+     */
+    public static WalkInWaitlist getInstance() {
+        WalkInWaitlist waitlist = instance;
+        if (waitlist == null) {
+            synchronized (WalkInWaitlist.class) {
+                waitlist = instance;
+                if (waitlist == null) {
+                    waitlist = new WalkInWaitlist();
+                    instance = waitlist;
+                }
+            }
+        }
+        return waitlist;
+    }
+
+    /**
+     * @return The waitlist if it has been started, otherwise null; booking changes made before it
+     *         starts are picked up when it loads the bookings.
+     */
+    static WalkInWaitlist getIfStarted() {
+        return instance;
+    }
+
+    private WalkInWaitlist() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, LocalDateTime> booking : DatabaseManager.getBookingEndsAfter(now).entrySet()) {
+            scheduleRelease(booking.getKey(), booking.getValue());
+        }
+    }
+
+    // --- Front desk ---
+
+    /**
+     * Adds a walk-in party. It is seated right away if a table is free.
+     * @param customerId The user ID the walk-in bookings are made under (the front desk user).
+     * @param partyName Name to call the party by.
+     * @param phone Contact number.
+     * @param partySize Number of guests.
+     * @return The new entry; its status and estimate are updated shortly after.
+     */
+    public WaitlistEntry join(String customerId, String partyName, String phone, int partySize) {
+        WaitlistEntry entry = new WaitlistEntry(nextEntryId.getAndIncrement(), customerId, partyName, phone, partySize, LocalDateTime.now());
+        waiting.add(entry);
+        requestMatch();
+        return entry;
+    }
+
+    /**
+     * Removes a waiting party, e.g. because it left.
+     * @param entryId The entry ID.
+     * @return true if the party was waiting.
+     */
+    public boolean cancel(int entryId) {
+        for (WaitlistEntry entry : waiting) {
+            if (entry.getEntryId() == entryId && entry.getStatus() == WaitlistEntry.Status.WAITING) {
+                entry.setStatus(WaitlistEntry.Status.CANCELLED);
+                waiting.remove(entry);
+                requestMatch(); // Parties behind it move up
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The parties waiting for a table, in arrival order.
+     */
+    public List<WaitlistEntry> getWaiting() {
+        return new ArrayList<>(waiting);
+    }
+
+    /**
+     * Quotes the wait for a party that would join now, behind everyone already waiting.
+     * @param partySize Number of guests.
+     * @return The estimated wait in minutes (0 = a table is free now), or -1 if no table is expected
+     *         within the quote horizon.
+     */
+    public int estimateWaitMinutes(int partySize) {
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        TableSlotAllocator allocator = DatabaseManager.getTableSlotAllocator(now.toLocalDate());
+        for (WaitlistEntry entry : waiting) {
+            quote(allocator, now, entry.getPartySize());
+        }
+        return quote(allocator, now, partySize);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // --- Booking changes, called by DatabaseManager ---
+
+    /**
+     * Called after a booking was added or changed: (re)schedules its release and re-matches.
+     */
+    void onBookingSaved(TableBooking booking) {
+        if (booking.getBookingId() > 0) {
+            scheduleRelease(booking.getBookingId(), booking.getBookingTime().plusMinutes(booking.getDurationMinutes()));
+        }
+        requestMatch();
+    }
+
+    /**
+     * Called after a booking was deleted or expired as a no-show: its tables may be free now.
+     */
+    void onBookingReleased(int bookingId) {
+        TimerWheel.Timeout timer = releaseTimers.remove(bookingId);
+        if (timer != null) {
+            timer.cancel();
+        }
+        requestMatch();
+    }
+
+    // --- Matching (waitlist thread) ---
+
+    private void scheduleRelease(int bookingId, LocalDateTime end) {
+        if (!end.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        // Tables are tracked in whole slots, so a table becomes free at the end of the booking's last slot
+        long minutes = Duration.between(end.toLocalDate().atStartOfDay(), end).toMinutes();
+        long slotEnd = -Math.floorDiv(-minutes, TableSlotAllocator.SLOT_MINUTES) * TableSlotAllocator.SLOT_MINUTES;
+        TimerWheel.Timeout timer = wheel.schedule(end.toLocalDate().atStartOfDay().plusMinutes(slotEnd), () -> {
+            releaseTimers.remove(bookingId);
+            match();
+        });
+        TimerWheel.Timeout previous = releaseTimers.put(bookingId, timer);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Schedules one matching run on the waitlist thread; further requests before it runs are merged.
+     */
+    private void requestMatch() {
+        if (matchScheduled.compareAndSet(false, true)) {
+            wheel.schedule(System.currentTimeMillis(), this::match);
+        }
+    }
+
+    private void match() {
+        matchScheduled.set(false);
+        if (waiting.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        TableSlotAllocator allocator = DatabaseManager.getTableSlotAllocator(now.toLocalDate());
+        List<WaitlistEntry> seated = new ArrayList<>();
+        for (Iterator<WaitlistEntry> it = waiting.iterator(); it.hasNext(); ) {
+            WaitlistEntry entry = it.next();
+            if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+                it.remove();
+                continue;
+            }
+            int[] tables = findTables(allocator, now, entry.getPartySize());
+            if (tables != null && seat(entry, tables, now)) {
+                for (int table : tables) {
+                    allocator.markBooked(table, now, STAY_MINUTES);
+                }
+                it.remove();
+                seated.add(entry);
+            }
+        }
+        for (WaitlistEntry entry : waiting) {
+            entry.setEstimatedWaitMinutes(quote(allocator, now, entry.getPartySize()));
+        }
+
+        List<WaitlistEntry> snapshot = getWaiting();
+        for (Listener listener : listeners) {
+            for (WaitlistEntry entry : seated) {
+                listener.onTableReady(entry);
+            }
+            listener.onWaitlistChanged(snapshot);
+        }
+    }
+
+    private boolean seat(WaitlistEntry entry, int[] tables, LocalDateTime now) {
+        List<TableBooking> bookings = TableBooking.forParty(DatabaseManager.getFloorPlan(), tables, entry.getCustomerId(), entry.getPartyName(), entry.getPhone(),
+                entry.getPartySize(), now, STAY_MINUTES, 0);
+        for (TableBooking booking : bookings) {
+            booking.setPaymentStatus(PaymentStatus.PAID); // Nothing to pay up front; the party is here
+        }
+        boolean added = bookings.size() == 1 ? DatabaseManager.addTableBooking(bookings.get(0)) : DatabaseManager.addTableBookings(bookings);
+        if (added) {
+            entry.setTableNumbers(tables);
+            entry.setEstimatedWaitMinutes(0);
+            entry.setStatus(WaitlistEntry.Status.TABLE_READY);
+        }
+        return added;
+    }
+
+    /**
+     * Finds the earliest slot with room for a party, and reserves it in the allocator so parties
+     * quoted afterwards queue behind it.
+     * @return Minutes from now, or -1 if there is no room within the quote horizon.
+     */
+    private static int quote(TableSlotAllocator allocator, LocalDateTime now, int partySize) {
+        int minutesIntoSlot = now.getMinute() % TableSlotAllocator.SLOT_MINUTES;
+        for (int wait = 0; wait <= QUOTE_HORIZON_MINUTES; ) {
+            LocalDateTime start = now.plusMinutes(wait);
+            int[] tables = findTables(allocator, start, partySize);
+            if (tables != null) {
+                for (int table : tables) {
+                    allocator.markBooked(table, start, STAY_MINUTES);
+                }
+                return wait;
+            }
+            // Availability only changes at slot boundaries
+            wait += wait == 0 && minutesIntoSlot > 0 ? TableSlotAllocator.SLOT_MINUTES - minutesIntoSlot : TableSlotAllocator.SLOT_MINUTES;
+        }
+        return -1;
+    }
+
+    private static int[] findTables(TableSlotAllocator allocator, LocalDateTime start, int partySize) {
+        int table = allocator.findBestFit(start, STAY_MINUTES, partySize);
+        return table >= 0 ? new int[] {table} : allocator.findCombination(start, STAY_MINUTES, partySize);
+    }
+}
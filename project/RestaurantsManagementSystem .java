@@ -1,5 +1,6 @@
 import java.util.*;
 import java.time.LocalDate; // For potential daily sales report timestamp
+import java.time.LocalDateTime;
 
 public class RestaurantsManagementSystem {
 
@@ -8,6 +9,7 @@ public class RestaurantsManagementSystem {
     private static final String DISCOUNT_COUPON_CODE = "SHEILD2004";
     private static final double DISCOUNT_AMOUNT = 100.00;
     private static final double DISCOUNT_MIN_ORDER_PRICE = 500.00;
+    private static final int UNPAID_BOOKING_GRACE_MINUTES = 15; // Unpaid bookings are released after this
 
     // --- Nested Classes (already well-defined, minor tweaks) ---
     static class MenuItem {
@@ -97,6 +99,7 @@ public class RestaurantsManagementSystem {
         String paymentStatus = "pending";
         double bookingFee;
         LocalDate bookingDate; // Added for potential future enhancements (e.g., date-specific reports)
+        LocalDateTime bookedAt; // When the table was reserved; unpaid bookings expire relative to this
 
         public TableBooking(String tableType, int tableNumber, String customerName, String phone, int seats, String customerId, double bookingFee) {
             this.tableType = tableType;
@@ -107,6 +110,7 @@ public class RestaurantsManagementSystem {
             this.customerId = customerId;
             this.bookingFee = bookingFee;
             this.bookingDate = LocalDate.now(); // Set current date
+            this.bookedAt = LocalDateTime.now();
         }
 
         public void display() {
@@ -400,6 +404,7 @@ public class RestaurantsManagementSystem {
     public static void adminAccess(Scanner s) {
         boolean running = true;
         while (running) {
+            expireUnclaimedBookings();
             System.out.println("\n--- Admin Menu ---");
             System.out.println("1. View Menu Items");
             System.out.println("2. Add New Menu Item");
@@ -510,6 +515,7 @@ public class RestaurantsManagementSystem {
 
     public static void customerAccess(Scanner s) {
         while (true) {
+            expireUnclaimedBookings();
             System.out.println("\n--- Customer Menu ---");
             System.out.println("1. View Menu");
             System.out.println("2. Add Items to Cart (comma-separated IDs)");
@@ -683,7 +689,18 @@ public class RestaurantsManagementSystem {
             tableArr = tables10;
             bookingFee = 500.00;
         } else {
-            System.out.println("We do not have tables for more than 10 people. Please consider multiple bookings.");
+            // No single table is large enough: push neighbouring tables together
+            List<TableBooking> party = reserveCombinedTables(people, name, phone);
+            if (party == null) {
+                System.out.println("Sorry, no neighbouring free tables can seat " + people + " people at the moment.");
+                return;
+            }
+            allBookings.addAll(party);
+            System.out.println("Tables booked successfully! Your party is seated at " + party.size() + " combined tables.");
+            for (TableBooking booking : party) {
+                booking.display();
+            }
+            confirmBookingPayment(party, s);
             return;
         }
 
@@ -706,7 +723,101 @@ public class RestaurantsManagementSystem {
         allBookings.add(booking); // Add to the master list of all bookings
         System.out.println("Table booked successfully!");
         booking.display(); // Show booking details
+        confirmBookingPayment(Collections.singletonList(booking), s);
+    }
 
+    /**
+     * Cancels unpaid bookings older than the grace period and frees their tables. Checked each time
+     * a menu is shown, since the console has no background threads.
+     */
+    static void expireUnclaimedBookings() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(UNPAID_BOOKING_GRACE_MINUTES);
+        for (TableBooking booking : allBookings) {
+            if (booking.paymentStatus.equals("pending") && booking.bookedAt.isBefore(cutoff)) {
+                booking.paymentStatus = "expired";
+                boolean[] tableArr = tableArrayFor(booking.tableType);
+                if (tableArr != null && booking.tableNumber >= 1 && booking.tableNumber <= tableArr.length) {
+                    tableArr[booking.tableNumber - 1] = false; // Table is free again
+                }
+                System.out.println("Unpaid booking of " + booking.customerName + " (" + booking.tableType + " #" + booking.tableNumber + ") has expired.");
+            }
+        }
+    }
+
+    /**
+     * @param tableType "Table2" ... "Table10".
+     * @return The availability array for that table size, or null if unknown.
+     */
+    static boolean[] tableArrayFor(String tableType) {
+        switch (tableType) {
+            case "Table2": return tables2;
+            case "Table4": return tables4;
+            case "Table6": return tables6;
+            case "Table8": return tables8;
+            case "Table10": return tables10;
+            default: return null;
+        }
+    }
+
+    /**
+     * Seats a party larger than any table at consecutive free tables of one size (tables with
+     * neighbouring numbers stand next to each other). Every table size is tried with the fewest
+     * tables that seat the party; the option using the fewest tables wins, then the one wasting
+     * the fewest seats. The chosen tables are marked as booked.
+     * @return One booking per table, all with the same customer ID, or null if no run of free tables is long enough.
+     */
+    static List<TableBooking> reserveCombinedTables(int people, String name, String phone) {
+        boolean[][] arrays = {tables10, tables8, tables6, tables4, tables2};
+        int[] sizes = {10, 8, 6, 4, 2};
+        double[] fees = {500.00, 400.00, 300.00, 200.00, 100.00};
+        int bestArray = -1;
+        int bestStart = -1;
+        int bestCount = 0;
+        int bestWaste = Integer.MAX_VALUE;
+        for (int a = 0; a < arrays.length; a++) {
+            int count = (people + sizes[a] - 1) / sizes[a];
+            int waste = count * sizes[a] - people;
+            if (bestArray >= 0 && (count > bestCount || (count == bestCount && waste >= bestWaste))) {
+                continue; // Cannot beat the option already found
+            }
+            int run = 0;
+            for (int i = 0; i < arrays[a].length; i++) {
+                run = arrays[a][i] ? 0 : run + 1;
+                if (run == count) {
+                    bestArray = a;
+                    bestStart = i - count + 1;
+                    bestCount = count;
+                    bestWaste = waste;
+                    break;
+                }
+            }
+        }
+        if (bestArray < 0) {
+            return null;
+        }
+
+        String custId = "CUST" + customerIdCounter++;
+        List<TableBooking> party = new ArrayList<>();
+        int guestsLeft = people;
+        for (int i = bestStart; i < bestStart + bestCount; i++) {
+            arrays[bestArray][i] = true; // Book it
+            int seats = Math.min(guestsLeft, sizes[bestArray]);
+            guestsLeft -= seats;
+            party.add(new TableBooking("Table" + sizes[bestArray], i + 1, name, phone, seats, custId, fees[bestArray]));
+        }
+        return party;
+    }
+
+    /**
+     * Asks for the booking fee of one party, which may be spread over several tables.
+     * @param party The bookings of the party; all are marked paid together.
+     * @param s The scanner for user input.
+     */
+    static void confirmBookingPayment(List<TableBooking> party, Scanner s) {
+        double bookingFee = 0;
+        for (TableBooking booking : party) {
+            bookingFee += booking.bookingFee;
+        }
         System.out.print("Confirm payment for booking fee (Rs." + String.format("%.2f", bookingFee) + ")? (yes/no): ");
         String confirmPayment = s.nextLine().trim().toLowerCase(); // Use nextLine()
         if (confirmPayment.equals("yes")) {
@@ -715,7 +826,9 @@ public class RestaurantsManagementSystem {
             try {
                 paid = Double.parseDouble(s.nextLine());
                 if (paid >= bookingFee) { // Allow overpayment with change
-                    booking.paymentStatus = "paid";
+                    for (TableBooking booking : party) {
+                        booking.paymentStatus = "paid";
+                    }
                     System.out.println("Booking fee confirmed and paid!");
                     if (paid > bookingFee) {
                         System.out.println("Change due: Rs." + String.format("%.2f", (paid - bookingFee)));
@@ -727,7 +840,7 @@ public class RestaurantsManagementSystem {
                 System.out.println("Invalid amount format. Booking not paid. Please pay at the counter.");
             }
         } else {
-            System.out.println("Booking fee not paid upfront. Please pay at the counter upon arrival. Note: Unpaid bookings may be cancelled if not claimed.");
+            System.out.println("Booking fee not paid upfront. Please pay at the counter upon arrival. Note: Unpaid bookings are cancelled if not claimed within " + UNPAID_BOOKING_GRACE_MINUTES + " minutes.");
         }
     }
 